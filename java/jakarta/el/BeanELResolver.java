@@ -21,40 +21,38 @@ import java.beans.FeatureDescriptor;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.WeakHashMap;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Standard ELResolver for working with JavaBeans.
  */
 public class BeanELResolver extends ELResolver {
 
-    private static final int CACHE_SIZE;
-    private static final String CACHE_SIZE_PROP = "org.apache.el.BeanELResolver.CACHE_SIZE";
+    private static final MethodType READ_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType WRITE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
 
-    static {
-        if (System.getSecurityManager() == null) {
-            CACHE_SIZE = Integer.getInteger(CACHE_SIZE_PROP, 1000).intValue();
-        } else {
-            CACHE_SIZE = AccessController
-                    .doPrivileged((PrivilegedAction<Integer>) () -> Integer.getInteger(CACHE_SIZE_PROP, 1000))
-                    .intValue();
+    /*
+     * The properties are stored with the class they describe so they are
+     * available without any locking and are released along with the class.
+     */
+    private static final ClassValue<BeanProperties> PROPERTIES = new ClassValue<>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> type) {
+            return new BeanProperties(type);
         }
-    }
+    };
 
     private final boolean readOnly;
 
-    private final ConcurrentCache<String,BeanProperties> cache = new ConcurrentCache<>(CACHE_SIZE);
-
     /**
      * Creates a writable instance of the standard JavaBean resolver.
      */
@@ -96,9 +94,20 @@ public class BeanELResolver extends ELResolver {
         }
 
         context.setPropertyResolved(base, property);
-        Method m = this.property(context, base, property).read(context, base);
+        BeanProperty beanProperty = this.property(context, base, property);
+        Accessor accessor = beanProperty.read(context, base);
+        MethodHandle mh = accessor.handle;
+        if (mh != null) {
+            try {
+                return mh.invokeExact(base);
+            } catch (Throwable t) {
+                Util.handleThrowable(t);
+                throw new ELException(
+                        Util.message(context, "propertyReadError", base.getClass().getName(), property.toString()), t);
+            }
+        }
         try {
-            return m.invoke(base, (Object[]) null);
+            return accessor.method.invoke(base, (Object[]) null);
         } catch (InvocationTargetException e) {
             Throwable cause = e.getCause();
             Util.handleThrowable(cause);
@@ -123,9 +132,23 @@ public class BeanELResolver extends ELResolver {
                     Util.message(context, "resolverNotWritable", base.getClass().getName()));
         }
 
-        Method m = this.property(context, base, property).write(context, base);
+        BeanProperty beanProperty = this.property(context, base, property);
+        Accessor accessor = beanProperty.write(context, base);
+        MethodHandle mh = accessor.handle;
+        // Let reflection handle any conversion of the value (or the lack of one)
+        if (mh != null && (value == null ? !accessor.type.isPrimitive() :
+                Util.isAssignableFrom(value.getClass(), accessor.type))) {
+            try {
+                mh.invokeExact(base, value);
+                return;
+            } catch (Throwable t) {
+                Util.handleThrowable(t);
+                throw new ELException(
+                        Util.message(context, "propertyWriteError", base.getClass().getName(), property.toString()), t);
+            }
+        }
         try {
-            m.invoke(base, value);
+            accessor.method.invoke(base, value);
         } catch (InvocationTargetException e) {
             Throwable cause = e.getCause();
             Util.handleThrowable(cause);
@@ -262,10 +285,6 @@ public class BeanELResolver extends ELResolver {
             }
             return property;
         }
-
-        private Class<?> getType() {
-            return type;
-        }
     }
 
     static final class BeanProperty {
@@ -275,9 +294,14 @@ public class BeanELResolver extends ELResolver {
 
         private final PropertyDescriptor descriptor;
 
-        private Method read;
+        /*
+         * The accessors are created lazily and may be created by several
+         * threads at once. Each is immutable and published via a single
+         * volatile field so a thread always sees a complete accessor.
+         */
+        private volatile Accessor read;
 
-        private Method write;
+        private volatile Accessor write;
 
         BeanProperty(Class<?> owner, PropertyDescriptor descriptor) {
             this.owner = owner;
@@ -290,80 +314,77 @@ public class BeanELResolver extends ELResolver {
         }
 
         public boolean isReadOnly(Object base) {
-            return this.write == null &&
-                    (null == (this.write = Util.getMethod(this.owner, base, descriptor.getWriteMethod())));
+            return this.write == null && findWrite(base) == null;
         }
 
-        private Method write(ELContext ctx, Object base) {
-            if (this.write == null) {
-                this.write = Util.getMethod(this.owner, base, descriptor.getWriteMethod());
-                if (this.write == null) {
+        private Accessor write(ELContext ctx, Object base) {
+            Accessor result = this.write;
+            if (result == null) {
+                result = findWrite(base);
+                if (result == null) {
                     throw new PropertyNotWritableException(Util.message(ctx, "propertyNotWritable",
                             new Object[] { owner.getName(), descriptor.getName() }));
                 }
             }
-            return this.write;
+            return result;
         }
 
-        private Method read(ELContext ctx, Object base) {
-            if (this.read == null) {
-                this.read = Util.getMethod(this.owner, base, descriptor.getReadMethod());
-                if (this.read == null) {
+        private Accessor read(ELContext ctx, Object base) {
+            Accessor result = this.read;
+            if (result == null) {
+                Method m = Util.getMethod(this.owner, base, descriptor.getReadMethod());
+                if (m == null) {
                     throw new PropertyNotFoundException(Util.message(ctx, "propertyNotReadable",
                             new Object[] { owner.getName(), descriptor.getName() }));
                 }
+                result = new Accessor(m, unreflect(m, READ_TYPE), m.getReturnType());
+                this.read = result;
             }
-            return this.read;
+            return result;
         }
-    }
 
-    private BeanProperty property(ELContext ctx, Object base, Object property) {
-        Class<?> type = base.getClass();
-        String prop = property.toString();
-
-        BeanProperties props = this.cache.get(type.getName());
-        if (props == null || type != props.getType()) {
-            props = new BeanProperties(type);
-            this.cache.put(type.getName(), props);
+        private Accessor findWrite(Object base) {
+            Method m = Util.getMethod(this.owner, base, descriptor.getWriteMethod());
+            if (m == null) {
+                return null;
+            }
+            Accessor result = new Accessor(m, unreflect(m, WRITE_TYPE), m.getParameterTypes()[0]);
+            this.write = result;
+            return result;
         }
 
-        return props.get(ctx, prop);
+        /*
+         * Returns null if the method cannot be accessed via a method handle in
+         * which case the caller uses reflection.
+         */
+        private static MethodHandle unreflect(Method m, MethodType type) {
+            try {
+                return MethodHandles.publicLookup().unreflect(m).asType(type);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
     }
 
-    private static final class ConcurrentCache<K, V> {
-
-        private final int size;
-        private final Map<K,V> eden;
-        private final Map<K,V> longterm;
+    /*
+     * An immutable accessor for a bean property. The method handle is null if
+     * the method has to be invoked via reflection.
+     */
+    private static final class Accessor {
+        private final Method method;
 
-        ConcurrentCache(int size) {
-            this.size = size;
-            this.eden = new ConcurrentHashMap<>(size);
-            this.longterm = new WeakHashMap<>(size);
-        }
+        private final MethodHandle handle;
 
-        public V get(K key) {
-            V value = this.eden.get(key);
-            if (value == null) {
-                synchronized (longterm) {
-                    value = this.longterm.get(key);
-                }
-                if (value != null) {
-                    this.eden.put(key, value);
-                }
-            }
-            return value;
-        }
+        private final Class<?> type;
 
-        public void put(K key, V value) {
-            if (this.eden.size() >= this.size) {
-                synchronized (longterm) {
-                    this.longterm.putAll(this.eden);
-                }
-                this.eden.clear();
-            }
-            this.eden.put(key, value);
+        Accessor(Method method, MethodHandle handle, Class<?> type) {
+            this.method = method;
+            this.handle = handle;
+            this.type = type;
         }
+    }
 
+    private BeanProperty property(ELContext ctx, Object base, Object property) {
+        return PROPERTIES.get(base.getClass()).get(ctx, property.toString());
     }
 }
@@ -1266,6 +1266,16 @@ public interface Context extends Container, ContextBind {
     void removeConstraint(SecurityConstraint constraint);
 
 
+    /**
+     * Remove all security constraints from this web application.
+     */
+    default void removeConstraints() {
+        for (SecurityConstraint constraint : findConstraints()) {
+            removeConstraint(constraint);
+        }
+    }
+
+
     /**
      * Remove the error page for the specified error code or
      * Java language exception, if it exists; otherwise, no action is taken.
@@ -1326,6 +1336,16 @@ public interface Context extends Container, ContextBind {
     void removeSecurityRole(String role);
 
 
+    /**
+     * Remove all security roles from this web application.
+     */
+    default void removeSecurityRoles() {
+        for (String role : findSecurityRoles()) {
+            removeSecurityRole(role);
+        }
+    }
+
+
     /**
      * Remove any servlet mapping for the specified pattern, if it exists;
      * otherwise, no action is taken.
@@ -66,6 +66,15 @@ public final class Globals {
     public static final String PARAMETER_PARSE_FAILED_REASON_ATTR = "org.apache.catalina.parameter_parse_failed_reason";
 
 
+    /**
+     * The request attribute that exposes, as a {@code Long}, the time in
+     * nanoseconds the processing of the request waited for a thread from the
+     * connector's executor before it started. The attribute is not set if
+     * this time is not known.
+     */
+    public static final String QUEUE_TIME_ATTR = "org.apache.catalina.queue_time";
+
+
     /**
      * The request attribute set by the RemoteIpFilter, RemoteIpValve (and may
      * be set by other similar components) that identifies for the connector the
@@ -486,16 +486,19 @@ public interface WebResourceRoot extends Lifecycle {
     }
 
     enum ArchiveIndexStrategy {
-        SIMPLE(false, false),
-        BLOOM(true, true),
-        PURGED(true, false);
+        SIMPLE(false, false, false),
+        BLOOM(true, true, false),
+        PURGED(true, false, false),
+        INDEXED(false, false, true);
 
         private final boolean usesBloom;
         private final boolean retain;
+        private final boolean usesIndex;
 
-        ArchiveIndexStrategy(boolean usesBloom, boolean retain) {
+        ArchiveIndexStrategy(boolean usesBloom, boolean retain, boolean usesIndex) {
             this.usesBloom = usesBloom;
             this.retain = retain;
+            this.usesIndex = usesIndex;
         }
 
         public boolean getUsesBloom() {
@@ -505,6 +508,15 @@ public interface WebResourceRoot extends Lifecycle {
         public boolean getRetain() {
             return retain;
         }
+
+        /**
+         * @return {@code true} if the root should maintain an index of the
+         *         directories in each archive so that lookups only check the
+         *         archives that may contain the requested resource
+         */
+        public boolean getUsesIndex() {
+            return usesIndex;
+        }
     }
 
     /**
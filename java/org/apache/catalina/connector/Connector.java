@@ -33,6 +33,7 @@ import org.apache.catalina.core.AprStatus;
 import org.apache.catalina.util.LifecycleMBeanBase;
 import org.apache.coyote.AbstractProtocol;
 import org.apache.coyote.Adapter;
+import org.apache.coyote.ConcurrencyLimiter;
 import org.apache.coyote.ProtocolHandler;
 import org.apache.coyote.UpgradeProtocol;
 import org.apache.coyote.http11.AbstractHttp11JsseProtocol;
@@ -865,6 +866,23 @@ public class Connector extends LifecycleMBeanBase {
     }
 
 
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        if (protocolHandler instanceof AbstractProtocol<?>) {
+            ((AbstractProtocol<?>) protocolHandler).setConcurrencyLimiter(concurrencyLimiter);
+        } else {
+            log.warn(sm.getString("coyoteConnector.concurrencyLimiterNotSupported", getProtocolHandlerClassName()));
+        }
+    }
+
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        if (protocolHandler instanceof AbstractProtocol<?>) {
+            return ((AbstractProtocol<?>) protocolHandler).getConcurrencyLimiter();
+        }
+        return null;
+    }
+
+
     public String getEncodedSolidusHandling() {
         return encodedSolidusHandling.getValue();
     }
@@ -18,13 +18,16 @@ package org.apache.catalina.connector;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+import org.apache.tomcat.EncodedTextWriter;
 
 /**
  * Coyote implementation of the servlet writer.
  *
  * @author Remy Maucherat
  */
-public class CoyoteWriter extends PrintWriter {
+public class CoyoteWriter extends PrintWriter implements EncodedTextWriter {
 
 
     // -------------------------------------------------------------- Constants
@@ -180,6 +183,32 @@ public class CoyoteWriter extends PrintWriter {
     }
 
 
+    // ---------------------------------------------- EncodedTextWriter Methods
+
+
+    @Override
+    public Charset getCharset() {
+        return ob.getCharset();
+    }
+
+
+    @Override
+    public boolean writeEncoded(byte[] b, int off, int len) {
+
+        if (error) {
+            return true;
+        }
+
+        try {
+            return ob.writeEncoded(b, off, len);
+        } catch (IOException e) {
+            error = true;
+        }
+        return true;
+
+    }
+
+
     // ---------------------------------------------------- PrintWriter Methods
 
 
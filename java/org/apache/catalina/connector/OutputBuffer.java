@@ -423,6 +423,41 @@ public class OutputBuffer extends Writer {
     }
 
 
+    /**
+     * Write text that has already been encoded using the character set used
+     * by this buffer to convert characters to bytes. Any buffered characters
+     * are converted before the given bytes are written.
+     *
+     * @param b   The encoded text
+     * @param off The offset of the encoded text in the array
+     * @param len The length of the encoded text
+     *
+     * @return {@code true} if the bytes were written or {@code false} if the
+     *             text must be written as characters to preserve the output
+     *             (the converter is not initialised or is part way through a
+     *             surrogate pair)
+     *
+     * @throws IOException An underlying IOException occurred
+     */
+    public boolean writeEncoded(byte b[], int off, int len) throws IOException {
+
+        if (suspended) {
+            return true;
+        }
+
+        if (conv == null || conv.isUndeflow()) {
+            return false;
+        }
+
+        if (cb.remaining() > 0) {
+            flushCharBuffer();
+        }
+        writeBytes(b, off, len);
+        return true;
+
+    }
+
+
     // ------------------------------------------------- Chars Handling Methods
 
 
@@ -542,6 +577,18 @@ public class OutputBuffer extends Writer {
     }
 
 
+    /**
+     * @return the character set used to convert characters to bytes or
+     *             {@code null} if the converter has not yet been initialised
+     */
+    public Charset getCharset() {
+        if (conv == null) {
+            return null;
+        }
+        return conv.getCharset();
+    }
+
+
     public void checkConverter() throws IOException {
         if (conv != null) {
             return;
@@ -3420,6 +3420,21 @@ public class Request implements HttpServletRequest {
                 // NO-OP
             }
         });
+        specialAttributes.put(Globals.QUEUE_TIME_ATTR, new SpecialAttributeAdapter() {
+            @Override
+            public Object get(Request request, String name) {
+                long queueTimeNanos = request.getCoyoteRequest().getQueueTimeNanos();
+                if (queueTimeNanos < 0) {
+                    return null;
+                }
+                return Long.valueOf(queueTimeNanos);
+            }
+
+            @Override
+            public void set(Request request, String name, Object value) {
+                // NO-OP
+            }
+        });
         specialAttributes.put(Globals.SENDFILE_SUPPORTED_ATTR, new SpecialAttributeAdapter() {
             @Override
             public Object get(Request request, String name) {
@@ -265,6 +265,25 @@ public final class ApplicationFilterChain implements FilterChain {
     }
 
 
+    /**
+     * Set the filters that will be executed in this chain, replacing any filters already added.
+     *
+     * @param filterConfigs The filters to execute. The caller is responsible for ensuring there are no duplicates.
+     */
+    void setFilters(ApplicationFilterConfig[] filterConfigs) {
+        int count = filterConfigs.length;
+        if (count > filters.length) {
+            filters = new ApplicationFilterConfig[count];
+        } else {
+            for (int i = count; i < n; i++) {
+                filters[i] = null;
+            }
+        }
+        System.arraycopy(filterConfigs, 0, filters, 0, count);
+        n = count;
+    }
+
+
     /**
      * Release references to the filters and wrapper executed by this chain.
      */
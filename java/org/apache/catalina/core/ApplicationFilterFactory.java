@@ -23,7 +23,6 @@ import jakarta.servlet.ServletRequest;
 import org.apache.catalina.Globals;
 import org.apache.catalina.Wrapper;
 import org.apache.catalina.connector.Request;
-import org.apache.tomcat.util.descriptor.web.FilterMap;
 
 /**
  * Factory for the creation and caching of Filters and creation of Filter Chains.
@@ -79,10 +78,10 @@ public final class ApplicationFilterFactory {
         // Acquire the filter mappings for this Context
         StandardContext context = (StandardContext) wrapper.getParent();
         filterChain.setDispatcherWrapsSameObject(context.getDispatcherWrapsSameObject());
-        FilterMap filterMaps[] = context.findFilterMaps();
+        FilterMapIndex filterMapIndex = context.getFilterMapIndex();
 
         // If there are no filter mappings, we are done
-        if (filterMaps == null || filterMaps.length == 0) {
+        if (filterMapIndex.isEmpty()) {
             return filterChain;
         }
 
@@ -97,191 +96,10 @@ public final class ApplicationFilterFactory {
 
         String servletName = wrapper.getName();
 
-        // Add the relevant path-mapped filters to this filter chain
-        for (FilterMap filterMap : filterMaps) {
-            if (!matchDispatcher(filterMap, dispatcher)) {
-                continue;
-            }
-            if (!matchFiltersURL(filterMap, requestPath)) {
-                continue;
-            }
-            ApplicationFilterConfig filterConfig =
-                    (ApplicationFilterConfig) context.findFilterConfig(filterMap.getFilterName());
-            if (filterConfig == null) {
-                // FIXME - log configuration problem
-                continue;
-            }
-            filterChain.addFilter(filterConfig);
-        }
-
-        // Add filters that match on servlet name second
-        for (FilterMap filterMap : filterMaps) {
-            if (!matchDispatcher(filterMap, dispatcher)) {
-                continue;
-            }
-            if (!matchFiltersServlet(filterMap, servletName)) {
-                continue;
-            }
-            ApplicationFilterConfig filterConfig =
-                    (ApplicationFilterConfig) context.findFilterConfig(filterMap.getFilterName());
-            if (filterConfig == null) {
-                // FIXME - log configuration problem
-                continue;
-            }
-            filterChain.addFilter(filterConfig);
-        }
+        // Path-mapped filters followed by filters that match on servlet name
+        filterChain.setFilters(filterMapIndex.getFilters(dispatcher, requestPath, servletName));
 
         // Return the completed filter chain
         return filterChain;
     }
-
-
-    // -------------------------------------------------------- Private Methods
-
-
-    /**
-     * Return <code>true</code> if the context-relative request path matches the requirements of the specified filter
-     * mapping; otherwise, return <code>false</code>.
-     *
-     * @param filterMap   Filter mapping being checked
-     * @param requestPath Context-relative request path of this request
-     */
-    private static boolean matchFiltersURL(FilterMap filterMap, String requestPath) {
-
-        // Check the specific "*" special URL pattern, which also matches
-        // named dispatches
-        if (filterMap.getMatchAllUrlPatterns()) {
-            return true;
-        }
-
-        if (requestPath == null) {
-            return false;
-        }
-
-        // Match on context relative request path
-        String[] testPaths = filterMap.getURLPatterns();
-
-        for (String testPath : testPaths) {
-            if (matchFiltersURL(testPath, requestPath)) {
-                return true;
-            }
-        }
-
-        // No match
-        return false;
-
-    }
-
-
-    /**
-     * Return <code>true</code> if the context-relative request path matches the requirements of the specified filter
-     * mapping; otherwise, return <code>false</code>.
-     *
-     * @param testPath    URL mapping being checked
-     * @param requestPath Context-relative request path of this request
-     */
-    private static boolean matchFiltersURL(String testPath, String requestPath) {
-
-        if (testPath == null) {
-            return false;
-        }
-
-        // Case 1 - Exact Match
-        if (testPath.equals(requestPath)) {
-            return true;
-        }
-
-        // Case 2 - Path Match ("/.../*")
-        if (testPath.equals("/*")) {
-            return true;
-        }
-        if (testPath.endsWith("/*")) {
-            if (testPath.regionMatches(0, requestPath, 0, testPath.length() - 2)) {
-                if (requestPath.length() == (testPath.length() - 2)) {
-                    return true;
-                } else if ('/' == requestPath.charAt(testPath.length() - 2)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        // Case 3 - Extension Match
-        if (testPath.startsWith("*.")) {
-            int slash = requestPath.lastIndexOf('/');
-            int period = requestPath.lastIndexOf('.');
-            if ((slash >= 0) && (period > slash) && (period != requestPath.length() - 1) &&
-                    ((requestPath.length() - period) == (testPath.length() - 1))) {
-                return testPath.regionMatches(2, requestPath, period + 1, testPath.length() - 2);
-            }
-        }
-
-        // Case 4 - "Default" Match
-        return false; // NOTE - Not relevant for selecting filters
-
-    }
-
-
-    /**
-     * Return <code>true</code> if the specified servlet name matches the requirements of the specified filter mapping;
-     * otherwise return <code>false</code>.
-     *
-     * @param filterMap   Filter mapping being checked
-     * @param servletName Servlet name being checked
-     */
-    private static boolean matchFiltersServlet(FilterMap filterMap, String servletName) {
-
-        if (servletName == null) {
-            return false;
-        }
-        // Check the specific "*" special servlet name
-        else if (filterMap.getMatchAllServletNames()) {
-            return true;
-        } else {
-            String[] servletNames = filterMap.getServletNames();
-            for (String name : servletNames) {
-                if (servletName.equals(name)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-    }
-
-
-    /**
-     * Convenience method which returns true if the dispatcher type matches the dispatcher types specified in the
-     * FilterMap
-     */
-    private static boolean matchDispatcher(FilterMap filterMap, DispatcherType type) {
-        switch (type) {
-            case FORWARD:
-                if ((filterMap.getDispatcherMapping() & FilterMap.FORWARD) != 0) {
-                    return true;
-                }
-                break;
-            case INCLUDE:
-                if ((filterMap.getDispatcherMapping() & FilterMap.INCLUDE) != 0) {
-                    return true;
-                }
-                break;
-            case REQUEST:
-                if ((filterMap.getDispatcherMapping() & FilterMap.REQUEST) != 0) {
-                    return true;
-                }
-                break;
-            case ERROR:
-                if ((filterMap.getDispatcherMapping() & FilterMap.ERROR) != 0) {
-                    return true;
-                }
-                break;
-            case ASYNC:
-                if ((filterMap.getDispatcherMapping() & FilterMap.ASYNC) != 0) {
-                    return true;
-                }
-                break;
-        }
-        return false;
-    }
 }
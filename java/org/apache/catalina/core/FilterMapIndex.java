@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import jakarta.servlet.DispatcherType;
+
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+/**
+ * The filter mappings of a {@link StandardContext} compiled into a form that
+ * allows the filters for a request to be determined without checking every URL
+ * pattern of every mapping.
+ * <p>
+ * The URL patterns are indexed by type (exact, path prefix and extension) so
+ * the mappings that match a request path are found with a few hash lookups.
+ * The set of matching mappings identifies the class of paths the request path
+ * belongs to. The filters for each combination of dispatcher type, servlet
+ * name and path class are calculated once and cached, so creating a filter
+ * chain is usually an array copy.
+ * <p>
+ * An index is immutable, apart from the cache of filter arrays, and is
+ * replaced by the context whenever the filter mappings or the filter
+ * configurations change. The matching rules are the same as those previously
+ * implemented by {@link ApplicationFilterFactory}.
+ */
+final class FilterMapIndex {
+
+    static final int CACHE_MAX_SIZE = 1000;
+
+    private static final ApplicationFilterConfig[] NO_FILTERS = new ApplicationFilterConfig[0];
+
+    private final FilterMap[] filterMaps;
+    private final ApplicationFilterConfig[] filterConfigs;
+
+    /*
+     * Mappings that match every request, including named dispatches, (the "*"
+     * pattern) and mappings that match every request that has a path ("/*").
+     */
+    private final BitSet matchAll = new BitSet();
+    private final BitSet matchAllPaths = new BitSet();
+
+    private final Map<String,BitSet> exact = new HashMap<>();
+    private final Map<String,BitSet> prefix = new HashMap<>();
+    private final Map<String,BitSet> extension = new HashMap<>();
+
+    private final ConcurrentMap<Key,ApplicationFilterConfig[]> cache = new ConcurrentHashMap<>();
+
+
+    /**
+     * Compile the filter mappings.
+     *
+     * @param filterMaps       The filter mappings in the order they must be
+     *                             applied
+     * @param findFilterConfig Provides the configuration for a filter name.
+     *                             Mappings for filters without a
+     *                             configuration are ignored.
+     */
+    FilterMapIndex(FilterMap[] filterMaps, Function<String,ApplicationFilterConfig> findFilterConfig) {
+        this.filterMaps = filterMaps;
+        this.filterConfigs = new ApplicationFilterConfig[filterMaps.length];
+
+        for (int i = 0; i < filterMaps.length; i++) {
+            FilterMap filterMap = filterMaps[i];
+            filterConfigs[i] = findFilterConfig.apply(filterMap.getFilterName());
+
+            if (filterMap.getMatchAllUrlPatterns()) {
+                matchAll.set(i);
+                continue;
+            }
+            for (String urlPattern : filterMap.getURLPatterns()) {
+                if (urlPattern == null) {
+                    continue;
+                }
+                // An exact match is checked for every pattern
+                add(exact, urlPattern, i);
+                if (urlPattern.equals("/*")) {
+                    matchAllPaths.set(i);
+                } else if (urlPattern.endsWith("/*")) {
+                    add(prefix, urlPattern.substring(0, urlPattern.length() - 2), i);
+                } else if (urlPattern.startsWith("*.")) {
+                    add(extension, urlPattern.substring(2), i);
+                }
+            }
+        }
+    }
+
+
+    boolean isEmpty() {
+        return filterMaps.length == 0;
+    }
+
+
+    /**
+     * Obtain the filters to apply to a request.
+     *
+     * @param dispatcher  The dispatcher type of the request
+     * @param requestPath The context relative path of the request or
+     *                        {@code null} for a named dispatch
+     * @param servletName The name of the target servlet
+     *
+     * @return The filters in the order they should be applied. The array must
+     *             not be modified.
+     */
+    ApplicationFilterConfig[] getFilters(DispatcherType dispatcher, String requestPath, String servletName) {
+        if (filterMaps.length == 0) {
+            return NO_FILTERS;
+        }
+
+        Key key = new Key(dispatcher, servletName, matchUrl(requestPath));
+        ApplicationFilterConfig[] result = cache.get(key);
+        if (result == null) {
+            result = createFilters(key);
+            if (cache.size() >= CACHE_MAX_SIZE) {
+                // Only possible with a very large number of servlets or
+                // overlapping patterns. Simpler than tracking usage.
+                cache.clear();
+            }
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+
+    /*
+     * Returns the indexes of the mappings with URL patterns that match the
+     * path.
+     */
+    private BitSet matchUrl(String requestPath) {
+        BitSet result = (BitSet) matchAll.clone();
+        if (requestPath == null) {
+            return result;
+        }
+
+        result.or(matchAllPaths);
+        or(result, exact.get(requestPath));
+
+        if (!prefix.isEmpty()) {
+            // "/a/b" matches the prefixes "/a/b", "/a" and ""
+            or(result, prefix.get(requestPath));
+            int slash = requestPath.lastIndexOf('/');
+            while (slash >= 0) {
+                or(result, prefix.get(requestPath.substring(0, slash)));
+                slash = requestPath.lastIndexOf('/', slash - 1);
+            }
+        }
+
+        if (!extension.isEmpty()) {
+            int slash = requestPath.lastIndexOf('/');
+            int period = requestPath.lastIndexOf('.');
+            if (slash >= 0 && period > slash && period != requestPath.length() - 1) {
+                or(result, extension.get(requestPath.substring(period + 1)));
+            }
+        }
+
+        return result;
+    }
+
+
+    private ApplicationFilterConfig[] createFilters(Key key) {
+        List<ApplicationFilterConfig> result = new ArrayList<>();
+
+        // Path-mapped filters first
+        for (int i = key.urlMatches.nextSetBit(0); i >= 0; i = key.urlMatches.nextSetBit(i + 1)) {
+            if (matchDispatcher(filterMaps[i], key.dispatcher)) {
+                addFilter(result, filterConfigs[i]);
+            }
+        }
+
+        // Then filters that match on servlet name
+        for (int i = 0; i < filterMaps.length; i++) {
+            if (matchDispatcher(filterMaps[i], key.dispatcher) && matchServlet(filterMaps[i], key.servletName)) {
+                addFilter(result, filterConfigs[i]);
+            }
+        }
+
+        if (result.isEmpty()) {
+            return NO_FILTERS;
+        }
+        return result.toArray(new ApplicationFilterConfig[0]);
+    }
+
+
+    private static void addFilter(List<ApplicationFilterConfig> filters, ApplicationFilterConfig filterConfig) {
+        if (filterConfig == null) {
+            // FIXME - log configuration problem
+            return;
+        }
+        // Prevent the same filter being added multiple times
+        for (ApplicationFilterConfig filter : filters) {
+            if (filter == filterConfig) {
+                return;
+            }
+        }
+        filters.add(filterConfig);
+    }
+
+
+    private static boolean matchServlet(FilterMap filterMap, String servletName) {
+        if (servletName == null) {
+            return false;
+        }
+        if (filterMap.getMatchAllServletNames()) {
+            return true;
+        }
+        for (String name : filterMap.getServletNames()) {
+            if (servletName.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean matchDispatcher(FilterMap filterMap, DispatcherType type) {
+        switch (type) {
+            case FORWARD:
+                return (filterMap.getDispatcherMapping() & FilterMap.FORWARD) != 0;
+            case INCLUDE:
+                return (filterMap.getDispatcherMapping() & FilterMap.INCLUDE) != 0;
+            case REQUEST:
+                return (filterMap.getDispatcherMapping() & FilterMap.REQUEST) != 0;
+            case ERROR:
+                return (filterMap.getDispatcherMapping() & FilterMap.ERROR) != 0;
+            case ASYNC:
+                return (filterMap.getDispatcherMapping() & FilterMap.ASYNC) != 0;
+        }
+        return false;
+    }
+
+
+    private static void add(Map<String,BitSet> map, String key, int index) {
+        map.computeIfAbsent(key, k -> new BitSet()).set(index);
+    }
+
+
+    private static void or(BitSet target, BitSet source) {
+        if (source != null) {
+            target.or(source);
+        }
+    }
+
+
+    private static final class Key {
+        private final DispatcherType dispatcher;
+        private final String servletName;
+        private final BitSet urlMatches;
+        private final int hashCode;
+
+        private Key(DispatcherType dispatcher, String servletName, BitSet urlMatches) {
+            this.dispatcher = dispatcher;
+            this.servletName = servletName;
+            this.urlMatches = urlMatches;
+            this.hashCode = Objects.hash(dispatcher, servletName, urlMatches);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return dispatcher == other.dispatcher && Objects.equals(servletName, other.servletName) &&
+                    urlMatches.equals(other.urlMatches);
+        }
+    }
+}
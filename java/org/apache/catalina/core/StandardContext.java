@@ -42,6 +42,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -116,6 +117,7 @@ import org.apache.tomcat.InstanceManager;
 import org.apache.tomcat.InstanceManagerBindings;
 import org.apache.tomcat.JarScanner;
 import org.apache.tomcat.util.ExceptionUtils;
+import org.apache.tomcat.util.LatencyHistogram;
 import org.apache.tomcat.util.buf.StringUtils;
 import org.apache.tomcat.util.compat.JreCompat;
 import org.apache.tomcat.util.descriptor.XmlIdentifiers;
@@ -375,6 +377,12 @@ public class StandardContext extends ContainerBase implements Context, Notificat
      */
     private final ContextFilterMaps filterMaps = new ContextFilterMaps();
 
+    /**
+     * The filter mappings and filter configurations compiled for use by {@link ApplicationFilterFactory}. Created on
+     * first use and discarded whenever either changes.
+     */
+    private volatile FilterMapIndex filterMapIndex = null; // Guarded by filterDefs
+
     /**
      * Ignore annotations.
      */
@@ -595,6 +603,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     private long startupTime;
     private long startTime;
     private long tldScanTime;
+    private volatile String[] startupTimeline = new String[0];
 
     /**
      * Name of the engine. If null, the domain is used.
@@ -800,6 +809,10 @@ public class StandardContext extends ContainerBase implements Context, Notificat
 
     private boolean parallelAnnotationScanning = false;
 
+    private boolean useAnnotationScanCache = false;
+
+    private boolean useWebXmlSnapshot = false;
+
     private boolean useBloomFilterForArchives = false;
 
     // ----------------------------------------------------- Context Properties
@@ -1423,6 +1436,55 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     }
 
 
+    /**
+     * Should the results of scanning the JARs in the web application for
+     * annotations and {@link jakarta.servlet.annotation.HandlesTypes} matches
+     * be stored in the work directory so JARs that have not changed do not
+     * need to be scanned again on the next start?
+     *
+     * @param useAnnotationScanCache <code>true</code> to use the cache
+     */
+    public void setUseAnnotationScanCache(boolean useAnnotationScanCache) {
+        boolean oldUseAnnotationScanCache = this.useAnnotationScanCache;
+        this.useAnnotationScanCache = useAnnotationScanCache;
+        support.firePropertyChange("useAnnotationScanCache", oldUseAnnotationScanCache,
+                this.useAnnotationScanCache);
+    }
+
+
+    /**
+     * @return <code>true</code> if the results of scanning JARs for
+     *             annotations are cached in the work directory
+     */
+    public boolean getUseAnnotationScanCache() {
+        return this.useAnnotationScanCache;
+    }
+
+
+    /**
+     * Should the web.xml, after annotations and web-fragment.xml files have
+     * been merged into it, be stored in the work directory so that, while the
+     * web application is unchanged, subsequent starts can skip annotation
+     * scanning and fragment merging?
+     *
+     * @param useWebXmlSnapshot <code>true</code> to use the snapshot
+     */
+    public void setUseWebXmlSnapshot(boolean useWebXmlSnapshot) {
+        boolean oldUseWebXmlSnapshot = this.useWebXmlSnapshot;
+        this.useWebXmlSnapshot = useWebXmlSnapshot;
+        support.firePropertyChange("useWebXmlSnapshot", oldUseWebXmlSnapshot, this.useWebXmlSnapshot);
+    }
+
+
+    /**
+     * @return <code>true</code> if a snapshot of the merged web.xml is stored
+     *             in, and used from, the work directory
+     */
+    public boolean getUseWebXmlSnapshot() {
+        return this.useWebXmlSnapshot;
+    }
+
+
     /**
      * @return the Locale to character set mapper for this Context.
      */
@@ -1713,6 +1775,17 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         this.tldScanTime = tldScanTime;
     }
 
+    /**
+     * Gets the time taken by each phase of the most recent start of this context in the order the phases were
+     * executed. Each entry has the form <code>phase=timems</code>. The <code>configure</code> phase includes the
+     * processing of the deployment descriptors and the scanning of JARs and annotations.
+     *
+     * @return The startup timeline of this context
+     */
+    public String[] getStartupTimeline() {
+        return startupTimeline.clone();
+    }
+
 
     @Override
     public boolean getDenyUncoveredHttpMethods() {
@@ -2901,6 +2974,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         validateFilterMap(filterMap);
         // Add this filter mapping to our registered set
         filterMaps.add(filterMap);
+        invalidateFilterMapIndex();
         fireContainerEvent("addFilterMap", filterMap);
     }
 
@@ -2919,6 +2993,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         validateFilterMap(filterMap);
         // Add this filter mapping to our registered set
         filterMaps.addBefore(filterMap);
+        invalidateFilterMapIndex();
         fireContainerEvent("addFilterMap", filterMap);
     }
 
@@ -3669,13 +3744,9 @@ public class StandardContext extends ContainerBase implements Context, Notificat
             }
 
             // Remove the specified constraint
-            int j = 0;
             SecurityConstraint results[] = new SecurityConstraint[constraints.length - 1];
-            for (int i = 0; i < constraints.length; i++) {
-                if (i != n) {
-                    results[j++] = constraints[i];
-                }
-            }
+            System.arraycopy(constraints, 0, results, 0, n);
+            System.arraycopy(constraints, n + 1, results, n, results.length - n);
             constraints = results;
 
         }
@@ -3686,6 +3757,26 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     }
 
 
+    /**
+     * Remove all security constraints from this web application.
+     */
+    @Override
+    public void removeConstraints() {
+
+        SecurityConstraint[] results;
+        synchronized (constraintsLock) {
+            results = constraints;
+            constraints = new SecurityConstraint[0];
+        }
+
+        // Inform interested listeners
+        for (SecurityConstraint constraint : results) {
+            fireContainerEvent("removeConstraint", constraint);
+        }
+
+    }
+
+
     /**
      * Remove the error page for the specified error code or Java language exception, if it exists; otherwise, no action
      * is taken.
@@ -3723,6 +3814,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     @Override
     public void removeFilterMap(FilterMap filterMap) {
         filterMaps.remove(filterMap);
+        invalidateFilterMapIndex();
         // Inform interested listeners
         fireContainerEvent("removeFilterMap", filterMap);
     }
@@ -3810,13 +3902,9 @@ public class StandardContext extends ContainerBase implements Context, Notificat
             }
 
             // Remove the specified security role
-            int j = 0;
             String results[] = new String[securityRoles.length - 1];
-            for (int i = 0; i < securityRoles.length; i++) {
-                if (i != n) {
-                    results[j++] = securityRoles[i];
-                }
-            }
+            System.arraycopy(securityRoles, 0, results, 0, n);
+            System.arraycopy(securityRoles, n + 1, results, n, results.length - n);
             securityRoles = results;
 
         }
@@ -3827,6 +3915,26 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     }
 
 
+    /**
+     * Remove all security roles from this web application.
+     */
+    @Override
+    public void removeSecurityRoles() {
+
+        String[] results;
+        synchronized (securityRolesLock) {
+            results = securityRoles;
+            securityRoles = new String[0];
+        }
+
+        // Inform interested listeners
+        for (String role : results) {
+            fireContainerEvent("removeSecurityRole", role);
+        }
+
+    }
+
+
     /**
      * Remove any servlet mapping for the specified pattern, if it exists; otherwise, no action is taken.
      *
@@ -4029,6 +4137,25 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         return result;
     }
 
+    /**
+     * Gets the combined histogram of the processing times of all servlets in this StandardContext.
+     *
+     * @return A snapshot of the histogram. See {@link LatencyHistogram} for the format.
+     */
+    public long[] getProcessingTimeHistogram() {
+
+        long[] result = new long[LatencyHistogram.SNAPSHOT_LENGTH];
+
+        Container[] children = findChildren();
+        if (children != null) {
+            for (Container child : children) {
+                LatencyHistogram.add(result, ((StandardWrapper) child).getProcessingTimeHistogram());
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Gets the maximum processing time of all servlets in this StandardContext.
      *
@@ -4278,6 +4405,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         boolean ok = true;
         synchronized (filterDefs) {
             filterConfigs.clear();
+            filterMapIndex = null;
             for (Entry<String,FilterDef> entry : filterDefs.entrySet()) {
                 String name = entry.getKey();
                 if (getLogger().isTraceEnabled()) {
@@ -4320,6 +4448,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                 filterConfig.release();
             }
             filterConfigs.clear();
+            filterMapIndex = null;
         }
         return true;
 
@@ -4341,6 +4470,34 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     }
 
 
+    /**
+     * Obtain the filter mappings of this Context compiled for fast matching against requests.
+     *
+     * @return the current filter mapping index
+     */
+    FilterMapIndex getFilterMapIndex() {
+        FilterMapIndex result = filterMapIndex;
+        if (result == null) {
+            synchronized (filterDefs) {
+                result = filterMapIndex;
+                if (result == null) {
+                    result = new FilterMapIndex(filterMaps.asArray(), filterConfigs::get);
+                    filterMapIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+
+    private void invalidateFilterMapIndex() {
+        // Ensures an index being built from the previous mappings is not kept
+        synchronized (filterDefs) {
+            filterMapIndex = null;
+        }
+    }
+
+
     /**
      * Configure the set of instantiated application event listeners for this Context.
      *
@@ -4634,6 +4791,13 @@ public class StandardContext extends ContainerBase implements Context, Notificat
     }
 
 
+    private static long addStartupPhase(List<String> timeline, String phase, long phaseStart) {
+        long now = System.nanoTime();
+        timeline.add(phase + "=" + TimeUnit.NANOSECONDS.toMillis(now - phaseStart) + "ms");
+        return now;
+    }
+
+
     /**
      * Start this component and implement the requirements of
      * {@link org.apache.catalina.util.LifecycleBase#startInternal()}.
@@ -4657,6 +4821,8 @@ public class StandardContext extends ContainerBase implements Context, Notificat
 
         setConfigured(false);
         boolean ok = true;
+        List<String> timeline = new ArrayList<>();
+        long phaseStart = System.nanoTime();
 
         // Currently this is effectively a NO-OP but needs to be called to
         // ensure the NamingResources follows the correct lifecycle
@@ -4683,6 +4849,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         if (ok) {
             resourcesStart();
         }
+        phaseStart = addStartupPhase(timeline, "resources", phaseStart);
 
         if (getLoader() == null) {
             WebappLoader webappLoader = new WebappLoader();
@@ -4743,6 +4910,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                     cl.setClearReferencesThreadLocals(getClearReferencesThreadLocals());
                     cl.setSkipMemoryLeakChecksOnJvmShutdown(getSkipMemoryLeakChecksOnJvmShutdown());
                 }
+                phaseStart = addStartupPhase(timeline, "loader", phaseStart);
 
                 // By calling unbindThread and bindThread in a row, we setup the
                 // current Thread CCL to be the webapp classloader
@@ -4780,6 +4948,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
 
                 // Notify our interested LifecycleListeners
                 fireLifecycleEvent(CONFIGURE_START_EVENT, null);
+                phaseStart = addStartupPhase(timeline, "configure", phaseStart);
 
                 // Start our child containers, if not already started
                 for (Container child : findChildren()) {
@@ -4793,6 +4962,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                 if (pipeline instanceof Lifecycle) {
                     ((Lifecycle) pipeline).start();
                 }
+                phaseStart = addStartupPhase(timeline, "children", phaseStart);
 
                 // Acquire clustered manager
                 Manager contextManager = null;
@@ -4870,6 +5040,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                     break;
                 }
             }
+            phaseStart = addStartupPhase(timeline, "initializers", phaseStart);
 
             // Configure and call application event listeners
             if (ok) {
@@ -4878,6 +5049,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                     ok = false;
                 }
             }
+            phaseStart = addStartupPhase(timeline, "listeners", phaseStart);
 
             // Check constraints for uncovered HTTP methods
             // Needs to be after SCIs and listeners as they may programmatically
@@ -4896,6 +5068,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                 log.error(sm.getString("standardContext.managerFail"), e);
                 ok = false;
             }
+            phaseStart = addStartupPhase(timeline, "manager", phaseStart);
 
             // Configure and call application filters
             if (ok) {
@@ -4904,6 +5077,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                     ok = false;
                 }
             }
+            phaseStart = addStartupPhase(timeline, "filters", phaseStart);
 
             // Load and initialize all "load on startup" servlets
             if (ok) {
@@ -4912,6 +5086,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
                     ok = false;
                 }
             }
+            addStartupPhase(timeline, "loadOnStartup", phaseStart);
 
             // Start ContainerBackgroundProcessor thread
             super.threadStart();
@@ -4930,6 +5105,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         }
 
         startTime = System.currentTimeMillis();
+        startupTimeline = timeline.toArray(new String[0]);
 
         // Send j2ee.state.running notification
         if (ok && (this.getObjectName() != null)) {
@@ -5281,6 +5457,7 @@ public class StandardContext extends ContainerBase implements Context, Notificat
         startupTime = 0;
         startTime = 0;
         tldScanTime = 0;
+        startupTimeline = new String[0];
 
         // Bugzilla 32867
         distributable = false;
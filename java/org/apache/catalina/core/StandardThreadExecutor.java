@@ -264,6 +264,18 @@ public class StandardThreadExecutor extends LifecycleMBeanBase implements Execut
         return (executor != null) ? executor.getQueue().size() : -1;
     }
 
+    public long getSaturatedTaskCount() {
+        return (executor != null) ? executor.getSaturatedTaskCount() : 0;
+    }
+
+    public long getForcedTaskCount() {
+        return (executor != null) ? executor.getForcedTaskCount() : 0;
+    }
+
+    public long getRejectedTaskCount() {
+        return (executor != null) ? executor.getRejectedTaskCount() : 0;
+    }
+
 
     @Override
     public boolean resizePool(int corePoolSize, int maximumPoolSize) {
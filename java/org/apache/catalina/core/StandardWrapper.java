@@ -1205,6 +1205,14 @@ public class StandardWrapper extends ContainerBase implements ServletConfig, Wra
         return swValve.getMinTime();
     }
 
+    /**
+     * @return A snapshot of the histogram of the processing times of this servlet, including any filters. See
+     *             {@link org.apache.tomcat.util.LatencyHistogram} for the format.
+     */
+    public long[] getProcessingTimeHistogram() {
+        return swValve.getProcessingTimeHistogram();
+    }
+
     /**
      * Returns the number of requests processed by the wrapper.
      *
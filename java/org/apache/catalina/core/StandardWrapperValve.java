@@ -18,6 +18,7 @@ package org.apache.catalina.core;
 
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -38,6 +39,7 @@ import org.apache.catalina.valves.ValveBase;
 import org.apache.coyote.BadRequestException;
 import org.apache.coyote.CloseNowException;
 import org.apache.tomcat.util.ExceptionUtils;
+import org.apache.tomcat.util.LatencyHistogram;
 import org.apache.tomcat.util.buf.MessageBytes;
 import org.apache.tomcat.util.log.SystemLogHandler;
 import org.apache.tomcat.util.res.StringManager;
@@ -69,6 +71,7 @@ final class StandardWrapperValve extends ValveBase {
     private volatile long minTime = Long.MAX_VALUE;
     private final AtomicInteger requestCount = new AtomicInteger(0);
     private final AtomicInteger errorCount = new AtomicInteger(0);
+    private final LatencyHistogram processingTimeHistogram = new LatencyHistogram();
 
 
     // --------------------------------------------------------- Public Methods
@@ -89,7 +92,7 @@ final class StandardWrapperValve extends ValveBase {
         boolean unavailable = false;
         Throwable throwable = null;
         // This should be a Request attribute...
-        long t1 = System.currentTimeMillis();
+        long t1 = System.nanoTime();
         requestCount.incrementAndGet();
         StandardWrapper wrapper = (StandardWrapper) getContainer();
         Servlet servlet = null;
@@ -242,9 +245,10 @@ final class StandardWrapperValve extends ValveBase {
                     exception(request, response, e);
                 }
             }
-            long t2 = System.currentTimeMillis();
+            long t2 = System.nanoTime();
 
-            long time = t2 - t1;
+            processingTimeHistogram.record(t2 - t1);
+            long time = TimeUnit.NANOSECONDS.toMillis(t2 - t1);
             processingTime.add(time);
             if (time > maxTime) {
                 maxTime = time;
@@ -301,6 +305,10 @@ final class StandardWrapperValve extends ValveBase {
         return minTime;
     }
 
+    public long[] getProcessingTimeHistogram() {
+        return processingTimeHistogram.getSnapshot();
+    }
+
     /**
      * Returns the number of requests processed by the associated wrapper.
      *
@@ -240,6 +240,70 @@ public class BackupManager extends ClusterManagerBase implements MapOwner, Distr
         this.accessTimeout = accessTimeout;
     }
 
+    /**
+     * @return the number of replication messages that carried a complete
+     *         session
+     */
+    public long getReplicatedFullCount() {
+        if (sessions instanceof LazyReplicatedMap) {
+            return ((LazyReplicatedMap<String,Session>) sessions).getReplicatedFullCount();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of serialized bytes sent in replication messages that
+     *         carried a complete session
+     */
+    public long getReplicatedFullBytes() {
+        if (sessions instanceof LazyReplicatedMap) {
+            return ((LazyReplicatedMap<String,Session>) sessions).getReplicatedFullBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of replication messages that only carried the
+     *         session changes (attribute level diffs)
+     */
+    public long getReplicatedDiffCount() {
+        if (sessions instanceof LazyReplicatedMap) {
+            return ((LazyReplicatedMap<String,Session>) sessions).getReplicatedDiffCount();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of bytes sent in replication messages that only
+     *         carried the session changes
+     */
+    public long getReplicatedDiffBytes() {
+        if (sessions instanceof LazyReplicatedMap) {
+            return ((LazyReplicatedMap<String,Session>) sessions).getReplicatedDiffBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the estimated number of bytes saved by replicating session
+     *         changes rather than complete sessions
+     */
+    public long getReplicatedBytesSaved() {
+        if (sessions instanceof LazyReplicatedMap) {
+            return ((LazyReplicatedMap<String,Session>) sessions).getReplicatedBytesSaved();
+        }
+        return 0;
+    }
+
+    /**
+     * Reset the replication statistics.
+     */
+    public void resetStatistics() {
+        if (sessions instanceof LazyReplicatedMap) {
+            ((LazyReplicatedMap<String,Session>) sessions).resetStatistics();
+        }
+    }
+
     @Override
     public String[] getInvalidatedSessions() {
         return new String[0];
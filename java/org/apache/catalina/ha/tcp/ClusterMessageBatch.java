@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.ha.tcp;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.catalina.ha.ClusterMessage;
+import org.apache.catalina.ha.ClusterMessageBase;
+
+/**
+ * A cluster message that carries several other cluster messages so that the
+ * changes of many sessions can be replicated with a single send. The messages
+ * are delivered to the cluster listeners of the receiving node in order.
+ * <p>
+ * Members running versions that do not include this class cannot read these
+ * messages. They are only sent when the batching of the
+ * {@link ReplicationValve} has been enabled.
+ */
+public class ClusterMessageBatch extends ClusterMessageBase {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final AtomicLong counter = new AtomicLong();
+
+    private final ClusterMessage[] messages;
+    private final String uniqueId;
+
+    public ClusterMessageBatch(List<ClusterMessage> messages) {
+        this.messages = messages.toArray(new ClusterMessage[0]);
+        this.uniqueId = "BATCH-" + System.currentTimeMillis() + "-" + counter.incrementAndGet();
+        setTimestamp(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the messages carried by this batch
+     */
+    public ClusterMessage[] getMessages() {
+        return messages;
+    }
+
+    @Override
+    public String getUniqueId() {
+        return uniqueId;
+    }
+}
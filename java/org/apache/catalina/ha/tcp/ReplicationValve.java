@@ -20,6 +20,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
@@ -28,9 +33,12 @@ import java.util.regex.PatternSyntaxException;
 import jakarta.servlet.ServletException;
 
 import org.apache.catalina.Cluster;
+import org.apache.catalina.Container;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.Manager;
+import org.apache.catalina.Server;
+import org.apache.catalina.Service;
 import org.apache.catalina.Session;
 import org.apache.catalina.connector.Request;
 import org.apache.catalina.connector.Response;
@@ -45,6 +53,7 @@ import org.apache.catalina.ha.session.DeltaSession;
 import org.apache.catalina.valves.ValveBase;
 import org.apache.juli.logging.Log;
 import org.apache.juli.logging.LogFactory;
+import org.apache.tomcat.util.ExceptionUtils;
 import org.apache.tomcat.util.res.StringManager;
 
 /**
@@ -60,6 +69,16 @@ import org.apache.tomcat.util.res.StringManager;
  * primaryIndicator=true, then the request attribute <i>org.apache.catalina.ha.tcp.isPrimarySession.</i> is set true,
  * when request processing is at sessions primary node.
  * </p>
+ * <p>
+ * batchInterval &gt; 0, then the changes of the {@link DeltaManager} sessions are not sent at the end of each request
+ * but at most <i>batchInterval</i> milliseconds later. The changes of all the requests to the same session within
+ * that time are coalesced into a single delta and the deltas of all the sessions are sent in a single cluster
+ * message. If this node fails, the changes that have not been sent yet are lost. Only the changes of sessions that
+ * are already primary on this node are delayed. The messages that change the primary node of a session and the
+ * session access messages are always sent at the end of the request so that failover is not affected. The batches are
+ * sent as a {@link ClusterMessageBatch} that members running earlier versions cannot read so batching is disabled by
+ * default and must only be enabled once every member of the cluster supports it.
+ * </p>
  *
  * @author Craig R. McClanahan
  * @author Peter Rossbach
@@ -99,6 +118,24 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
     protected LongAdder nrOfFilterRequests = new LongAdder();
     protected LongAdder nrOfSendRequests = new LongAdder();
     protected LongAdder nrOfCrossContextSendRequests = new LongAdder();
+    protected LongAdder nrOfCoalescedRequests = new LongAdder();
+    protected LongAdder nrOfBatchSendRequests = new LongAdder();
+    protected LongAdder nrOfBatchedSessions = new LongAdder();
+    protected LongAdder totalReplicationDelay = new LongAdder();
+    protected AtomicLong maxReplicationDelay = new AtomicLong();
+
+    /**
+     * Maximum delay in milliseconds of the replication of session changes (default = 0, changes are sent at the
+     * end of each request)
+     */
+    protected long batchInterval = 0;
+
+    /**
+     * Sessions with changes waiting to be replicated, keyed by manager name and session id
+     */
+    protected final Map<String,PendingReplication> pendingReplications = new ConcurrentHashMap<>();
+
+    private volatile ScheduledFuture<?> batchFuture = null;
 
     /**
      * must primary change indicator set
@@ -213,6 +250,63 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
         this.doProcessingStats = doProcessingStats;
     }
 
+    /**
+     * @return the maximum delay in milliseconds of the replication of session changes.
+     */
+    public long getBatchInterval() {
+        return batchInterval;
+    }
+
+    /**
+     * Set the maximum delay in milliseconds of the replication of session changes. Changes of the same session
+     * within that delay are coalesced and the changes of several sessions are sent in a single message. A value of
+     * zero or less disables batching. Changes take effect when the valve is next started.
+     *
+     * @param batchInterval The new batch interval
+     */
+    public void setBatchInterval(long batchInterval) {
+        this.batchInterval = batchInterval;
+    }
+
+    /**
+     * @return the number of requests whose session changes were coalesced with those of an earlier request.
+     */
+    public long getNrOfCoalescedRequests() {
+        return nrOfCoalescedRequests.longValue();
+    }
+
+    /**
+     * @return the number of {@link ClusterMessageBatch} messages, carrying the changes of more than one session, sent.
+     */
+    public long getNrOfBatchSendRequests() {
+        return nrOfBatchSendRequests.longValue();
+    }
+
+    /**
+     * @return the number of session changes sent in batches.
+     */
+    public long getNrOfBatchedSessions() {
+        return nrOfBatchedSessions.longValue();
+    }
+
+    /**
+     * @return the maximum time in milliseconds session changes waited to be replicated.
+     */
+    public long getMaxReplicationDelay() {
+        return maxReplicationDelay.get();
+    }
+
+    /**
+     * @return the average time in milliseconds session changes waited to be replicated.
+     */
+    public long getAverageReplicationDelay() {
+        long count = nrOfBatchedSessions.longValue();
+        if (count == 0) {
+            return 0;
+        }
+        return totalReplicationDelay.longValue() / count;
+    }
+
     /**
      * @return the lastSendTime.
      */
@@ -353,6 +447,11 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
         nrOfRequests.reset();
         nrOfSendRequests.reset();
         nrOfCrossContextSendRequests.reset();
+        nrOfCoalescedRequests.reset();
+        nrOfBatchSendRequests.reset();
+        nrOfBatchedSessions.reset();
+        totalReplicationDelay.reset();
+        maxReplicationDelay.set(0);
     }
 
     /**
@@ -374,9 +473,35 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
                 }
             }
         }
+        if (batchInterval > 0) {
+            ScheduledExecutorService executor = getUtilityExecutor();
+            if (executor != null) {
+                batchFuture = executor.scheduleWithFixedDelay(new BatchSender(), batchInterval, batchInterval,
+                        TimeUnit.MILLISECONDS);
+            } else {
+                log.warn(sm.getString("ReplicationValve.batch.noExecutor"));
+            }
+        }
         super.startInternal();
     }
 
+    /**
+     * Stop this component and send any pending session changes.
+     *
+     * @exception LifecycleException if this component detects a fatal error that prevents this component from being
+     *                                   used
+     */
+    @Override
+    protected void stopInternal() throws LifecycleException {
+        super.stopInternal();
+        ScheduledFuture<?> future = batchFuture;
+        if (future != null) {
+            batchFuture = null;
+            future.cancel(false);
+            sendPendingReplications();
+        }
+    }
+
 
     // --------------------------------------------------------- Protected Methods
 
@@ -513,6 +638,14 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
      * @see SimpleTcpCluster#send(ClusterMessage)
      */
     protected void send(ClusterManager manager, String sessionId) {
+        if (batchFuture != null && manager instanceof DeltaManager) {
+            if (isBatchable(manager, sessionId)) {
+                queueReplication(manager, sessionId);
+                return;
+            }
+            // Any changes waiting for the next batch are sent with this message
+            pendingReplications.remove(manager.getName() + '#' + sessionId);
+        }
         ClusterMessage msg = manager.requestCompleted(sessionId);
         if (msg != null && cluster != null) {
             cluster.send(msg);
@@ -522,6 +655,90 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
         }
     }
 
+    /**
+     * Can the replication of the changes of the session be delayed until the next batch? Only changes of sessions that
+     * are already primary on this node are batched. Otherwise, the message sent at the end of the request makes this
+     * node the primary node of the session and must not be delayed.
+     *
+     * @param manager   SessionManager
+     * @param sessionId sessionid from the manager
+     *
+     * @return <code>true</code> if the changes may be sent with the next batch
+     */
+    protected boolean isBatchable(ClusterManager manager, String sessionId) {
+        Session session;
+        try {
+            session = manager.findSession(sessionId);
+        } catch (IOException ioe) {
+            return false;
+        }
+        if (session instanceof DeltaSession) {
+            DeltaSession deltaSession = (DeltaSession) session;
+            return deltaSession.isPrimarySession() && deltaSession.isDirty();
+        }
+        return false;
+    }
+
+    /**
+     * Register a session whose changes will be sent with the next batch. If the session is already waiting, the
+     * changes of the current request are coalesced with the earlier ones.
+     *
+     * @param manager   SessionManager
+     * @param sessionId sessionid from the manager
+     */
+    protected void queueReplication(ClusterManager manager, String sessionId) {
+        String key = manager.getName() + '#' + sessionId;
+        PendingReplication pending = new PendingReplication(manager, sessionId, System.currentTimeMillis());
+        if (pendingReplications.putIfAbsent(key, pending) != null && doStatistics()) {
+            nrOfCoalescedRequests.increment();
+        }
+    }
+
+    /**
+     * Send the changes of all the sessions waiting to be replicated. The changes are sent in a single
+     * {@link ClusterMessageBatch} if there is more than one message.
+     */
+    protected synchronized void sendPendingReplications() {
+        if (pendingReplications.isEmpty()) {
+            return;
+        }
+        List<ClusterMessage> messages = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        Iterator<PendingReplication> iter = pendingReplications.values().iterator();
+        while (iter.hasNext()) {
+            PendingReplication pending = iter.next();
+            iter.remove();
+            try {
+                ClusterMessage msg = pending.manager.requestCompleted(pending.sessionId);
+                if (msg != null) {
+                    messages.add(msg);
+                }
+            } catch (Exception x) {
+                log.error(sm.getString("ReplicationValve.send.failure"), x);
+            }
+            if (doStatistics()) {
+                long delay = now - pending.queued;
+                totalReplicationDelay.add(delay);
+                nrOfBatchedSessions.increment();
+                maxReplicationDelay.accumulateAndGet(delay, Math::max);
+            }
+        }
+        if (messages.isEmpty() || cluster == null) {
+            return;
+        }
+        if (messages.size() == 1) {
+            cluster.send(messages.get(0));
+        } else {
+            cluster.send(new ClusterMessageBatch(messages));
+            if (doStatistics()) {
+                nrOfBatchSendRequests.increment();
+            }
+        }
+        if (doStatistics()) {
+            nrOfSendRequests.add(messages.size());
+        }
+    }
+
     /**
      * check for session invalidations
      *
@@ -610,4 +827,45 @@ public class ReplicationValve extends ValveBase implements ClusterValve {
         }
     }
 
+
+    /**
+     * @return the executor used to send the batches of session changes
+     */
+    protected ScheduledExecutorService getUtilityExecutor() {
+        Container container = getContainer();
+        Service service = container == null ? null : Container.getService(container);
+        Server server = service == null ? null : service.getServer();
+        return server == null ? null : server.getUtilityExecutor();
+    }
+
+
+    /**
+     * A session whose changes are waiting to be replicated.
+     */
+    protected static class PendingReplication {
+        private final ClusterManager manager;
+        private final String sessionId;
+        private final long queued;
+
+        PendingReplication(ClusterManager manager, String sessionId, long queued) {
+            this.manager = manager;
+            this.sessionId = sessionId;
+            this.queued = queued;
+        }
+    }
+
+
+    private class BatchSender implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                sendPendingReplications();
+            } catch (Throwable t) {
+                ExceptionUtils.handleThrowable(t);
+                log.error(sm.getString("ReplicationValve.send.failure"), t);
+            }
+        }
+    }
+
 }
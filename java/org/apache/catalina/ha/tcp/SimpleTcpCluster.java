@@ -800,6 +800,15 @@ public class SimpleTcpCluster extends LifecycleMBeanBase
                     (System.currentTimeMillis() - (message).getTimestamp()) + " ms.");
         }
 
+        if (message instanceof ClusterMessageBatch) {
+            // Deliver the messages carried by the batch as if they had been sent individually
+            for (ClusterMessage batched : ((ClusterMessageBatch) message).getMessages()) {
+                batched.setAddress(message.getAddress());
+                messageReceived(batched);
+            }
+            return;
+        }
+
         // invoke all the listeners
         boolean accepted = false;
         if (message != null) {
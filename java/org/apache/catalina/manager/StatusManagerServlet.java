@@ -170,7 +170,7 @@ public class StatusManagerServlet extends HttpServlet implements NotificationLis
 
         StringManager smClient = StringManager.getManager(Constants.Package, request.getLocales());
 
-        // mode is flag for HTML, JSON or XML output
+        // mode is flag for HTML, JSON, XML or Prometheus output
         int mode = 0;
         // if ?XML=true, set the mode to XML
         if (request.getParameter("XML") != null && request.getParameter("XML").equals("true")) {
@@ -180,10 +180,24 @@ public class StatusManagerServlet extends HttpServlet implements NotificationLis
         if (request.getParameter("JSON") != null && request.getParameter("JSON").equals("true")) {
             mode = 2;
         }
+        // if ?PROMETHEUS=true, set the mode to the Prometheus text format
+        if (request.getParameter("PROMETHEUS") != null && request.getParameter("PROMETHEUS").equals("true")) {
+            mode = 3;
+        }
         StatusTransformer.setContentType(response, mode);
 
         PrintWriter writer = response.getWriter();
 
+        if (mode == 3) {
+            // Only the request processing and queue time histograms are available in this format
+            try {
+                StatusTransformer.writeMetrics(writer, mBeanServer, threadPools, globalRequestProcessors);
+            } catch (Exception e) {
+                throw new ServletException(e);
+            }
+            return;
+        }
+
         boolean completeStatus = false;
         if (request.getPathInfo() != null && request.getPathInfo().equals("/all")) {
             completeStatus = true;
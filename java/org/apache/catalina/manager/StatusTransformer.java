@@ -20,6 +20,7 @@ import java.io.PrintWriter;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.util.Date;
 import java.util.Iterator;
@@ -34,6 +35,7 @@ import javax.management.ObjectName;
 
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.apache.tomcat.util.LatencyHistogram;
 import org.apache.tomcat.util.json.JSONFilter;
 import org.apache.tomcat.util.security.Escape;
 
@@ -54,6 +56,8 @@ public class StatusTransformer {
             response.setContentType("text/xml;charset=" + Constants.CHARSET);
         } else if (mode == 2) {
             response.setContentType("application/json;charset=" + Constants.CHARSET);
+        } else if (mode == 3) {
+            response.setContentType("text/plain;version=0.0.4;charset=" + Constants.CHARSET);
         }
     }
 
@@ -995,6 +999,114 @@ public class StatusTransformer {
     }
 
 
+    /**
+     * Write the request processing time histograms of the connectors, web applications and servlets and the queue time
+     * histograms of the connector thread pools in the Prometheus text exposition format.
+     *
+     * @param writer                  The output writer
+     * @param mBeanServer             MBean server
+     * @param threadPools             MBean names for the thread pools
+     * @param globalRequestProcessors MBean names for the global request processors
+     *
+     * @throws Exception Propagated JMX error
+     */
+    public static void writeMetrics(PrintWriter writer, MBeanServer mBeanServer, List<ObjectName> threadPools,
+            List<ObjectName> globalRequestProcessors) throws Exception {
+
+        String metric = "tomcat_connector_request_duration_seconds";
+        writeMetricHeader(writer, metric, "Time to process requests by connector and HTTP status class");
+        for (ObjectName objectName : globalRequestProcessors.toArray(new ObjectName[0])) {
+            String connector = objectName.getKeyProperty("name");
+            if (connector.startsWith("\"")) {
+                connector = ObjectName.unquote(connector);
+            }
+            long[][] histograms = (long[][]) mBeanServer.getAttribute(objectName, "processingTimeHistograms");
+            for (int i = 0; i < histograms.length; i++) {
+                writeHistogram(writer, metric,
+                        "connector=\"" + escapeLabel(connector) + "\",status=\"" + (i + 1) + "xx\"", histograms[i]);
+            }
+        }
+
+        metric = "tomcat_threadpool_queue_duration_seconds";
+        writeMetricHeader(writer, metric, "Time socket processing waited for a connector thread");
+        for (ObjectName objectName : threadPools.toArray(new ObjectName[0])) {
+            String name = objectName.getKeyProperty("name");
+            if (name.startsWith("\"")) {
+                name = ObjectName.unquote(name);
+            }
+            long[] histogram = (long[]) mBeanServer.getAttribute(objectName, "queueTimeHistogram");
+            writeHistogram(writer, metric, "name=\"" + escapeLabel(name) + "\"", histogram);
+        }
+
+        metric = "tomcat_context_request_duration_seconds";
+        writeMetricHeader(writer, metric, "Time to process requests by web application");
+        for (ObjectName objectName : mBeanServer.queryNames(new ObjectName("*:j2eeType=WebModule,*"), null)) {
+            long[] histogram = (long[]) mBeanServer.getAttribute(objectName, "processingTimeHistogram");
+            writeHistogram(writer, metric, getContextLabels(objectName.getKeyProperty("name")), histogram);
+        }
+
+        metric = "tomcat_servlet_request_duration_seconds";
+        writeMetricHeader(writer, metric, "Time to process requests by servlet, including filters");
+        for (ObjectName objectName : mBeanServer.queryNames(new ObjectName("*:j2eeType=Servlet,*"), null)) {
+            long[] histogram = (long[]) mBeanServer.getAttribute(objectName, "processingTimeHistogram");
+            writeHistogram(writer, metric, getContextLabels(objectName.getKeyProperty("WebModule")) +
+                    ",servlet=\"" + escapeLabel(objectName.getKeyProperty("name")) + "\"", histogram);
+        }
+    }
+
+
+    private static void writeMetricHeader(PrintWriter writer, String metric, String help) {
+        writer.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        writer.append("# TYPE ").append(metric).append(" histogram\n");
+    }
+
+
+    private static void writeHistogram(PrintWriter writer, String metric, String labels, long[] histogram) {
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            cumulative += histogram[i];
+            long upperBound = LatencyHistogram.getUpperBound(i);
+            writer.append(metric).append("_bucket{").append(labels).append(",le=\"");
+            if (upperBound == Long.MAX_VALUE) {
+                writer.append("+Inf");
+            } else {
+                writer.append(BigDecimal.valueOf(upperBound, 6).stripTrailingZeros().toPlainString());
+            }
+            writer.append("\"} ").append(Long.toString(cumulative)).append('\n');
+        }
+        writer.append(metric).append("_sum{").append(labels).append("} ");
+        writer.append(BigDecimal.valueOf(LatencyHistogram.getSum(histogram), 6).toPlainString()).append('\n');
+        writer.append(metric).append("_count{").append(labels).append("} ");
+        writer.append(Long.toString(cumulative)).append('\n');
+    }
+
+
+    /*
+     * Web module names are of the form //host/path
+     */
+    private static String getContextLabels(String webModuleName) {
+        String host = "";
+        String path = webModuleName;
+        if (path.startsWith("//")) {
+            path = path.substring(2);
+            int slash = path.indexOf('/');
+            if (slash == -1) {
+                host = path;
+                path = "/";
+            } else {
+                host = path.substring(0, slash);
+                path = path.substring(slash);
+            }
+        }
+        return "host=\"" + escapeLabel(host) + "\",context=\"" + escapeLabel(path) + "\"";
+    }
+
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+
     /**
      * Display the given size in bytes, either as KiB or MiB.
      *
@@ -450,6 +450,7 @@ public final class Mapper {
                 MappedWrapper[] newWrappers = new MappedWrapper[oldWrappers.length + 1];
                 if (insertMap(oldWrappers, newWrappers, newWrapper)) {
                     context.wildcardWrappers = newWrappers;
+                    context.wildcardWrapperTrie = context.wildcardWrapperTrie.put(name, newWrapper);
                     int slashCount = slashCount(newWrapper.name);
                     if (slashCount > context.nesting) {
                         context.nesting = slashCount;
@@ -483,6 +484,7 @@ public final class Mapper {
                 MappedWrapper[] newWrappers = new MappedWrapper[oldWrappers.length + 1];
                 if (insertMap(oldWrappers, newWrappers, newWrapper)) {
                     context.exactWrappers = newWrappers;
+                    context.exactWrapperTrie = context.exactWrapperTrie.put(name, newWrapper);
                 }
             }
         }
@@ -531,6 +533,7 @@ public final class Mapper {
                         }
                     }
                     context.wildcardWrappers = newWrappers;
+                    context.wildcardWrapperTrie = context.wildcardWrapperTrie.remove(name);
                 }
             } else if (path.startsWith("*.")) {
                 // Extension wrapper
@@ -563,6 +566,7 @@ public final class Mapper {
                 MappedWrapper[] newWrappers = new MappedWrapper[oldWrappers.length - 1];
                 if (removeMap(oldWrappers, newWrappers, name)) {
                     context.exactWrappers = newWrappers;
+                    context.exactWrapperTrie = context.exactWrapperTrie.remove(name);
                 }
             }
         }
@@ -740,48 +744,18 @@ public final class Mapper {
         // Context mapping
         ContextList contextList = mappedHost.contextList;
         MappedContext[] contexts = contextList.contexts;
-        int pos = find(contexts, uri);
-        if (pos == -1) {
+        if (contexts.length == 0) {
             return;
         }
 
-        int lastSlash = -1;
-        int uriEnd = uri.getEnd();
-        int length = -1;
-        boolean found = false;
-        MappedContext context = null;
-        while (pos >= 0) {
-            context = contexts[pos];
-            if (uri.startsWith(context.name)) {
-                length = context.name.length();
-                if (uri.getLength() == length) {
-                    found = true;
-                    break;
-                } else if (uri.startsWithIgnoreCase("/", length)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (lastSlash == -1) {
-                lastSlash = nthSlash(uri, contextList.nesting + 1);
-            } else {
-                lastSlash = lastSlash(uri);
-            }
-            uri.setEnd(lastSlash);
-            pos = find(contexts, uri);
-        }
-        uri.setEnd(uriEnd);
-
-        if (!found) {
+        MappedContext context = contextList.contextTrie.getLongestPrefix(uri);
+        if (context == null) {
             if (contexts[0].name.equals("")) {
                 context = contexts[0];
             } else {
-                context = null;
+                return;
             }
         }
-        if (context == null) {
-            return;
-        }
 
         ContextVersion contextVersion = null;
         ContextVersion[] contextVersions = context.versions;
@@ -832,14 +806,14 @@ public final class Mapper {
         path.setOffset(servletPath);
 
         // Rule 1 -- Exact Match
-        MappedWrapper[] exactWrappers = contextVersion.exactWrappers;
+        PathTrie<MappedWrapper> exactWrappers = contextVersion.exactWrapperTrie;
         internalMapExactWrapper(exactWrappers, path, mappingData);
 
         // Rule 2 -- Prefix Match
         boolean checkJspWelcomeFiles = false;
-        MappedWrapper[] wildcardWrappers = contextVersion.wildcardWrappers;
+        PathTrie<MappedWrapper> wildcardWrappers = contextVersion.wildcardWrapperTrie;
         if (mappingData.wrapper == null) {
-            internalMapWildcardWrapper(wildcardWrappers, contextVersion.nesting, path, mappingData);
+            internalMapWildcardWrapper(wildcardWrappers, path, mappingData);
             if (mappingData.wrapper != null && mappingData.jspWildCard) {
                 char[] buf = path.getBuffer();
                 if (buf[pathEnd - 1] == '/') {
@@ -893,7 +867,7 @@ public final class Mapper {
 
                     // Rule 4b -- Welcome resources processing for prefix match
                     if (mappingData.wrapper == null) {
-                        internalMapWildcardWrapper(wildcardWrappers, contextVersion.nesting, path, mappingData);
+                        internalMapWildcardWrapper(wildcardWrappers, path, mappingData);
                     }
 
                     // Rule 4c -- Welcome resources processing
@@ -994,8 +968,9 @@ public final class Mapper {
     /**
      * Exact mapping.
      */
-    private void internalMapExactWrapper(MappedWrapper[] wrappers, CharChunk path, MappingData mappingData) {
-        MappedWrapper wrapper = exactFind(wrappers, path);
+    private void internalMapExactWrapper(PathTrie<MappedWrapper> wrappers, CharChunk path,
+            MappingData mappingData) {
+        MappedWrapper wrapper = wrappers.get(path);
         if (wrapper != null) {
             mappingData.requestPath.setString(wrapper.name);
             mappingData.wrapper = wrapper.object;
@@ -1015,47 +990,20 @@ public final class Mapper {
     /**
      * Wildcard mapping.
      */
-    private void internalMapWildcardWrapper(MappedWrapper[] wrappers, int nesting, CharChunk path,
+    private void internalMapWildcardWrapper(PathTrie<MappedWrapper> wrappers, CharChunk path,
             MappingData mappingData) {
 
-        int pathEnd = path.getEnd();
-
-        int lastSlash = -1;
-        int length = -1;
-        int pos = find(wrappers, path);
-        if (pos != -1) {
-            boolean found = false;
-            while (pos >= 0) {
-                if (path.startsWith(wrappers[pos].name)) {
-                    length = wrappers[pos].name.length();
-                    if (path.getLength() == length) {
-                        found = true;
-                        break;
-                    } else if (path.startsWithIgnoreCase("/", length)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (lastSlash == -1) {
-                    lastSlash = nthSlash(path, nesting + 1);
-                } else {
-                    lastSlash = lastSlash(path);
-                }
-                path.setEnd(lastSlash);
-                pos = find(wrappers, path);
-            }
-            path.setEnd(pathEnd);
-            if (found) {
-                mappingData.wrapperPath.setString(wrappers[pos].name);
-                if (path.getLength() > length) {
-                    mappingData.pathInfo.setChars(path.getBuffer(), path.getOffset() + length,
-                            path.getLength() - length);
-                }
-                mappingData.requestPath.setChars(path.getBuffer(), path.getOffset(), path.getLength());
-                mappingData.wrapper = wrappers[pos].object;
-                mappingData.jspWildCard = wrappers[pos].jspWildCard;
-                mappingData.matchType = MappingMatch.PATH;
+        MappedWrapper wrapper = wrappers.getLongestPrefix(path);
+        if (wrapper != null) {
+            int length = wrapper.name.length();
+            mappingData.wrapperPath.setString(wrapper.name);
+            if (path.getLength() > length) {
+                mappingData.pathInfo.setChars(path.getBuffer(), path.getOffset() + length, path.getLength() - length);
             }
+            mappingData.requestPath.setChars(path.getBuffer(), path.getOffset(), path.getLength());
+            mappingData.wrapper = wrapper.object;
+            mappingData.jspWildCard = wrapper.jspWildCard;
+            mappingData.matchType = MappingMatch.PATH;
         }
     }
 
@@ -1371,46 +1319,6 @@ public final class Mapper {
     }
 
 
-    /**
-     * Find the position of the last slash in the given char chunk.
-     */
-    private static int lastSlash(CharChunk name) {
-        char[] c = name.getBuffer();
-        int end = name.getEnd();
-        int start = name.getStart();
-        int pos = end;
-
-        while (pos > start) {
-            if (c[--pos] == '/') {
-                break;
-            }
-        }
-
-        return pos;
-    }
-
-
-    /**
-     * Find the position of the nth slash, in the given char chunk.
-     */
-    private static int nthSlash(CharChunk name, int n) {
-        char[] c = name.getBuffer();
-        int end = name.getEnd();
-        int start = name.getStart();
-        int pos = start;
-        int count = 0;
-
-        while (pos < end) {
-            if ((c[pos++] == '/') && ((++count) == n)) {
-                pos--;
-                break;
-            }
-        }
-
-        return pos;
-    }
-
-
     /**
      * Return the slash count in a given string.
      */
@@ -1564,20 +1472,23 @@ public final class Mapper {
 
         public final MappedContext[] contexts;
         public final int nesting;
+        final PathTrie<MappedContext> contextTrie;
 
         public ContextList() {
-            this(new MappedContext[0], 0);
+            this(new MappedContext[0], 0, PathTrie.empty());
         }
 
-        private ContextList(MappedContext[] contexts, int nesting) {
+        private ContextList(MappedContext[] contexts, int nesting, PathTrie<MappedContext> contextTrie) {
             this.contexts = contexts;
             this.nesting = nesting;
+            this.contextTrie = contextTrie;
         }
 
         public ContextList addContext(MappedContext mappedContext, int slashCount) {
             MappedContext[] newContexts = new MappedContext[contexts.length + 1];
             if (insertMap(contexts, newContexts, mappedContext)) {
-                return new ContextList(newContexts, Math.max(nesting, slashCount));
+                return new ContextList(newContexts, Math.max(nesting, slashCount),
+                        contextTrie.put(mappedContext.name, mappedContext));
             }
             return null;
         }
@@ -1589,7 +1500,7 @@ public final class Mapper {
                 for (MappedContext context : newContexts) {
                     newNesting = Math.max(newNesting, slashCount(context.name));
                 }
-                return new ContextList(newContexts, newNesting);
+                return new ContextList(newContexts, newNesting, contextTrie.remove(path));
             }
             return null;
         }
@@ -1618,6 +1529,8 @@ public final class Mapper {
         public MappedWrapper[] wildcardWrappers = new MappedWrapper[0];
         public MappedWrapper[] extensionWrappers = new MappedWrapper[0];
         public int nesting = 0;
+        PathTrie<MappedWrapper> exactWrapperTrie = PathTrie.empty();
+        PathTrie<MappedWrapper> wildcardWrapperTrie = PathTrie.empty();
         private volatile boolean paused;
 
         public ContextVersion(String version, String path, int slashCount, Context context, WebResourceRoot resources,
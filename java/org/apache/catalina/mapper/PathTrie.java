@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.mapper;
+
+import java.util.Arrays;
+
+import org.apache.tomcat.util.buf.CharChunk;
+
+/**
+ * An immutable, compressed trie (radix tree) of paths used by the {@link Mapper} to find context paths and servlet
+ * mappings with a single pass over the request URI, regardless of the number of entries.
+ * <p>
+ * Modifications return a new trie that shares all unmodified nodes with the original so the Mapper can continue to
+ * publish new versions of its mappings with a single write while lookups proceed without locking.
+ *
+ * @param <T> The type of the values held in the trie
+ */
+final class PathTrie<T> {
+
+    private static final PathTrie<?> EMPTY = new PathTrie<>(new Node<>(new char[0], null));
+
+    private final Node<T> root;
+
+
+    private PathTrie(Node<T> root) {
+        this.root = root;
+    }
+
+
+    @SuppressWarnings("unchecked")
+    static <T> PathTrie<T> empty() {
+        return (PathTrie<T>) EMPTY;
+    }
+
+
+    /**
+     * Add a path to the trie, replacing any existing value for the same path.
+     *
+     * @param path  The path
+     * @param value The value to associate with the path
+     *
+     * @return a new trie containing the path
+     */
+    PathTrie<T> put(String path, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        return new PathTrie<>(put(root, path.toCharArray(), 0, value));
+    }
+
+
+    /**
+     * Remove a path from the trie.
+     *
+     * @param path The path
+     *
+     * @return a new trie without the path or this trie if the path was not present
+     */
+    PathTrie<T> remove(String path) {
+        Node<T> newRoot = remove(root, path.toCharArray(), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PathTrie<>(newRoot);
+    }
+
+
+    /**
+     * Find the value of the path that exactly matches the given characters.
+     *
+     * @param path The path to look up
+     *
+     * @return the matching value or <code>null</code> if there is none
+     */
+    T get(CharChunk path) {
+        char[] buf = path.getBuffer();
+        int pos = path.getStart();
+        int end = path.getEnd();
+        Node<T> node = root;
+        while (pos < end) {
+            node = node.getChild(buf, pos, end);
+            if (node == null) {
+                return null;
+            }
+            pos += node.label.length;
+        }
+        return node.value;
+    }
+
+
+    /**
+     * Find the value of the longest path that is a prefix of the given characters and that is either followed by
+     * <code>'/'</code> or is the complete sequence of characters. This is the matching rule for both context paths and
+     * path (wildcard) servlet mappings.
+     *
+     * @param path The path to look up
+     *
+     * @return the matching value or <code>null</code> if there is none
+     */
+    T getLongestPrefix(CharChunk path) {
+        char[] buf = path.getBuffer();
+        int pos = path.getStart();
+        int end = path.getEnd();
+        T result = null;
+        Node<T> node = root;
+        while (true) {
+            if (node.value != null && (pos == end || buf[pos] == '/')) {
+                result = node.value;
+            }
+            if (pos == end) {
+                return result;
+            }
+            node = node.getChild(buf, pos, end);
+            if (node == null) {
+                return result;
+            }
+            pos += node.label.length;
+        }
+    }
+
+
+    private static <T> Node<T> put(Node<T> node, char[] path, int pos, T value) {
+        if (pos == path.length) {
+            return new Node<>(node.label, value, node.childChars, node.children);
+        }
+        int index = Arrays.binarySearch(node.childChars, path[pos]);
+        if (index < 0) {
+            return node.addChild(-index - 1, new Node<>(Arrays.copyOfRange(path, pos, path.length), value));
+        }
+
+        Node<T> child = node.children[index];
+        int common = 1;
+        while (common < child.label.length && pos + common < path.length &&
+                child.label[common] == path[pos + common]) {
+            common++;
+        }
+        if (common == child.label.length) {
+            return node.setChild(index, put(child, path, pos + common, value));
+        }
+
+        // Split the child at the end of the common section
+        Node<T> tail = new Node<>(Arrays.copyOfRange(child.label, common, child.label.length), child.value,
+                child.childChars, child.children);
+        Node<T> split = new Node<>(Arrays.copyOf(child.label, common), null);
+        split = split.addChild(0, tail);
+        split = put(split, path, pos + common, value);
+        return node.setChild(index, split);
+    }
+
+
+    /*
+     * Returns the original node if the path is not present and null if the node is no longer required.
+     */
+    private static <T> Node<T> remove(Node<T> node, char[] path, int pos) {
+        if (pos == path.length) {
+            if (node.value == null) {
+                return node;
+            }
+            Node<T> result = new Node<>(node.label, null, node.childChars, node.children);
+            if (node.label.length == 0) {
+                // Never compact the root
+                return result;
+            }
+            return result.compact();
+        }
+        int index = Arrays.binarySearch(node.childChars, path[pos]);
+        if (index < 0) {
+            return node;
+        }
+        Node<T> child = node.children[index];
+        if (path.length - pos < child.label.length ||
+                !Arrays.equals(child.label, 0, child.label.length, path, pos, pos + child.label.length)) {
+            return node;
+        }
+        Node<T> newChild = remove(child, path, pos + child.label.length);
+        if (newChild == child) {
+            return node;
+        }
+        Node<T> result;
+        if (newChild == null) {
+            result = node.removeChild(index);
+        } else {
+            result = node.setChild(index, newChild);
+        }
+        if (node.label.length == 0) {
+            // Never compact the root
+            return result;
+        }
+        return result.compact();
+    }
+
+
+    private static final class Node<T> {
+
+        private final char[] label;
+        private final T value;
+        private final char[] childChars;
+        private final Node<T>[] children;
+
+        Node(char[] label, T value) {
+            this(label, value, new char[0], newArray(0));
+        }
+
+        Node(char[] label, T value, char[] childChars, Node<T>[] children) {
+            this.label = label;
+            this.value = value;
+            this.childChars = childChars;
+            this.children = children;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static <T> Node<T>[] newArray(int length) {
+            return new Node[length];
+        }
+
+        /*
+         * Returns the child that matches the characters starting at pos or null if there is no such child.
+         */
+        Node<T> getChild(char[] buf, int pos, int end) {
+            int index = Arrays.binarySearch(childChars, buf[pos]);
+            if (index < 0) {
+                return null;
+            }
+            Node<T> child = children[index];
+            char[] childLabel = child.label;
+            if (end - pos < childLabel.length) {
+                return null;
+            }
+            // The first character is known to match
+            for (int i = 1; i < childLabel.length; i++) {
+                if (buf[pos + i] != childLabel[i]) {
+                    return null;
+                }
+            }
+            return child;
+        }
+
+        Node<T> addChild(int index, Node<T> child) {
+            char[] newChildChars = new char[childChars.length + 1];
+            Node<T>[] newChildren = newArray(children.length + 1);
+            System.arraycopy(childChars, 0, newChildChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildChars[index] = child.label[0];
+            newChildren[index] = child;
+            System.arraycopy(childChars, index, newChildChars, index + 1, childChars.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            return new Node<>(label, value, newChildChars, newChildren);
+        }
+
+        Node<T> setChild(int index, Node<T> child) {
+            Node<T>[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new Node<>(label, value, childChars, newChildren);
+        }
+
+        Node<T> removeChild(int index) {
+            char[] newChildChars = new char[childChars.length - 1];
+            Node<T>[] newChildren = newArray(children.length - 1);
+            System.arraycopy(childChars, 0, newChildChars, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(childChars, index + 1, newChildChars, index, childChars.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new Node<>(label, value, newChildChars, newChildren);
+        }
+
+        /*
+         * Returns null if the node has no value and no children and merges the node with its only child if the node
+         * has no value.
+         */
+        Node<T> compact() {
+            if (value != null) {
+                return this;
+            }
+            if (children.length == 0) {
+                return null;
+            }
+            if (children.length == 1) {
+                Node<T> child = children[0];
+                char[] newLabel = Arrays.copyOf(label, label.length + child.label.length);
+                System.arraycopy(child.label, 0, newLabel, label.length, child.label.length);
+                return new Node<>(newLabel, child.value, child.childChars, child.children);
+            }
+            return this;
+        }
+    }
+}
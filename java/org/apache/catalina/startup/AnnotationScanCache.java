@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.startup;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tomcat.util.bcel.classfile.AnnotationEntry;
+import org.apache.tomcat.util.bcel.classfile.JavaClass;
+import org.apache.tomcat.util.scan.JarScanCache;
+
+/**
+ * Stores the information {@link ContextConfig} needs from each class in a JAR
+ * so that JARs that have not changed since the last time the web application
+ * was started do not have to be parsed again. The cache is held in a single
+ * file in the work directory of the web application.
+ * <p>
+ * The information recorded for each class is independent of the
+ * {@link jakarta.servlet.ServletContainerInitializer}s present so the cache
+ * remains valid if they change. The element values of {@code @WebServlet},
+ * {@code @WebFilter} and {@code @WebListener} annotations are not cached.
+ * Classes with those annotations are flagged so they can be read from the JAR
+ * if required.
+ * <p>
+ * Instances are safe for concurrent use by multiple scanning threads.
+ */
+final class AnnotationScanCache extends JarScanCache<List<AnnotationScanCache.ScannedClass>> {
+
+    static final String FILE_NAME = "annotation-scan.cache";
+
+    private static final int MAGIC = 0x54415343;
+    private static final int VERSION = 1;
+
+    private static final Set<String> WEB_ANNOTATIONS =
+            Set.of("Ljakarta/servlet/annotation/WebServlet;", "Ljakarta/servlet/annotation/WebFilter;",
+                    "Ljakarta/servlet/annotation/WebListener;");
+
+
+    private AnnotationScanCache(File file) {
+        super(file, MAGIC, VERSION);
+    }
+
+
+    /**
+     * Load the cache from the given work directory. If the cache file does not
+     * exist or cannot be read, an empty cache is returned.
+     *
+     * @param workDir The work directory of the web application
+     *
+     * @return The cache
+     */
+    static AnnotationScanCache load(File workDir) {
+        AnnotationScanCache cache = new AnnotationScanCache(new File(workDir, FILE_NAME));
+        cache.load();
+        return cache;
+    }
+
+
+    @Override
+    protected List<ScannedClass> readValue(DataInputStream in) throws IOException {
+        int classCount = in.readInt();
+        List<ScannedClass> classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classes.add(ScannedClass.read(in));
+        }
+        return Collections.unmodifiableList(classes);
+    }
+
+
+    @Override
+    protected void writeValue(DataOutputStream out, List<ScannedClass> classes) throws IOException {
+        out.writeInt(classes.size());
+        for (ScannedClass scannedClass : classes) {
+            scannedClass.write(out);
+        }
+    }
+
+
+    /**
+     * The information about a class that is required to check for
+     * {@link jakarta.servlet.annotation.HandlesTypes} matches along with a
+     * flag that indicates if the class has annotations that need to be
+     * processed to configure the web application.
+     */
+    static final class ScannedClass {
+        private final String entryName;
+        private final String className;
+        private final int accessFlags;
+        private final String superclassName;
+        private final String[] interfaceNames;
+        private final String[] annotationTypes;
+        private final boolean webAnnotated;
+
+        ScannedClass(String entryName, JavaClass javaClass) {
+            this.entryName = entryName;
+            this.className = javaClass.getClassName();
+            this.accessFlags = javaClass.getAccessFlags();
+            this.superclassName = javaClass.getSuperclassName();
+            this.interfaceNames = javaClass.getInterfaceNames();
+
+            Set<String> types = new LinkedHashSet<>();
+            AnnotationEntry[] annotationEntries = javaClass.getAllAnnotationEntries();
+            if (annotationEntries != null) {
+                for (AnnotationEntry annotationEntry : annotationEntries) {
+                    types.add(annotationEntry.getAnnotationType());
+                }
+            }
+            this.annotationTypes = types.toArray(new String[0]);
+
+            boolean webAnnotated = false;
+            annotationEntries = javaClass.getAnnotationEntries();
+            if (annotationEntries != null) {
+                for (AnnotationEntry annotationEntry : annotationEntries) {
+                    if (WEB_ANNOTATIONS.contains(annotationEntry.getAnnotationType())) {
+                        webAnnotated = true;
+                        break;
+                    }
+                }
+            }
+            this.webAnnotated = webAnnotated;
+        }
+
+        private ScannedClass(String entryName, String className, int accessFlags, String superclassName,
+                String[] interfaceNames, String[] annotationTypes, boolean webAnnotated) {
+            this.entryName = entryName;
+            this.className = className;
+            this.accessFlags = accessFlags;
+            this.superclassName = superclassName;
+            this.interfaceNames = interfaceNames;
+            this.annotationTypes = annotationTypes;
+            this.webAnnotated = webAnnotated;
+        }
+
+        String getEntryName() {
+            return entryName;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        int getAccessFlags() {
+            return accessFlags;
+        }
+
+        String getSuperclassName() {
+            return superclassName;
+        }
+
+        String[] getInterfaceNames() {
+            return interfaceNames;
+        }
+
+        /**
+         * @return The types, in internal form, of the annotations on the
+         *             class, its fields and its methods
+         */
+        String[] getAnnotationTypes() {
+            return annotationTypes;
+        }
+
+        /**
+         * @return {@code true} if the class is annotated with
+         *             {@code @WebServlet}, {@code @WebFilter} or
+         *             {@code @WebListener}
+         */
+        boolean isWebAnnotated() {
+            return webAnnotated;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(entryName);
+            out.writeUTF(className);
+            out.writeInt(accessFlags);
+            out.writeUTF(superclassName);
+            writeArray(out, interfaceNames);
+            writeArray(out, annotationTypes);
+            out.writeBoolean(webAnnotated);
+        }
+
+        private static ScannedClass read(DataInputStream in) throws IOException {
+            return new ScannedClass(in.readUTF(), in.readUTF(), in.readInt(), in.readUTF(), readArray(in),
+                    readArray(in), in.readBoolean());
+        }
+
+        private static void writeArray(DataOutputStream out, String[] values) throws IOException {
+            out.writeInt(values.length);
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String[] readArray(DataInputStream in) throws IOException {
+            String[] result = new String[in.readInt()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = in.readUTF();
+            }
+            return result;
+        }
+    }}
@@ -477,6 +477,12 @@ public class Catalina {
         digester.addSetNext("Server/Service/Connector/UpgradeProtocol", "addUpgradeProtocol",
                 "org.apache.coyote.UpgradeProtocol");
 
+        digester.addObjectCreate("Server/Service/Connector/ConcurrencyLimiter", null, // MUST be specified in the element
+                "className");
+        digester.addSetProperties("Server/Service/Connector/ConcurrencyLimiter");
+        digester.addSetNext("Server/Service/Connector/ConcurrencyLimiter", "setConcurrencyLimiter",
+                "org.apache.coyote.ConcurrencyLimiter");
+
         // Add RuleSets for nested elements
         digester.addRuleSet(new NamingRuleSet("Server/GlobalNamingResources/"));
         digester.addRuleSet(new EngineRuleSet("Server/Service/"));
@@ -22,12 +22,14 @@ import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -230,6 +232,12 @@ public class ContextConfig implements LifecycleListener {
      */
     protected boolean handlesTypesNonAnnotations = false;
 
+    /**
+     * Cache of the results of scanning JARs for annotations. Only set while the classes are being processed and only
+     * if enabled for the context.
+     */
+    private AnnotationScanCache annotationScanCache = null;
+
 
     // ------------------------------------------------------------- Properties
 
@@ -1017,10 +1025,7 @@ public class ContextConfig implements LifecycleListener {
         }
 
         // Removing security constraints
-        SecurityConstraint[] securityConstraints = context.findConstraints();
-        for (i = 0; i < securityConstraints.length; i++) {
-            context.removeConstraint(securityConstraints[i]);
-        }
+        context.removeConstraints();
 
         // Removing errors pages
         ErrorPage[] errorPages = context.findErrorPages();
@@ -1053,10 +1058,7 @@ public class ContextConfig implements LifecycleListener {
         }
 
         // Removing security role
-        String[] securityRoles = context.findSecurityRoles();
-        for (i = 0; i < securityRoles.length; i++) {
-            context.removeSecurityRole(securityRoles[i]);
-        }
+        context.removeSecurityRoles();
 
         // Removing servlet mappings
         String[] servletMappings = context.findServletMappings();
@@ -1148,14 +1150,19 @@ public class ContextConfig implements LifecycleListener {
      */
     protected void validateSecurityRoles() {
 
+        // Context.findSecurityRole() is a linear search. Use a local copy of
+        // the roles so large applications don't take quadratic time here.
+        Set<String> securityRoles = new HashSet<>(Arrays.asList(context.findSecurityRoles()));
+
         // Check role names used in <security-constraint> elements
         SecurityConstraint constraints[] = context.findConstraints();
         for (SecurityConstraint constraint : constraints) {
             String roles[] = constraint.findAuthRoles();
             for (String role : roles) {
-                if (!"*".equals(role) && !context.findSecurityRole(role)) {
+                if (!"*".equals(role) && !securityRoles.contains(role)) {
                     log.warn(sm.getString("contextConfig.role.auth", role));
                     context.addSecurityRole(role);
+                    securityRoles.add(role);
                 }
             }
         }
@@ -1165,16 +1172,18 @@ public class ContextConfig implements LifecycleListener {
         for (Container container : wrappers) {
             Wrapper wrapper = (Wrapper) container;
             String runAs = wrapper.getRunAs();
-            if ((runAs != null) && !context.findSecurityRole(runAs)) {
+            if ((runAs != null) && !securityRoles.contains(runAs)) {
                 log.warn(sm.getString("contextConfig.role.runas", runAs));
                 context.addSecurityRole(runAs);
+                securityRoles.add(runAs);
             }
             String names[] = wrapper.findSecurityReferences();
             for (String name : names) {
                 String link = wrapper.findSecurityReference(name);
-                if ((link != null) && !context.findSecurityRole(link)) {
+                if ((link != null) && !securityRoles.contains(link)) {
                     log.warn(sm.getString("contextConfig.role.link", link));
                     context.addSecurityRole(link);
+                    securityRoles.add(link);
                 }
             }
         }
@@ -1231,10 +1240,36 @@ public class ContextConfig implements LifecycleListener {
 
         WebXml webXml = createWebXml();
 
-        // Parse context level web.xml
-        InputSource contextWebXml = getContextWebXmlSource();
-        if (!webXmlParser.parseWebXml(contextWebXml, webXml, false)) {
-            ok = false;
+        // Parse context level web.xml or, if there is one for the current
+        // state of the application, the snapshot of the merged web.xml
+        String snapshotFingerprint = null;
+        File workDir = null;
+        WebXmlSnapshot snapshot = null;
+        boolean fromSnapshot = false;
+        if (context instanceof StandardContext && ((StandardContext) context).getUseWebXmlSnapshot()) {
+            workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+            if (workDir != null) {
+                snapshotFingerprint = WebXmlSnapshot.createFingerprint(context);
+                snapshot = WebXmlSnapshot.load(workDir, snapshotFingerprint);
+                if (snapshot != null) {
+                    InputSource source = new InputSource(new StringReader(snapshot.getWebXml()));
+                    source.setSystemId(new File(workDir, WebXmlSnapshot.FILE_NAME).toURI().toString());
+                    if (webXmlParser.parseWebXml(source, webXml, false) && webXml.isMetadataComplete()) {
+                        fromSnapshot = true;
+                        if (log.isDebugEnabled()) {
+                            log.debug(sm.getString("contextConfig.webXmlSnapshot.used", context.getName()));
+                        }
+                    } else {
+                        webXml = createWebXml();
+                    }
+                }
+            }
+        }
+        if (!fromSnapshot) {
+            InputSource contextWebXml = getContextWebXmlSource();
+            if (!webXmlParser.parseWebXml(contextWebXml, webXml, false)) {
+                ok = false;
+            }
         }
 
         ServletContext sContext = context.getServletContext();
@@ -1247,6 +1282,24 @@ public class ContextConfig implements LifecycleListener {
         // files are ignored for container provided JARs.
         Map<String,WebXml> fragments = processJarsForWebFragments(webXml, webXmlParser);
 
+        String fragmentsFingerprint = null;
+        if (snapshotFingerprint != null) {
+            fragmentsFingerprint = WebXmlSnapshot.createFragmentsFingerprint(fragments);
+            if (fromSnapshot && !fragmentsFingerprint.equals(snapshot.getFragmentsFingerprint())) {
+                // The JARs found by the JAR scanner have changed. The JAR scan
+                // does not need to be repeated as the snapshot has the same
+                // ordering as the application web.xml.
+                if (log.isDebugEnabled()) {
+                    log.debug(sm.getString("contextConfig.webXmlSnapshot.fragmentsChanged", context.getName()));
+                }
+                fromSnapshot = false;
+                webXml = createWebXml();
+                if (!webXmlParser.parseWebXml(getContextWebXmlSource(), webXml, false)) {
+                    ok = false;
+                }
+            }
+        }
+
         // Step 2. Order the fragments.
         Set<WebXml> orderedFragments = null;
         orderedFragments = WebXml.orderWebFragments(webXml, fragments, sContext);
@@ -1268,6 +1321,12 @@ public class ContextConfig implements LifecycleListener {
                 ok = webXml.merge(orderedFragments);
             }
 
+            // Versions prior to 2.5 cannot be marked as metadata complete
+            if (ok && snapshotFingerprint != null &&
+                    (webXml.getMajorVersion() > 2 || webXml.getMinorVersion() > 4)) {
+                WebXmlSnapshot.save(workDir, snapshotFingerprint, fragmentsFingerprint, webXml.toXml());
+            }
+
             // Step 7a
             // merge tomcat-web.xml
             webXml.merge(tomcatWebXml);
@@ -1291,6 +1350,12 @@ public class ContextConfig implements LifecycleListener {
             webXml.merge(defaults);
             convertJsps(webXml);
             configureContext(webXml);
+            if (fromSnapshot) {
+                // The snapshot is only marked as metadata complete because
+                // the annotations have already been merged into it. Other
+                // annotations still need to be processed.
+                context.setIgnoreAnnotations(false);
+            }
         }
 
         if (context.getLogEffectiveWebXml()) {
@@ -1357,7 +1422,15 @@ public class ContextConfig implements LifecycleListener {
         // are going to use (remember orderedFragments includes any
         // container fragments)
         if (ok) {
-            processAnnotations(orderedFragments, webXml.isMetadataComplete(), javaClassCache);
+            annotationScanCache = loadAnnotationScanCache();
+            try {
+                processAnnotations(orderedFragments, webXml.isMetadataComplete(), javaClassCache);
+            } finally {
+                if (annotationScanCache != null) {
+                    annotationScanCache.save();
+                    annotationScanCache = null;
+                }
+            }
         }
 
         // Cache, if used, is no longer required so clear it
@@ -1365,6 +1438,40 @@ public class ContextConfig implements LifecycleListener {
     }
 
 
+    private AnnotationScanCache loadAnnotationScanCache() {
+        if (!(context instanceof StandardContext) || !((StandardContext) context).getUseAnnotationScanCache()) {
+            return null;
+        }
+        File workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        if (workDir == null) {
+            return null;
+        }
+        if (isProcessAnnotationsStreamOverridden()) {
+            // The cached results would bypass the sub-class
+            if (log.isDebugEnabled()) {
+                log.debug(sm.getString("contextConfig.annotationScanCache.overridden", getClass().getName(),
+                        context.getName()));
+            }
+            return null;
+        }
+        return AnnotationScanCache.load(workDir);
+    }
+
+
+    private boolean isProcessAnnotationsStreamOverridden() {
+        for (Class<?> clazz = getClass(); clazz != ContextConfig.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod("processAnnotationsStream", InputStream.class, WebXml.class, boolean.class,
+                        Map.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Check the super class
+            }
+        }
+        return false;
+    }
+
+
     private void configureContext(WebXml webxml) {
         // As far as possible, process in alphabetical order so it is easy to
         // check everything is present
@@ -2171,6 +2278,18 @@ public class ContextConfig implements LifecycleListener {
     protected void processAnnotationsJar(URL url, WebXml fragment, boolean handlesTypesOnly,
             Map<String,JavaClassCacheEntry> javaClassCache) {
 
+        AnnotationScanCache scanCache = annotationScanCache;
+        if (scanCache != null) {
+            List<AnnotationScanCache.ScannedClass> scannedClasses = scanCache.get(url);
+            if (scannedClasses != null) {
+                processAnnotationsScannedClasses(url, scannedClasses, fragment, handlesTypesOnly, javaClassCache);
+                return;
+            }
+        }
+
+        // Only populated if the results will be cached
+        List<AnnotationScanCache.ScannedClass> scannedClasses = (scanCache == null) ? null : new ArrayList<>();
+
         try (Jar jar = JarFactory.newInstance(url)) {
             if (log.isTraceEnabled()) {
                 log.trace(sm.getString("contextConfig.processAnnotationsJar.debug", url));
@@ -2181,7 +2300,70 @@ public class ContextConfig implements LifecycleListener {
             while (entryName != null) {
                 if (entryName.endsWith(".class")) {
                     try (InputStream is = jar.getEntryInputStream()) {
-                        processAnnotationsStream(is, fragment, handlesTypesOnly, javaClassCache);
+                        if (scannedClasses == null) {
+                            processAnnotationsStream(is, fragment, handlesTypesOnly, javaClassCache);
+                        } else {
+                            // The cache is only used if processAnnotationsStream() has not been overridden
+                            JavaClass clazz = processAnnotationsClassStream(is, fragment, handlesTypesOnly,
+                                    javaClassCache);
+                            scannedClasses.add(new AnnotationScanCache.ScannedClass(entryName, clazz));
+                        }
+                    } catch (IOException | ClassFormatException e) {
+                        log.error(sm.getString("contextConfig.inputStreamJar", entryName, url), e);
+                        // Scan again next time so the error is reported again
+                        scannedClasses = null;
+                    }
+                }
+                jar.nextEntry();
+                entryName = jar.getEntryName();
+            }
+        } catch (IOException e) {
+            log.error(sm.getString("contextConfig.jarFile", url), e);
+            scannedClasses = null;
+        }
+
+        if (scannedClasses != null) {
+            scanCache.put(url, scannedClasses);
+        }
+    }
+
+
+    /*
+     * Processes a JAR using the results of a previous scan. The JAR only needs to be read if it contains classes with
+     * annotations that configure the web application and those annotations need to be processed.
+     */
+    private void processAnnotationsScannedClasses(URL url, List<AnnotationScanCache.ScannedClass> scannedClasses,
+            WebXml fragment, boolean handlesTypesOnly, Map<String,JavaClassCacheEntry> javaClassCache) {
+
+        if (log.isTraceEnabled()) {
+            log.trace(sm.getString("contextConfig.processAnnotationsJar.cached", url));
+        }
+
+        Set<String> webAnnotatedEntries = null;
+        for (AnnotationScanCache.ScannedClass scannedClass : scannedClasses) {
+            checkHandlesTypes(scannedClass.getClassName(), scannedClass.getAccessFlags(),
+                    scannedClass.getSuperclassName(), scannedClass.getInterfaceNames(),
+                    scannedClass.getAnnotationTypes(), javaClassCache);
+            if (!handlesTypesOnly && scannedClass.isWebAnnotated()) {
+                if (webAnnotatedEntries == null) {
+                    webAnnotatedEntries = new HashSet<>();
+                }
+                webAnnotatedEntries.add(scannedClass.getEntryName());
+            }
+        }
+
+        if (webAnnotatedEntries == null) {
+            return;
+        }
+
+        try (Jar jar = JarFactory.newInstance(url)) {
+            jar.nextEntry();
+            String entryName = jar.getEntryName();
+            while (entryName != null) {
+                if (webAnnotatedEntries.contains(entryName)) {
+                    try (InputStream is = jar.getEntryInputStream()) {
+                        ClassParser parser = new ClassParser(is);
+                        processClass(fragment, parser.parse());
                     } catch (IOException | ClassFormatException e) {
                         log.error(sm.getString("contextConfig.inputStreamJar", entryName, url), e);
                     }
@@ -2221,16 +2403,21 @@ public class ContextConfig implements LifecycleListener {
 
     protected void processAnnotationsStream(InputStream is, WebXml fragment, boolean handlesTypesOnly,
             Map<String,JavaClassCacheEntry> javaClassCache) throws ClassFormatException, IOException {
+        processAnnotationsClassStream(is, fragment, handlesTypesOnly, javaClassCache);
+    }
+
+
+    private JavaClass processAnnotationsClassStream(InputStream is, WebXml fragment, boolean handlesTypesOnly,
+            Map<String,JavaClassCacheEntry> javaClassCache) throws ClassFormatException, IOException {
 
         ClassParser parser = new ClassParser(is);
         JavaClass clazz = parser.parse();
         checkHandlesTypes(clazz, javaClassCache);
 
-        if (handlesTypesOnly) {
-            return;
+        if (!handlesTypesOnly) {
+            processClass(fragment, clazz);
         }
-
-        processClass(fragment, clazz);
+        return clazz;
     }
 
 
@@ -2268,17 +2455,43 @@ public class ContextConfig implements LifecycleListener {
             return;
         }
 
-        if ((javaClass.getAccessFlags() & org.apache.tomcat.util.bcel.Const.ACC_ANNOTATION) != 0) {
-            // Skip annotations.
+        String[] annotationTypes = null;
+        if (handlesTypesAnnotations) {
+            AnnotationEntry[] annotationEntries = javaClass.getAllAnnotationEntries();
+            if (annotationEntries != null) {
+                annotationTypes = new String[annotationEntries.length];
+                for (int i = 0; i < annotationEntries.length; i++) {
+                    annotationTypes[i] = annotationEntries[i].getAnnotationType();
+                }
+            }
+        }
+
+        checkHandlesTypes(javaClass.getClassName(), javaClass.getAccessFlags(), javaClass.getSuperclassName(),
+                javaClass.getInterfaceNames(), annotationTypes, javaClassCache);
+    }
+
+
+    /*
+     * Performs the check for a class that may have been parsed during a previous start of the web application.
+     * annotationTypes are in internal form and may be null if the class has no annotations.
+     */
+    private void checkHandlesTypes(String className, int accessFlags, String superclassName, String[] interfaceNames,
+            String[] annotationTypes, Map<String,JavaClassCacheEntry> javaClassCache) {
+
+        // Skip this if we can
+        if (typeInitializerMap.size() == 0) {
             return;
         }
 
-        String className = javaClass.getClassName();
+        if ((accessFlags & org.apache.tomcat.util.bcel.Const.ACC_ANNOTATION) != 0) {
+            // Skip annotations.
+            return;
+        }
 
         Class<?> clazz = null;
         if (handlesTypesNonAnnotations) {
             // This *might* be match for a HandlesType.
-            populateJavaClassCache(className, javaClass, javaClassCache);
+            populateJavaClassCache(className, superclassName, interfaceNames, javaClassCache);
             JavaClassCacheEntry entry = javaClassCache.get(className);
             if (entry.getSciSet() == null) {
                 try {
@@ -2304,13 +2517,12 @@ public class ContextConfig implements LifecycleListener {
         }
 
         if (handlesTypesAnnotations) {
-            AnnotationEntry[] annotationEntries = javaClass.getAllAnnotationEntries();
-            if (annotationEntries != null) {
+            if (annotationTypes != null) {
                 for (Map.Entry<Class<?>,Set<ServletContainerInitializer>> entry : typeInitializerMap.entrySet()) {
                     if (entry.getKey().isAnnotation()) {
                         String entryClassName = entry.getKey().getName();
-                        for (AnnotationEntry annotationEntry : annotationEntries) {
-                            if (entryClassName.equals(getClassName(annotationEntry.getAnnotationType()))) {
+                        for (String annotationType : annotationTypes) {
+                            if (entryClassName.equals(getClassName(annotationType))) {
                                 if (clazz == null) {
                                     clazz = Introspection.loadClass(context, className);
                                     if (clazz == null) {
@@ -2356,18 +2568,18 @@ public class ContextConfig implements LifecycleListener {
         return msg.toString();
     }
 
-    private void populateJavaClassCache(String className, JavaClass javaClass,
+    private void populateJavaClassCache(String className, String superclassName, String[] interfaceNames,
             Map<String,JavaClassCacheEntry> javaClassCache) {
         if (javaClassCache.containsKey(className)) {
             return;
         }
 
         // Add this class to the cache
-        javaClassCache.put(className, new JavaClassCacheEntry(javaClass));
+        javaClassCache.put(className, new JavaClassCacheEntry(superclassName, interfaceNames));
 
-        populateJavaClassCache(javaClass.getSuperclassName(), javaClassCache);
+        populateJavaClassCache(superclassName, javaClassCache);
 
-        for (String interfaceName : javaClass.getInterfaceNames()) {
+        for (String interfaceName : interfaceNames) {
             populateJavaClassCache(interfaceName, javaClassCache);
         }
     }
@@ -2381,7 +2593,8 @@ public class ContextConfig implements LifecycleListener {
                 }
                 ClassParser parser = new ClassParser(is);
                 JavaClass clazz = parser.parse();
-                populateJavaClassCache(clazz.getClassName(), clazz, javaClassCache);
+                populateJavaClassCache(clazz.getClassName(), clazz.getSuperclassName(), clazz.getInterfaceNames(),
+                        javaClassCache);
             } catch (ClassFormatException | IOException e) {
                 log.debug(sm.getString("contextConfig.invalidSciHandlesTypes", className), e);
             }
@@ -2764,8 +2977,12 @@ public class ContextConfig implements LifecycleListener {
         private Set<ServletContainerInitializer> sciSet = null;
 
         JavaClassCacheEntry(JavaClass javaClass) {
-            superclassName = javaClass.getSuperclassName();
-            interfaceNames = javaClass.getInterfaceNames();
+            this(javaClass.getSuperclassName(), javaClass.getInterfaceNames());
+        }
+
+        JavaClassCacheEntry(String superclassName, String[] interfaceNames) {
+            this.superclassName = superclassName;
+            this.interfaceNames = interfaceNames;
         }
 
         public String getSuperclassName() {
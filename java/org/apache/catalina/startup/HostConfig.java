@@ -31,6 +31,7 @@ import java.security.PermissionCollection;
 import java.security.Policy;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -417,12 +418,22 @@ public class HostConfig implements LifecycleListener {
         File appBase = host.getAppBaseFile();
         File configBase = host.getConfigBaseFile();
         String[] filteredAppPaths = filterAppPaths(appBase.list());
+        /*
+         * The three types of deployment are submitted to the start/stop executor without waiting for the previous type
+         * to complete so the expansion of WARs, JAR scanning and class loading of different applications overlap. The
+         * order of submission and the serviced set ensure that, for any context name, a descriptor takes precedence
+         * over a WAR which takes precedence over a directory.
+         */
         // Deploy XML descriptors from configBase
-        deployDescriptors(configBase, configBase.list());
+        List<Future<?>> descriptorResults = submitDescriptors(configBase, configBase.list());
         // Deploy WARs
-        deployWARs(appBase, filteredAppPaths);
+        List<Future<?>> warResults = submitWARs(appBase, filteredAppPaths);
         // Deploy expanded folders
-        deployDirectories(appBase, filteredAppPaths);
+        List<Future<?>> dirResults = submitDirectories(appBase, filteredAppPaths);
+
+        waitForDeployments(descriptorResults, "hostConfig.deployDescriptor.threaded.error");
+        waitForDeployments(warResults, "hostConfig.deployWar.threaded.error");
+        waitForDeployments(dirResults, "hostConfig.deployDir.threaded.error");
     }
 
 
@@ -505,9 +516,14 @@ public class HostConfig implements LifecycleListener {
      * @param files      The XML descriptors which should be deployed
      */
     protected void deployDescriptors(File configBase, String[] files) {
+        waitForDeployments(submitDescriptors(configBase, files), "hostConfig.deployDescriptor.threaded.error");
+    }
+
+
+    private List<Future<?>> submitDescriptors(File configBase, String[] files) {
 
         if (files == null) {
-            return;
+            return Collections.emptyList();
         }
 
         ExecutorService es = host.getStartStopExecutor();
@@ -537,13 +553,7 @@ public class HostConfig implements LifecycleListener {
             }
         }
 
-        for (Future<?> result : results) {
-            try {
-                result.get();
-            } catch (Exception e) {
-                log.error(sm.getString("hostConfig.deployDescriptor.threaded.error"), e);
-            }
-        }
+        return results;
     }
 
 
@@ -714,9 +724,14 @@ public class HostConfig implements LifecycleListener {
      * @param files   The WARs to deploy
      */
     protected void deployWARs(File appBase, String[] files) {
+        waitForDeployments(submitWARs(appBase, files), "hostConfig.deployWar.threaded.error");
+    }
+
+
+    private List<Future<?>> submitWARs(File appBase, String[] files) {
 
         if (files == null) {
-            return;
+            return Collections.emptyList();
         }
 
         ExecutorService es = host.getStartStopExecutor();
@@ -778,13 +793,7 @@ public class HostConfig implements LifecycleListener {
             }
         }
 
-        for (Future<?> result : results) {
-            try {
-                result.get();
-            } catch (Exception e) {
-                log.error(sm.getString("hostConfig.deployWar.threaded.error"), e);
-            }
-        }
+        return results;
     }
 
 
@@ -1010,9 +1019,14 @@ public class HostConfig implements LifecycleListener {
      * @param files   The exploded webapps that should be deployed
      */
     protected void deployDirectories(File appBase, String[] files) {
+        waitForDeployments(submitDirectories(appBase, files), "hostConfig.deployDir.threaded.error");
+    }
+
+
+    private List<Future<?>> submitDirectories(File appBase, String[] files) {
 
         if (files == null) {
-            return;
+            return Collections.emptyList();
         }
 
         ExecutorService es = host.getStartStopExecutor();
@@ -1048,11 +1062,16 @@ public class HostConfig implements LifecycleListener {
             }
         }
 
+        return results;
+    }
+
+
+    private void waitForDeployments(List<Future<?>> results, String errorKey) {
         for (Future<?> result : results) {
             try {
                 result.get();
             } catch (Exception e) {
-                log.error(sm.getString("hostConfig.deployDir.threaded.error"), e);
+                log.error(sm.getString(errorKey), e);
             }
         }
     }
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.startup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Globals;
+import org.apache.catalina.WebResource;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.util.ServerInfo;
+import org.apache.juli.logging.Log;
+import org.apache.juli.logging.LogFactory;
+import org.apache.tomcat.JarScanFilter;
+import org.apache.tomcat.JarScanner;
+import org.apache.tomcat.util.descriptor.web.WebXml;
+import org.apache.tomcat.util.res.StringManager;
+import org.apache.tomcat.util.scan.StandardJarScanFilter;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+/**
+ * Stores the web.xml of a web application after the annotations and the
+ * web-fragment.xml files have been merged into it so that later starts of the
+ * same, unchanged, web application can use it in place of the application
+ * web.xml and skip annotation scanning and fragment merging. The snapshot is
+ * held in a single file in the work directory of the web application.
+ * <p>
+ * The snapshot is written as a metadata complete web.xml. It is only used if
+ * the fingerprint of the web application, calculated from the size and last
+ * modified time of the web.xml, the JARs in /WEB-INF/lib and the classes in
+ * /WEB-INF/classes along with the Tomcat version and the JAR scanner
+ * configuration, matches the fingerprint recorded when the snapshot was
+ * written. The JARs found by the JAR scanner, including those provided by the
+ * container, are only known once the snapshot has been read so they are
+ * recorded in a separate fingerprint that is checked once the JARs have been
+ * scanned.
+ */
+final class WebXmlSnapshot {
+
+    private static final Log log = LogFactory.getLog(WebXmlSnapshot.class);
+    private static final StringManager sm = StringManager.getManager(Constants.Package);
+
+    static final String FILE_NAME = "web-xml.snapshot";
+
+    private static final int MAGIC = 0x54575853;
+    private static final int VERSION = 2;
+
+    private static final String FRAGMENT_LOCATION = "META-INF/web-fragment.xml";
+
+
+    private final String fragmentsFingerprint;
+    private final String webXml;
+
+
+    private WebXmlSnapshot(String fragmentsFingerprint, String webXml) {
+        this.fragmentsFingerprint = fragmentsFingerprint;
+        this.webXml = webXml;
+    }
+
+
+    /**
+     * @return the fingerprint of the JARs found by the JAR scanner when the
+     *             snapshot was written
+     */
+    String getFragmentsFingerprint() {
+        return fragmentsFingerprint;
+    }
+
+
+    /**
+     * @return the merged web.xml
+     */
+    String getWebXml() {
+        return webXml;
+    }
+
+
+    /**
+     * Calculate the fingerprint of the current state of a web application.
+     *
+     * @param context The web application
+     *
+     * @return The fingerprint
+     */
+    static String createFingerprint(Context context) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(ServerInfo.getServerNumber());
+
+        WebResourceRoot resources = context.getResources();
+        String altDDName = (String) context.getServletContext().getAttribute(Globals.ALT_DD_ATTR);
+        if (altDDName != null) {
+            File altDD = new File(altDDName);
+            sb.append('|').append(altDD.getAbsolutePath());
+            sb.append(':').append(altDD.length()).append(':').append(altDD.lastModified());
+        } else {
+            appendResource(sb, resources.getResource(Constants.ApplicationWebXml));
+        }
+
+        for (WebResource jar : resources.listResources("/WEB-INF/lib")) {
+            appendResource(sb, jar);
+        }
+
+        long[] classes = new long[3];
+        addClasses(resources, "/WEB-INF/classes", classes);
+        sb.append("|classes:").append(classes[0]).append(':').append(classes[1]).append(':').append(classes[2]);
+
+        // The JAR scanner configuration determines which JARs are scanned
+        JarScanner jarScanner = context.getJarScanner();
+        sb.append("|scanner:").append(jarScanner.getClass().getName());
+        if (jarScanner instanceof StandardJarScanner) {
+            StandardJarScanner standardJarScanner = (StandardJarScanner) jarScanner;
+            sb.append(':').append(standardJarScanner.isScanClassPath());
+            sb.append(':').append(standardJarScanner.isScanManifest());
+            sb.append(':').append(standardJarScanner.isScanAllFiles());
+            sb.append(':').append(standardJarScanner.isScanAllDirectories());
+            sb.append(':').append(standardJarScanner.isScanBootstrapClassPath());
+        }
+        JarScanFilter jarScanFilter = jarScanner.getJarScanFilter();
+        if (jarScanFilter != null) {
+            sb.append("|filter:").append(jarScanFilter.getClass().getName());
+            if (jarScanFilter instanceof StandardJarScanFilter) {
+                StandardJarScanFilter standardJarScanFilter = (StandardJarScanFilter) jarScanFilter;
+                sb.append(':').append(standardJarScanFilter.getPluggabilitySkip());
+                sb.append(':').append(standardJarScanFilter.getPluggabilityScan());
+                sb.append(':').append(standardJarScanFilter.isDefaultPluggabilityScan());
+            }
+        }
+        if (context instanceof StandardContext) {
+            sb.append("|delegate:").append(((StandardContext) context).getDelegate());
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Calculate the fingerprint of the JARs found by the JAR scanner. This
+     * includes JARs provided by the container and shared JARs as well as the
+     * JARs packaged with the web application.
+     *
+     * @param fragments The fragments for the JARs found by the JAR scanner
+     *
+     * @return The fingerprint
+     */
+    static String createFragmentsFingerprint(Map<String,WebXml> fragments) {
+        StringBuilder sb = new StringBuilder(256);
+        for (WebXml fragment : new TreeMap<>(fragments).values()) {
+            URL url = fragment.getURL();
+            sb.append('|').append(fragment.getName()).append(':').append(fragment.getWebappJar());
+            sb.append(':').append(url);
+            if (url != null && "file".equals(url.getProtocol())) {
+                try {
+                    File file = new File(url.toURI());
+                    if (file.isDirectory()) {
+                        file = new File(file, FRAGMENT_LOCATION);
+                    }
+                    sb.append(':').append(file.length()).append(':').append(file.lastModified());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // Use the URL alone
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+
+    /**
+     * Load the snapshot from the given work directory.
+     *
+     * @param workDir     The work directory of the web application
+     * @param fingerprint The current fingerprint of the web application
+     *
+     * @return The snapshot or {@code null} if there is no snapshot or the
+     *             snapshot was written for a different fingerprint
+     */
+    static WebXmlSnapshot load(File workDir, String fingerprint) {
+        File file = new File(workDir, FILE_NAME);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(sm.getString("webXmlSnapshot.invalid"));
+            }
+            if (!fingerprint.equals(readString(in))) {
+                return null;
+            }
+            String fragmentsFingerprint = readString(in);
+            return new WebXmlSnapshot(fragmentsFingerprint, readString(in));
+        } catch (FileNotFoundException e) {
+            // First start with snapshots enabled
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn(sm.getString("webXmlSnapshot.loadFail", file.getAbsolutePath()), e);
+            return null;
+        }
+    }
+
+
+    /**
+     * Write the snapshot to the given work directory, replacing any existing
+     * snapshot.
+     *
+     * @param workDir              The work directory of the web application
+     * @param fingerprint          The current fingerprint of the web
+     *                                 application
+     * @param fragmentsFingerprint The current fingerprint of the JARs found
+     *                                 by the JAR scanner
+     * @param xml                  The merged web.xml
+     */
+    static void save(File workDir, String fingerprint, String fragmentsFingerprint, String xml) {
+        if (!workDir.isDirectory()) {
+            return;
+        }
+        File file = new File(workDir, FILE_NAME);
+        File tmp = new File(workDir, FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, fingerprint);
+                writeString(out, fragmentsFingerprint);
+                writeString(out, xml);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            log.warn(sm.getString("webXmlSnapshot.saveFail", file.getAbsolutePath()), e);
+            if (tmp.exists() && !tmp.delete()) {
+                log.warn(sm.getString("webXmlSnapshot.deleteFail", tmp.getAbsolutePath()));
+            }
+        }
+    }
+
+
+    private static void appendResource(StringBuilder sb, WebResource resource) {
+        sb.append('|').append(resource.getName());
+        if (resource.exists()) {
+            sb.append(':').append(resource.getContentLength()).append(':').append(resource.getLastModified());
+        }
+    }
+
+
+    /*
+     * Records the number of files, their total size and the most recent last
+     * modified time. Sufficient to detect added, removed and updated classes.
+     */
+    private static void addClasses(WebResourceRoot resources, String path, long[] classes) {
+        for (WebResource resource : resources.listResources(path)) {
+            if (resource.isDirectory()) {
+                addClasses(resources, resource.getWebappPath(), classes);
+            } else if (resource.isFile()) {
+                classes[0]++;
+                classes[1] += resource.getContentLength();
+                classes[2] = Math.max(classes[2], resource.getLastModified());
+            }
+        }
+    }
+
+
+    /*
+     * DataOutput.writeUTF() is limited to 64k which is not sufficient for
+     * larger web applications.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException(sm.getString("webXmlSnapshot.invalid"));
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
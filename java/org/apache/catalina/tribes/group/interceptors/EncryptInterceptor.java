@@ -112,17 +112,8 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
     public void sendMessage(Member[] destination, ChannelMessage msg, InterceptorPayload payload)
             throws ChannelException {
         try {
-            byte[] data = msg.getMessage().getBytes();
-
-            // See #encrypt(byte[]) for an explanation of the return value
-            byte[][] bytes = encryptionManager.encrypt(data);
-
-            XByteBuffer xbb = msg.getMessage();
-
-            // Completely replace the message
-            xbb.clear();
-            xbb.append(bytes[0], 0, bytes[0].length);
-            xbb.append(bytes[1], 0, bytes[1].length);
+            // Completely replace the message with the encrypted one
+            encryptionManager.encrypt(msg.getMessage());
 
             super.sendMessage(destination, msg, payload);
 
@@ -135,15 +126,8 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
     @Override
     public void messageReceived(ChannelMessage msg) {
         try {
-            byte[] data = msg.getMessage().getBytes();
-
-            data = encryptionManager.decrypt(data);
-
-            XByteBuffer xbb = msg.getMessage();
-
             // Completely replace the message with the decrypted one
-            xbb.clear();
-            xbb.append(data, 0, data.length);
+            encryptionManager.decrypt(msg.getMessage());
 
             super.messageReceived(msg);
         } catch (GeneralSecurityException gse) {
@@ -476,21 +460,19 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
         }
 
         /**
-         * Encrypts the input <code>bytes</code> into two separate byte arrays:
-         * one for the random initialization vector (IV) used for this message,
-         * and the second one containing the actual encrypted payload.
-         *
-         * This method returns a pair of byte arrays instead of a single
-         * concatenated one to reduce the number of byte buffers created
-         * and copied during the whole operation -- including message re-building.
+         * Encrypts the content of the <code>message</code> and replaces it
+         * with the random initialization vector (IV) used for this message
+         * followed by the actual encrypted payload.
          *
-         * @param bytes The data to encrypt.
+         * The IV and the encrypted payload are written to a single array which
+         * then becomes the backing array of the message to avoid creating and
+         * copying intermediate byte buffers.
          *
-         * @return The IV in [0] and the encrypted data in [1].
+         * @param message The message to encrypt.
          *
          * @throws GeneralSecurityException If the input data cannot be encrypted.
          */
-        private byte[][] encrypt(byte[] bytes) throws GeneralSecurityException {
+        private void encrypt(XByteBuffer message) throws GeneralSecurityException {
             Cipher cipher = null;
 
             // Always use a random IV For cipher setup.
@@ -503,11 +485,11 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
                 cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), generateIV(iv, 0, getIVSize()));
 
                 // Prepend the IV to the beginning of the encrypted data
-                byte[][] data = new byte[2][];
-                data[0] = iv;
-                data[1] = cipher.doFinal(bytes);
+                byte[] data = new byte[iv.length + cipher.getOutputSize(message.getLength())];
+                System.arraycopy(iv, 0, data, 0, iv.length);
+                int length = cipher.doFinal(message.getBytesDirect(), 0, message.getLength(), data, iv.length);
 
-                return data;
+                message.setBytesDirect(data, iv.length + length);
             } finally {
                 if(null != cipher) {
                     returnCipher(cipher);
@@ -516,17 +498,17 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
         }
 
         /**
-         * Decrypts the input <code>bytes</code>.
+         * Decrypts the content of the <code>message</code> and replaces it
+         * with the decrypted data.
          *
-         * @param bytes The data to decrypt.
-         *
-         * @return The decrypted data.
+         * @param message The message to decrypt.
          *
          * @throws GeneralSecurityException If the input data cannot be decrypted.
          */
-        private byte[] decrypt(byte[] bytes) throws GeneralSecurityException {
+        private void decrypt(XByteBuffer message) throws GeneralSecurityException {
             Cipher cipher = null;
 
+            byte[] bytes = message.getBytesDirect();
             int ivSize = getIVSize();
             AlgorithmParameterSpec IV = generateIV(bytes, 0, ivSize);
 
@@ -536,7 +518,9 @@ public class EncryptInterceptor extends ChannelInterceptorBase implements Encryp
                 cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), IV);
 
                 // Decrypt remainder of the message.
-                return cipher.doFinal(bytes, ivSize, bytes.length - ivSize);
+                byte[] data = cipher.doFinal(bytes, ivSize, message.getLength() - ivSize);
+
+                message.setBytesDirect(data, data.length);
             } finally {
                 if(null != cipher) {
                     returnCipher(cipher);
@@ -35,6 +35,45 @@ public interface GzipInterceptorMBean {
      */
     void setCompressionMinSize(int compressionMinSize);
 
+    /**
+     * @return the codec used to compress messages.
+     */
+    String getCodec();
+    /**
+     * Set the codec used to compress messages, either <code>gzip</code> or
+     * <code>deflate</code>. If not explicitly configured, a default of
+     * <code>gzip</code> will be used.
+     *
+     * @param codec The new codec
+     */
+    void setCodec(String codec);
+
+    /**
+     * @return the compression level.
+     */
+    int getCompressionLevel();
+    /**
+     * Set the compression level, from 0 (no compression) to 9 (best
+     * compression). A value of -1 means the default level of the codec will
+     * be used. If not explicitly configured, a default of -1 will be used.
+     *
+     * @param compressionLevel The new compression level
+     */
+    void setCompressionLevel(int compressionLevel);
+
+    /**
+     * @return the path of the file containing the preset dictionary.
+     */
+    String getDictionaryFile();
+    /**
+     * Set the path of the file containing the preset dictionary used by the
+     * <code>deflate</code> codec. The dictionary is loaded when the
+     * interceptor starts.
+     *
+     * @param dictionaryFile The path of the dictionary file
+     */
+    void setDictionaryFile(String dictionaryFile);
+
     /**
      * @return {@code true} if the interceptor is configured to collect
      *         statistics, otherwise {@code false}
@@ -74,6 +113,11 @@ public interface GzipInterceptorMBean {
     long getSizeRX();
     long getCompressedSizeRX();
     long getUncompressedSizeRX();
+    long getCompressionTimeTX();
+    long getDecompressionTimeRX();
+    double getCompressionRatioTX();
+    double getCompressionThroughputTX();
+    double getDecompressionThroughputRX();
     void reset();
     void report();
 }
@@ -275,7 +275,6 @@ public class ChannelData implements ChannelMessage {
         //data.message = new XByteBuffer(new byte[xsize],false);
         data.message = BufferPool.getBufferPool().getBuffer(xsize,false);
         offset += 4; //message length
-        System.arraycopy(b,offset,data.message.getBytesDirect(),0,xsize);
         data.message.append(b,offset,xsize);
         offset += xsize; //message data
         return data;
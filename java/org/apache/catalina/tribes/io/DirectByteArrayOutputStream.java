@@ -43,6 +43,11 @@ public class DirectByteArrayOutputStream extends OutputStream {
         buffer.append((byte)b);
     }
 
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        buffer.append(b, off, len);
+    }
+
     public int size() {
         return buffer.getLength();
     }
@@ -132,6 +132,21 @@ public class XByteBuffer implements Serializable {
         return this.buf;
     }
 
+    /**
+     * Replaces the content of this buffer with the provided array without
+     * copying it. The buffer takes ownership of the array, which must not be
+     * modified by the caller afterwards.
+     * @param data   The array to use as the backing array of this buffer
+     * @param length The number of valid bytes in the array
+     */
+    public void setBytesDirect(byte[] data, int length) {
+        if (length > data.length) {
+            throw new ArrayIndexOutOfBoundsException(sm.getString("xByteBuffer.size.larger.buffer"));
+        }
+        this.buf = data;
+        this.bufSize = length;
+    }
+
     /**
      * @return the bytes in the buffer, in its exact length
      */
@@ -342,6 +357,32 @@ public class XByteBuffer implements Serializable {
         return cdata;
     }
 
+    /**
+     * Extracts all the complete packages from the buffer and removes them from
+     * the buffer. Unlike repeated calls to {@link #extractPackage(boolean)},
+     * the remaining bytes are only moved to the start of the buffer once.
+     * @return the extracted messages, in the order they were received
+     */
+    public ChannelData[] extractPackages() {
+        int cnt = countPackages();
+        if (cnt == 0) {
+            return ChannelData.EMPTY_DATA_ARRAY;
+        }
+        ChannelData[] result = new ChannelData[cnt];
+        int start = 0;
+        for (int i = 0; i < cnt; i++) {
+            int size = toInt(buf, start + START_DATA.length);
+            XByteBuffer xbuf = BufferPool.getBufferPool().getBuffer(size,false);
+            xbuf.setLength(size);
+            System.arraycopy(buf, start + START_DATA.length + 4, xbuf.getBytesDirect(), 0, size);
+            result[i] = ChannelData.getDataFromPackage(xbuf);
+            start += START_DATA.length + 4 + size + END_DATA.length;
+        }
+        bufSize = bufSize - start;
+        System.arraycopy(buf, start, buf, 0, bufSize);
+        return result;
+    }
+
     /**
      * Creates a complete data package
      * @param cdata - the message data to be contained within the package
@@ -31,6 +31,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.catalina.tribes.Channel;
 import org.apache.catalina.tribes.ChannelException;
@@ -150,6 +151,32 @@ public abstract class AbstractReplicatedMap<K,V>
      */
     private transient volatile State state = State.NEW;
 
+    /**
+     * Number of replication messages that carried the complete value.
+     */
+    private final transient AtomicLong replicatedFullCount = new AtomicLong(0);
+
+    /**
+     * Number of serialized value bytes sent in complete replication messages.
+     */
+    private final transient AtomicLong replicatedFullBytes = new AtomicLong(0);
+
+    /**
+     * Number of replication messages that carried a diff.
+     */
+    private final transient AtomicLong replicatedDiffCount = new AtomicLong(0);
+
+    /**
+     * Number of diff bytes sent in diff replication messages.
+     */
+    private final transient AtomicLong replicatedDiffBytes = new AtomicLong(0);
+
+    /**
+     * Estimated number of bytes not sent because a diff was replicated rather
+     * than the complete value.
+     */
+    private final transient AtomicLong replicatedBytesSaved = new AtomicLong(0);
+
 //------------------------------------------------------------------------------
 //              map owner interface
 //------------------------------------------------------------------------------
@@ -515,6 +542,7 @@ public abstract class AbstractReplicatedMap<K,V>
                         rentry.setLastTimeReplicated(System.currentTimeMillis());
                     }
                     channel.send(entry.getBackupNodes(), msg, channelSendOptions);
+                    recordReplication(msg);
                 }
             } catch (ChannelException x) {
                 log.error(sm.getString("abstractReplicatedMap.unable.replicate"), x);
@@ -535,6 +563,72 @@ public abstract class AbstractReplicatedMap<K,V>
         }
     }
 
+    /**
+     * Record a replication message that has been sent successfully. Messages
+     * that carry a diff are counted as diffs and messages that carry the
+     * complete serialized value are counted as complete replications. The
+     * bytes saved by a diff are estimated using the average size of the
+     * complete values replicated so far. Other messages (e.g. access messages)
+     * are ignored.
+     * @param msg The message that has been sent
+     */
+    protected void recordReplication(MapMessage msg) {
+        if (msg.isDiff()) {
+            byte[] diff = msg.getDiffValue();
+            int length = (diff == null) ? 0 : diff.length;
+            replicatedDiffCount.incrementAndGet();
+            replicatedDiffBytes.addAndGet(length);
+            long fullCount = replicatedFullCount.get();
+            if (fullCount > 0) {
+                long saved = (replicatedFullBytes.get() / fullCount) - length;
+                if (saved > 0) {
+                    replicatedBytesSaved.addAndGet(saved);
+                }
+            }
+        } else {
+            byte[] data = msg.getValueData();
+            if (data != null) {
+                replicatedFullCount.incrementAndGet();
+                replicatedFullBytes.addAndGet(data.length);
+            }
+        }
+    }
+
+    public long getReplicatedFullCount() {
+        return replicatedFullCount.get();
+    }
+
+    public long getReplicatedFullBytes() {
+        return replicatedFullBytes.get();
+    }
+
+    public long getReplicatedDiffCount() {
+        return replicatedDiffCount.get();
+    }
+
+    public long getReplicatedDiffBytes() {
+        return replicatedDiffBytes.get();
+    }
+
+    /**
+     * @return the estimated number of bytes that have not been sent because a
+     *         diff was replicated rather than the complete value
+     */
+    public long getReplicatedBytesSaved() {
+        return replicatedBytesSaved.get();
+    }
+
+    /**
+     * Reset the replication statistics.
+     */
+    public void resetStatistics() {
+        replicatedFullCount.set(0);
+        replicatedFullBytes.set(0);
+        replicatedDiffCount.set(0);
+        replicatedDiffBytes.set(0);
+        replicatedBytesSaved.set(0);
+    }
+
     public void transferState() {
         try {
             Member[] members = getMapMembers();
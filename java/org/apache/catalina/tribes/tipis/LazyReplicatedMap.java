@@ -189,6 +189,7 @@ public class LazyReplicatedMap<K,V> extends AbstractReplicatedMap<K,V> {
                     log.trace("Publishing backup data:"+msg+" to: "+next.getName());
                 }
                 UniqueId id = getChannel().send(tmpBackup, msg, getChannelSendOptions());
+                recordReplication(msg);
                 if ( log.isTraceEnabled() ) {
                     log.trace("Data published:"+msg+" msg Id:"+id);
                 }
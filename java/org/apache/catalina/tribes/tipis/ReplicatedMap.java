@@ -156,6 +156,7 @@ public class ReplicatedMap<K,V> extends AbstractReplicatedMap<K,V> {
                     (Serializable) key, (Serializable) value, null,channel.getLocalMember(false), backup);
 
             getChannel().send(backup, msg, getChannelSendOptions());
+            recordReplication(msg);
         } catch (ChannelException e) {
             FaultyMember[] faultyMembers = e.getFaultyMembers();
             if (faultyMembers.length == 0) {
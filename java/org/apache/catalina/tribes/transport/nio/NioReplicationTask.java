@@ -154,9 +154,10 @@ public class NioReplicationTask extends AbstractRxTask {
      * The actual code which drains the channel associated with
      * the given key.  This method assumes the key has been
      * modified prior to invocation to turn off selection
-     * interest in OP_READ.  When this method completes it
-     * re-enables OP_READ and calls wakeup() on the selector
-     * so the selector will resume watching this channel.
+     * interest in OP_READ.  Once the messages that have been
+     * read have been processed, it re-enables OP_READ and
+     * calls wakeup() on the selector so the selector will
+     * resume watching this channel.
      * @param key The key to process
      * @param reader The reader
      * @throws Exception IO error
@@ -206,8 +207,6 @@ public class NioReplicationTask extends AbstractRxTask {
 
         ChannelMessage[] msgs = pkgcnt == 0? ChannelData.EMPTY_DATA_ARRAY : reader.execute();
 
-        registerForRead(key,reader);//register to read new data, before we send it off to avoid dead locks
-
         for (ChannelMessage msg : msgs) {
             /*
              * Use send ack here if you want to ack the request to the remote
@@ -253,6 +252,12 @@ public class NioReplicationTask extends AbstractRxTask {
             }
         }
 
+        // Only read new data once the messages read so far have been processed
+        // and acknowledged. The messages of a connection are therefore
+        // processed in the order they were sent and the ACKs are sent in the
+        // same order which senders that pipeline messages rely on.
+        registerForRead(key,reader);
+
         if (count < 0) {
             remoteEof(key);
         }
@@ -377,18 +377,19 @@ public class NioSender extends AbstractSender {
                 current = data;
                 remaining = length;
                 ackbuf.clear();
-                if (writebuf != null) {
-                    writebuf.clear();
+                if (getDirectBuffer()) {
+                    if (writebuf == null || !writebuf.isDirect() || writebuf.capacity() < length) {
+                        writebuf = getBuffer(length);
+                    } else {
+                        writebuf.clear();
+                    }
+                    writebuf.put(data,offset,length);
+                    writebuf.flip();
                 } else {
-                    writebuf = getBuffer(length);
+                    // The data is only read while it is written to the channel
+                    // so it can be used as is rather than copied.
+                    writebuf = ByteBuffer.wrap(data,offset,length);
                 }
-                if (writebuf.capacity() < length) {
-                    writebuf = getBuffer(length);
-                }
-
-                // TODO use ByteBuffer.wrap to avoid copying the data.
-                writebuf.put(data,offset,length);
-                writebuf.flip();
                 if (isConnected()) {
                     if (isUdpBased()) {
                         dataChannel.register(getSelector(), SelectionKey.OP_WRITE, this);
@@ -0,0 +1,798 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.tribes.transport.nio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.catalina.tribes.Channel;
+import org.apache.catalina.tribes.ChannelException;
+import org.apache.catalina.tribes.ChannelMessage;
+import org.apache.catalina.tribes.Member;
+import org.apache.catalina.tribes.RemoteProcessException;
+import org.apache.catalina.tribes.io.ChannelData;
+import org.apache.catalina.tribes.io.XByteBuffer;
+import org.apache.catalina.tribes.transport.AbstractSender;
+import org.apache.catalina.tribes.transport.Constants;
+import org.apache.catalina.tribes.transport.MultiPointSender;
+import org.apache.catalina.tribes.transport.SenderState;
+import org.apache.catalina.tribes.util.StringManager;
+import org.apache.juli.logging.Log;
+import org.apache.juli.logging.LogFactory;
+
+/**
+ * A {@link MultiPointSender} that uses a single TCP connection per destination
+ * and pipelines messages on that connection rather than waiting for the ACK of
+ * one message before sending the next.
+ * <p>
+ * Each connection keeps a FIFO of the messages that are waiting for an ACK.
+ * The {@link NioReceiver} processes the messages received on a connection one
+ * at a time, in the order they were written, and does not read further data
+ * from the connection until the ACKs for the messages already read have been
+ * sent. ACKs therefore arrive in the same order the messages were written and
+ * each ACK is matched with the oldest outstanding message. Receivers that
+ * process the messages of a connection concurrently, such as the
+ * {@link NioReceiver} of earlier versions, may send ACKs out of order so every
+ * member of the cluster must be upgraded before this sender is used. The
+ * number of outstanding messages per connection is bounded by
+ * {@link #getMaxOutstanding()}.
+ * <p>
+ * Messages that are queued while another thread is writing to the same
+ * connection are coalesced and written with a single gathering write, up to
+ * {@link #getMaxBatchSize()} bytes. Under low load every message is written as
+ * soon as it is sent, under high load the batches grow.
+ * <p>
+ * UDP messages are not pipelined and are delegated to a
+ * {@link ParallelNioSender}.
+ */
+public class PipelinedNioSender extends AbstractSender implements MultiPointSender, PipelinedNioSenderMBean {
+
+    private static final Log log = LogFactory.getLog(PipelinedNioSender.class);
+    protected static final StringManager sm = StringManager.getManager(PipelinedNioSender.class);
+
+    private final Map<Member,Connection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of messages waiting for an ACK on a single
+     * connection.
+     */
+    private int maxOutstanding = 64;
+
+    /**
+     * The maximum number of bytes coalesced into a single write.
+     */
+    private int maxBatchSize = 64 * 1024;
+
+    private final AtomicLong messageCount = new AtomicLong(0);
+    private final AtomicLong writeCount = new AtomicLong(0);
+
+    private ParallelNioSender udpSender = null;
+
+
+    public PipelinedNioSender() {
+        super();
+    }
+
+
+    @Override
+    public void sendMessage(Member[] destination, ChannelMessage msg) throws ChannelException {
+        if (!isConnected()) {
+            throw new ChannelException(sm.getString("pipelinedNioSender.sender.disconnected"));
+        }
+        if ((msg.getOptions() & Channel.SEND_OPTIONS_UDP) == Channel.SEND_OPTIONS_UDP) {
+            sendUdpMessage(destination, msg);
+            return;
+        }
+        long deadline = System.currentTimeMillis() + getTimeout();
+        boolean waitForAck = (msg.getOptions() & Channel.SEND_OPTIONS_USE_ACK) == Channel.SEND_OPTIONS_USE_ACK;
+        byte[] data = XByteBuffer.createDataPackage((ChannelData) msg);
+
+        // Queue the message for every destination before waiting for any of
+        // them so the destinations are processed in parallel
+        Connection[] targets = new Connection[destination.length];
+        PendingMessage[] pending = new PendingMessage[destination.length];
+        IOException[] failures = new IOException[destination.length];
+        for (int i = 0; i < destination.length; i++) {
+            try {
+                targets[i] = getConnection(destination[i], deadline);
+                pending[i] = targets[i].enqueue(data, waitForAck, deadline);
+                targets[i].tryWrite(pending[i], deadline);
+            } catch (IOException ioe) {
+                if (pending[i] == null) {
+                    failures[i] = ioe;
+                }
+                // Otherwise the failed write is reported by await()
+            }
+        }
+
+        ChannelException cx = null;
+        for (int i = 0; i < destination.length; i++) {
+            Exception failure = null;
+            if (pending[i] == null) {
+                failure = handleFailure(destination[i], data, waitForAck, deadline, failures[i]);
+            } else {
+                try {
+                    targets[i].await(pending[i], deadline);
+                    SenderState.getSenderState(destination[i]).setReady();
+                } catch (RemoteProcessException rpe) {
+                    failure = rpe;
+                } catch (IOException ioe) {
+                    failure = handleFailure(destination[i], data, waitForAck, deadline, ioe);
+                }
+            }
+            if (failure != null) {
+                cx = addFaultyMember(cx, destination[i], failure);
+            }
+        }
+
+        if (cx != null) {
+            throw cx;
+        }
+    }
+
+
+    /*
+     * Retries the message unless the failure was a timeout. Returns the
+     * failure to report for the destination or null if the retry succeeded.
+     */
+    private Exception handleFailure(Member destination, byte[] data, boolean waitForAck, long deadline,
+            IOException cause) {
+        if (cause instanceof SocketTimeoutException) {
+            // A timeout does not trigger a retry
+            markFailure(destination, cause, false);
+            return cause;
+        }
+        return retry(destination, data, waitForAck, deadline, cause);
+    }
+
+
+    private Exception retry(Member destination, byte[] data, boolean waitForAck, long deadline, IOException cause) {
+        Exception failure = cause;
+        int attempt = 0;
+        while (attempt < getMaxRetryAttempts() && System.currentTimeMillis() < deadline) {
+            attempt++;
+            markFailure(destination, failure, true);
+            try {
+                Connection connection = getConnection(destination, deadline);
+                PendingMessage pending = connection.enqueue(data, waitForAck, deadline);
+                connection.await(pending, deadline);
+                SenderState.getSenderState(destination).setReady();
+                return null;
+            } catch (RemoteProcessException | SocketTimeoutException e) {
+                return e;
+            } catch (IOException ioe) {
+                failure = ioe;
+            }
+        }
+        markFailure(destination, failure, false);
+        return new ChannelException(sm.getString("pipelinedNioSender.sendFailed.attempt",
+                Integer.toString(attempt), Integer.toString(getMaxRetryAttempts())), failure);
+    }
+
+
+    private void markFailure(Member destination, Exception x, boolean retrying) {
+        SenderState state = SenderState.getSenderState(destination);
+        synchronized (state) {
+            if (state.isSuspect()) {
+                state.setFailing();
+            }
+            if (state.isReady()) {
+                state.setSuspect();
+                if (retrying) {
+                    log.warn(sm.getString("pipelinedNioSender.send.fail.retrying", destination.getName()));
+                } else {
+                    log.warn(sm.getString("pipelinedNioSender.send.fail", destination.getName()), x);
+                }
+            }
+        }
+    }
+
+
+    private static ChannelException addFaultyMember(ChannelException cx, Member member, Exception x) {
+        if (cx == null) {
+            cx = new ChannelException(sm.getString("pipelinedNioSender.send.failed"), x);
+        }
+        cx.addFaultyMember(member, x);
+        return cx;
+    }
+
+
+    private synchronized void sendUdpMessage(Member[] destination, ChannelMessage msg) throws ChannelException {
+        if (udpSender == null) {
+            try {
+                udpSender = new ParallelNioSender();
+            } catch (IOException ioe) {
+                throw new ChannelException(sm.getString("pipelinedNioSender.unable.open"), ioe);
+            }
+            transferProperties(this, udpSender);
+        }
+        try {
+            udpSender.sendMessage(destination, msg);
+        } finally {
+            udpSender.keepalive();
+        }
+    }
+
+
+    private Connection getConnection(Member member, long deadline) throws IOException {
+        // Creating the connection is cheap. The socket is connected afterwards
+        // so a slow or unreachable member only delays the senders that are
+        // waiting for that member.
+        Connection connection = connections.computeIfAbsent(member, Connection::new);
+        connection.connect(deadline);
+        return connection;
+    }
+
+
+    @Override
+    public void connect() {
+        // Connections are created on demand
+        setConnected(true);
+    }
+
+
+    @Override
+    public void disconnect() {
+        setConnected(false);
+        Iterator<Connection> iter = connections.values().iterator();
+        while (iter.hasNext()) {
+            iter.next().close(null);
+            iter.remove();
+        }
+        synchronized (this) {
+            if (udpSender != null) {
+                udpSender.disconnect();
+                udpSender = null;
+            }
+        }
+    }
+
+
+    @Override
+    public void add(Member member) {
+        // NOOP
+    }
+
+
+    @Override
+    public void remove(Member member) {
+        Connection connection = connections.remove(member);
+        if (connection != null) {
+            connection.close(null);
+        }
+    }
+
+
+    @Override
+    public boolean keepalive() {
+        boolean result = false;
+        long now = System.currentTimeMillis();
+        Iterator<Connection> iter = connections.values().iterator();
+        while (iter.hasNext()) {
+            Connection connection = iter.next();
+            if (connection.isClosed()) {
+                iter.remove();
+                result = true;
+            } else if (connection.isIdle() &&
+                    ((getKeepAliveCount() >= 0 && connection.getRequestCount() > getKeepAliveCount()) ||
+                    (getKeepAliveTime() >= 0 && (now - connection.getConnectTime()) > getKeepAliveTime()))) {
+                connection.close(null);
+                iter.remove();
+                result = true;
+            }
+        }
+        synchronized (this) {
+            if (udpSender != null) {
+                result |= udpSender.keepalive();
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public int getMaxOutstanding() {
+        return maxOutstanding;
+    }
+
+    public void setMaxOutstanding(int maxOutstanding) {
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public int getOutstanding() {
+        int result = 0;
+        for (Connection connection : connections.values()) {
+            result += connection.getOutstanding();
+        }
+        return result;
+    }
+
+    @Override
+    public long getMessageCount() {
+        return messageCount.get();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    @Override
+    public void resetStatistics() {
+        messageCount.set(0);
+        writeCount.set(0);
+    }
+
+
+    /**
+     * A message queued on a connection. All fields other than the data are
+     * guarded by the connection.
+     */
+    private static class PendingMessage {
+        private final ByteBuffer data;
+        private final boolean waitForAck;
+        private boolean written = false;
+        private boolean acked = false;
+        private boolean failedAck = false;
+        private IOException error = null;
+
+        private PendingMessage(byte[] data, boolean waitForAck) {
+            // Each connection needs its own view of the data
+            this.data = ByteBuffer.wrap(data);
+            this.waitForAck = waitForAck;
+        }
+
+        private boolean isDone() {
+            return error != null || (waitForAck ? acked : written);
+        }
+    }
+
+
+    /**
+     * A single pipelined connection to a destination. The socket is connected
+     * by the first thread that uses the connection. The socket, the queues and
+     * the connecting/reading/writing flags are guarded by the connection. At most one thread
+     * writes and at most one thread reads ACKs at any point in time; the other
+     * threads wait on the connection until their message completes or until
+     * they can take over reading or writing.
+     */
+    private class Connection {
+
+        private final Member destination;
+        private final ByteBuffer readbuf;
+        private final XByteBuffer ackbuf = new XByteBuffer(128, true);
+        private final ArrayDeque<PendingMessage> writeQueue = new ArrayDeque<>();
+        private final ArrayDeque<PendingMessage> ackQueue = new ArrayDeque<>();
+        private SocketChannel socketChannel = null;
+        private Selector readSelector = null;
+        private Selector writeSelector = null;
+        private long connectTime = 0;
+        private boolean connecting = false;
+        private boolean connected = false;
+        private boolean writing = false;
+        private boolean reading = false;
+        private int requestCount = 0;
+        private IOException failure = null;
+
+        private Connection(Member destination) {
+            this.destination = destination;
+            this.readbuf = getDirectBuffer() ? ByteBuffer.allocateDirect(getRxBufSize()) :
+                    ByteBuffer.allocate(getRxBufSize());
+        }
+
+        /**
+         * Connect the socket if that has not already been done. Only one
+         * thread connects, other threads using this connection wait for it to
+         * complete. The lock for this connection is not held while connecting.
+         */
+        private void connect(long deadline) throws IOException {
+            synchronized (this) {
+                while (true) {
+                    if (failure != null) {
+                        throw new IOException(sm.getString("pipelinedNioSender.connection.closed",
+                                destination.getName()), failure);
+                    }
+                    if (connected) {
+                        return;
+                    }
+                    if (!connecting) {
+                        connecting = true;
+                        break;
+                    }
+                    if (!waitUntil(deadline)) {
+                        throw new SocketTimeoutException(sm.getString("pipelinedNioSender.operation.timedout",
+                                Long.toString(getTimeout())));
+                    }
+                }
+            }
+            SocketChannel channel = null;
+            Selector rs = null;
+            Selector ws = null;
+            try {
+                InetSocketAddress addr = new InetSocketAddress(
+                        InetAddress.getByAddress(destination.getHost()), destination.getPort());
+                channel = SocketChannel.open();
+                channel.socket().setSendBufferSize(getTxBufSize());
+                channel.socket().setReceiveBufferSize(getRxBufSize());
+                channel.socket().setTcpNoDelay(getTcpNoDelay());
+                channel.socket().setKeepAlive(getSoKeepAlive());
+                channel.socket().setReuseAddress(getSoReuseAddress());
+                channel.socket().setOOBInline(getOoBInline());
+                channel.socket().setSoLinger(getSoLingerOn(), getSoLingerTime());
+                channel.socket().setTrafficClass(getSoTrafficClass());
+                channel.socket().connect(addr, (int) getTimeout());
+                channel.configureBlocking(false);
+                rs = Selector.open();
+                ws = Selector.open();
+                channel.register(rs, SelectionKey.OP_READ);
+                channel.register(ws, SelectionKey.OP_WRITE);
+            } catch (IOException ioe) {
+                closeQuietly(rs);
+                closeQuietly(ws);
+                closeQuietly(channel);
+                close(ioe);
+                throw ioe;
+            }
+            IOException closed = null;
+            synchronized (this) {
+                connecting = false;
+                if (failure == null) {
+                    socketChannel = channel;
+                    readSelector = rs;
+                    writeSelector = ws;
+                    connectTime = System.currentTimeMillis();
+                    connected = true;
+                } else {
+                    closed = failure;
+                }
+                notifyAll();
+            }
+            if (closed != null) {
+                // Closed by another thread while connecting
+                closeQuietly(rs);
+                closeQuietly(ws);
+                closeQuietly(channel);
+                throw new IOException(sm.getString("pipelinedNioSender.connection.closed", destination.getName()),
+                        closed);
+            }
+        }
+
+        private synchronized PendingMessage enqueue(byte[] data, boolean waitForAck, long deadline)
+                throws IOException {
+            while (failure == null && waitForAck && ackQueue.size() >= maxOutstanding) {
+                if (!waitUntil(deadline)) {
+                    throw new SocketTimeoutException(sm.getString("pipelinedNioSender.operation.timedout",
+                            Long.toString(getTimeout())));
+                }
+            }
+            if (failure != null) {
+                throw new IOException(sm.getString("pipelinedNioSender.connection.closed", destination.getName()),
+                        failure);
+            }
+            PendingMessage pending = new PendingMessage(data, waitForAck);
+            writeQueue.add(pending);
+            if (waitForAck) {
+                ackQueue.add(pending);
+            }
+            requestCount++;
+            messageCount.incrementAndGet();
+            return pending;
+        }
+
+        /**
+         * Write the queued messages, up to and including the given one, if no
+         * other thread is currently writing to this connection.
+         */
+        private void tryWrite(PendingMessage pending, long deadline) throws IOException {
+            synchronized (this) {
+                if (writing || pending.written || failure != null) {
+                    return;
+                }
+                writing = true;
+            }
+            write(pending, deadline);
+        }
+
+        private void await(PendingMessage pending, long deadline) throws IOException {
+            while (true) {
+                boolean write = false;
+                boolean read = false;
+                boolean timedOut = false;
+                synchronized (this) {
+                    if (!pending.isDone() && failure != null) {
+                        // Taken from the write queue before the connection
+                        // was closed but not written
+                        pending.error = failure;
+                    }
+                    if (pending.isDone()) {
+                        break;
+                    }
+                    if (!pending.written) {
+                        if (!writing) {
+                            writing = true;
+                            write = true;
+                        }
+                    } else if (!reading) {
+                        reading = true;
+                        read = true;
+                    }
+                    if (!write && !read) {
+                        if (waitUntil(deadline)) {
+                            continue;
+                        }
+                        timedOut = true;
+                    }
+                }
+                if (timedOut) {
+                    // The ACKs of this connection can no longer be matched
+                    // with the outstanding messages
+                    SocketTimeoutException ste = new SocketTimeoutException(sm.getString(
+                            "pipelinedNioSender.operation.timedout", Long.toString(getTimeout())));
+                    close(new IOException(sm.getString("pipelinedNioSender.connection.timedout",
+                            destination.getName()), ste));
+                    throw ste;
+                } else if (write) {
+                    write(pending, deadline);
+                } else {
+                    readAcks(pending, deadline);
+                }
+            }
+            if (pending.error != null) {
+                throw new IOException(pending.error);
+            }
+            if (pending.failedAck && getThrowOnFailedAck()) {
+                throw new RemoteProcessException(sm.getString("pipelinedNioSender.receive.failedAck"));
+            }
+        }
+
+        /*
+         * Must only be called by the thread that set writing to true.
+         */
+        private void write(PendingMessage until, long deadline) throws IOException {
+            try {
+                while (true) {
+                    List<PendingMessage> batch = new ArrayList<>();
+                    synchronized (this) {
+                        if (until.written || until.error != null || writeQueue.isEmpty()) {
+                            writing = false;
+                            notifyAll();
+                            return;
+                        }
+                        int size = 0;
+                        while (!writeQueue.isEmpty() && (batch.isEmpty() ||
+                                size + writeQueue.peek().data.remaining() <= maxBatchSize)) {
+                            PendingMessage next = writeQueue.poll();
+                            size += next.data.remaining();
+                            batch.add(next);
+                        }
+                    }
+                    ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+                    for (int i = 0; i < buffers.length; i++) {
+                        buffers[i] = batch.get(i).data;
+                    }
+                    writeFully(buffers, deadline);
+                    writeCount.incrementAndGet();
+                    synchronized (this) {
+                        for (PendingMessage written : batch) {
+                            written.written = true;
+                        }
+                        notifyAll();
+                    }
+                }
+            } catch (IOException ioe) {
+                close(ioe);
+                throw ioe;
+            }
+        }
+
+        private void writeFully(ByteBuffer[] buffers, long deadline) throws IOException {
+            ByteBuffer last = buffers[buffers.length - 1];
+            while (last.hasRemaining()) {
+                if (socketChannel.write(buffers) == 0) {
+                    long timeout = deadline - System.currentTimeMillis();
+                    if (timeout <= 0) {
+                        throw new SocketTimeoutException(sm.getString("pipelinedNioSender.operation.timedout",
+                                Long.toString(getTimeout())));
+                    }
+                    select(writeSelector, timeout);
+                }
+            }
+        }
+
+        /*
+         * Must only be called by the thread that set reading to true.
+         */
+        private void readAcks(PendingMessage until, long deadline) throws IOException {
+            try {
+                while (true) {
+                    synchronized (this) {
+                        if (until.isDone()) {
+                            reading = false;
+                            notifyAll();
+                            return;
+                        }
+                    }
+                    int read = socketChannel.read(readbuf);
+                    if (read == -1) {
+                        throw new IOException(sm.getString("pipelinedNioSender.unable.receive.ack"));
+                    } else if (read == 0) {
+                        long timeout = deadline - System.currentTimeMillis();
+                        if (timeout <= 0) {
+                            throw new SocketTimeoutException(sm.getString("pipelinedNioSender.operation.timedout",
+                                    Long.toString(getTimeout())));
+                        }
+                        select(readSelector, timeout);
+                        continue;
+                    }
+                    readbuf.flip();
+                    ackbuf.append(readbuf, read);
+                    readbuf.clear();
+                    synchronized (this) {
+                        while (ackbuf.doesPackageExist()) {
+                            byte[] ackcmd = ackbuf.extractDataPackage(true).getBytes();
+                            // The ACK may be read before the writer has marked
+                            // the message as written
+                            PendingMessage acked = ackQueue.poll();
+                            if (acked == null) {
+                                throw new IOException(sm.getString("pipelinedNioSender.unexpected.ack",
+                                        destination.getName()));
+                            }
+                            acked.failedAck = Arrays.equals(ackcmd, Constants.FAIL_ACK_DATA);
+                            acked.acked = true;
+                        }
+                        notifyAll();
+                    }
+                }
+            } catch (IOException ioe) {
+                close(ioe);
+                throw ioe;
+            }
+        }
+
+        private void select(Selector selector, long timeout) throws IOException {
+            try {
+                selector.select(timeout);
+                selector.selectedKeys().clear();
+            } catch (ClosedSelectorException e) {
+                // Closed by another thread
+                throw new IOException(sm.getString("pipelinedNioSender.connection.closed", destination.getName()),
+                        e);
+            }
+        }
+
+        /*
+         * Must be called while holding the lock for this connection.
+         *
+         * @return false if the deadline has passed
+         */
+        private boolean waitUntil(long deadline) {
+            long timeout = deadline - System.currentTimeMillis();
+            if (timeout <= 0) {
+                return false;
+            }
+            try {
+                wait(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Close the connection and fail all messages that have not completed.
+         * @param cause The reason the connection is closed, or <code>null</code>
+         *              if it is closed normally
+         */
+        private void close(IOException cause) {
+            Selector rs;
+            Selector ws;
+            SocketChannel channel;
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                failure = (cause != null) ? cause :
+                        new IOException(sm.getString("pipelinedNioSender.connection.closed", destination.getName()));
+                for (PendingMessage pending : writeQueue) {
+                    pending.error = failure;
+                }
+                for (PendingMessage pending : ackQueue) {
+                    if (pending.error == null) {
+                        pending.error = failure;
+                    }
+                }
+                writeQueue.clear();
+                ackQueue.clear();
+                writing = false;
+                reading = false;
+                rs = readSelector;
+                ws = writeSelector;
+                channel = socketChannel;
+                notifyAll();
+            }
+            connections.remove(destination, this);
+            closeQuietly(rs);
+            closeQuietly(ws);
+            closeQuietly(channel);
+            if (cause != null && log.isDebugEnabled()) {
+                log.debug(sm.getString("pipelinedNioSender.connection.failed", destination.getName()), cause);
+            }
+        }
+
+        private synchronized boolean isClosed() {
+            return failure != null;
+        }
+
+        private synchronized boolean isIdle() {
+            return connected && writeQueue.isEmpty() && ackQueue.isEmpty() && !writing && !reading;
+        }
+
+        private synchronized int getOutstanding() {
+            return ackQueue.size();
+        }
+
+        private synchronized int getRequestCount() {
+            return requestCount;
+        }
+
+        private synchronized long getConnectTime() {
+            return connectTime;
+        }
+    }
+
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // Ignore
+            }
+        }
+    }
+}
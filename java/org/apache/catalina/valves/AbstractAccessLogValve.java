@@ -87,6 +87,7 @@ import org.apache.tomcat.util.net.IPv6Utils;
  * <li><b><code>%D</code></b> - Time taken to process the request, in microseconds
  * <li><b><code>%T</code></b> - Time taken to process the request, in seconds
  * <li><b><code>%F</code></b> - Time taken to commit the response, in milliseconds
+ * <li><b><code>%Q</code></b> - Time the request waited for a thread before processing started, in microseconds
  * <li><b><code>%I</code></b> - current Request thread name (can compare later with stacktraces)
  * <li><b><code>%X</code></b> - Connection status when response is completed:
  * <ul>
@@ -1351,6 +1352,21 @@ public abstract class AbstractAccessLogValve extends ValveBase implements Access
         }
     }
 
+    /**
+     * write time the request waited for a thread in micros - %Q
+     */
+    protected static class QueueTimeElement implements AccessLogElement {
+        @Override
+        public void addElement(CharArrayWriter buf, Date date, Request request, Response response, long time) {
+            long queueTime = request.getCoyoteRequest().getQueueTimeNanos();
+            if (queueTime == -1) {
+                buf.append('-');
+            } else {
+                buf.append(Long.toString(TimeUnit.NANOSECONDS.toMicros(queueTime)));
+            }
+        }
+    }
+
     /**
      * write Query string (prepended with a '?' if it exists) - %q
      */
@@ -1774,6 +1790,8 @@ public abstract class AbstractAccessLogValve extends ValveBase implements Access
                 return new PortElement();
             case 'q':
                 return new QueryElement();
+            case 'Q':
+                return new QueueTimeElement();
             case 'r':
                 return new RequestElement();
             case 's':
@@ -88,6 +88,7 @@ public class JsonAccessLogValve extends AccessLogValve {
         pattern2AttributeName.put(Character.valueOf('m'), "method");
         pattern2AttributeName.put(Character.valueOf('p'), "port");
         pattern2AttributeName.put(Character.valueOf('q'), "query");
+        pattern2AttributeName.put(Character.valueOf('Q'), "queueTime");
         pattern2AttributeName.put(Character.valueOf('r'), "request");
         pattern2AttributeName.put(Character.valueOf('s'), "statusCode");
         pattern2AttributeName.put(Character.valueOf('S'), "sessionId");
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.webresources;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+
+import org.apache.catalina.WebResourceSet;
+import org.apache.juli.logging.Log;
+import org.apache.juli.logging.LogFactory;
+import org.apache.tomcat.util.res.StringManager;
+
+/**
+ * Index of the directories provided by each archive in a {@link StandardRoot}
+ * used by {@link org.apache.catalina.WebResourceRoot.ArchiveIndexStrategy#INDEXED}.
+ * <p>
+ * For each directory (in web application path form, ending in '/') that
+ * contains at least one entry in an archive, the index holds the resource sets
+ * that need to be checked for a resource in that directory, in the same order
+ * as {@link StandardRoot} would check them. This is every resource set that
+ * could not be indexed (directories, the main resource set, multi-release
+ * JARs, etc.) plus the archives that contain the directory. A lookup for a
+ * resource in a package provided by a single JAR in WEB-INF/lib therefore
+ * checks that JAR rather than every JAR.
+ * <p>
+ * The index also holds a bounded cache of class loader lookups that did not
+ * find a resource. Entries expire after the cache TTL of the root so that
+ * resources added to resource sets that are not indexed (e.g. new classes in
+ * WEB-INF/classes) are found.
+ * <p>
+ * An index is immutable apart from the cache of failed lookups. A new index
+ * must be created whenever resource sets are added or removed.
+ */
+final class ResourceIndex {
+
+    private static final Log log = LogFactory.getLog(ResourceIndex.class);
+    private static final StringManager sm = StringManager.getManager(ResourceIndex.class);
+
+    static final int NOT_FOUND_MAX_SIZE = 10000;
+
+    private final Map<String,WebResourceSet[]> resourceSetsByDirectory;
+    private final WebResourceSet[] unindexedResourceSets;
+    private final ConcurrentMap<String,Long> notFound = new ConcurrentHashMap<>();
+
+
+    /**
+     * Build the index.
+     *
+     * @param allResources The resource sets of the root in the order they are
+     *                         checked
+     * @param main         The main resource set. This is never indexed since
+     *                         it provides the result if a resource is not
+     *                         found.
+     */
+    ResourceIndex(List<List<WebResourceSet>> allResources, WebResourceSet main) {
+        Map<String,List<WebResourceSet>> directories = new HashMap<>();
+        List<WebResourceSet> unindexed = new ArrayList<>();
+
+        for (List<WebResourceSet> list : allResources) {
+            for (WebResourceSet webResourceSet : list) {
+                Set<String> archiveDirectories = null;
+                if (webResourceSet != main && webResourceSet instanceof AbstractArchiveResourceSet) {
+                    archiveDirectories = getDirectories((AbstractArchiveResourceSet) webResourceSet);
+                }
+                if (archiveDirectories == null) {
+                    // Has to be checked for every resource
+                    unindexed.add(webResourceSet);
+                    for (List<WebResourceSet> resourceSets : directories.values()) {
+                        resourceSets.add(webResourceSet);
+                    }
+                } else {
+                    for (String directory : archiveDirectories) {
+                        directories.computeIfAbsent(directory, k -> new ArrayList<>(unindexed)).add(webResourceSet);
+                    }
+                }
+            }
+        }
+
+        resourceSetsByDirectory = new HashMap<>(directories.size() * 4 / 3 + 1);
+        for (Map.Entry<String,List<WebResourceSet>> entry : directories.entrySet()) {
+            resourceSetsByDirectory.put(entry.getKey(), entry.getValue().toArray(new WebResourceSet[0]));
+        }
+        unindexedResourceSets = unindexed.toArray(new WebResourceSet[0]);
+    }
+
+
+    /**
+     * Obtain the resource sets that need to be checked for the given path.
+     *
+     * @param path The path of the resource relative to the root of the web
+     *                 application. It must start with '/'.
+     *
+     * @return The resource sets that may contain the resource in the order
+     *             they should be checked
+     */
+    WebResourceSet[] getResourceSets(String path) {
+        int end = path.length();
+        if (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        String directory = path.substring(0, path.lastIndexOf('/', end - 1) + 1);
+        WebResourceSet[] result = resourceSetsByDirectory.get(directory);
+        if (result == null) {
+            return unindexedResourceSets;
+        }
+        return result;
+    }
+
+
+    /**
+     * Has a recent lookup for the given path failed to find a resource?
+     *
+     * @param path The path of the resource
+     * @param now  The current time in milliseconds
+     *
+     * @return {@code true} if the resource was not found by a lookup that has
+     *             not yet expired
+     */
+    boolean isNotFound(String path, long now) {
+        Long expires = notFound.get(path);
+        if (expires == null) {
+            return false;
+        }
+        if (expires.longValue() > now) {
+            return true;
+        }
+        notFound.remove(path, expires);
+        return false;
+    }
+
+
+    /**
+     * Record that a lookup failed to find a resource.
+     *
+     * @param path    The path of the resource
+     * @param expires The time in milliseconds after which the path must be
+     *                    looked up again
+     */
+    void addNotFound(String path, long expires) {
+        if (notFound.size() >= NOT_FOUND_MAX_SIZE) {
+            // Simpler and cheaper than tracking usage. The cache will refill
+            // with the lookups that are still being made.
+            notFound.clear();
+        }
+        notFound.put(path, Long.valueOf(expires));
+    }
+
+
+    void removeNotFound(String path) {
+        notFound.remove(path);
+    }
+
+
+    /*
+     * Returns the directories, in web application path form, that contain at
+     * least one entry from the archive or null if the archive cannot be
+     * indexed.
+     */
+    private static Set<String> getDirectories(AbstractArchiveResourceSet archiveResourceSet) {
+        Map<String,JarEntry> entries;
+        try {
+            entries = archiveResourceSet.getArchiveEntries(false);
+            if (entries == null || archiveResourceSet.isMultiRelease()) {
+                // Entry names do not map directly to paths
+                return null;
+            }
+        } catch (IllegalStateException e) {
+            log.warn(sm.getString("resourceIndex.archiveFail", archiveResourceSet.getBaseUrlString()), e);
+            return null;
+        }
+
+        String internalPath = archiveResourceSet.getInternalPath();
+        String prefix = internalPath.isEmpty() ? "" : internalPath.substring(1) + '/';
+        String webAppMount = archiveResourceSet.getWebAppMount();
+
+        Set<String> result = new HashSet<>();
+        // The archive provides the directory it is mounted at
+        addParentDirectories(result, webAppMount + '/');
+        for (String name : entries.keySet()) {
+            if (name.startsWith(prefix)) {
+                addParentDirectories(result, webAppMount + '/' + name.substring(prefix.length()));
+            }
+        }
+        return result;
+    }
+
+
+    /*
+     * Adds every parent directory of the path up to and including the root.
+     */
+    private static void addParentDirectories(Set<String> directories, String path) {
+        int end = path.length();
+        if (path.charAt(end - 1) == '/') {
+            end--;
+        }
+        while (end > 0) {
+            int separator = path.lastIndexOf('/', end - 1);
+            if (!directories.add(path.substring(0, separator + 1))) {
+                // The remaining parents will have been added as well
+                return;
+            }
+            end = separator;
+        }
+    }
+}
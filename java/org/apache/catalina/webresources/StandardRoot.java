@@ -81,6 +81,8 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     private final Set<TrackedWebResource> trackedResources = ConcurrentHashMap.newKeySet();
 
     private ArchiveIndexStrategy archiveIndexStrategy = ArchiveIndexStrategy.SIMPLE;
+    private volatile ResourceIndex resourceIndex = null;
+    private final Object resourceIndexLock = new Object();
 
     // Constructs to make iteration over all WebResourceSets simpler
     private final List<WebResourceSet> mainResources = new ArrayList<>();
@@ -165,6 +167,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
         if (mkdirResult && isCachingAllowed()) {
             // Remove the entry from the cache so the new directory is visible
             cache.removeCacheEntry(path);
+            removeNotFound(path);
         }
         return mkdirResult;
     }
@@ -182,6 +185,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
         if (writeResult && isCachingAllowed()) {
             // Remove the entry from the cache so the new resource is visible
             cache.removeCacheEntry(path);
+            removeNotFound(path);
         }
 
         return writeResult;
@@ -262,6 +266,11 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     }
 
     protected final WebResource getResourceInternal(String path, boolean useClassLoaderResources) {
+        ResourceIndex index = getResourceIndex();
+        if (index != null) {
+            return getResourceInternal(index, path, useClassLoaderResources);
+        }
+
         WebResource result = null;
         WebResource virtual = null;
         WebResource mainEmpty = null;
@@ -293,6 +302,50 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
         return mainEmpty;
     }
 
+    /*
+     * Same as above but only checks the resource sets that may contain the resource according to the index. Class
+     * loader lookups for classes are not cached by the Cache so failed lookups are cached by the index.
+     */
+    private WebResource getResourceInternal(ResourceIndex index, String path, boolean useClassLoaderResources) {
+        boolean cacheNotFound = useClassLoaderResources && isCachingAllowed() && path.endsWith(".class");
+        long now = 0;
+        if (cacheNotFound) {
+            now = System.currentTimeMillis();
+            if (index.isNotFound(path, now)) {
+                return new EmptyResource(this, path);
+            }
+        }
+
+        WebResource result = null;
+        WebResource virtual = null;
+        WebResource mainEmpty = null;
+        for (WebResourceSet webResourceSet : index.getResourceSets(path)) {
+            if (!useClassLoaderResources && !webResourceSet.getClassLoaderOnly() ||
+                    useClassLoaderResources && !webResourceSet.getStaticOnly()) {
+                result = webResourceSet.getResource(path);
+                if (result.exists()) {
+                    return result;
+                }
+                if (virtual == null) {
+                    if (result.isVirtual()) {
+                        virtual = result;
+                    } else if (main.equals(webResourceSet)) {
+                        mainEmpty = result;
+                    }
+                }
+            }
+        }
+
+        if (virtual != null) {
+            return virtual;
+        }
+
+        if (cacheNotFound) {
+            index.addNotFound(path, now + getCacheTtl());
+        }
+        return mainEmpty;
+    }
+
     @Override
     public WebResource[] getResources(String path) {
         return getResources(path, false);
@@ -310,15 +363,17 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
 
     protected WebResource[] getResourcesInternal(String path, boolean useClassLoaderResources) {
         List<WebResource> result = new ArrayList<>();
-        for (List<WebResourceSet> list : allResources) {
-            for (WebResourceSet webResourceSet : list) {
-                if (useClassLoaderResources || !webResourceSet.getClassLoaderOnly()) {
-                    WebResource webResource = webResourceSet.getResource(path);
-                    if (webResource.exists()) {
-                        result.add(webResource);
-                    }
+        ResourceIndex index = getResourceIndex();
+        if (index == null) {
+            for (List<WebResourceSet> list : allResources) {
+                for (WebResourceSet webResourceSet : list) {
+                    addResource(result, webResourceSet, path, useClassLoaderResources);
                 }
             }
+        } else {
+            for (WebResourceSet webResourceSet : index.getResourceSets(path)) {
+                addResource(result, webResourceSet, path, useClassLoaderResources);
+            }
         }
 
         if (result.size() == 0) {
@@ -328,6 +383,50 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
         return result.toArray(new WebResource[0]);
     }
 
+    private static void addResource(List<WebResource> result, WebResourceSet webResourceSet, String path,
+            boolean useClassLoaderResources) {
+        if (useClassLoaderResources || !webResourceSet.getClassLoaderOnly()) {
+            WebResource webResource = webResourceSet.getResource(path);
+            if (webResource.exists()) {
+                result.add(webResource);
+            }
+        }
+    }
+
+    /*
+     * Returns the index of the resource sets or null if an index should not be used. The index is created on first
+     * use after a change to the resource sets.
+     */
+    private ResourceIndex getResourceIndex() {
+        if (!archiveIndexStrategy.getUsesIndex() || !getState().isAvailable()) {
+            return null;
+        }
+        ResourceIndex result = resourceIndex;
+        if (result == null) {
+            synchronized (resourceIndexLock) {
+                result = resourceIndex;
+                if (result == null) {
+                    result = new ResourceIndex(allResources, main);
+                    resourceIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void invalidateResourceIndex() {
+        synchronized (resourceIndexLock) {
+            resourceIndex = null;
+        }
+    }
+
+    private void removeNotFound(String path) {
+        ResourceIndex index = resourceIndex;
+        if (index != null) {
+            index.removeNotFound(path);
+        }
+    }
+
     @Override
     public WebResource[] listResources(String path) {
         return listResources(path, true);
@@ -409,12 +508,14 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
         }
 
         resourceList.add(resourceSet);
+        invalidateResourceIndex();
     }
 
     @Override
     public void addPreResources(WebResourceSet webResourceSet) {
         webResourceSet.setRoot(this);
         preResources.add(webResourceSet);
+        invalidateResourceIndex();
     }
 
     @Override
@@ -426,6 +527,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     public void addJarResources(WebResourceSet webResourceSet) {
         webResourceSet.setRoot(this);
         jarResources.add(webResourceSet);
+        invalidateResourceIndex();
     }
 
     @Override
@@ -437,6 +539,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     public void addPostResources(WebResourceSet webResourceSet) {
         webResourceSet.setRoot(this);
         postResources.add(webResourceSet);
+        invalidateResourceIndex();
     }
 
     @Override
@@ -451,6 +554,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     protected void addClassResources(WebResourceSet webResourceSet) {
         webResourceSet.setRoot(this);
         classResources.add(webResourceSet);
+        invalidateResourceIndex();
     }
 
     @Override
@@ -542,6 +646,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
     @Override
     public void setArchiveIndexStrategy(String archiveIndexStrategy) {
         this.archiveIndexStrategy = ArchiveIndexStrategy.valueOf(archiveIndexStrategy.toUpperCase(Locale.ENGLISH));
+        invalidateResourceIndex();
     }
 
     @Override
@@ -727,6 +832,8 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
 
         cache.enforceObjectMaxSizeLimit();
 
+        invalidateResourceIndex();
+
         setState(LifecycleState.STARTING);
     }
 
@@ -786,6 +893,7 @@ public class StandardRoot extends LifecycleMBeanBase implements WebResourceRoot
             }
         }
         cache.clear();
+        invalidateResourceIndex();
 
         setState(LifecycleState.STOPPING);
     }
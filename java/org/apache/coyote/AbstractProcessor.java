@@ -147,6 +147,24 @@ public abstract class AbstractProcessor extends AbstractProcessorLight implement
     }
 
 
+    /**
+     * Obtain a permit to process the current request from the given limiter. If a permit cannot be obtained the
+     * request is rejected with a 503 response, which is logged, and the request must not be passed to the adapter.
+     *
+     * @param limiter The limiter for the connector or {@code null} if concurrency is not limited
+     *
+     * @return {@code true} if the request should be passed to the adapter
+     */
+    protected boolean acquireConcurrencyPermit(ConcurrencyLimiter limiter) {
+        if (limiter == null || request.acquireConcurrencyPermit(limiter)) {
+            return true;
+        }
+        response.setStatus(503);
+        getAdapter().log(request, response, 0);
+        return false;
+    }
+
+
     /**
      * Set the socket wrapper being used.
      *
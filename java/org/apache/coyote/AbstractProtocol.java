@@ -204,6 +204,48 @@ public abstract class AbstractProtocol<S> implements ProtocolHandler, MBeanRegis
     }
 
 
+    private volatile ConcurrencyLimiter concurrencyLimiter = null;
+
+    /**
+     * The limiter, if any, for the number of requests this connector processes concurrently. Requests that exceed the
+     * limit are rejected with a 503 response.
+     *
+     * @return The limiter or {@code null} if concurrency is not limited
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * @return The current limit of the concurrency limiter or -1 if concurrency is not limited
+     */
+    public int getConcurrencyLimit() {
+        ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+        return concurrencyLimiter == null ? -1 : concurrencyLimiter.getLimit();
+    }
+
+    /**
+     * @return The number of requests holding a permit from the concurrency limiter or -1 if concurrency is not
+     *             limited
+     */
+    public int getConcurrencyInFlight() {
+        ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+        return concurrencyLimiter == null ? -1 : concurrencyLimiter.getInFlight();
+    }
+
+    /**
+     * @return The number of requests rejected by the concurrency limiter or -1 if concurrency is not limited
+     */
+    public long getConcurrencyRejectedCount() {
+        ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+        return concurrencyLimiter == null ? -1 : concurrencyLimiter.getRejectedCount();
+    }
+
+
     @Override
     public boolean isSendfileSupported() {
         return endpoint.getUseSendfile();
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.coyote;
+
+/**
+ * Limits the number of requests a connector processes concurrently. A permit is obtained before a request is passed to
+ * the {@link Adapter} and released when the request completes. Requests that cannot obtain a permit are rejected
+ * immediately with a 503 response. Implementations may adjust the limit based on the observed processing times.
+ * Implementations must be thread-safe.
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * Try to obtain a permit to process a request.
+     *
+     * @return {@code true} if a permit was obtained and the request may be processed, {@code false} if the request
+     *             should be rejected
+     */
+    boolean tryAcquire();
+
+    /**
+     * Release a permit previously obtained via {@link #tryAcquire()}.
+     *
+     * @param durationNanos The time taken to process the request in nanoseconds or -1 if the request did not complete
+     *                          normally and the time should not be used to adjust the limit
+     */
+    void release(long durationNanos);
+
+    /**
+     * @return The current limit on the number of requests that may be processed concurrently
+     */
+    int getLimit();
+
+    /**
+     * @return The number of permits currently held
+     */
+    int getInFlight();
+
+    /**
+     * @return The number of requests rejected because the limit was reached
+     */
+    long getRejectedCount();
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.coyote;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ConcurrencyLimiter} that adjusts the limit based on the gradient between a long term and a short term
+ * average of the request processing time. While the short term average stays within the tolerated multiple of the long
+ * term average the limit grows by roughly the square root of the limit per update. When the short term average rises
+ * above it, for example because a downstream service has slowed down, the limit shrinks in proportion so requests are
+ * rejected early rather than queued until they time out.
+ * <p>
+ * The limit is only increased while at least half of it is in use so an idle or lightly loaded connector does not grow
+ * the limit without bound. Processing time samples are skipped, rather than waited for, if another thread is updating
+ * the averages so releasing a permit never blocks.
+ */
+public class GradientConcurrencyLimiter implements ConcurrencyLimiter {
+
+    /*
+     * Number of samples for the short term average.
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    /*
+     * Weight of each new limit estimate.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final Lock updateLock = new ReentrantLock();
+
+    private volatile int limit = 100;
+
+    // Guarded by updateLock
+    private double estimatedLimit = limit;
+    private double shortRtt = 0;
+    private double longRtt = 0;
+
+
+    private int minLimit = 10;
+
+    /**
+     * @return The lowest value the limit will be reduced to
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        clampLimit();
+    }
+
+
+    private int maxLimit = 1000;
+
+    /**
+     * @return The highest value the limit will be increased to
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        clampLimit();
+    }
+
+
+    private int initialLimit = limit;
+
+    /**
+     * @return The limit used before enough processing times have been observed to adjust it
+     */
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+        updateLock.lock();
+        try {
+            setLimit(initialLimit);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+
+    /*
+     * Keeps the limit within the bounds. Until the limit has been adjusted, it is derived from the initial limit so
+     * the result does not depend on the order the properties are set in.
+     */
+    private void clampLimit() {
+        updateLock.lock();
+        try {
+            setLimit(longRtt == 0 ? initialLimit : estimatedLimit);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+
+    // Requires updateLock
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+
+    private int tolerance = 150;
+
+    /**
+     * @return The percentage of the long term average processing time the short term average may reach before the
+     *             limit is reduced
+     */
+    public int getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(int tolerance) {
+        this.tolerance = tolerance;
+    }
+
+
+    private int longWindow = 600;
+
+    /**
+     * @return The number of samples for the long term average processing time
+     */
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCount.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+
+    @Override
+    public void release(long durationNanos) {
+        // Include this request in the number in flight when deciding whether the limit is being used
+        int current = inFlight.getAndDecrement();
+        if (durationNanos > 0 && updateLock.tryLock()) {
+            try {
+                update(durationNanos, current);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+
+    private void update(long durationNanos, int current) {
+        if (longRtt == 0) {
+            shortRtt = durationNanos;
+            longRtt = durationNanos;
+        } else {
+            shortRtt += (durationNanos - shortRtt) / SHORT_WINDOW;
+            longRtt += (durationNanos - longRtt) / longWindow;
+        }
+
+        // After a prolonged period of slow processing the long term average is high. Let it recover more quickly
+        // once processing times return to normal.
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / (100 * shortRtt)));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        if (newLimit > estimatedLimit && current < estimatedLimit / 2) {
+            // Not enough load to know whether a higher limit would be safe
+            return;
+        }
+        setLimit(newLimit);
+    }
+
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
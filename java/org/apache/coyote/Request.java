@@ -164,6 +164,10 @@ public final class Request {
     private long bytesRead = 0;
     // Time of the request - useful to avoid repeated calls to System.currentTime
     private long startTimeNanos = -1;
+    // Time spent waiting for a thread before the processing started
+    private long queueTimeNanos = -1;
+    // The limiter that granted a permit to process this request, if any
+    private ConcurrencyLimiter concurrencyLimiter = null;
     private long threadId = 0;
     private int available = 0;
 
@@ -716,6 +720,52 @@ public final class Request {
         this.startTimeNanos = startTimeNanos;
     }
 
+    /**
+     * Obtain the time the processing of this request waited for a thread
+     * before it started.
+     *
+     * @return The time in nanoseconds or -1 if not known
+     */
+    public long getQueueTimeNanos() {
+        return queueTimeNanos;
+    }
+
+    public void setQueueTimeNanos(long queueTimeNanos) {
+        this.queueTimeNanos = queueTimeNanos;
+    }
+
+    /**
+     * Try to obtain a permit to process this request from the given limiter. A permit obtained by this method is
+     * released when the request completes or, if it does not complete normally, when the request is recycled.
+     *
+     * @param limiter The limiter for the connector processing this request
+     *
+     * @return {@code true} if the request may be processed
+     */
+    public boolean acquireConcurrencyPermit(ConcurrencyLimiter limiter) {
+        if (limiter.tryAcquire()) {
+            concurrencyLimiter = limiter;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Release the permit to process this request, if one was obtained, without reporting a processing time to the
+     * limiter. This is used when processing is abandoned before the request completes normally.
+     */
+    public void releaseConcurrencyPermit() {
+        releaseConcurrencyPermit(-1);
+    }
+
+    private void releaseConcurrencyPermit(long durationNanos) {
+        ConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter != null) {
+            concurrencyLimiter = null;
+            limiter.release(durationNanos);
+        }
+    }
+
     public long getThreadId() {
         return threadId;
     }
@@ -816,12 +866,17 @@ public final class Request {
         }
         allDataReadEventSent.set(false);
 
+        releaseConcurrencyPermit();
         startTimeNanos = -1;
+        queueTimeNanos = -1;
         threadId = 0;
     }
 
     // -------------------- Info --------------------
     public void updateCounters() {
+        if (concurrencyLimiter != null) {
+            releaseConcurrencyPermit(System.nanoTime() - startTimeNanos);
+        }
         reqProcessorMX.updateCounters();
     }
 
@@ -19,6 +19,7 @@ package org.apache.coyote;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.tomcat.util.LatencyHistogram;
 import org.apache.tomcat.util.modeler.BaseModelMBean;
 
 /**
@@ -33,6 +34,18 @@ public class RequestGroupInfo extends BaseModelMBean {
     private long deadBytesReceived = 0;
     private long deadBytesSent = 0;
 
+    /*
+     * Unlike the other statistics, the histograms are shared by all the
+     * processors. They are lock-free so no synchronization is required.
+     */
+    private final LatencyHistogram[] processingTimeHistograms = new LatencyHistogram[5];
+
+    public RequestGroupInfo() {
+        for (int i = 0; i < processingTimeHistograms.length; i++) {
+            processingTimeHistograms[i] = new LatencyHistogram();
+        }
+    }
+
     public synchronized void addRequestProcessor(RequestInfo rp) {
         processors.add(rp);
     }
@@ -145,6 +158,29 @@ public class RequestGroupInfo extends BaseModelMBean {
         }
     }
 
+    void addProcessingTime(int status, long nanos) {
+        int statusClass = status / 100 - 1;
+        if (statusClass >= 0 && statusClass < processingTimeHistograms.length) {
+            processingTimeHistograms[statusClass].record(nanos);
+        }
+    }
+
+    /**
+     * Obtain the histograms of request processing times for each HTTP status
+     * class.
+     *
+     * @return Snapshots of the histograms for 1xx, 2xx, 3xx, 4xx and 5xx
+     *             responses in that order. See {@link LatencyHistogram} for
+     *             the format.
+     */
+    public long[][] getProcessingTimeHistograms() {
+        long[][] result = new long[processingTimeHistograms.length][];
+        for (int i = 0; i < processingTimeHistograms.length; i++) {
+            result[i] = processingTimeHistograms[i].getSnapshot();
+        }
+        return result;
+    }
+
     public void resetCounters() {
         this.setBytesReceived(0);
         this.setBytesSent(0);
@@ -152,5 +188,8 @@ public class RequestGroupInfo extends BaseModelMBean {
         this.setProcessingTime(0);
         this.setMaxTime(0);
         this.setErrorCount(0);
+        for (LatencyHistogram histogram : processingTimeHistograms) {
+            histogram.reset();
+        }
     }
 }
@@ -165,7 +165,11 @@ public class RequestInfo {
         if (req.getResponse().getStatus() >= 400) {
             errorCount++;
         }
-        long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - req.getStartTimeNanos());
+        long timeNanos = System.nanoTime() - req.getStartTimeNanos();
+        if (global != null) {
+            global.addProcessingTime(req.getResponse().getStatus(), timeNanos);
+        }
+        long time = TimeUnit.NANOSECONDS.toMillis(timeNanos);
         this.lastRequestProcessingTime = time;
         processingTime += time;
         if (maxTime < time) {
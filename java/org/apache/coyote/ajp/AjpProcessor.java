@@ -392,6 +392,7 @@ public class AjpProcessor extends AbstractProcessor {
                     break;
                 }
                 request.setStartTimeNanos(System.nanoTime());
+                request.setQueueTimeNanos(socketWrapper.getQueueTimeNanos());
             } catch (IOException e) {
                 setErrorState(ErrorState.CLOSE_CONNECTION_NOW, e);
                 break;
@@ -425,7 +426,7 @@ public class AjpProcessor extends AbstractProcessor {
             cping = false;
 
             // Process the request in the adapter
-            if (getErrorState().isIoAllowed()) {
+            if (getErrorState().isIoAllowed() && acquireConcurrencyPermit(protocol.getConcurrencyLimiter())) {
                 try {
                     rp.setStage(org.apache.coyote.Constants.STAGE_SERVICE);
                     getAdapter().service(request, response);
@@ -371,6 +371,7 @@ public class Http11InputBuffer implements InputBuffer, ApplicationBufferHandler
                 // just skipping blank lines)
                 if (request.getStartTimeNanos() < 0) {
                     request.setStartTimeNanos(System.nanoTime());
+                    request.setQueueTimeNanos(wrapper.getQueueTimeNanos());
                 }
                 chr = byteBuffer.get();
             } while (chr == Constants.CR || chr == Constants.LF);
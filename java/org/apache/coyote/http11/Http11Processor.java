@@ -385,7 +385,7 @@ public class Http11Processor extends AbstractProcessor {
             }
 
             // Process the request in the adapter
-            if (getErrorState().isIoAllowed()) {
+            if (getErrorState().isIoAllowed() && acquireConcurrencyPermit(protocol.getConcurrencyLimiter())) {
                 try {
                     rp.setStage(org.apache.coyote.Constants.STAGE_SERVICE);
                     getAdapter().service(request, response);
@@ -401,6 +401,10 @@ class StreamProcessor extends AbstractProcessor {
             global.removeRequestProcessor(request.getRequestProcessor());
         }
 
+        // The coyote request is not recycled so release any permit that was
+        // not released when the request completed
+        request.releaseConcurrencyPermit();
+
         // Clear fields that can be cleared to aid GC and trigger NPEs if this
         // is reused
         setSocketWrapper(null);
@@ -429,7 +433,9 @@ class StreamProcessor extends AbstractProcessor {
     public final SocketState service(SocketWrapperBase<?> socket) throws IOException {
         try {
             if (validateRequest()) {
-                adapter.service(request, response);
+                if (acquireConcurrencyPermit(handler.getProtocol().getHttp11Protocol().getConcurrencyLimiter())) {
+                    adapter.service(request, response);
+                }
             } else {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 adapter.log(request, response, 0);
@@ -49,6 +49,15 @@ public final class AstValue extends SimpleNode {
         protected Object property;
     }
 
+    /*
+     * Created once the node has been evaluated INLINE_CACHE_THRESHOLD times.
+     * Nodes are shared between threads so the evaluation count is only
+     * approximate.
+     */
+    private volatile PropertyInlineCache[] inlineCaches;
+
+    private int evaluationCount;
+
     public AstValue(int id) {
         super(id);
     }
@@ -139,6 +148,7 @@ public final class AstValue extends SimpleNode {
         int i = 1;
         Object suffix = null;
         ELResolver resolver = ctx.getELResolver();
+        PropertyInlineCache[] caches = getInlineCaches();
         while (base != null && i < propCount) {
             suffix = this.children[i].getValue(ctx);
             if (i + 1 < propCount &&
@@ -165,8 +175,12 @@ public final class AstValue extends SimpleNode {
                     return null;
                 }
 
-                ctx.setPropertyResolved(false);
-                base = resolver.getValue(ctx, base, suffix);
+                if (caches != null && caches[i] != null) {
+                    base = caches[i].getValue(ctx, resolver, base);
+                } else {
+                    ctx.setPropertyResolved(false);
+                    base = resolver.getValue(ctx, base, suffix);
+                }
                 i++;
             }
         }
@@ -177,6 +191,18 @@ public final class AstValue extends SimpleNode {
         return base;
     }
 
+    private PropertyInlineCache[] getInlineCaches() {
+        if (PropertyInlineCache.THRESHOLD <= 0) {
+            return null;
+        }
+        PropertyInlineCache[] result = inlineCaches;
+        if (result == null && ++evaluationCount >= PropertyInlineCache.THRESHOLD) {
+            result = PropertyInlineCache.create(children);
+            inlineCaches = result;
+        }
+        return result;
+    }
+
     @Override
     public boolean isReadOnly(EvaluationContext ctx) throws ELException {
         Target t = getTarget(ctx);
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.el.parser;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import jakarta.el.ELClass;
+import jakarta.el.ELException;
+import jakarta.el.ELResolver;
+
+import org.apache.el.lang.EvaluationContext;
+import org.apache.el.util.ExceptionUtils;
+import org.apache.el.util.MessageFactory;
+import org.apache.el.util.ReflectionUtil;
+
+/**
+ * Inline cache for a property read with a constant name, e.g. the
+ * <code>name</code> in <code>${bean.name}</code>.
+ * <p>
+ * Once an {@link AstValue} has been evaluated
+ * {@code org.apache.el.parser.INLINE_CACHE_THRESHOLD} times, a cache is created
+ * for each of its constant property suffixes. The first time the property is
+ * resolved for a JavaBean, the read method found for the bean class is
+ * recorded along with the {@link ELResolver}. Subsequent reads of the property
+ * of an instance of the same class with the same resolver call the read method
+ * directly via a {@link MethodHandle} rather than going through the resolver
+ * chain. When the resolver changes the cache falls back to the resolver and is
+ * re-specialised. If this happens too often the cache is disabled for that
+ * class and the property is always read through the resolver.
+ * <p>
+ * {@link AstValue} nodes are shared by all web applications via the cache of
+ * parsed expressions. The cached state is therefore held per class of the
+ * base object, via a {@link ClassValue}, and the resolver is only weakly
+ * referenced. The cache does not prevent the classes and resolvers of a web
+ * application, and hence its class loader, from being released and the
+ * classes of different web applications use separate state.
+ * <p>
+ * The cache assumes that the resolver resolves properties of JavaBeans using
+ * the standard {@link jakarta.el.BeanELResolver} rules. It must not be enabled
+ * if the application uses a custom {@link ELResolver} that resolves
+ * properties of objects (rather than top-level identifiers).
+ */
+final class PropertyInlineCache {
+
+    private static final String THRESHOLD_PROP = "org.apache.el.parser.INLINE_CACHE_THRESHOLD";
+
+    /**
+     * Number of evaluations of an {@link AstValue} before caches are created
+     * for its properties. Zero or less disables the caches.
+     */
+    static final int THRESHOLD;
+
+    /**
+     * Number of times a cache may be re-specialised for a class before it is
+     * disabled for that class.
+     */
+    private static final int MAX_SPECIALISATIONS = 4;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    static {
+        if (System.getSecurityManager() == null) {
+            THRESHOLD = Integer.getInteger(THRESHOLD_PROP, 0).intValue();
+        } else {
+            THRESHOLD = AccessController.doPrivileged(
+                    (PrivilegedAction<Integer>) () -> Integer.getInteger(THRESHOLD_PROP, 0)).intValue();
+        }
+    }
+
+    private final String property;
+
+    private final ClassValue<Site> sites = new ClassValue<Site>() {
+        @Override
+        protected Site computeValue(Class<?> type) {
+            return new Site();
+        }
+    };
+
+
+    private PropertyInlineCache(String property) {
+        this.property = property;
+    }
+
+
+    /**
+     * Create the caches for the property suffixes of an {@link AstValue}.
+     *
+     * @param children The children of the {@link AstValue}
+     *
+     * @return An array with the same length as the children that contains a
+     *         cache at the index of each property suffix with a constant name
+     *         that is not followed by method parameters
+     */
+    static PropertyInlineCache[] create(Node[] children) {
+        PropertyInlineCache[] result = new PropertyInlineCache[children.length];
+        for (int i = 1; i < children.length; i++) {
+            if (i + 1 < children.length && children[i + 1] instanceof AstMethodParameters) {
+                // Method call
+                i++;
+                continue;
+            }
+            Node suffix = children[i];
+            String name = null;
+            if (suffix instanceof AstDotSuffix) {
+                name = suffix.getImage();
+            } else if (suffix instanceof AstBracketSuffix && suffix.jjtGetNumChildren() == 1 &&
+                    suffix.jjtGetChild(0) instanceof AstString) {
+                name = ((AstString) suffix.jjtGetChild(0)).getString();
+            }
+            if (name != null) {
+                result[i] = new PropertyInlineCache(name);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Read the property from the given base object.
+     *
+     * @param ctx      The evaluation context
+     * @param resolver The resolver to use if the cache does not apply
+     * @param base     The object to read the property from
+     *
+     * @return The value of the property
+     */
+    Object getValue(EvaluationContext ctx, ELResolver resolver, Object base) {
+        Site site = sites.get(base.getClass());
+        Entry e = site.entry;
+        if (e != null && e.resolver.get() == resolver) {
+            ctx.setPropertyResolved(base, property);
+            try {
+                return e.getter.invokeExact(base);
+            } catch (Throwable t) {
+                ExceptionUtils.handleThrowable(t);
+                throw new ELException(MessageFactory.get("error.property.read",
+                        base.getClass().getName(), property), t);
+            }
+        }
+
+        ctx.setPropertyResolved(false);
+        Object result = resolver.getValue(ctx, base, property);
+        if (!site.disabled && ctx.isPropertyResolved()) {
+            specialise(site, resolver, base);
+        }
+        return result;
+    }
+
+
+    private void specialise(Site site, ELResolver resolver, Object base) {
+        if (base instanceof Map<?,?> || base instanceof List<?> || base instanceof ResourceBundle ||
+                base instanceof ELClass || base.getClass().isArray()) {
+            // Handled by a resolver other than the BeanELResolver
+            site.disable();
+            return;
+        }
+        Entry e = site.entry;
+        // The read method only depends on the class
+        MethodHandle getter = (e == null) ? findGetter(base) : e.getter;
+        synchronized (site) {
+            if (site.disabled) {
+                return;
+            }
+            if (getter == null || site.specialisations++ >= MAX_SPECIALISATIONS) {
+                site.disable();
+            } else {
+                site.entry = new Entry(resolver, getter);
+            }
+        }
+    }
+
+
+    /*
+     * Uses the same rules as jakarta.el.BeanELResolver to find the read method.
+     */
+    private MethodHandle findGetter(Object base) {
+        Class<?> type = base.getClass();
+        try {
+            PropertyDescriptor pd = findPropertyDescriptor(type);
+            if (pd == null) {
+                return null;
+            }
+            MethodHandle read = ReflectionUtil.getReadMethodHandle(type, base, pd.getReadMethod());
+            if (read == null) {
+                return null;
+            }
+            return read.asType(GETTER_TYPE);
+        } catch (IntrospectionException | RuntimeException e) {
+            return null;
+        }
+    }
+
+
+    private PropertyDescriptor findPropertyDescriptor(Class<?> type) throws IntrospectionException {
+        BeanInfo info = Introspector.getBeanInfo(type);
+        for (PropertyDescriptor pd : info.getPropertyDescriptors()) {
+            if (property.equals(pd.getName())) {
+                return pd;
+            }
+        }
+        // Default methods and properties only visible via an interface
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> iface : c.getInterfaces()) {
+                PropertyDescriptor pd = findPropertyDescriptorInInterface(iface);
+                if (pd != null) {
+                    return pd;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    private PropertyDescriptor findPropertyDescriptorInInterface(Class<?> iface) throws IntrospectionException {
+        BeanInfo info = Introspector.getBeanInfo(iface);
+        for (PropertyDescriptor pd : info.getPropertyDescriptors()) {
+            if (property.equals(pd.getName())) {
+                return pd;
+            }
+        }
+        for (Class<?> parent : iface.getInterfaces()) {
+            PropertyDescriptor pd = findPropertyDescriptorInInterface(parent);
+            if (pd != null) {
+                return pd;
+            }
+        }
+        return null;
+    }
+
+
+    /*
+     * The state of the cache for a single class. Referenced only by the class.
+     */
+    private static final class Site {
+        private volatile Entry entry;
+        private volatile boolean disabled;
+        private int specialisations;
+
+        private void disable() {
+            disabled = true;
+            entry = null;
+        }
+    }
+
+
+    private static final class Entry {
+        private final WeakReference<ELResolver> resolver;
+        private final MethodHandle getter;
+
+        Entry(ELResolver resolver, MethodHandle getter) {
+            this.resolver = new WeakReference<>(resolver);
+            this.getter = getter;
+        }
+    }
+}
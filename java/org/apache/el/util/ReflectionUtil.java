@@ -16,6 +16,8 @@
  */
 package org.apache.el.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -436,6 +438,31 @@ public class ReflectionUtil {
     }
 
 
+    /**
+     * Obtain a {@link MethodHandle} for an accessible version of the given
+     * property read method, searching the interfaces and super classes of the
+     * given type if necessary.
+     *
+     * @param type The class of the object the method will be invoked on
+     * @param base The object the method will be invoked on
+     * @param m    The read method
+     *
+     * @return A handle for an accessible version of the method or
+     *         {@code null} if there is none
+     */
+    public static MethodHandle getReadMethodHandle(Class<?> type, Object base, Method m) {
+        Method read = getMethod(type, base, m);
+        if (read == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(read);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+
     /*
      * This class duplicates code in jakarta.el.Util. When making changes keep
      * the code in sync.
@@ -98,4 +98,13 @@ public class Constants {
     public static final String JSP_FACTORY_POOL_SIZE_INIT_PARAM =
             "org.apache.jasper.runtime.JspFactoryImpl.POOL_SIZE";
 
+    /**
+     * Name of the ServletContext init-param that determines if the TLDs found
+     * in JARs are recorded in the work directory so that unchanged JARs do not
+     * need to be scanned, and their TLDs parsed, when the web application is
+     * next started. The default value is <code>false</code>.
+     */
+    public static final String TLD_SCAN_CACHE_INIT_PARAM =
+            "org.apache.jasper.servlet.TldScanner.USE_CACHE";
+
 }
@@ -229,6 +229,27 @@ public final class EmbeddedServletOptions implements Options {
 
     private boolean useInstanceManagerForTags = false;
 
+    /**
+     * Should generated source and classes be kept in memory?
+     */
+    private boolean compileInMemory = false;
+
+    /**
+     * Should classes compiled in memory be written to the scratch directory in
+     * the background?
+     */
+    private boolean compileInMemoryPersist = false;
+
+    /**
+     * Should a WatchService be used to detect changes to source files?
+     */
+    private boolean watchSourceFiles = false;
+
+    /**
+     * Should template text be encoded when the page is loaded?
+     */
+    private boolean preEncodeTemplateText = false;
+
     public String getProperty(String name ) {
         return settings.getProperty( name );
     }
@@ -540,6 +561,26 @@ public final class EmbeddedServletOptions implements Options {
         return useInstanceManagerForTags;
     }
 
+    @Override
+    public boolean getCompileInMemory() {
+        return compileInMemory;
+    }
+
+    @Override
+    public boolean getCompileInMemoryPersist() {
+        return compileInMemoryPersist;
+    }
+
+    @Override
+    public boolean getWatchSourceFiles() {
+        return watchSourceFiles;
+    }
+
+    @Override
+    public boolean getPreEncodeTemplateText() {
+        return preEncodeTemplateText;
+    }
+
     /**
      * Create an EmbeddedServletOptions object using data available from
      * ServletConfig and ServletContext.
@@ -953,6 +994,58 @@ public final class EmbeddedServletOptions implements Options {
             }
         }
 
+        String compileInMemory = config.getInitParameter("compileInMemory");
+        if (compileInMemory != null) {
+            if (compileInMemory.equalsIgnoreCase("true")) {
+                this.compileInMemory = true;
+            } else if (compileInMemory.equalsIgnoreCase("false")) {
+                this.compileInMemory = false;
+            } else {
+                if (log.isWarnEnabled()) {
+                    log.warn(Localizer.getMessage("jsp.warning.compileInMemory"));
+                }
+            }
+        }
+
+        String compileInMemoryPersist = config.getInitParameter("compileInMemoryPersist");
+        if (compileInMemoryPersist != null) {
+            if (compileInMemoryPersist.equalsIgnoreCase("true")) {
+                this.compileInMemoryPersist = true;
+            } else if (compileInMemoryPersist.equalsIgnoreCase("false")) {
+                this.compileInMemoryPersist = false;
+            } else {
+                if (log.isWarnEnabled()) {
+                    log.warn(Localizer.getMessage("jsp.warning.compileInMemoryPersist"));
+                }
+            }
+        }
+
+        String watchSourceFiles = config.getInitParameter("watchSourceFiles");
+        if (watchSourceFiles != null) {
+            if (watchSourceFiles.equalsIgnoreCase("true")) {
+                this.watchSourceFiles = true;
+            } else if (watchSourceFiles.equalsIgnoreCase("false")) {
+                this.watchSourceFiles = false;
+            } else {
+                if (log.isWarnEnabled()) {
+                    log.warn(Localizer.getMessage("jsp.warning.watchSourceFiles"));
+                }
+            }
+        }
+
+        String preEncodeTemplateText = config.getInitParameter("preEncodeTemplateText");
+        if (preEncodeTemplateText != null) {
+            if (preEncodeTemplateText.equalsIgnoreCase("true")) {
+                this.preEncodeTemplateText = true;
+            } else if (preEncodeTemplateText.equalsIgnoreCase("false")) {
+                this.preEncodeTemplateText = false;
+            } else {
+                if (log.isWarnEnabled()) {
+                    log.warn(Localizer.getMessage("jsp.warning.preEncodeTemplateText"));
+                }
+            }
+        }
+
         // Setup the global Tag Libraries location cache for this
         // web-application.
         tldCache = TldCache.getInstance(context);
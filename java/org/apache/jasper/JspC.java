@@ -1420,6 +1420,8 @@ public class JspC extends Task implements Options {
             int errorCount = 0;
             long start = System.currentTimeMillis();
 
+            // The pages share the classes loaded by the compiler to resolve types
+            rctxt.setCompilerTypeCacheEnabled(true);
             ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
             ExecutorCompletionService<Void> service = new ExecutorCompletionService<>(threadPool);
             try {
@@ -1456,6 +1458,7 @@ public class JspC extends Task implements Options {
                 }
             } finally {
                 threadPool.shutdown();
+                rctxt.setCompilerTypeCacheEnabled(false);
             }
 
             long time = System.currentTimeMillis() - start;
@@ -179,7 +179,8 @@ public class JspCompilationContext {
     public ClassLoader getJspLoader() {
         if( jspLoader == null ) {
             jspLoader = new JasperLoader(new URL[] {baseUrl}, getClassLoader(),
-                    basePackageName, rctxt.getPermissionCollection());
+                    basePackageName, rctxt.getPermissionCollection(),
+                    options.getCompileInMemory() ? rctxt::getGeneratedClass : null);
         }
         return jspLoader;
     }
@@ -368,4 +368,56 @@ public interface Options {
     default boolean getGeneratedJavaAddTimestamp() {
         return true;
     }
+
+    /**
+     * Should the source and byte code generated for JSPs and tag files be kept
+     * in memory rather than being written to, and read back from, the scratch
+     * directory? Only supported by the JDT compiler. Defaults to
+     * {@code false}.
+     *
+     * @return {@code true} to compile in memory, otherwise {@code false}
+     */
+    default boolean getCompileInMemory() {
+        return false;
+    }
+
+    /**
+     * When compiling in memory, should the generated classes (and the source
+     * if {@link #getKeepGenerated()} is {@code true}) be written to the
+     * scratch directory in the background so they can be re-used after a
+     * restart? Defaults to {@code false}.
+     *
+     * @return {@code true} to persist the generated classes asynchronously,
+     *         otherwise {@code false}
+     */
+    default boolean getCompileInMemoryPersist() {
+        return false;
+    }
+
+    /**
+     * Should a {@link java.nio.file.WatchService} be used to detect changes to
+     * the source files of the loaded JSPs and tag files so that the background
+     * compilation check only checks the pages affected by a change? Only used
+     * if background compilation checks are enabled. Defaults to
+     * {@code false}.
+     *
+     * @return {@code true} to watch the source files, otherwise {@code false}
+     */
+    default boolean getWatchSourceFiles() {
+        return false;
+    }
+
+    /**
+     * Should template text be encoded, using the character set specified by
+     * the page's content type, when the page is loaded so that it does not
+     * need to be encoded every time it is written to the response? Only used
+     * for JSPs (not tag files) that specify a character set. Defaults to
+     * {@code false}.
+     *
+     * @return {@code true} to pre-encode template text, otherwise
+     *         {@code false}
+     */
+    default boolean getPreEncodeTemplateText() {
+        return false;
+    }
 }
@@ -16,12 +16,14 @@
  */
 package org.apache.jasper.compiler;
 
+import java.io.CharArrayWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.JarURLConnection;
 import java.net.URI;
 import java.net.URL;
@@ -69,6 +71,17 @@ public abstract class Compiler {
 
     protected Node.Nodes pageNodes;
 
+    /**
+     * The byte code produced by {@link #generateClass(Map)} when compiling in
+     * memory, keyed by binary class name.
+     */
+    protected Map<String,byte[]> generatedClasses;
+
+    /**
+     * The generated source when compiling in memory.
+     */
+    private CharArrayWriter generatedSource;
+
 
     // ------------------------------------------------------------ Constructor
 
@@ -311,14 +324,19 @@ public abstract class Compiler {
         ServletWriter writer;
         // Setup the ServletWriter
         String javaEncoding = ctxt.getOptions().getJavaEncoding();
-        OutputStreamWriter osw = null;
+        Writer osw = null;
 
-        try {
-            osw = new OutputStreamWriter(
-                    new FileOutputStream(javaFileName), javaEncoding);
-        } catch (UnsupportedEncodingException ex) {
-            errDispatcher.jspError("jsp.error.needAlternateJavaEncoding",
-                    javaEncoding);
+        if (isCompileInMemory()) {
+            generatedSource = new CharArrayWriter(8192);
+            osw = generatedSource;
+        } else {
+            try {
+                osw = new OutputStreamWriter(
+                        new FileOutputStream(javaFileName), javaEncoding);
+            } catch (UnsupportedEncodingException ex) {
+                errDispatcher.jspError("jsp.error.needAlternateJavaEncoding",
+                        javaEncoding);
+            }
         }
 
         if (ctxt.getOptions().getTrimSpaces().equals(TrimSpacesOption.EXTENDED)) {
@@ -345,6 +363,31 @@ public abstract class Compiler {
     protected abstract void generateClass(Map<String,SmapStratum> smaps)
             throws FileNotFoundException, JasperException, Exception;
 
+    /**
+     * Should the generated source and byte code be kept in memory rather than
+     * being written to the scratch directory? When this returns {@code true},
+     * {@link #generateClass(Map)} must obtain the source from
+     * {@link #getGeneratedSource()} and place the byte code in
+     * {@link #generatedClasses}.
+     *
+     * @return {@code true} if this compiler compiles in memory. The default
+     *         implementation always returns {@code false}.
+     */
+    protected boolean isCompileInMemory() {
+        return false;
+    }
+
+    /**
+     * @return the source generated for the current page when compiling in
+     *         memory, otherwise {@code null}
+     */
+    protected char[] getGeneratedSource() {
+        if (generatedSource == null) {
+            return null;
+        }
+        return generatedSource.toCharArray();
+    }
+
     /**
      * Compile the jsp file from the current engine context.
      * @throws FileNotFoundException Source files not found
@@ -394,6 +437,20 @@ public abstract class Compiler {
         try {
             final Long jspLastModified = ctxt.getLastModified(ctxt.getJspFile());
             Map<String,SmapStratum> smaps = generateJava();
+            if (isCompileInMemory()) {
+                if (compileClass) {
+                    generateClass(smaps);
+                    ctxt.getRuntimeContext().addGeneratedClasses(ctxt.getFQCN(),
+                            generatedClasses, jspLastModified.longValue());
+                    if (jsw != null) {
+                        jsw.setServletClassLastModifiedTime(jspLastModified.longValue());
+                    }
+                    if (options.getCompileInMemoryPersist() && !ctxt.isPrototypeMode()) {
+                        persistGeneratedFiles(jspLastModified.longValue());
+                    }
+                }
+                return;
+            }
             File javaFile = new File(ctxt.getServletJavaFileName());
             if (!javaFile.setLastModified(jspLastModified.longValue())) {
                 throw new JasperException(Localizer.getMessage("jsp.error.setLastModified", javaFile));
@@ -426,6 +483,8 @@ public abstract class Compiler {
             errDispatcher = null;
             pageInfo = null;
             pageNodes = null;
+            generatedSource = null;
+            generatedClasses = null;
 
             if (ctxt.getWriter() != null) {
                 ctxt.getWriter().close();
@@ -434,6 +493,34 @@ public abstract class Compiler {
         }
     }
 
+    /**
+     * Write the files generated in memory for the current page to the scratch
+     * directory in the background so they can be used after a restart.
+     *
+     * @param jspLastModified The last modified time of the page
+     */
+    private void persistGeneratedFiles(long jspLastModified) {
+        JspRuntimeContext rctxt = ctxt.getRuntimeContext();
+        String outputDir = options.getScratchDir().getAbsolutePath();
+        for (Entry<String,byte[]> entry : generatedClasses.entrySet()) {
+            File classFile = new File(outputDir,
+                    entry.getKey().replace('.', File.separatorChar) + ".class");
+            rctxt.persistGeneratedFile(classFile, entry.getValue(), jspLastModified);
+        }
+        if (ctxt.keepGenerated()) {
+            try {
+                byte[] source = new String(getGeneratedSource()).getBytes(options.getJavaEncoding());
+                rctxt.persistGeneratedFile(new File(ctxt.getServletJavaFileName()), source,
+                        jspLastModified);
+            } catch (UnsupportedEncodingException e) {
+                // Not possible as the encoding was validated when generating
+                // the source
+                log.warn(Localizer.getMessage("jsp.warning.compileInMemory.persistFail",
+                        ctxt.getServletJavaFileName()), e);
+            }
+        }
+    }
+
     /**
      * This is a protected method intended to be overridden by subclasses of
      * Compiler. This is used by the compile method to do all the compilation.
@@ -473,16 +560,30 @@ public abstract class Compiler {
         // last modified time of the source (unlikely) the target is going to
         // have to be checked anyway. If the target doesn't exist (likely during
         // startup) this saves an unnecessary check of the source.
-        File targetFile;
-        if (checkClass) {
-            targetFile = new File(ctxt.getClassFileName());
-        } else {
-            targetFile = new File(ctxt.getServletJavaFileName());
+        Object target;
+        long targetLastModified;
+        Long inMemoryLastModified = null;
+        if (checkClass && isCompileInMemory()) {
+            inMemoryLastModified = ctxt.getRuntimeContext().getGeneratedClassLastModified(ctxt.getFQCN());
         }
-        if (!targetFile.exists()) {
-            return true;
+        if (inMemoryLastModified != null) {
+            target = ctxt.getFQCN();
+            targetLastModified = inMemoryLastModified.longValue();
+        } else {
+            // Classes compiled in memory may have been persisted before a
+            // restart so always fall back to the scratch directory
+            File targetFile;
+            if (checkClass) {
+                targetFile = new File(ctxt.getClassFileName());
+            } else {
+                targetFile = new File(ctxt.getServletJavaFileName());
+            }
+            if (!targetFile.exists()) {
+                return true;
+            }
+            target = targetFile;
+            targetLastModified = targetFile.lastModified();
         }
-        long targetLastModified = targetFile.lastModified();
         if (checkClass && jsw != null) {
             jsw.setServletClassLastModifiedTime(targetLastModified);
         }
@@ -495,7 +596,7 @@ public abstract class Compiler {
 
         if (targetLastModified != jspRealLastModified.longValue()) {
             if (log.isTraceEnabled()) {
-                log.trace("Compiler: outdated: " + targetFile + " "
+                log.trace("Compiler: outdated: " + target + " "
                         + targetLastModified);
             }
             return true;
@@ -602,6 +703,7 @@ public abstract class Compiler {
     }
 
     public void removeGeneratedClassFiles() {
+        ctxt.getRuntimeContext().removeGeneratedClasses(ctxt.getFQCN());
         try {
             File classFile = new File(ctxt.getClassFileName());
             if (log.isTraceEnabled()) {
@@ -416,6 +416,25 @@ public class ErrorDispatcher {
     public static JavacErrorDetail createJavacError(String fname,
             Node.Nodes page, StringBuilder errMsgBuf, int lineNum,
             JspCompilationContext ctxt) throws JasperException {
+        return createJavacError(fname, page, errMsgBuf, lineNum, ctxt, null);
+    }
+
+
+    /**
+     * Create a compilation error.
+     * @param fname The file name
+     * @param page The page nodes
+     * @param errMsgBuf The error message
+     * @param lineNum The source line number of the error
+     * @param ctxt The compilation context
+     * @param javaSource The generated Java source if it was not written to
+     *                   the file, otherwise <code>null</code>
+     * @return JavacErrorDetail The error details
+     * @throws JasperException An error occurred
+     */
+    public static JavacErrorDetail createJavacError(String fname,
+            Node.Nodes page, StringBuilder errMsgBuf, int lineNum,
+            JspCompilationContext ctxt, char[] javaSource) throws JasperException {
         JavacErrorDetail javacError;
         // Attempt to map javac error line number to line in JSP page
         ErrorVisitor errVisitor = new ErrorVisitor(lineNum);
@@ -433,7 +452,8 @@ public class ErrorDispatcher {
                         errNode.getStart().getLineNumber() + lineNum -
                             errVisitor.getJspSourceNode().getBeginJavaLine(),
                         errMsgBuf,
-                        ctxt);
+                        ctxt,
+                        javaSource);
             } else {
                 javacError = new JavacErrorDetail(
                         fname,
@@ -441,7 +461,8 @@ public class ErrorDispatcher {
                         errNode.getStart().getFile(),
                         errNode.getStart().getLineNumber(),
                         errMsgBuf,
-                        ctxt);
+                        ctxt,
+                        javaSource);
             }
         } else {
             /*
@@ -23,6 +23,7 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -115,6 +116,12 @@ class Generator {
 
     private GenBuffer charArrayBuffer;
 
+    /*
+     * Character set to use to pre-encode template text or null if template
+     * text is not pre-encoded
+     */
+    private final Charset preEncodeCharset;
+
     private final DateFormat timestampFormat;
 
     private final ELInterpreter elInterpreter;
@@ -1910,6 +1917,45 @@ class Generator {
                 return;
             }
 
+            if (preEncodeCharset != null && preEncodeCharset.newEncoder().canEncode(text)) {
+                // Generate Strings as pre-encoded text
+                ServletWriter caOut;
+                if (charArrayBuffer == null) {
+                    charArrayBuffer = new GenBuffer();
+                    caOut = charArrayBuffer.getOut();
+                    caOut.pushIndent();
+                    textMap = new HashMap<>();
+                } else {
+                    caOut = charArrayBuffer.getOut();
+                }
+                // Same limit as for char arrays
+                int textIndex = 0;
+                int textLength = text.length();
+                while (textIndex < textLength) {
+                    int len = Math.min(textLength - textIndex, 16384);
+                    String output = text.substring(textIndex, textIndex + len);
+                    String encodedTextName = textMap.get(output);
+                    if (encodedTextName == null) {
+                        encodedTextName = "_jspx_encoded_text_" + charArrayCount++;
+                        textMap.put(output, encodedTextName);
+                        caOut.printin("static final org.apache.jasper.runtime.EncodedText ");
+                        caOut.print(encodedTextName);
+                        caOut.print(" = new org.apache.jasper.runtime.EncodedText(");
+                        caOut.print(quote(output));
+                        caOut.print(", ");
+                        caOut.print(quote(preEncodeCharset.name()));
+                        caOut.println(");");
+                    }
+
+                    n.setBeginJavaLine(out.getJavaLine());
+                    out.printil(encodedTextName + ".write(out);");
+                    n.setEndJavaLine(out.getJavaLine());
+
+                    textIndex = textIndex + len;
+                }
+                return;
+            }
+
             if (ctxt.getOptions().genStringAsCharArray()) {
                 // Generate Strings as char arrays, for performance
                 ServletWriter caOut;
@@ -3327,6 +3373,40 @@ class Generator {
         }
         timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         timestampFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        preEncodeCharset = getPreEncodeCharset();
+    }
+
+    /*
+     * Template text can only be pre-encoded if the character set of the
+     * response is known when the page is compiled.
+     */
+    private Charset getPreEncodeCharset() {
+        if (!ctxt.getOptions().getPreEncodeTemplateText() || ctxt.isTagFile()) {
+            return null;
+        }
+        String contentType = pageInfo.getContentType();
+        if (contentType == null) {
+            return null;
+        }
+        int start = contentType.indexOf("charset=");
+        if (start == -1) {
+            return null;
+        }
+        String charset = contentType.substring(start + 8);
+        int end = charset.indexOf(';');
+        if (end > -1) {
+            charset = charset.substring(0, end);
+        }
+        charset = charset.trim();
+        if (charset.length() > 1 && charset.charAt(0) == '"' && charset.charAt(charset.length() - 1) == '"') {
+            charset = charset.substring(1, charset.length() - 1);
+        }
+        try {
+            return Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            // Let the runtime report the invalid character set
+            return null;
+        }
     }
 
     /**
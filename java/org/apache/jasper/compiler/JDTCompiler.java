@@ -66,6 +66,12 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
 
     private final Log log = LogFactory.getLog(JDTCompiler.class); // must not be static
 
+    /**
+     * Marker for the classes that could not be found in the compiler type
+     * cache.
+     */
+    private static final byte[] NOT_FOUND = new byte[0];
+
     /**
      * Compile the servlet from .java file to .class file
      */
@@ -80,10 +86,18 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
 
         final String sourceFile = ctxt.getServletJavaFileName();
         final String outputDir = ctxt.getOptions().getScratchDir().getAbsolutePath();
+        final boolean inMemory = isCompileInMemory();
+        final Map<String,byte[]> compiledClasses = new HashMap<>();
         String packageName = ctxt.getServletPackageName();
         final String targetClassName =
                 ((packageName.length() != 0) ? (packageName + ".") : "") + ctxt.getServletClassName();
         final ClassLoader classLoader = ctxt.getJspLoader();
+        final Map<String,byte[]> typeCache = ctxt.getRuntimeContext().getCompilerTypeCache();
+        // Classes generated by Jasper may be regenerated so they are never cached
+        final String[] generatedPackages = new String[] {
+                ctxt.getBasePackageName() + '.',
+                options.getGeneratedJspPackageName() + '.',
+                options.getGeneratedTagFilePackageName() + '.' };
         String[] fileNames = new String[] {sourceFile};
         String[] classNames = new String[] {targetClassName};
         final List<JavacErrorDetail> problemList = new ArrayList<>();
@@ -105,6 +119,9 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
 
             @Override
             public char[] getContents() {
+                if (inMemory) {
+                    return getGeneratedSource();
+                }
                 char[] result = null;
                 try (FileInputStream is = new FileInputStream(sourceFile);
                         InputStreamReader isr = new InputStreamReader(is, ctxt.getOptions().getJavaEncoding());
@@ -187,11 +204,43 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                         return new NameEnvironmentAnswer(compilationUnit, null);
                     }
 
-                    String resourceName = className.replace('.', '/') + ".class";
+                    try {
+                        byte[] classBytes = getClassBytes(className);
+                        if (classBytes != null) {
+                            char[] fileName = className.toCharArray();
+                            ClassFileReader classFileReader = new ClassFileReader(classBytes, fileName, true);
+                            return new NameEnvironmentAnswer(classFileReader, null);
+                        }
+                    } catch (IOException | ClassFormatException exc) {
+                        log.error(Localizer.getMessage("jsp.error.compilation.dependent", className), exc);
+                    }
+                    return null;
+                }
 
+                private boolean isCacheable(String className) {
+                    if (typeCache == null) {
+                        return false;
+                    }
+                    for (String generatedPackage : generatedPackages) {
+                        if (generatedPackage.length() == 1 || className.startsWith(generatedPackage)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                private byte[] getClassBytes(String className) throws IOException {
+                    boolean cacheable = isCacheable(className);
+                    if (cacheable) {
+                        byte[] cached = typeCache.get(className);
+                        if (cached != null) {
+                            return cached == NOT_FOUND ? null : cached;
+                        }
+                    }
+                    byte[] classBytes = null;
+                    String resourceName = className.replace('.', '/') + ".class";
                     try (InputStream is = classLoader.getResourceAsStream(resourceName)) {
                         if (is != null) {
-                            byte[] classBytes;
                             byte[] buf = new byte[8192];
                             ByteArrayOutputStream baos = new ByteArrayOutputStream(buf.length);
                             int count;
@@ -200,20 +249,25 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                             }
                             baos.flush();
                             classBytes = baos.toByteArray();
-                            char[] fileName = className.toCharArray();
-                            ClassFileReader classFileReader = new ClassFileReader(classBytes, fileName, true);
-                            return new NameEnvironmentAnswer(classFileReader, null);
                         }
-                    } catch (IOException | ClassFormatException exc) {
-                        log.error(Localizer.getMessage("jsp.error.compilation.dependent", className), exc);
                     }
-                    return null;
+                    if (cacheable) {
+                        typeCache.put(className, classBytes == null ? NOT_FOUND : classBytes);
+                    }
+                    return classBytes;
                 }
 
                 private boolean isPackage(String result) {
                     if (result.equals(targetClassName) || result.startsWith(targetClassName + '$')) {
                         return false;
                     }
+                    if (isCacheable(result)) {
+                        try {
+                            return getClassBytes(result) == null;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    }
                     String resourceName = result.replace('.', '/') + ".class";
                     try (InputStream is =
                         classLoader.getResourceAsStream(resourceName)) {
@@ -424,14 +478,20 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                     try {
                         if (result.hasProblems()) {
                             IProblem[] problems = result.getProblems();
+                            // The generated source is only on disk when not
+                            // compiling in memory
+                            char[] javaSource = null;
                             for (IProblem problem : problems) {
                                 if (problem.isError()) {
                                     String name =
                                             new String(problem.getOriginatingFileName());
+                                    if (inMemory && javaSource == null) {
+                                        javaSource = getGeneratedSource();
+                                    }
                                     try {
                                         problemList.add(ErrorDispatcher.createJavacError
                                                 (name, pageNodes, new StringBuilder(problem.getMessage()),
-                                                        problem.getSourceLineNumber(), ctxt));
+                                                        problem.getSourceLineNumber(), ctxt, javaSource));
                                     } catch (JasperException e) {
                                         log.error(Localizer.getMessage("jsp.error.compilation.jdtProblemError"), e);
                                     }
@@ -443,6 +503,17 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                             for (ClassFile classFile : classFiles) {
                                 char[][] compoundName =
                                         classFile.getCompoundName();
+                                if (inMemory) {
+                                    StringBuilder binaryName = new StringBuilder();
+                                    for (int j = 0; j < compoundName.length; j++) {
+                                        if (j > 0) {
+                                            binaryName.append('.');
+                                        }
+                                        binaryName.append(compoundName[j]);
+                                    }
+                                    compiledClasses.put(binaryName.toString(), classFile.getBytes());
+                                    continue;
+                                }
                                 StringBuilder classFileName = new StringBuilder(outputDir).append('/');
                                 for (int j = 0;
                                      j < compoundName.length; j++) {
@@ -499,7 +570,7 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                                          problemFactory);
         compiler.compile(compilationUnits);
 
-        if (!ctxt.keepGenerated()) {
+        if (!inMemory && !ctxt.keepGenerated()) {
             File javaFile = new File(ctxt.getServletJavaFileName());
             if (!javaFile.delete()) {
                 throw new JasperException(Localizer.getMessage(
@@ -518,13 +589,27 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
             log.debug(Localizer.getMessage("jsp.compiled", ctxt.getServletJavaFileName(), Long.valueOf(t2 - t1)));
         }
 
+        if (inMemory) {
+            generatedClasses = compiledClasses;
+        }
+
         if (ctxt.isPrototypeMode()) {
             return;
         }
 
         // JSR45 Support
         if (! options.isSmapSuppressed()) {
-            SmapUtil.installSmap(smaps);
+            if (inMemory) {
+                SmapUtil.installSmap(smaps, ctxt.getFQCN(), compiledClasses);
+            } else {
+                SmapUtil.installSmap(smaps);
+            }
         }
     }
+
+
+    @Override
+    protected boolean isCompileInMemory() {
+        return options.getCompileInMemory();
+    }
 }
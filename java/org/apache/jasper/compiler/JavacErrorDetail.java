@@ -17,10 +17,12 @@
 package org.apache.jasper.compiler;
 
 import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -76,6 +78,31 @@ public class JavacErrorDetail {
             int jspBeginLineNum,
             StringBuilder errMsg,
             JspCompilationContext ctxt) {
+        this(javaFileName, javaLineNum, jspFileName, jspBeginLineNum, errMsg, ctxt, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param javaFileName The name of the Java file in which the
+     * compilation error occurred
+     * @param javaLineNum The compilation error line number
+     * @param jspFileName The name of the JSP file from which the Java source
+     * file was generated
+     * @param jspBeginLineNum The start line number of the JSP element
+     * responsible for the compilation error
+     * @param errMsg The compilation error message
+     * @param ctxt The compilation context
+     * @param javaSource The generated Java source if it was not written to
+     * the Java file, otherwise <code>null</code>
+     */
+    public JavacErrorDetail(String javaFileName,
+            int javaLineNum,
+            String jspFileName,
+            int jspBeginLineNum,
+            StringBuilder errMsg,
+            JspCompilationContext ctxt,
+            char[] javaSource) {
 
         this.javaFileName = javaFileName;
         this.javaLineNum = javaLineNum;
@@ -97,10 +124,11 @@ public class JavacErrorDetail {
                     is = ctxt.getResourceAsStream(jspFileName);
                 }
                 // Read both files in, so we can inspect them
-                String[] jspLines = readFile(is);
+                String[] jspLines = readFile(new InputStreamReader(is));
 
-                try (FileInputStream fis = new FileInputStream(ctxt.getServletJavaFileName())) {
-                    String[] javaLines = readFile(fis);
+                try (Reader javaReader = (javaSource != null) ? new CharArrayReader(javaSource) :
+                        new InputStreamReader(new FileInputStream(ctxt.getServletJavaFileName()))) {
+                    String[] javaLines = readFile(javaReader);
 
                     if (jspLines.length < jspBeginLineNum) {
                         // Avoid ArrayIndexOutOfBoundsException
@@ -216,8 +244,8 @@ public class JavacErrorDetail {
      * Reads a text file from an input stream into a String[]. Used to read in
      * the JSP and generated Java file when generating error messages.
      */
-    private String[] readFile(InputStream s) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(s));
+    private String[] readFile(Reader r) throws IOException {
+        BufferedReader reader = new BufferedReader(r);
         List<String> lines = new ArrayList<>();
         String line;
 
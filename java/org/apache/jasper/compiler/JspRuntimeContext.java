@@ -23,14 +23,18 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.security.CodeSource;
 import java.security.PermissionCollection;
 import java.security.Policy;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.servlet.ServletContext;
@@ -131,6 +135,14 @@ public final class JspRuntimeContext {
                 && appBase != null
                 && options.getCheckInterval() > 0) {
             lastCompileCheck = System.currentTimeMillis();
+            if (options.getWatchSourceFiles()) {
+                try {
+                    sourceWatcher = new JspSourceWatcher(context);
+                } catch (IOException ioe) {
+                    log.warn(Localizer.getMessage("jsp.warning.watchSourceFiles.unavailable",
+                            context.getContextPath()), ioe);
+                }
+            }
         }
 
         if (options.getMaxLoadedJsps() > 0) {
@@ -183,6 +195,33 @@ public final class JspRuntimeContext {
      */
     private volatile boolean compileCheckInProgress = false;
 
+    /**
+     * Used to limit the background compilation check to the pages affected by
+     * changes. {@code null} if all pages are checked.
+     */
+    private JspSourceWatcher sourceWatcher = null;
+
+    /**
+     * Class files read by the JDT compiler to resolve the types referenced by
+     * the generated sources. Only maintained while many pages are compiled in
+     * one go so that each compilation does not have to read the same classes
+     * from the class loader again.
+     */
+    private volatile Map<String,byte[]> compilerTypeCache = null;
+
+    /**
+     * Classes compiled in memory, keyed by the class name of the page or tag
+     * file they were compiled for. The classes of a page or tag file are
+     * always replaced together.
+     */
+    private final Map<String,GeneratedClasses> generatedClasses = new ConcurrentHashMap<>();
+
+    /**
+     * Executor used to write the files generated in memory to the scratch
+     * directory. Created on first use.
+     */
+    private ExecutorService persistExecutor = null;
+
 
     // ------------------------------------------------------ Public Methods
 
@@ -193,7 +232,13 @@ public final class JspRuntimeContext {
      * @param jsw Servlet wrapper for JSP
      */
     public void addWrapper(String jspUri, JspServletWrapper jsw) {
-        jsps.put(jspUri, jsw);
+        JspServletWrapper replaced = jsps.put(jspUri, jsw);
+        if (sourceWatcher != null) {
+            if (replaced != null) {
+                sourceWatcher.remove(replaced);
+            }
+            sourceWatcher.add(jsw);
+        }
     }
 
     /**
@@ -212,7 +257,15 @@ public final class JspRuntimeContext {
      * @param jspUri JSP URI of JspServletWrapper to remove
      */
     public void removeWrapper(String jspUri) {
-        jsps.remove(jspUri);
+        JspServletWrapper jsw = jsps.remove(jspUri);
+        if (jsw != null) {
+            if (sourceWatcher != null) {
+                sourceWatcher.remove(jsw);
+            }
+            if (!jsw.isTagFile()) {
+                removeGeneratedClasses(jsw.getJspEngineContext().getFQCN());
+            }
+        }
     }
 
     /**
@@ -300,6 +353,17 @@ public final class JspRuntimeContext {
         for (JspServletWrapper jspServletWrapper : jsps.values()) {
             jspServletWrapper.destroy();
         }
+        if (sourceWatcher != null) {
+            sourceWatcher.close();
+        }
+        generatedClasses.clear();
+        synchronized (this) {
+            if (persistExecutor != null) {
+                // Pending writes are allowed to complete
+                persistExecutor.shutdown();
+                persistExecutor = null;
+            }
+        }
     }
 
     /**
@@ -369,13 +433,18 @@ public final class JspRuntimeContext {
         }
 
         List<JspServletWrapper> wrappersToReload = new ArrayList<>();
+        List<JspServletWrapper> wrappersChecked = new ArrayList<>();
         // Tell JspServletWrapper to ignore the reload attribute while this
         // check is in progress. See BZ 62603.
         compileCheckInProgress = true;
 
-        Object [] wrappers = jsps.values().toArray();
-        for (Object wrapper : wrappers) {
-            JspServletWrapper jsw = (JspServletWrapper) wrapper;
+        Collection<JspServletWrapper> wrappers;
+        if (sourceWatcher == null) {
+            wrappers = new ArrayList<>(jsps.values());
+        } else {
+            wrappers = sourceWatcher.getWrappersToCheck(jsps.values());
+        }
+        for (JspServletWrapper jsw : wrappers) {
             JspCompilationContext ctxt = jsw.getJspEngineContext();
             // Sync on JspServletWrapper when calling ctxt.compile()
             synchronized (jsw) {
@@ -384,6 +453,7 @@ public final class JspRuntimeContext {
                     if (jsw.getReload()) {
                         wrappersToReload.add(jsw);
                     }
+                    wrappersChecked.add(jsw);
                 } catch (FileNotFoundException ex) {
                     ctxt.incrementRemoved();
                 } catch (Throwable t) {
@@ -414,6 +484,15 @@ public final class JspRuntimeContext {
                 jsw.getServletContext().log(Localizer.getMessage("jsp.error.reload"), e);
             }
         }
+
+        if (sourceWatcher != null) {
+            // Dependencies may have changed if the wrapper was recompiled
+            for (JspServletWrapper jsw : wrappersChecked) {
+                if (jsps.get(jsw.getJspUri()) == jsw) {
+                    sourceWatcher.index(jsw, jsw.getDependants());
+                }
+            }
+        }
     }
 
     public boolean isCompileCheckInProgress() {
@@ -440,6 +519,127 @@ public final class JspRuntimeContext {
     }
 
 
+    /**
+     * @return the cache of the class files used by the JDT compiler to
+     *         resolve types or {@code null} if caching is not enabled
+     */
+    public Map<String,byte[]> getCompilerTypeCache() {
+        return compilerTypeCache;
+    }
+
+
+    /**
+     * Enable or disable the caching of the class files used by the JDT
+     * compiler to resolve types. The cache should only be enabled while
+     * pages are compiled in bulk, as the classes it contains are not
+     * reloaded if they change. Disabling the cache discards its content.
+     *
+     * @param enabled {@code true} to enable the cache
+     */
+    public void setCompilerTypeCacheEnabled(boolean enabled) {
+        if (enabled) {
+            if (compilerTypeCache == null) {
+                compilerTypeCache = new ConcurrentHashMap<>();
+            }
+        } else {
+            compilerTypeCache = null;
+        }
+    }
+
+
+    /**
+     * @param name The binary name of a class
+     *
+     * @return the byte code of the class if it has been compiled in memory,
+     *         otherwise {@code null}
+     */
+    public byte[] getGeneratedClass(String name) {
+        // Nested classes are held with the page or tag file class
+        int nested = name.indexOf('$');
+        GeneratedClasses classes = generatedClasses.get(nested < 0 ? name : name.substring(0, nested));
+        return (classes == null) ? null : classes.classes.get(name);
+    }
+
+
+    /**
+     * @param className The class name of a page or tag file
+     *
+     * @return the last modified time of the source the in memory class was
+     *         compiled from or {@code null} if the class is not held in memory
+     */
+    public Long getGeneratedClassLastModified(String className) {
+        GeneratedClasses classes = generatedClasses.get(className);
+        return (classes == null) ? null : Long.valueOf(classes.lastModified);
+    }
+
+
+    /**
+     * Record the classes compiled in memory for a page or tag file, replacing
+     * any classes previously compiled for it in a single step.
+     *
+     * @param className    The class name of the page or tag file
+     * @param classes      The byte code of the compiled classes, keyed by
+     *                         binary class name
+     * @param lastModified The last modified time of the source the classes
+     *                         were compiled from
+     */
+    public void addGeneratedClasses(String className, Map<String,byte[]> classes,
+            long lastModified) {
+        generatedClasses.put(className, new GeneratedClasses(classes, lastModified));
+    }
+
+
+    /**
+     * Discard the classes compiled in memory for a page or tag file, including
+     * any nested classes.
+     *
+     * @param className The class name of the page or tag file
+     */
+    public void removeGeneratedClasses(String className) {
+        generatedClasses.remove(className);
+    }
+
+
+    /**
+     * Write a file generated in memory to the scratch directory in the
+     * background. The last modified time of the file is set to the given value
+     * so that the file is considered up to date after a restart.
+     *
+     * @param file         The file to write
+     * @param content      The content of the file
+     * @param lastModified The last modified time to set on the file
+     */
+    public void persistGeneratedFile(File file, byte[] content, long lastModified) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (persistExecutor == null) {
+                persistExecutor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "JasperPersist" + context.getContextPath());
+                    t.setDaemon(true);
+                    t.setContextClassLoader(JspRuntimeContext.class.getClassLoader());
+                    return t;
+                });
+            }
+            executor = persistExecutor;
+        }
+        executor.execute(() -> {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                    throw new IOException(parent.getAbsolutePath());
+                }
+                Files.write(file.toPath(), content);
+                if (lastModified > 0) {
+                    file.setLastModified(lastModified);
+                }
+            } catch (IOException ioe) {
+                log.warn(Localizer.getMessage("jsp.warning.compileInMemory.persistFail",
+                        file.getAbsolutePath()), ioe);
+            }
+        });
+    }
+
+
     public Options getOptions() {
         return options;
     }
@@ -611,4 +811,18 @@ public final class JspRuntimeContext {
         }
         lastJspQueueUpdate = now;
     }
+
+
+    /**
+     * The classes compiled in memory for a single page or tag file.
+     */
+    private static class GeneratedClasses {
+        private final Map<String,byte[]> classes;
+        private final long lastModified;
+
+        private GeneratedClasses(Map<String,byte[]> classes, long lastModified) {
+            this.classes = Map.copyOf(classes);
+            this.lastModified = lastModified;
+        }
+    }
 }
@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.compiler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.ServletContext;
+
+import org.apache.jasper.servlet.JspServletWrapper;
+import org.apache.juli.logging.Log;
+import org.apache.juli.logging.LogFactory;
+
+/**
+ * Tracks the files that loaded JSPs and tag files depend on using a
+ * {@link WatchService} so that the background compilation check only needs to
+ * look at the pages affected by a change rather than checking every page and
+ * every dependency.
+ * <p>
+ * Each wrapper is indexed by the source files it depends on once it has been
+ * checked. Wrappers that have not been indexed yet, and wrappers that depend on
+ * a resource that cannot be watched (e.g. a resource in a packed WAR), are
+ * returned by every call to {@link #getWrappersToCheck(Collection)} so they
+ * continue to be checked as if the watcher was not used.
+ */
+class JspSourceWatcher {
+
+    private final Log log = LogFactory.getLog(JspSourceWatcher.class); // must not be static
+
+    private final ServletContext context;
+    private final WatchService watchService;
+
+    /**
+     * Watched directory for each registered key.
+     */
+    private final Map<WatchKey,Path> watchedDirectories = new ConcurrentHashMap<>();
+
+    /**
+     * Directories that have been registered with the watch service.
+     */
+    private final Set<Path> registeredDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Wrappers that depend on each watched file.
+     */
+    private final Map<Path,Set<JspServletWrapper>> dependents = new ConcurrentHashMap<>();
+
+    /**
+     * Files each indexed wrapper depends on.
+     */
+    private final Map<JspServletWrapper,Set<Path>> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * Wrappers that have not been indexed yet.
+     */
+    private final Set<JspServletWrapper> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Wrappers with at least one dependency that cannot be watched.
+     */
+    private final Set<JspServletWrapper> unwatchable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Wrappers that need to be checked again because, when they were last
+     * indexed, at least one of their source files did not match the version
+     * they were compiled from. This happens when a change is made while the
+     * wrapper is being checked or when the change was not yet visible through
+     * the web application's resources (which may be cached).
+     */
+    private final Set<JspServletWrapper> recheck = ConcurrentHashMap.newKeySet();
+
+
+    JspSourceWatcher(ServletContext context) throws IOException {
+        this.context = context;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+
+    /**
+     * Start tracking a wrapper. It will be checked, and then indexed, on the
+     * next compilation check.
+     *
+     * @param jsw The wrapper to track
+     */
+    void add(JspServletWrapper jsw) {
+        pending.add(jsw);
+    }
+
+
+    /**
+     * Stop tracking a wrapper.
+     *
+     * @param jsw The wrapper to remove
+     */
+    void remove(JspServletWrapper jsw) {
+        pending.remove(jsw);
+        recheck.remove(jsw);
+        unindex(jsw);
+    }
+
+
+    /**
+     * Determine which wrappers need to be checked for modifications by
+     * processing the events received since the last call.
+     *
+     * @param all All the currently loaded wrappers. These are returned if
+     *                the events may have been lost.
+     *
+     * @return the wrappers that need to be checked
+     */
+    Collection<JspServletWrapper> getWrappersToCheck(Collection<JspServletWrapper> all) {
+        Set<JspServletWrapper> result = new HashSet<>(pending);
+        result.addAll(unwatchable);
+        for (JspServletWrapper jsw : recheck) {
+            addChanged(result, jsw);
+        }
+        recheck.clear();
+
+        WatchKey key;
+        try {
+            while ((key = watchService.poll()) != null) {
+                Path dir = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events have been lost so everything has to be checked
+                        if (log.isDebugEnabled()) {
+                            log.debug(Localizer.getMessage("jsp.message.watch.overflow",
+                                    context.getContextPath()));
+                        }
+                        result.addAll(all);
+                        continue;
+                    }
+                    if (dir == null) {
+                        continue;
+                    }
+                    Path changed = dir.resolve((Path) event.context());
+                    Set<JspServletWrapper> affected = dependents.get(changed);
+                    if (affected != null) {
+                        if (log.isTraceEnabled()) {
+                            log.trace(Localizer.getMessage("jsp.message.watch.changed", changed,
+                                    Integer.valueOf(affected.size())));
+                        }
+                        for (JspServletWrapper jsw : affected) {
+                            addChanged(result, jsw);
+                        }
+                    }
+                }
+                if (!key.reset() && dir != null) {
+                    // The directory is no longer accessible. It will be
+                    // registered again if a wrapper that depends on it is
+                    // indexed.
+                    watchedDirectories.remove(key);
+                    registeredDirectories.remove(dir);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+            return Collections.emptySet();
+        }
+        return result;
+    }
+
+
+    /**
+     * Update the index for a wrapper after it has been checked.
+     *
+     * @param jsw          The wrapper
+     * @param dependencies The resources the wrapper depends on as returned by
+     *                         {@link JspServletWrapper#getDependants()}. May
+     *                         be {@code null} if there are none.
+     */
+    void index(JspServletWrapper jsw, Map<String,Long> dependencies) {
+        Set<Path> files = new HashSet<>();
+        boolean watchable = true;
+        boolean current = true;
+
+        Path jspFile = watch(jsw.getJspUri());
+        if (jspFile == null) {
+            watchable = false;
+        } else {
+            files.add(jspFile);
+            current = isCurrent(jspFile, jsw.getServletClassLastModifiedTime());
+        }
+        if (dependencies != null) {
+            for (Map.Entry<String,Long> dependency : dependencies.entrySet()) {
+                String resource = dependency.getKey();
+                Path file = watch(resource);
+                if (file == null) {
+                    watchable = false;
+                } else {
+                    files.add(file);
+                    // For JAR entries the JAR is watched. Its last modified
+                    // time is not comparable with that of the entry.
+                    if (current && !resource.startsWith("jar:")) {
+                        current = isCurrent(file, dependency.getValue().longValue());
+                    }
+                }
+            }
+        }
+
+        Set<Path> previous = indexed.put(jsw, files);
+        if (previous != null) {
+            for (Path file : previous) {
+                if (!files.contains(file)) {
+                    removeDependent(file, jsw);
+                }
+            }
+        }
+        for (Path file : files) {
+            dependents.computeIfAbsent(file, k -> ConcurrentHashMap.newKeySet()).add(jsw);
+        }
+
+        pending.remove(jsw);
+        if (!current) {
+            recheck.add(jsw);
+        }
+        if (watchable) {
+            unwatchable.remove(jsw);
+        } else {
+            unwatchable.add(jsw);
+        }
+    }
+
+
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        watchedDirectories.clear();
+        registeredDirectories.clear();
+        dependents.clear();
+        indexed.clear();
+        pending.clear();
+        unwatchable.clear();
+        recheck.clear();
+    }
+
+
+    /*
+     * The event (or the mismatch that triggered the recheck) is only seen once
+     * so make sure the check isn't skipped because of the
+     * modificationTestInterval.
+     */
+    private static void addChanged(Set<JspServletWrapper> result, JspServletWrapper jsw) {
+        jsw.setLastModificationTest(0);
+        result.add(jsw);
+    }
+
+
+    private static boolean isCurrent(Path file, long compiledLastModified) {
+        if (compiledLastModified <= 0) {
+            // Not known
+            return true;
+        }
+        return file.toFile().lastModified() == compiledLastModified;
+    }
+
+
+    private void unindex(JspServletWrapper jsw) {
+        unwatchable.remove(jsw);
+        Set<Path> files = indexed.remove(jsw);
+        if (files != null) {
+            for (Path file : files) {
+                removeDependent(file, jsw);
+            }
+        }
+    }
+
+
+    private void removeDependent(Path file, JspServletWrapper jsw) {
+        dependents.computeIfPresent(file, (k, v) -> {
+            v.remove(jsw);
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+
+    /*
+     * Resolve the resource to a file and make sure its directory is watched.
+     * Returns null if the resource cannot be watched.
+     */
+    private Path watch(String resource) {
+        Path file = null;
+        try {
+            if (resource.startsWith("jar:jar:")) {
+                // Nested JAR. Changes to the outer JAR can't be detected
+                // reliably.
+                return null;
+            } else if (resource.startsWith("jar:")) {
+                // Any change to the JAR is treated as a change to the entry
+                int separator = resource.indexOf("!/");
+                if (separator < 0) {
+                    return null;
+                }
+                URI jarUri = new URI(resource.substring(4, separator));
+                if (!"file".equals(jarUri.getScheme())) {
+                    return null;
+                }
+                file = Paths.get(jarUri);
+            } else if (resource.startsWith("file:")) {
+                file = Paths.get(new URI(resource));
+            } else {
+                String realPath = context.getRealPath(resource);
+                if (realPath != null) {
+                    file = Paths.get(realPath);
+                }
+            }
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug(Localizer.getMessage("jsp.message.watch.unwatchable", resource), e);
+            }
+            return null;
+        }
+
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        file = file.toAbsolutePath().normalize();
+
+        Path dir = file.getParent();
+        if (dir == null) {
+            return null;
+        }
+        if (!registeredDirectories.contains(dir)) {
+            try {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, dir);
+                registeredDirectories.add(dir);
+            } catch (IOException | ClosedWatchServiceException | UnsupportedOperationException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug(Localizer.getMessage("jsp.message.watch.unwatchable", resource), e);
+                }
+                return null;
+            }
+        }
+        return file;
+    }
+}
@@ -28,6 +28,7 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -143,6 +144,41 @@ public class SmapUtil {
         }
     }
 
+    /**
+     * Install the SMAPs into classes that have been compiled in memory.
+     *
+     * @param smapInfo The SMAPs to install, as returned by
+     *                     {@link #generateSmap(JspCompilationContext, Node.Nodes)}
+     * @param fqcn     The fully qualified name of the class generated for the
+     *                     page
+     * @param classes  The byte code of the compiled classes keyed by binary
+     *                     class name. The entries are replaced with the updated
+     *                     byte code.
+     *
+     * @throws IOException If a class is missing or cannot be processed
+     */
+    public static void installSmap(Map<String,SmapStratum> smapInfo, String fqcn,
+            Map<String,byte[]> classes) throws IOException {
+        if (smapInfo == null) {
+            return;
+        }
+
+        for (Map.Entry<String,SmapStratum> entry : smapInfo.entrySet()) {
+            String className = entry.getKey();
+            if (className.length() > fqcn.length()) {
+                // SMAPs for inner classes are keyed as fqcn.innerClass
+                className = fqcn + '$' + className.substring(fqcn.length() + 1);
+            }
+            byte[] classBytes = classes.get(className);
+            if (classBytes == null) {
+                throw new FileNotFoundException(Localizer.getMessage("jsp.error.noFile", className));
+            }
+            SDEInstaller installer = new SDEInstaller(classBytes,
+                    entry.getValue().getSmapString().getBytes(StandardCharsets.ISO_8859_1));
+            classes.put(className, installer.install());
+        }
+    }
+
     //*********************************************************************
     // Private utilities
 
@@ -197,6 +233,17 @@ public class SmapUtil {
             gen = new byte[orig.length + sdeAttr.length + 100];
         }
 
+        SDEInstaller(byte[] classBytes, byte[] sdeAttr) {
+            this.sdeAttr = sdeAttr;
+            orig = classBytes;
+            gen = new byte[orig.length + sdeAttr.length + 100];
+        }
+
+        byte[] install() throws IOException {
+            addSDE();
+            return Arrays.copyOf(gen, genPos);
+        }
+
         void install(File outClassFile) throws IOException {
             // do it
             addSDE();
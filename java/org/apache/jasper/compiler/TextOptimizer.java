@@ -72,6 +72,20 @@ public class TextOptimizer {
         public void visit(Node.VariableDirective n) throws JasperException {
         }
 
+        /*
+         * Comments and declarations don't generate any code in the service
+         * method so the template text either side of them can be written in
+         * a single operation
+         */
+
+        @Override
+        public void visit(Node.Comment n) throws JasperException {
+        }
+
+        @Override
+        public void visit(Node.Declaration n) throws JasperException {
+        }
+
         /*
          * Don't concatenate text across body boundaries
          */
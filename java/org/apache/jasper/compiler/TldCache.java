@@ -67,9 +67,14 @@ public class TldCache {
         this.uriTldResourcePathMap.putAll(uriTldResourcePathMap);
         for (Entry<TldResourcePath, TaglibXml> entry : tldResourcePathTaglibXmlMap.entrySet()) {
             TldResourcePath tldResourcePath = entry.getKey();
-            long lastModified[] = getLastModified(tldResourcePath);
-            TaglibXmlCacheEntry cacheEntry = new TaglibXmlCacheEntry(
-                    entry.getValue(), lastModified[0], lastModified[1]);
+            TaglibXmlCacheEntry cacheEntry;
+            if (entry.getValue() == null) {
+                // Not parsed yet (TLD scan cache). Parse on first use.
+                cacheEntry = new TaglibXmlCacheEntry(null, -1, -1);
+            } else {
+                long lastModified[] = getLastModified(tldResourcePath);
+                cacheEntry = new TaglibXmlCacheEntry(entry.getValue(), lastModified[0], lastModified[1]);
+            }
             this.tldResourcePathTaglibXmlMap.put(tldResourcePath, cacheEntry);
         }
         boolean validate = Boolean.parseBoolean(
@@ -97,10 +102,11 @@ public class TldCache {
             return null;
         }
         long lastModified[] = getLastModified(tldResourcePath);
-        if (lastModified[0] != cacheEntry.getWebAppPathLastModified() ||
+        if (cacheEntry.getTaglibXml() == null || lastModified[0] != cacheEntry.getWebAppPathLastModified() ||
                 lastModified[1] != cacheEntry.getEntryLastModified()) {
             synchronized (cacheEntry) {
-                if (lastModified[0] != cacheEntry.getWebAppPathLastModified() ||
+                if (cacheEntry.getTaglibXml() == null ||
+                        lastModified[0] != cacheEntry.getWebAppPathLastModified() ||
                         lastModified[1] != cacheEntry.getEntryLastModified()) {
                     // Re-parse TLD
                     TaglibXml updatedTaglibXml;
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.runtime;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import jakarta.servlet.jsp.JspWriter;
+
+/**
+ * Template text of a JSP along with its encoding in the character set of the
+ * page's response. Generated pages create these once so that, when the page
+ * is written directly to a response that uses the same character set, the
+ * text does not have to be encoded for every request.
+ */
+public final class EncodedText {
+
+    private final char[] chars;
+    private final byte[] bytes;
+    private final Charset charset;
+
+    /**
+     * Create an instance for the given text.
+     *
+     * @param text    The template text
+     * @param charset The character set to encode the text with
+     */
+    public EncodedText(String text, String charset) {
+        this.chars = text.toCharArray();
+        this.charset = Charset.forName(charset);
+        this.bytes = text.getBytes(this.charset);
+    }
+
+    /**
+     * Write the text to the given writer, using the encoded form if the writer
+     * supports it.
+     *
+     * @param out The writer to write to
+     *
+     * @throws IOException If an error occurs writing the text
+     */
+    public void write(JspWriter out) throws IOException {
+        if (out instanceof JspWriterImpl) {
+            ((JspWriterImpl) out).write(this);
+        } else {
+            out.write(chars);
+        }
+    }
+
+    char[] getChars() {
+        return chars;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+}
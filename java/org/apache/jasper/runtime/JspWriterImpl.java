@@ -18,12 +18,14 @@ package org.apache.jasper.runtime;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.jsp.JspWriter;
 
 import org.apache.jasper.Constants;
 import org.apache.jasper.compiler.Localizer;
+import org.apache.tomcat.EncodedTextWriter;
 
 /**
  * Write text to a character-output stream, buffering characters so as
@@ -47,6 +49,15 @@ public class JspWriterImpl extends JspWriter {
     private boolean flushed = false;
     private boolean closed = false;
 
+    /*
+     * Pre-encoded text is not copied into the buffer. Space is reserved for it
+     * in the buffer and it is written in place of the reserved characters
+     * when the buffer is flushed.
+     */
+    private EncodedText[] encoded = new EncodedText[4];
+    private int[] encodedStart = new int[4];
+    private int encodedCount;
+
     public JspWriterImpl() {
         super( Constants.DEFAULT_BUFFER_SIZE, true );
     }
@@ -90,6 +101,7 @@ public class JspWriterImpl extends JspWriter {
         closed = false;
         out = null;
         nextChar = 0;
+        clearEncoded();
         response = null;
     }
 
@@ -109,8 +121,41 @@ public class JspWriterImpl extends JspWriter {
             return;
         }
         initOut();
-        out.write(cb, 0, nextChar);
+        int start = 0;
+        for (int i = 0; i < encodedCount; i++) {
+            EncodedText text = encoded[i];
+            int textStart = encodedStart[i];
+            if (start < textStart) {
+                out.write(cb, start, textStart - start);
+            }
+            writeOut(text);
+            start = textStart + text.getChars().length;
+        }
+        if (start < nextChar) {
+            out.write(cb, start, nextChar - start);
+        }
         nextChar = 0;
+        clearEncoded();
+    }
+
+    private void writeOut(EncodedText text) throws IOException {
+        if (out instanceof EncodedTextWriter) {
+            EncodedTextWriter etw = (EncodedTextWriter) out;
+            if (text.getCharset().equals(etw.getCharset())) {
+                byte[] bytes = text.getBytes();
+                if (etw.writeEncoded(bytes, 0, bytes.length)) {
+                    return;
+                }
+            }
+        }
+        out.write(text.getChars());
+    }
+
+    private void clearEncoded() {
+        for (int i = 0; i < encodedCount; i++) {
+            encoded[i] = null;
+        }
+        encodedCount = 0;
     }
 
     private void initOut() throws IOException {
@@ -135,6 +180,7 @@ public class JspWriterImpl extends JspWriter {
         }
         ensureOpen();
         nextChar = 0;
+        clearEncoded();
     }
 
     @Override
@@ -145,6 +191,7 @@ public class JspWriterImpl extends JspWriter {
         }
         ensureOpen();
         nextChar = 0;
+        clearEncoded();
     }
 
     private void bufferOverflow() throws IOException {
@@ -293,6 +340,58 @@ public class JspWriterImpl extends JspWriter {
 
     }
 
+    /**
+     * Write template text that may have been encoded in advance. The text is
+     * buffered in the same way as characters but, if it is written directly to
+     * a response that uses the same character set, the encoded form is used.
+     *
+     * @param text The text to write
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    void write(EncodedText text) throws IOException {
+        ensureOpen();
+
+        int len = text.getChars().length;
+        if (bufferSize == 0) {
+            initOut();
+            writeOut(text);
+            return;
+        } else if (len == 0) {
+            return;
+        }
+
+        if (len > bufferSize - nextChar) {
+            // Same behaviour as for characters
+            if (autoFlush) {
+                flushBuffer();
+            } else {
+                bufferOverflow();
+            }
+            if (len >= bufferSize) {
+                initOut();
+                writeOut(text);
+                return;
+            }
+        }
+
+        if (encodedCount == encoded.length) {
+            encoded = Arrays.copyOf(encoded, encodedCount * 2);
+            encodedStart = Arrays.copyOf(encodedStart, encodedCount * 2);
+        }
+        encoded[encodedCount] = text;
+        encodedStart[encodedCount] = nextChar;
+        encodedCount++;
+        nextChar += len;
+        if (nextChar >= bufferSize) {
+            if (autoFlush) {
+                flushBuffer();
+            } else {
+                bufferOverflow();
+            }
+        }
+    }
+
     /**
      * Write an array of characters.  This method cannot be inherited from the
      * Writer class because it must suppress I/O exceptions.
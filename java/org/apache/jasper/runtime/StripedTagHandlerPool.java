@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.runtime;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.Tag;
+
+/**
+ * Lock free pool of tag handlers that can be reused. It may be used in place
+ * of {@link TagHandlerPool} by setting the {@link #OPTION_TAGPOOL} option to
+ * the name of this class.
+ * <p>
+ * Each thread starts looking for an available tag handler, or for a free slot
+ * to return a tag handler to, at a slot determined by its ID. Threads
+ * therefore tend to use different slots and only look at the slots used by
+ * other threads when their own slot is empty (or full). Slots are claimed with
+ * a compare and swap rather than a lock so the pool does not serialise
+ * concurrent requests and does not pin virtual threads. No per-thread state is
+ * retained so the pool is suitable for use with large numbers of (virtual)
+ * threads.
+ */
+public class StripedTagHandlerPool extends TagHandlerPool {
+
+    /*
+     * Only every PADDING-th element of the array is used so that slots used
+     * by different threads are unlikely to share a cache line.
+     */
+    private static final int PADDING = 16;
+
+    private AtomicReferenceArray<Tag> slots;
+    private int capacity;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+
+    @Override
+    protected void init(ServletConfig config) {
+        // The handler storage of the super class is not used
+        initInstanceManager(config);
+        capacity = getMaxSize(config);
+        slots = new AtomicReferenceArray<>(capacity * PADDING);
+    }
+
+
+    @Override
+    public Tag get(Class<? extends Tag> handlerClass) throws JspException {
+        if (capacity > 0) {
+            int start = homeSlot();
+            for (int i = 0; i < capacity; i++) {
+                int index = slotIndex(start + i);
+                Tag handler = slots.get(index);
+                if (handler != null && slots.compareAndSet(index, handler, null)) {
+                    reused.increment();
+                    return handler;
+                }
+            }
+        }
+        Tag handler = newHandler(handlerClass);
+        created.increment();
+        return handler;
+    }
+
+
+    @Override
+    public void reuse(Tag handler) {
+        if (capacity > 0) {
+            int start = homeSlot();
+            for (int i = 0; i < capacity; i++) {
+                int index = slotIndex(start + i);
+                if (slots.get(index) == null && slots.compareAndSet(index, null, handler)) {
+                    return;
+                }
+            }
+        }
+        discarded.increment();
+        JspRuntimeLibrary.releaseTag(handler, instanceManager);
+    }
+
+
+    @Override
+    public void release() {
+        for (int i = 0; i < capacity; i++) {
+            Tag handler = slots.getAndSet(slotIndex(i), null);
+            if (handler != null) {
+                JspRuntimeLibrary.releaseTag(handler, instanceManager);
+            }
+        }
+    }
+
+
+    /**
+     * @return the maximum number of tag handlers retained by this pool
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * @return the number of tag handlers currently available for reuse
+     */
+    public int getIdleCount() {
+        int result = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (slots.get(slotIndex(i)) != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * @return the number of tag handlers created because none were available
+     *             for reuse
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+
+    /**
+     * @return the number of requests for a tag handler that were satisfied by
+     *             reusing a pooled tag handler
+     */
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+
+    /**
+     * @return the number of tag handlers released rather than returned to the
+     *             pool because the pool was full
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+
+    private int homeSlot() {
+        return (int) (Thread.currentThread().getId() % capacity);
+    }
+
+
+    private int slotIndex(int slot) {
+        if (slot >= capacity) {
+            slot -= capacity;
+        }
+        return slot * PADDING;
+    }
+}
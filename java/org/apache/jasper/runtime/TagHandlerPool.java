@@ -65,22 +65,23 @@ public class TagHandlerPool {
     }
 
     protected void init(ServletConfig config) {
-        int maxSize = -1;
-        String maxSizeS = getOption(config, OPTION_MAXSIZE, null);
-        if (maxSizeS != null) {
-            try {
-                maxSize = Integer.parseInt(maxSizeS);
-            } catch (Exception ex) {
-                maxSize = -1;
-            }
-        }
-        if (maxSize < 0) {
-            maxSize = Constants.MAX_POOL_SIZE;
-        }
-        String useInstanceManagerForTagsValue = getOption(config, OPTION_USEIMFORTAGS, "false");
-        useInstanceManagerForTags = Boolean.valueOf(useInstanceManagerForTagsValue).booleanValue();
+        int maxSize = getMaxSize(config);
         this.handlers = new Tag[maxSize];
         this.current = -1;
+        initInstanceManager(config);
+    }
+
+    /**
+     * Configures how tag handlers are instantiated. Sub-classes that do not
+     * use the storage provided by this class should call this method from
+     * {@link #init(ServletConfig)} rather than calling the super class
+     * implementation.
+     *
+     * @param config The configuration of the servlet using this pool
+     */
+    protected void initInstanceManager(ServletConfig config) {
+        String useInstanceManagerForTagsValue = getOption(config, OPTION_USEIMFORTAGS, "false");
+        useInstanceManagerForTags = Boolean.valueOf(useInstanceManagerForTagsValue).booleanValue();
         instanceManager = InstanceManagerFactory.getInstanceManager(config);
     }
 
@@ -113,6 +114,19 @@ public class TagHandlerPool {
 
         // Out of sync block - there is no need for other threads to
         // wait for us to construct a tag for this thread.
+        return newHandler(handlerClass);
+    }
+
+    /**
+     * Creates a new instance of the given tag handler class.
+     *
+     * @param handlerClass
+     *            Tag handler class
+     * @return Newly instantiated tag handler
+     * @throws JspException
+     *             if a tag handler cannot be instantiated
+     */
+    protected Tag newHandler(Class<? extends Tag> handlerClass) throws JspException {
         try {
             if (useInstanceManagerForTags) {
                 return (Tag) instanceManager.newInstance(
@@ -159,6 +173,31 @@ public class TagHandlerPool {
     }
 
 
+    /**
+     * Obtain the configured maximum number of tag handlers to retain.
+     *
+     * @param config The configuration of the servlet using the pool
+     *
+     * @return The value of the {@link #OPTION_MAXSIZE} option or
+     *         {@link Constants#MAX_POOL_SIZE} if it is not set or is invalid
+     */
+    protected static int getMaxSize(ServletConfig config) {
+        int maxSize = -1;
+        String maxSizeS = getOption(config, OPTION_MAXSIZE, null);
+        if (maxSizeS != null) {
+            try {
+                maxSize = Integer.parseInt(maxSizeS);
+            } catch (Exception ex) {
+                maxSize = -1;
+            }
+        }
+        if (maxSize < 0) {
+            maxSize = Constants.MAX_POOL_SIZE;
+        }
+        return maxSize;
+    }
+
+
     protected static String getOption(ServletConfig config, String name,
             String defaultV) {
         if (config == null) {
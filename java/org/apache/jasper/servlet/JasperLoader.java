@@ -16,12 +16,15 @@
  */
 package org.apache.jasper.servlet;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSigner;
 import java.security.CodeSource;
 import java.security.PermissionCollection;
+import java.util.function.Function;
 
 /**
  * Class loader for loading servlet class files (corresponding to JSP files)
@@ -35,13 +38,37 @@ public class JasperLoader extends URLClassLoader {
     private final PermissionCollection permissionCollection;
     private final SecurityManager securityManager;
     private final String packageName;
+    private final Function<String,byte[]> generatedClasses;
+    private final CodeSource codeSource;
 
     public JasperLoader(URL[] urls, ClassLoader parent,
             String packageName, PermissionCollection permissionCollection) {
+        this(urls, parent, packageName, permissionCollection, null);
+    }
+
+    /**
+     * Create a loader that defines classes from the supplied byte code before
+     * falling back to the class files in the given URLs.
+     *
+     * @param urls                 The locations to search for class files
+     * @param parent               The parent class loader
+     * @param packageName          The package of the classes this loader is
+     *                                 responsible for
+     * @param permissionCollection The permissions granted to loaded classes
+     * @param generatedClasses     Returns the byte code of a class compiled in
+     *                                 memory given its binary name or
+     *                                 {@code null} if the class has not been
+     *                                 compiled in memory. May be {@code null}
+     */
+    public JasperLoader(URL[] urls, ClassLoader parent,
+            String packageName, PermissionCollection permissionCollection,
+            Function<String,byte[]> generatedClasses) {
         super(urls, parent);
         this.permissionCollection = permissionCollection;
         this.securityManager = System.getSecurityManager();
         this.packageName = packageName;
+        this.generatedClasses = generatedClasses;
+        this.codeSource = new CodeSource(urls.length > 0 ? urls[0] : null, (CodeSigner[]) null);
     }
 
     /**
@@ -130,6 +157,18 @@ public class JasperLoader extends URLClassLoader {
     }
 
 
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        if (generatedClasses != null) {
+            byte[] classBytes = generatedClasses.apply(name);
+            if (classBytes != null) {
+                return defineClass(name, classBytes, 0, classBytes.length, codeSource);
+            }
+        }
+        return super.findClass(name);
+    }
+
+
     /**
      * Delegate to parent
      *
@@ -138,6 +177,13 @@ public class JasperLoader extends URLClassLoader {
     @Override
     public InputStream getResourceAsStream(String name) {
         InputStream is = getParent().getResourceAsStream(name);
+        if (is == null && generatedClasses != null && name.endsWith(".class")) {
+            byte[] classBytes = generatedClasses.apply(
+                    name.substring(0, name.length() - 6).replace('/', '.'));
+            if (classBytes != null) {
+                return new ByteArrayInputStream(classBytes);
+            }
+        }
         if (is == null) {
             URL url = findResource(name);
             if (url != null) {
@@ -23,6 +23,13 @@ import java.net.MalformedURLException;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletConfig;
@@ -145,6 +152,23 @@ public class JspServlet extends HttpServlet implements PeriodicEventListener {
             }
         }
 
+        String precompileOnStartup = config.getInitParameter("precompileOnStartup");
+        if (Constants.IS_SECURITY_ENABLED && precompileOnStartup != null) {
+            log.info(Localizer.getMessage(
+                    "jsp.info.ignoreSetting", "precompileOnStartup", precompileOnStartup));
+        } else if (Boolean.parseBoolean(precompileOnStartup)) {
+            int threadCount = Runtime.getRuntime().availableProcessors();
+            String precompileThreadCount = config.getInitParameter("precompileThreadCount");
+            if (precompileThreadCount != null) {
+                try {
+                    threadCount = Integer.parseInt(precompileThreadCount);
+                } catch (NumberFormatException e) {
+                    log.warn(Localizer.getMessage("jsp.warning.precompileThreadCount", precompileThreadCount));
+                }
+            }
+            precompileAll(Math.max(1, threadCount));
+        }
+
         if (log.isDebugEnabled()) {
             log.debug(Localizer.getMessage("jsp.message.scratch.dir.is",
                     options.getScratchDir().toString()));
@@ -153,6 +177,95 @@ public class JspServlet extends HttpServlet implements PeriodicEventListener {
     }
 
 
+    /**
+     * Compiles all the JSP pages of the web application in parallel. Pages
+     * that fail to compile are logged and will report the error when they are
+     * requested.
+     *
+     * @param threadCount The number of threads to use for the compilation
+     */
+    private void precompileAll(int threadCount) {
+        List<String> jspUris = new ArrayList<>();
+        findJspUris("/", jspUris);
+
+        long start = System.currentTimeMillis();
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<Callable<Boolean>> tasks = new ArrayList<>(jspUris.size());
+        for (String jspUri : jspUris) {
+            tasks.add(() -> Boolean.valueOf(precompile(jspUri, loader)));
+        }
+
+        int errorCount = 0;
+        // The pages share the classes loaded by the compiler to resolve types
+        rctxt.setCompilerTypeCacheEnabled(true);
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            for (Future<Boolean> result : pool.invokeAll(tasks)) {
+                if (!result.get().booleanValue()) {
+                    errorCount++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error(Localizer.getMessage("jsp.error.precompileOnStartup"), e.getCause());
+        } finally {
+            pool.shutdown();
+            rctxt.setCompilerTypeCacheEnabled(false);
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info(Localizer.getMessage("jsp.info.precompileOnStartup", Integer.valueOf(jspUris.size()),
+                    Integer.valueOf(errorCount), Long.valueOf(System.currentTimeMillis() - start)));
+        }
+    }
+
+
+    private void findJspUris(String path, List<String> jspUris) {
+        Set<String> paths = context.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+        for (String child : paths) {
+            if (child.endsWith("/")) {
+                findJspUris(child, jspUris);
+            } else if (child.endsWith(".jsp") || child.endsWith(".jspx") ||
+                    options.getJspConfig().isJspPage(child)) {
+                jspUris.add(child);
+            }
+        }
+    }
+
+
+    private boolean precompile(String jspUri, ClassLoader loader) {
+        Thread currentThread = Thread.currentThread();
+        ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(loader);
+        try {
+            JspServletWrapper wrapper = rctxt.getWrapper(jspUri);
+            if (wrapper == null) {
+                synchronized(this) {
+                    wrapper = rctxt.getWrapper(jspUri);
+                    if (wrapper == null) {
+                        wrapper = new JspServletWrapper(config, options, jspUri, rctxt);
+                        rctxt.addWrapper(jspUri, wrapper);
+                    }
+                }
+            }
+            // Only compile the page. It will be loaded when first requested.
+            synchronized (wrapper) {
+                wrapper.getJspEngineContext().compile();
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn(Localizer.getMessage("jsp.error.precompilation", jspUri), e);
+            return false;
+        } finally {
+            currentThread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+
     /**
      * Returns the number of JSPs for which JspServletWrappers exist, i.e.,
      * the number of JSPs that have been loaded into the webapp with which
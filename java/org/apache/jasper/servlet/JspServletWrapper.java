@@ -222,6 +222,15 @@ public class JspServletWrapper {
         this.compileException = je;
     }
 
+    /**
+     * @return the last-modified time of the source the servlet class
+     *         associated with this JspServletWrapper was compiled from, or zero
+     *         if not known
+     */
+    public long getServletClassLastModifiedTime() {
+        return servletClassLastModifiedTime;
+    }
+
     /**
      * Sets the last-modified time of the servlet class file associated with
      * this JspServletWrapper.
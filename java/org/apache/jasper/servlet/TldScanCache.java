@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.servlet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.tomcat.util.scan.JarScanCache;
+
+/**
+ * Stores the TLDs found in each JAR, along with the URI and the listeners
+ * each TLD declares, so that JARs that have not changed since the last time
+ * the web application was started do not need to be searched for TLDs and
+ * the TLDs do not need to be parsed at start. The cache is held in a single
+ * file in the work directory of the web application.
+ * <p>
+ * Since the TLDs in a cached JAR are not parsed at start, any errors in them
+ * are reported when they are first used rather than at start.
+ */
+final class TldScanCache extends JarScanCache<List<TldScanCache.Tld>> {
+
+    static final String FILE_NAME = "tld-scan.cache";
+
+    private static final int MAGIC = 0x544c4443;
+    private static final int VERSION = 1;
+
+
+    private TldScanCache(File file) {
+        super(file, MAGIC, VERSION);
+    }
+
+
+    /**
+     * Load the cache from the given work directory. If the cache file does not
+     * exist or cannot be read, an empty cache is returned.
+     *
+     * @param workDir The work directory of the web application
+     *
+     * @return The cache
+     */
+    static TldScanCache load(File workDir) {
+        TldScanCache cache = new TldScanCache(new File(workDir, FILE_NAME));
+        cache.load();
+        return cache;
+    }
+
+
+    @Override
+    protected List<Tld> readValue(DataInputStream in) throws IOException {
+        int tldCount = in.readInt();
+        List<Tld> tlds = new ArrayList<>(tldCount);
+        for (int i = 0; i < tldCount; i++) {
+            tlds.add(Tld.read(in));
+        }
+        return Collections.unmodifiableList(tlds);
+    }
+
+
+    @Override
+    protected void writeValue(DataOutputStream out, List<Tld> tlds) throws IOException {
+        out.writeInt(tlds.size());
+        for (Tld tld : tlds) {
+            tld.write(out);
+        }
+    }
+
+
+    /**
+     * The information about a TLD in a JAR that is required when the web
+     * application starts. The TLD itself is parsed when it is first used.
+     */
+    static final class Tld {
+        private final String entryName;
+        private final String uri;
+        private final List<String> listeners;
+
+        Tld(String entryName, String uri, List<String> listeners) {
+            this.entryName = entryName;
+            this.uri = uri;
+            this.listeners = listeners;
+        }
+
+        String getEntryName() {
+            return entryName;
+        }
+
+        /**
+         * @return The URI declared by the TLD or {@code null} if it does not
+         *             declare one
+         */
+        String getUri() {
+            return uri;
+        }
+
+        List<String> getListeners() {
+            return listeners;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(entryName);
+            out.writeBoolean(uri != null);
+            if (uri != null) {
+                out.writeUTF(uri);
+            }
+            out.writeInt(listeners.size());
+            for (String listener : listeners) {
+                out.writeUTF(listener);
+            }
+        }
+
+        private static Tld read(DataInputStream in) throws IOException {
+            String entryName = in.readUTF();
+            String uri = null;
+            if (in.readBoolean()) {
+                uri = in.readUTF();
+            }
+            int listenerCount = in.readInt();
+            List<String> listeners = new ArrayList<>(listenerCount);
+            for (int i = 0; i < listenerCount; i++) {
+                listeners.add(in.readUTF());
+            }
+            return new Tld(entryName, uri, Collections.unmodifiableList(listeners));
+        }
+    }
+}
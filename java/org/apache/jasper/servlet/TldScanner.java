@@ -26,6 +26,7 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -36,6 +37,7 @@ import jakarta.servlet.ServletContext;
 import jakarta.servlet.descriptor.JspConfigDescriptor;
 import jakarta.servlet.descriptor.TaglibDescriptor;
 
+import org.apache.jasper.Constants;
 import org.apache.jasper.compiler.JarScannerFactory;
 import org.apache.jasper.compiler.Localizer;
 import org.apache.juli.logging.Log;
@@ -62,6 +64,7 @@ public class TldScanner {
     private final Map<String, TldResourcePath> uriTldResourcePathMap = new HashMap<>();
     private final Map<TldResourcePath, TaglibXml> tldResourcePathTaglibXmlMap = new HashMap<>();
     private final List<String> listeners = new ArrayList<>();
+    private TldScanCache scanCache;
 
     /**
      * Initialise with the application's ServletContext.
@@ -115,7 +118,9 @@ public class TldScanner {
 
     /**
      * Returns the map of TldResourcePath to parsed XML files built by this
-     * scanner.
+     * scanner. If the TLD scan cache is enabled, TLDs found in JARs that have
+     * not changed since the previous scan are not parsed and are mapped to
+     * {@code null}.
      *
      * @return the map of TldResourcePath to parsed XML files
      */
@@ -259,12 +264,31 @@ public class TldScanner {
     public void scanJars() {
         JarScanner scanner = JarScannerFactory.getJarScanner(context);
         TldScannerCallback callback = new TldScannerCallback();
-        scanner.scan(JarScanType.TLD, context, callback);
+        scanCache = loadScanCache();
+        try {
+            scanner.scan(JarScanType.TLD, context, callback);
+        } finally {
+            if (scanCache != null) {
+                scanCache.save();
+                scanCache = null;
+            }
+        }
         if (callback.scanFoundNoTLDs()) {
             log.info(Localizer.getMessage("jsp.tldCache.noTldSummary"));
         }
     }
 
+    private TldScanCache loadScanCache() {
+        if (!Boolean.parseBoolean(context.getInitParameter(Constants.TLD_SCAN_CACHE_INIT_PARAM))) {
+            return null;
+        }
+        File workDir = (File) context.getAttribute(ServletContext.TEMPDIR);
+        if (workDir == null) {
+            return null;
+        }
+        return TldScanCache.load(workDir);
+    }
+
     protected void parseTld(String resourcePath) throws IOException, SAXException {
         TldResourcePath tldResourcePath =
                 new TldResourcePath(context.getResource(resourcePath), resourcePath);
@@ -273,7 +297,14 @@ public class TldScanner {
 
     protected void parseTld(TldResourcePath path) throws IOException, SAXException {
         TaglibXml tld = tldParser.parse(path);
-        String uri = tld.getUri();
+        addTld(path, tld.getUri(), tld.getListeners(), tld);
+    }
+
+    /*
+     * The TaglibXml is null if the TLD has not been parsed. It will be parsed
+     * by the TldCache when it is first required.
+     */
+    private void addTld(TldResourcePath path, String uri, List<String> tldListeners, TaglibXml tld) {
         if (uri != null) {
             if (!uriTldResourcePathMap.containsKey(uri)) {
                 uriTldResourcePathMap.put(uri, path);
@@ -286,8 +317,8 @@ public class TldScanner {
         }
 
         tldResourcePathTaglibXmlMap.put(path, tld);
-        if (tld.getListeners() != null) {
-            listeners.addAll(tld.getListeners());
+        if (tldListeners != null) {
+            listeners.addAll(tldListeners);
         }
     }
 
@@ -300,6 +331,42 @@ public class TldScanner {
         public void scan(Jar jar, String webappPath, boolean isWebapp) throws IOException {
             boolean found = false;
             URL jarFileUrl = jar.getJarFileURL();
+            List<TldScanCache.Tld> cachedTlds = null;
+            List<TldScanCache.Tld> scannedTlds = null;
+            if (scanCache != null) {
+                cachedTlds = scanCache.get(jarFileUrl);
+                if (cachedTlds == null) {
+                    scannedTlds = new ArrayList<>();
+                }
+            }
+            if (cachedTlds != null) {
+                for (TldScanCache.Tld tld : cachedTlds) {
+                    found = true;
+                    addTld(new TldResourcePath(jarFileUrl, webappPath, tld.getEntryName()), tld.getUri(),
+                            tld.getListeners(), null);
+                }
+            } else {
+                found = scanEntries(jar, webappPath, jarFileUrl, scannedTlds);
+                if (scannedTlds != null) {
+                    scanCache.put(jarFileUrl, scannedTlds);
+                }
+            }
+            if (found) {
+                if (log.isTraceEnabled()) {
+                    log.trace(Localizer.getMessage("jsp.tldCache.tldInJar", jarFileUrl.toString()));
+                }
+            } else {
+                foundJarWithoutTld = true;
+                if (log.isTraceEnabled()) {
+                    log.trace(Localizer.getMessage(
+                            "jsp.tldCache.noTldInJar", jarFileUrl.toString()));
+                }
+            }
+        }
+
+        private boolean scanEntries(Jar jar, String webappPath, URL jarFileUrl, List<TldScanCache.Tld> scannedTlds)
+                throws IOException {
+            boolean found = false;
             jar.nextEntry();
             for (String entryName = jar.getEntryName();
                 entryName != null;
@@ -316,18 +383,14 @@ public class TldScanner {
                 } catch (SAXException e) {
                     throw new IOException(e);
                 }
-            }
-            if (found) {
-                if (log.isTraceEnabled()) {
-                    log.trace(Localizer.getMessage("jsp.tldCache.tldInJar", jarFileUrl.toString()));
-                }
-            } else {
-                foundJarWithoutTld = true;
-                if (log.isTraceEnabled()) {
-                    log.trace(Localizer.getMessage(
-                            "jsp.tldCache.noTldInJar", jarFileUrl.toString()));
+                if (scannedTlds != null) {
+                    TaglibXml tld = tldResourcePathTaglibXmlMap.get(tldResourcePath);
+                    List<String> tldListeners = tld == null ? null : tld.getListeners();
+                    scannedTlds.add(new TldScanCache.Tld(entryName, tld == null ? null : tld.getUri(),
+                            tldListeners == null ? Collections.emptyList() : tldListeners));
                 }
             }
+            return found;
         }
 
         @Override
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.util.Locale;
 
 import jakarta.servlet.ServletOutputStream;
@@ -216,6 +217,68 @@ public class Util {
         return escapedBuffer.toString();
     }
 
+    /**
+     * Writes the given String, performing the same escaping as
+     * {@link #escapeXml(String)} but without creating an escaped copy.
+     *
+     * @param s   The String to write
+     * @param out The Writer to write to
+     *
+     * @throws IOException If an error occurs writing to the Writer
+     */
+    public static void writeEscapedXml(String s, Writer out) throws IOException {
+        int start = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c <= HIGHEST_SPECIAL) {
+                char[] escaped = specialCharactersRepresentation[c];
+                if (escaped != null) {
+                    // write unescaped portion followed by escaped xml
+                    if (start < i) {
+                        out.write(s, start, i - start);
+                    }
+                    out.write(escaped);
+                    start = i + 1;
+                }
+            }
+        }
+        // write rest of unescaped portion
+        if (start < length) {
+            out.write(s, start, length - start);
+        }
+    }
+
+    /**
+     * Writes the given characters, performing the same escaping as
+     * {@link #escapeXml(char[], int)} but without creating an escaped copy.
+     *
+     * @param arrayBuffer The characters to write
+     * @param length      The number of characters to write
+     * @param out         The Writer to write to
+     *
+     * @throws IOException If an error occurs writing to the Writer
+     */
+    public static void writeEscapedXml(char[] arrayBuffer, int length, Writer out) throws IOException {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = arrayBuffer[i];
+            if (c <= HIGHEST_SPECIAL) {
+                char[] escaped = specialCharactersRepresentation[c];
+                if (escaped != null) {
+                    if (start < i) {
+                        out.write(arrayBuffer, start, i - start);
+                    }
+                    out.write(escaped);
+                    start = i + 1;
+                }
+            }
+        }
+        if (start < length) {
+            out.write(arrayBuffer, start, length - start);
+        }
+    }
+
     /**
      * Utility methods
      * taken from org.apache.taglibs.standard.tag.common.core.UrlSupport
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Implemented by {@link java.io.Writer}s that write to a byte based output and
+ * can accept text that has already been encoded. Text that is written
+ * repeatedly, such as the template text of a JSP, can then be encoded once
+ * rather than every time it is written.
+ */
+public interface EncodedTextWriter {
+
+    /**
+     * Obtain the character set used to encode the characters written to this
+     * Writer.
+     *
+     * @return the character set or {@code null} if it is not yet known
+     */
+    Charset getCharset();
+
+    /**
+     * Write text that has already been encoded using the character set
+     * returned by {@link #getCharset()}. Any characters previously written to
+     * this Writer are written before the given bytes.
+     *
+     * @param b   The encoded text
+     * @param off The offset of the encoded text in the array
+     * @param len The length of the encoded text
+     *
+     * @return {@code true} if the bytes were written or {@code false} if the
+     *         text must be written as characters instead
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    boolean writeEncoded(byte[] b, int off, int len) throws IOException;
+}
@@ -20,7 +20,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -407,10 +410,18 @@ public final class IntrospectionUtils {
     // -------------------- other utils --------------------
     public static void clear() {
         objectMethods.clear();
+        objectMethodsByName.clear();
     }
 
     private static final Map<Class<?>,Method[]> objectMethods = new ConcurrentHashMap<>();
 
+    /*
+     * The public methods of each class grouped by name so findMethod() does
+     * not need to check every method of the class on every call. Used heavily
+     * when parsing deployment descriptors.
+     */
+    private static final Map<Class<?>,Map<String,Method[]>> objectMethodsByName = new ConcurrentHashMap<>();
+
     public static Method[] findMethods(Class<?> c) {
         Method methods[] = objectMethods.get(c);
         if (methods != null) {
@@ -424,35 +435,54 @@ public final class IntrospectionUtils {
 
     public static Method findMethod(Class<?> c, String name,
             Class<?> params[]) {
-        Method methods[] = findMethods(c);
+        Method methods[] = findMethodsByName(c).get(name);
+        if (methods == null) {
+            return null;
+        }
         for (Method method : methods) {
-            if (method.getName().equals(name)) {
-                Class<?> methodParams[] = method.getParameterTypes();
-                if (params == null) {
-                    if (methodParams.length == 0) {
-                        return method;
-                    } else {
-                        continue;
-                    }
-                }
-                if (params.length != methodParams.length) {
+            Class<?> methodParams[] = method.getParameterTypes();
+            if (params == null) {
+                if (methodParams.length == 0) {
+                    return method;
+                } else {
                     continue;
                 }
-                boolean found = true;
-                for (int j = 0; j < params.length; j++) {
-                    if (params[j] != methodParams[j]) {
-                        found = false;
-                        break;
-                    }
-                }
-                if (found) {
-                    return method;
+            }
+            if (params.length != methodParams.length) {
+                continue;
+            }
+            boolean found = true;
+            for (int j = 0; j < params.length; j++) {
+                if (params[j] != methodParams[j]) {
+                    found = false;
+                    break;
                 }
             }
+            if (found) {
+                return method;
+            }
         }
         return null;
     }
 
+    private static Map<String,Method[]> findMethodsByName(Class<?> c) {
+        Map<String,Method[]> methodsByName = objectMethodsByName.get(c);
+        if (methodsByName != null) {
+            return methodsByName;
+        }
+
+        Map<String,List<Method>> lists = new HashMap<>();
+        for (Method method : findMethods(c)) {
+            lists.computeIfAbsent(method.getName(), k -> new ArrayList<>()).add(method);
+        }
+        methodsByName = new HashMap<>();
+        for (Map.Entry<String,List<Method>> entry : lists.entrySet()) {
+            methodsByName.put(entry.getKey(), entry.getValue().toArray(new Method[0]));
+        }
+        objectMethodsByName.put(c, methodsByName);
+        return methodsByName;
+    }
+
     public static Object callMethod1(Object target, String methodN,
             Object param1, String typeParam1, ClassLoader cl) throws Exception {
         if (target == null || methodN == null || param1 == null) {
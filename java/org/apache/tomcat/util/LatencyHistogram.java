@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with logarithmic buckets. Bucket
+ * <code>i</code> counts the durations greater than <code>2^(i-1)</code>
+ * microseconds and less than or equal to <code>2^i</code> microseconds.
+ * Bucket zero counts the durations of up to one microsecond and the last
+ * bucket counts all durations that do not fit in the preceding buckets. The
+ * relative error of a value derived from the histogram is therefore at most a
+ * factor of two, in return for a small, fixed memory footprint and very low
+ * recording cost.
+ * <p>
+ * The current state is obtained as a snapshot, an array of
+ * {@link #SNAPSHOT_LENGTH} longs holding the count for each bucket followed by
+ * the sum of all recorded durations in microseconds. Snapshots may be added
+ * together with {@link #add(long[], long[])} and should be read with the
+ * static methods of this class.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets. The upper bound of the last bounded bucket is
+     * <code>2^(BUCKET_COUNT - 2)</code> microseconds, just under 18 minutes.
+     */
+    public static final int BUCKET_COUNT = 32;
+
+    /**
+     * The length of a snapshot.
+     */
+    public static final int SNAPSHOT_LENGTH = BUCKET_COUNT + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder sum = new LongAdder();
+
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = nanos <= 0 ? 0 : (nanos + 999) / 1000;
+        buckets[getBucket(micros)].increment();
+        sum.add(micros);
+    }
+
+
+    /**
+     * @return A snapshot of the current state of this histogram
+     */
+    public long[] getSnapshot() {
+        long[] result = new long[SNAPSHOT_LENGTH];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            result[i] = buckets[i].sum();
+        }
+        result[BUCKET_COUNT] = sum.sum();
+        return result;
+    }
+
+
+    /**
+     * Reset all the buckets to zero. Durations recorded concurrently with a
+     * reset may or may not be retained.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+    }
+
+
+    /**
+     * Obtain the bucket for a duration.
+     *
+     * @param micros The duration in microseconds
+     *
+     * @return The index of the bucket that counts the duration
+     */
+    public static int getBucket(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        return Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKET_COUNT - 1);
+    }
+
+
+    /**
+     * Obtain the inclusive upper bound of a bucket.
+     *
+     * @param bucket The index of the bucket
+     *
+     * @return The upper bound in microseconds or {@link Long#MAX_VALUE} for
+     *             the last bucket
+     */
+    public static long getUpperBound(int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return 1L << bucket;
+    }
+
+
+    /**
+     * Add the counts of one snapshot to another.
+     *
+     * @param target The snapshot to add to
+     * @param source The snapshot to add
+     */
+    public static void add(long[] target, long[] source) {
+        for (int i = 0; i < SNAPSHOT_LENGTH; i++) {
+            target[i] += source[i];
+        }
+    }
+
+
+    /**
+     * @param snapshot A snapshot of a histogram
+     *
+     * @return The number of durations recorded in the snapshot
+     */
+    public static long getCount(long[] snapshot) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += snapshot[i];
+        }
+        return count;
+    }
+
+
+    /**
+     * @param snapshot A snapshot of a histogram
+     *
+     * @return The sum of the durations recorded in the snapshot in
+     *             microseconds
+     */
+    public static long getSum(long[] snapshot) {
+        return snapshot[BUCKET_COUNT];
+    }
+
+
+    /**
+     * Estimate a percentile from a snapshot. The estimate is the upper bound
+     * of the bucket that contains the percentile so it is never lower than
+     * the actual value.
+     *
+     * @param snapshot   A snapshot of a histogram
+     * @param percentile The percentile, greater than zero and less than or
+     *                       equal to 100
+     *
+     * @return The estimated percentile in microseconds, {@link Long#MAX_VALUE}
+     *             if it falls in the last bucket or zero if the snapshot is
+     *             empty
+     */
+    public static long getPercentile(long[] snapshot, double percentile) {
+        long count = getCount(snapshot);
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return getUpperBound(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -21,6 +21,7 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.ServletContext;
@@ -704,6 +706,23 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
     private static final String INDENT2 = "  ";
     private static final String INDENT4 = "    ";
     private static final String INDENT6 = "      ";
+    private static final String INDENT8 = "        ";
+
+    /*
+     * Cookie attributes that are written as dedicated elements of
+     * cookie-config rather than as cookie-config/attribute.
+     */
+    private static final Set<String> COOKIE_CONFIG_ELEMENT_ATTRIBUTES;
+    static {
+        Set<String> attributes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        attributes.add(Constants.COOKIE_DOMAIN_ATTR);
+        attributes.add(Constants.COOKIE_PATH_ATTR);
+        attributes.add(Constants.COOKIE_COMMENT_ATTR);
+        attributes.add(Constants.COOKIE_HTTP_ONLY_ATTR);
+        attributes.add(Constants.COOKIE_SECURE_ATTR);
+        attributes.add(Constants.COOKIE_MAX_AGE_ATTR);
+        COOKIE_CONFIG_ELEMENT_ATTRIBUTES = Collections.unmodifiableSet(attributes);
+    }
 
     /**
      * Generate a web.xml in String form that matches the representation stored
@@ -713,8 +732,8 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
      */
     public String toXml() {
         StringBuilder sb = new StringBuilder(2048);
-        // TODO - Various, icon, description etc elements are skipped - mainly
-        //        because they are ignored when web.xml is parsed - see above
+        // NOTE - Elements that are ignored when web.xml is parsed (e.g. the
+        //        description of a listener) are skipped - see above
 
         // NOTE - Elements need to be written in the order defined in the 2.3
         //        DTD else validation of the merged web.xml will fail
@@ -810,6 +829,8 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                         filterDef.getDescription());
                 appendElement(sb, INDENT4, "display-name",
                         filterDef.getDisplayName());
+                appendIcon(sb, INDENT4, filterDef.getSmallIcon(),
+                        filterDef.getLargeIcon());
                 appendElement(sb, INDENT4, "filter-name",
                         filterDef.getFilterName());
                 appendElement(sb, INDENT4, "filter-class",
@@ -959,6 +980,20 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                         sessionConfig.getCookieSecure());
                 appendElement(sb, INDENT6, "max-age",
                         sessionConfig.getCookieMaxAge());
+                // cookie-config/attribute was introduced in Servlet 6.0
+                if (majorVersion >= 6) {
+                    for (Map.Entry<String, String> attribute :
+                            sessionConfig.getCookieAttributes().entrySet()) {
+                        if (COOKIE_CONFIG_ELEMENT_ATTRIBUTES.contains(attribute.getKey())) {
+                            // Written above
+                            continue;
+                        }
+                        sb.append("      <attribute>\n");
+                        appendElement(sb, INDENT8, "attribute-name", attribute.getKey());
+                        appendElement(sb, INDENT8, "attribute-value", attribute.getValue());
+                        sb.append("      </attribute>\n");
+                    }
+                }
                 sb.append("    </cookie-config>\n");
                 for (SessionTrackingMode stm :
                         sessionConfig.getSessionTrackingModes()) {
@@ -1023,6 +1058,11 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                         appendElement(sb, INDENT6, "url-pattern", encodeUrl(urlPattern));
                     }
                     appendElement(sb, INDENT6, "el-ignored", jpg.getElIgnored());
+                    // error-on-el-not-found was introduced in JSP 3.1
+                    if (getMajorVersion() >= 6) {
+                        appendElement(sb, INDENT6, "error-on-el-not-found",
+                                jpg.getErrorOnELNotFound());
+                    }
                     appendElement(sb, INDENT6, "page-encoding",
                             jpg.getPageEncoding());
                     appendElement(sb, INDENT6, "scripting-invalid",
@@ -1243,6 +1283,8 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                         serviceRef.getDescription());
                 appendElement(sb, INDENT4, "display-name",
                         serviceRef.getDisplayname());
+                appendIcon(sb, INDENT4, serviceRef.getSmallIcon(),
+                        serviceRef.getLargeIcon());
                 appendElement(sb, INDENT4, "service-ref-name",
                         serviceRef.getName());
                 appendElement(sb, INDENT4, "service-interface",
@@ -1252,12 +1294,9 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                 appendElement(sb, INDENT4, "wsdl-file", serviceRef.getWsdlfile());
                 appendElement(sb, INDENT4, "jaxrpc-mapping-file",
                         serviceRef.getJaxrpcmappingfile());
-                String qname = serviceRef.getServiceqnameNamespaceURI();
-                if (qname != null) {
-                    qname = qname + ":";
-                }
-                qname = qname + serviceRef.getServiceqnameLocalpart();
-                appendElement(sb, INDENT4, "service-qname", qname);
+                appendQNameElement(sb, INDENT4, "service-qname",
+                        serviceRef.getServiceqnameNamespaceURI(),
+                        serviceRef.getServiceqnameLocalpart());
                 Iterator<String> endpointIter = serviceRef.getServiceendpoints();
                 while (endpointIter.hasNext()) {
                     String endpoint = endpointIter.next();
@@ -1276,6 +1315,27 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                     appendElement(sb, INDENT6, "handler-name", ch.getName());
                     appendElement(sb, INDENT6, "handler-class",
                             ch.getHandlerclass());
+                    Iterator<String> paramIter = ch.listProperties();
+                    while (paramIter.hasNext()) {
+                        String paramName = paramIter.next();
+                        sb.append("      <init-param>\n");
+                        appendElement(sb, INDENT8, "param-name", paramName);
+                        appendElement(sb, INDENT8, "param-value",
+                                String.valueOf(ch.getProperty(paramName)));
+                        sb.append("      </init-param>\n");
+                    }
+                    Iterator<String> soapHeaderIter = ch.getLocalparts();
+                    while (soapHeaderIter.hasNext()) {
+                        String localpart = soapHeaderIter.next();
+                        appendQNameElement(sb, INDENT6, "soap-header",
+                                ch.getNamespaceuri(localpart), localpart);
+                    }
+                    for (int i = 0; i < ch.getSoapRolesSize(); i++) {
+                        appendElement(sb, INDENT6, "soap-role", ch.getSoapRole(i));
+                    }
+                    for (int i = 0; i < ch.getPortNamesSize(); i++) {
+                        appendElement(sb, INDENT6, "port-name", ch.getPortName(i));
+                    }
                     sb.append("    </handler>\n");
                 }
                 // TODO handler-chains
@@ -1352,6 +1412,7 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
                 sb.append("  <message-destination>\n");
                 appendElement(sb, INDENT4, "description", md.getDescription());
                 appendElement(sb, INDENT4, "display-name", md.getDisplayName());
+                appendIcon(sb, INDENT4, md.getSmallIcon(), md.getLargeIcon());
                 appendElement(sb, INDENT4, "message-destination-name",
                         md.getName());
                 appendElement(sb, INDENT4, "mapped-name", md.getProperty("mappedName"));
@@ -1391,6 +1452,20 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
             appendElement(sb, INDENT2, "request-character-encoding", requestCharacterEncoding);
             appendElement(sb, INDENT2, "response-character-encoding", responseCharacterEncoding);
         }
+
+        // absolute-ordering was introduced in Servlet 3.0
+        if (getMajorVersion() > 2 && absoluteOrdering != null) {
+            sb.append("  <absolute-ordering>\n");
+            for (String name : absoluteOrdering) {
+                if (ORDER_OTHERS.equals(name)) {
+                    sb.append(INDENT4);
+                    sb.append("<others/>\n");
+                } else {
+                    appendElement(sb, INDENT4, "name", name);
+                }
+            }
+            sb.append("  </absolute-ordering>\n");
+        }
         sb.append("</web-app>");
         return sb.toString();
     }
@@ -1436,6 +1511,44 @@ public class WebXml extends XmlEncodingBase implements DocumentProperties.Charse
         appendElement(sb, indent, elementName, value.toString());
     }
 
+    private static void appendIcon(StringBuilder sb, String indent,
+            String smallIcon, String largeIcon) {
+        if (smallIcon == null && largeIcon == null) {
+            return;
+        }
+        sb.append(indent);
+        sb.append("<icon>\n");
+        appendElement(sb, indent + INDENT2, "small-icon", smallIcon);
+        appendElement(sb, indent + INDENT2, "large-icon", largeIcon);
+        sb.append(indent);
+        sb.append("</icon>\n");
+    }
+
+    /*
+     * The namespace prefix is declared on the element itself so the QName can
+     * be resolved when the generated web.xml is parsed.
+     */
+    private static void appendQNameElement(StringBuilder sb, String indent,
+            String elementName, String namespaceURI, String localpart) {
+        if (localpart == null) {
+            return;
+        }
+        if (namespaceURI == null) {
+            appendElement(sb, indent, elementName, localpart);
+            return;
+        }
+        sb.append(indent);
+        sb.append('<');
+        sb.append(elementName);
+        sb.append(" xmlns:qn=\"");
+        sb.append(Escape.xml(namespaceURI));
+        sb.append("\">qn:");
+        sb.append(Escape.xml(localpart));
+        sb.append("</");
+        sb.append(elementName);
+        sb.append(">\n");
+    }
+
 
     /**
      * Merge the supplied web fragments into this main web.xml.
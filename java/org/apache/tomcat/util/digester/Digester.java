@@ -88,6 +88,8 @@ public class Digester extends DefaultHandler2 {
     private static boolean propertySourcesSet = false;
     protected static final StringManager sm = StringManager.getManager(Digester.class);
 
+    private static final int MATCH_PATH_CACHE_SIZE = 1000;
+
     static {
         String classNames = System.getProperty("org.apache.tomcat.util.digester.PROPERTY_SOURCE");
         ArrayList<IntrospectionUtils.PropertySource> sourcesList = new ArrayList<>();
@@ -249,6 +251,18 @@ public class Digester extends DefaultHandler2 {
     protected String match = "";
 
 
+    /*
+     * The match patterns seen so far, arranged as a tree so the pattern for a
+     * child element can be found from the current pattern and the element
+     * name without building a new String for every element. Reusing the
+     * pattern instances also means their hash codes only need to be
+     * calculated once when rules are matched.
+     */
+    private final MatchPath rootMatchPath = new MatchPath("", null);
+    private MatchPath matchPath = rootMatchPath;
+    private int matchPathCount = 0;
+
+
     /**
      * Do we want a "namespace aware" parser.
      */
@@ -1042,12 +1056,8 @@ public class Digester extends DefaultHandler2 {
         }
 
         // Recover the previous match expression
-        int slash = match.lastIndexOf('/');
-        if (slash >= 0) {
-            match = match.substring(0, slash);
-        } else {
-            match = "";
-        }
+        matchPath = matchPath.parent;
+        match = matchPath.match;
 
     }
 
@@ -1241,12 +1251,8 @@ public class Digester extends DefaultHandler2 {
         }
 
         // Compute the current matching rule
-        StringBuilder sb = new StringBuilder(match);
-        if (match.length() > 0) {
-            sb.append('/');
-        }
-        sb.append(name);
-        match = sb.toString();
+        matchPath = getChildMatchPath(matchPath, name);
+        match = matchPath.match;
         if (debug) {
             log.trace("  New match='" + match + "'");
         }
@@ -1279,6 +1285,30 @@ public class Digester extends DefaultHandler2 {
     }
 
 
+    /*
+     * Patterns are only retained for a limited number of paths so parsing
+     * documents with many different element names cannot consume an unbounded
+     * amount of memory.
+     */
+    private MatchPath getChildMatchPath(MatchPath parent, String name) {
+        MatchPath result = parent.children.get(name);
+        if (result == null) {
+            String childMatch;
+            if (parent.match.isEmpty()) {
+                childMatch = name;
+            } else {
+                childMatch = parent.match + '/' + name;
+            }
+            result = new MatchPath(childMatch, parent);
+            if (matchPathCount < MATCH_PATH_CACHE_SIZE) {
+                parent.children.put(name, result);
+                matchPathCount++;
+            }
+        }
+        return result;
+    }
+
+
     /**
      * Process notification that a namespace prefix is coming in to scope.
      *
@@ -1744,6 +1774,7 @@ public class Digester extends DefaultHandler2 {
     public void clear() {
 
         match = "";
+        matchPath = rootMatchPath;
         bodyTexts.clear();
         params.clear();
         publicId = null;
@@ -2049,6 +2080,19 @@ public class Digester extends DefaultHandler2 {
     }
 
 
+    private static final class MatchPath {
+
+        private final String match;
+        private final MatchPath parent;
+        private final Map<String,MatchPath> children = new HashMap<>();
+
+        private MatchPath(String match, MatchPath parent) {
+            this.match = match;
+            this.parent = parent;
+        }
+    }
+
+
     private static class EntityResolverWrapper implements EntityResolver {
 
         private final EntityResolver entityResolver;
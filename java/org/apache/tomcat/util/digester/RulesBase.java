@@ -38,6 +38,8 @@ import java.util.List;
  */
 public class RulesBase implements Rules {
 
+    private static final int MATCH_CACHE_MAX_SIZE = 1000;
+
     // ----------------------------------------------------- Instance Variables
 
     /**
@@ -61,6 +63,16 @@ public class RulesBase implements Rules {
     protected ArrayList<Rule> rules = new ArrayList<>();
 
 
+    /*
+     * The results of previous calls to match(), keyed by namespace URI and
+     * then by pattern, so that the tail match search and the namespace
+     * filtering only need to be performed once per pattern. Cleared whenever
+     * the registered rules change.
+     */
+    private final HashMap<String,HashMap<String,List<Rule>>> matchCache = new HashMap<>();
+    private int matchCacheSize = 0;
+
+
     // ------------------------------------------------------------- Properties
 
     /**
@@ -105,6 +117,7 @@ public class RulesBase implements Rules {
 
         cache.computeIfAbsent(pattern, k -> new ArrayList<>()).add(rule);
         rules.add(rule);
+        clearMatchCache();
         if (this.digester != null) {
             rule.setDigester(this.digester);
         }
@@ -118,6 +131,7 @@ public class RulesBase implements Rules {
     public void clear() {
         cache.clear();
         rules.clear();
+        clearMatchCache();
     }
 
 
@@ -134,6 +148,26 @@ public class RulesBase implements Rules {
      */
     @Override
     public List<Rule> match(String namespaceURI, String pattern) {
+        // lookup() selects every rule for the pattern, regardless of its
+        // namespace URI, for both null and the empty string so they can
+        // share cached results
+        HashMap<String,List<Rule>> namespaceCache =
+                matchCache.computeIfAbsent(namespaceURI == null ? "" : namespaceURI, k -> new HashMap<>());
+        List<Rule> rulesList = namespaceCache.get(pattern);
+        if (rulesList == null) {
+            rulesList = matchInternal(namespaceURI, pattern);
+            // Limit the memory used when parsing documents with many
+            // different element names
+            if (matchCacheSize < MATCH_CACHE_MAX_SIZE) {
+                namespaceCache.put(pattern, rulesList);
+                matchCacheSize++;
+            }
+        }
+        return rulesList;
+    }
+
+
+    private List<Rule> matchInternal(String namespaceURI, String pattern) {
 
         // List rulesList = (List) this.cache.get(pattern);
         List<Rule> rulesList = lookup(namespaceURI, pattern);
@@ -175,6 +209,17 @@ public class RulesBase implements Rules {
 
     // ------------------------------------------------------ Protected Methods
 
+    /**
+     * Discard the cached results of {@link #match(String, String)}. Must be
+     * called by sub-classes that modify the registered rules without using
+     * {@link #add(String, Rule)} or {@link #clear()}.
+     */
+    protected void clearMatchCache() {
+        matchCache.clear();
+        matchCacheSize = 0;
+    }
+
+
     /**
      * Return a List of Rule instances for the specified pattern that also
      * match the specified namespace URI (if any).  If there are no such
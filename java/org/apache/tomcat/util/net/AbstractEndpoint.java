@@ -48,6 +48,7 @@ import javax.management.ObjectName;
 import org.apache.juli.logging.Log;
 import org.apache.tomcat.util.ExceptionUtils;
 import org.apache.tomcat.util.IntrospectionUtils;
+import org.apache.tomcat.util.LatencyHistogram;
 import org.apache.tomcat.util.buf.HexUtils;
 import org.apache.tomcat.util.collections.SynchronizedStack;
 import org.apache.tomcat.util.modeler.Registry;
@@ -202,6 +203,11 @@ public abstract class AbstractEndpoint<S,U> {
      */
     protected SynchronizedStack<SocketProcessorBase<S>> processorCache;
 
+    /**
+     * Time socket processing tasks spent waiting for a thread.
+     */
+    private final LatencyHistogram queueTimeHistogram = new LatencyHistogram();
+
     private ObjectName oname = null;
 
     /**
@@ -1033,6 +1039,65 @@ public abstract class AbstractEndpoint<S,U> {
         }
     }
 
+    /**
+     * Return the number of tasks that had to wait for a thread because all the
+     * threads were busy.
+     *
+     * @return the number of tasks or -1 if the executor does not provide this
+     *         information
+     */
+    public long getSaturatedTaskCount() {
+        Executor executor = this.executor;
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getSaturatedTaskCount();
+        }
+        return -1;
+    }
+
+    /**
+     * Return the number of tasks that were initially rejected by the executor
+     * but were then forced onto its queue.
+     *
+     * @return the number of tasks or -1 if the executor does not provide this
+     *         information
+     */
+    public long getForcedTaskCount() {
+        Executor executor = this.executor;
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getForcedTaskCount();
+        }
+        return -1;
+    }
+
+    /**
+     * Return the number of tasks that were rejected by the executor.
+     *
+     * @return the number of tasks or -1 if the executor does not provide this
+     *         information
+     */
+    public long getRejectedTaskCount() {
+        Executor executor = this.executor;
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getRejectedTaskCount();
+        }
+        return -1;
+    }
+
+    /**
+     * Return the histogram of the time socket processing tasks spent waiting
+     * for a thread after being passed to the executor. See
+     * {@link LatencyHistogram} for the format.
+     *
+     * @return a snapshot of the queue time histogram
+     */
+    public long[] getQueueTimeHistogram() {
+        return queueTimeHistogram.getSnapshot();
+    }
+
+    void recordQueueTime(long queueTimeNanos) {
+        queueTimeHistogram.record(queueTimeNanos);
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -1239,6 +1304,7 @@ public abstract class AbstractEndpoint<S,U> {
             }
             Executor executor = getExecutor();
             if (dispatch && executor != null) {
+                sc.setEnqueueTimeNanos(System.nanoTime());
                 executor.execute(sc);
             } else {
                 sc.run();
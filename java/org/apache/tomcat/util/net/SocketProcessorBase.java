@@ -23,6 +23,7 @@ public abstract class SocketProcessorBase<S> implements Runnable {
 
     protected SocketWrapperBase<S> socketWrapper;
     protected SocketEvent event;
+    private long enqueueTimeNanos;
 
     public SocketProcessorBase(SocketWrapperBase<S> socketWrapper, SocketEvent event) {
         reset(socketWrapper, event);
@@ -33,14 +34,33 @@ public abstract class SocketProcessorBase<S> implements Runnable {
         Objects.requireNonNull(event);
         this.socketWrapper = socketWrapper;
         this.event = event;
+        this.enqueueTimeNanos = -1;
+    }
+
+
+    /**
+     * Record when this processor is passed to the executor so the time it
+     * spends waiting for a thread can be measured.
+     *
+     * @param enqueueTimeNanos The value of {@link System#nanoTime()} when this
+     *                             processor was passed to the executor
+     */
+    void setEnqueueTimeNanos(long enqueueTimeNanos) {
+        this.enqueueTimeNanos = enqueueTimeNanos;
     }
 
 
     @Override
     public final void run() {
+        long queueTimeNanos = -1;
+        if (enqueueTimeNanos != -1) {
+            queueTimeNanos = System.nanoTime() - enqueueTimeNanos;
+            socketWrapper.getEndpoint().recordQueueTime(queueTimeNanos);
+        }
         Lock lock = socketWrapper.getLock();
         lock.lock();
         try {
+            socketWrapper.setQueueTimeNanos(queueTimeNanos);
             // It is possible that processing may be triggered for read and
             // write at the same time. The lock above makes sure that processing
             // does not occur in parallel. The test below ensures that if the
@@ -75,6 +75,11 @@ public abstract class SocketWrapperBase<E> {
     private volatile int keepAliveLeft = 100;
     private String negotiatedProtocol = null;
 
+    /*
+     * Only accessed while holding the lock.
+     */
+    private long queueTimeNanos = -1;
+
     private final String connectionId;
 
     /*
@@ -162,6 +167,21 @@ public abstract class SocketWrapperBase<E> {
         return lock;
     }
 
+    /**
+     * Obtain the time the task currently processing this socket spent waiting
+     * for a thread. Must only be called while holding the lock.
+     *
+     * @return The time in nanoseconds or -1 if the current processing was not
+     *         dispatched to the executor
+     */
+    public long getQueueTimeNanos() {
+        return queueTimeNanos;
+    }
+
+    void setQueueTimeNanos(long queueTimeNanos) {
+        this.queueTimeNanos = queueTimeNanos;
+    }
+
     public Object getCurrentProcessor() {
         return currentProcessor.get();
     }
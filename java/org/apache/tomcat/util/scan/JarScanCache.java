@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util.scan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.juli.logging.Log;
+import org.apache.juli.logging.LogFactory;
+import org.apache.tomcat.util.res.StringManager;
+
+/**
+ * Base class for caches, held in a single file, of information extracted
+ * from JARs when scanning them so that JARs that have not changed since the
+ * information was recorded do not have to be scanned again. A JAR is treated
+ * as unchanged if it has the same size and last modified time as when it was
+ * scanned. Only JARs that can be accessed as a file are cached.
+ * <p>
+ * This class manages the JARs recorded in the cache and the reading and
+ * writing of the cache file. Sub-classes define the information recorded for
+ * each JAR and how it is written to the file.
+ * <p>
+ * Instances are safe for concurrent use by multiple scanning threads once
+ * they have been loaded.
+ *
+ * @param <T> The type of the information recorded for each JAR
+ */
+public abstract class JarScanCache<T> {
+
+    private static final Log log = LogFactory.getLog(JarScanCache.class);
+    private static final StringManager sm = StringManager.getManager(Constants.Package);
+
+    private final File file;
+    private final int magic;
+    private final int version;
+
+    /*
+     * JARs read from the cache file. Not modified after loading.
+     */
+    private final Map<String,JarEntry<T>> previous = new HashMap<>();
+
+    /*
+     * JARs scanned, or found in the cache, since loading. Only these are
+     * written back so entries for JARs that have been removed are discarded.
+     */
+    private final Map<String,JarEntry<T>> current = new ConcurrentHashMap<>();
+
+
+    /**
+     * Create a cache backed by the given file.
+     *
+     * @param file    The cache file
+     * @param magic   The value that identifies the type of cache file
+     * @param version The version of the format used for the information
+     *                    recorded for each JAR
+     */
+    protected JarScanCache(File file, int magic, int version) {
+        this.file = file;
+        this.magic = magic;
+        this.version = version;
+    }
+
+
+    /**
+     * Read the information recorded for a JAR from the cache file.
+     *
+     * @param in The stream to read from
+     *
+     * @return The information recorded for the JAR
+     *
+     * @throws IOException If the information cannot be read
+     */
+    protected abstract T readValue(DataInputStream in) throws IOException;
+
+
+    /**
+     * Write the information recorded for a JAR to the cache file.
+     *
+     * @param out   The stream to write to
+     * @param value The information recorded for the JAR
+     *
+     * @throws IOException If the information cannot be written
+     */
+    protected abstract void writeValue(DataOutputStream out, T value) throws IOException;
+
+
+    /**
+     * Load the JARs recorded in the cache file. If the cache file does not
+     * exist or cannot be read, the cache is left empty. This must be called,
+     * at most once, before the cache is used.
+     */
+    protected void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != magic || in.readInt() != version) {
+                throw new IOException(sm.getString("jarScanCache.invalid"));
+            }
+            int jarCount = in.readInt();
+            for (int i = 0; i < jarCount; i++) {
+                String key = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                previous.put(key, new JarEntry<>(length, lastModified, readValue(in)));
+            }
+        } catch (FileNotFoundException e) {
+            // First use of the cache
+            previous.clear();
+        } catch (IOException | RuntimeException e) {
+            log.warn(sm.getString("jarScanCache.loadFail", file.getAbsolutePath()), e);
+            previous.clear();
+        }
+    }
+
+
+    /**
+     * Obtain the information recorded for a JAR.
+     *
+     * @param url The URL of the JAR
+     *
+     * @return The information or {@code null} if the JAR cannot be cached,
+     *             has not been scanned or has changed since it was scanned
+     */
+    public T get(URL url) {
+        File jarFile = getFile(url);
+        if (jarFile == null) {
+            return null;
+        }
+        String key = jarFile.getAbsolutePath();
+        JarEntry<T> entry = previous.get(key);
+        if (entry == null || entry.length != jarFile.length() || entry.lastModified != jarFile.lastModified()) {
+            return null;
+        }
+        current.put(key, entry);
+        return entry.value;
+    }
+
+
+    /**
+     * Record the information found in a JAR. Nothing is recorded if the JAR
+     * cannot be cached.
+     *
+     * @param url   The URL of the JAR
+     * @param value The information found in the JAR
+     */
+    public void put(URL url, T value) {
+        File jarFile = getFile(url);
+        if (jarFile == null) {
+            return;
+        }
+        current.put(jarFile.getAbsolutePath(), new JarEntry<>(jarFile.length(), jarFile.lastModified(), value));
+    }
+
+
+    /**
+     * Write the JARs used since the cache was loaded to the cache file. The
+     * file is only written if it would change. The file is written to a
+     * temporary file that then replaces the cache file so a partially
+     * written cache file is never read.
+     */
+    public void save() {
+        if (current.equals(previous)) {
+            return;
+        }
+        File parent = file.getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            return;
+        }
+        File tmp = new File(parent, file.getName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeInt(current.size());
+                for (Map.Entry<String,JarEntry<T>> entry : current.entrySet()) {
+                    JarEntry<T> jarEntry = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(jarEntry.length);
+                    out.writeLong(jarEntry.lastModified);
+                    writeValue(out, jarEntry.value);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            log.warn(sm.getString("jarScanCache.saveFail", file.getAbsolutePath()), e);
+            if (tmp.exists() && !tmp.delete()) {
+                log.warn(sm.getString("jarScanCache.deleteFail", tmp.getAbsolutePath()));
+            }
+        }
+    }
+
+
+    /**
+     * Obtain the file for a JAR.
+     *
+     * @param url The URL of the JAR, either a {@code file:} URL or a
+     *                {@code jar:file:} URL for the root of the JAR
+     *
+     * @return The file or {@code null} if the JAR is not directly accessible
+     *             as a file (e.g. a JAR nested in a packed WAR)
+     */
+    public static File getFile(URL url) {
+        String spec = url.toString();
+        if ("jar".equals(url.getProtocol())) {
+            if (!spec.startsWith("jar:file:") || spec.indexOf("!/") != spec.length() - 2) {
+                return null;
+            }
+            spec = spec.substring(4, spec.length() - 2);
+        } else if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            File result = new File(new URI(spec));
+            if (result.isFile()) {
+                return result;
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Not a file
+        }
+        return null;
+    }
+
+
+    private static final class JarEntry<T> {
+        private final long length;
+        private final long lastModified;
+        private final T value;
+
+        private JarEntry(long length, long lastModified, T value) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
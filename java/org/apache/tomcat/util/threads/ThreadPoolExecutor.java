@@ -38,6 +38,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -501,6 +502,25 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * This number is always greater or equal to {@link #getActiveCount()}.
      */
     private final AtomicInteger submittedCount = new AtomicInteger(0);
+
+    /**
+     * The number of tasks that were submitted when there were already at least
+     * as many submitted but not yet finished tasks as the maximum pool size, so
+     * had to wait in the queue for a thread to become free.
+     */
+    private final LongAdder saturatedTaskCount = new LongAdder();
+
+    /**
+     * The number of tasks that were initially rejected but were then forced
+     * onto the queue.
+     */
+    private final LongAdder forcedTaskCount = new LongAdder();
+
+    /**
+     * The number of tasks that were rejected by {@link #execute(Runnable)}.
+     */
+    private final LongAdder rejectedTaskCount = new LongAdder();
+
     private final AtomicLong lastContextStoppedTime = new AtomicLong(0L);
 
     /**
@@ -1373,7 +1393,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
 
     @Override
     public void execute(Runnable command) {
-        submittedCount.incrementAndGet();
+        if (submittedCount.incrementAndGet() > maximumPoolSize) {
+            saturatedTaskCount.increment();
+        }
         try {
             executeInternal(command);
         } catch (RejectedExecutionException rx) {
@@ -1385,10 +1407,13 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                 final TaskQueue queue = (TaskQueue) getQueue();
                 if (!queue.force(command)) {
                     submittedCount.decrementAndGet();
+                    rejectedTaskCount.increment();
                     throw new RejectedExecutionException(sm.getString("threadPoolExecutor.queueFull"));
                 }
+                forcedTaskCount.increment();
             } else {
                 submittedCount.decrementAndGet();
+                rejectedTaskCount.increment();
                 throw rx;
             }
         }
@@ -2045,6 +2070,41 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     }
 
 
+    /**
+     * Returns the number of tasks that were submitted while all the threads
+     * the pool may create were, or were about to be, busy. These tasks had to
+     * wait in the queue for a thread to become free.
+     *
+     * @return the number of tasks
+     */
+    public long getSaturatedTaskCount() {
+        return saturatedTaskCount.sum();
+    }
+
+
+    /**
+     * Returns the number of tasks that were rejected by the pool but were then
+     * forced onto the {@link TaskQueue}. This happens when tasks are submitted
+     * concurrently while the pool is close to its maximum size.
+     *
+     * @return the number of tasks
+     */
+    public long getForcedTaskCount() {
+        return forcedTaskCount.sum();
+    }
+
+
+    /**
+     * Returns the number of tasks that could not be executed, typically
+     * because the queue was full or the pool was shutting down.
+     *
+     * @return the number of tasks
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.sum();
+    }
+
+
     /**
      * Returns a string identifying this pool, as well as its state,
      * including indications of run state and estimated worker and
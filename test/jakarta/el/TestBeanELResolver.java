@@ -272,6 +272,44 @@ public class TestBeanELResolver {
         resolver.setValue(context, new TesterBean(BEAN_NAME), PROPERTY01_NAME, PROPERTY_VALUE);
     }
 
+    /**
+     * Tests that a value that needs a widening conversion is written.
+     */
+    @Test
+    public void testSetValue08() {
+        BeanELResolver resolver = new BeanELResolver();
+        ELContext context = new StandardELContext(ELManager.getExpressionFactory());
+
+        PrimitiveBean bean = new PrimitiveBean();
+        resolver.setValue(context, bean, "value", Long.valueOf(5));
+        Assert.assertEquals(Long.valueOf(5), resolver.getValue(context, bean, "value"));
+
+        resolver.setValue(context, bean, "value", Integer.valueOf(6));
+        Assert.assertEquals(Long.valueOf(6), resolver.getValue(context, bean, "value"));
+    }
+
+    /**
+     * Tests that an exception is thrown when null is written to a primitive property.
+     */
+    @Test(expected = ELException.class)
+    public void testSetValue09() {
+        BeanELResolver resolver = new BeanELResolver();
+        ELContext context = new StandardELContext(ELManager.getExpressionFactory());
+
+        resolver.setValue(context, new PrimitiveBean(), "value", null);
+    }
+
+    /**
+     * Tests that an exception is thrown when a value of the wrong type is written.
+     */
+    @Test(expected = ELException.class)
+    public void testSetValue10() {
+        BeanELResolver resolver = new BeanELResolver();
+        ELContext context = new StandardELContext(ELManager.getExpressionFactory());
+
+        resolver.setValue(context, new PrimitiveBean(), "value", PROPERTY_VALUE);
+    }
+
     /**
      * Tests that a null context results in an NPE as per EL Javadoc.
      */
@@ -966,6 +1004,19 @@ public class TestBeanELResolver {
     }
 
 
+    public static class PrimitiveBean {
+        private long value;
+
+        public long getValue() {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+
+
     public interface MyInterface {
         default String getValueC() {
             return "Default";
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.core;
+
+import java.io.IOException;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.GenericFilter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.tomcat.util.buf.ByteChunk;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+public class TestFilterMapIndex extends TomcatBaseTest {
+
+    @Test
+    public void testUrlPatterns() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "all", "/*");
+        addFilter(ctx, "exact", "/foo/bar");
+        addFilter(ctx, "prefix", "/foo/*");
+        addFilter(ctx, "nested", "/foo/bar/*");
+        addFilter(ctx, "extension", "*.jsp");
+        addFilter(ctx, "star", "*");
+        getTomcatInstance().start();
+
+        FilterMapIndex index = ctx.getFilterMapIndex();
+        assertFilters(index, "/", "all", "star");
+        assertFilters(index, "/foo", "all", "prefix", "star");
+        assertFilters(index, "/foo/", "all", "prefix", "star");
+        assertFilters(index, "/foobar", "all", "star");
+        assertFilters(index, "/foo/bar", "all", "exact", "prefix", "nested", "star");
+        assertFilters(index, "/foo/bar/a.jsp", "all", "prefix", "nested", "extension", "star");
+        assertFilters(index, "/a.jsp", "all", "extension", "star");
+        assertFilters(index, "/a.jsp/b", "all", "star");
+        assertFilters(index, "/a.", "all", "star");
+        assertFilters(index, "/a.jspx", "all", "star");
+        // Named dispatch
+        assertFilters(index, null, "star");
+    }
+
+
+    @Test
+    public void testServletNamesAndDispatcher() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "byName", null, "default", null);
+        addFilter(ctx, "allNames", null, "*", null);
+        addFilter(ctx, "forward", "/*", null, DispatcherType.FORWARD);
+        addFilter(ctx, "path", "/*");
+        getTomcatInstance().start();
+
+        FilterMapIndex index = ctx.getFilterMapIndex();
+        // Path-mapped filters are first
+        assertFilters(index, "/a", "path", "byName", "allNames");
+        Assert.assertArrayEquals(new String[] { "path", "allNames" },
+                getNames(index.getFilters(DispatcherType.REQUEST, "/a", "other")));
+        Assert.assertArrayEquals(new String[] { "forward" },
+                getNames(index.getFilters(DispatcherType.FORWARD, "/a", null)));
+    }
+
+
+    @Test
+    public void testDuplicateFilter() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "first", "/*");
+        FilterMap second = new FilterMap();
+        second.setFilterName("first");
+        second.addURLPattern("*.txt");
+        second.addServletName("default");
+        ctx.addFilterMap(second);
+        getTomcatInstance().start();
+
+        assertFilters(ctx.getFilterMapIndex(), "/a.txt", "first");
+    }
+
+
+    @Test
+    public void testInvalidation() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "first", "/*");
+        getTomcatInstance().start();
+
+        FilterMapIndex index = ctx.getFilterMapIndex();
+        Assert.assertSame(index, ctx.getFilterMapIndex());
+
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName("first");
+        filterMap.addURLPattern("/a");
+        ctx.addFilterMapBefore(filterMap);
+        Assert.assertNotSame(index, ctx.getFilterMapIndex());
+
+        index = ctx.getFilterMapIndex();
+        ctx.removeFilterMap(filterMap);
+        Assert.assertNotSame(index, ctx.getFilterMapIndex());
+    }
+
+
+    @Test
+    public void testCacheBounded() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "first", "/*");
+        getTomcatInstance().start();
+
+        FilterMapIndex index = ctx.getFilterMapIndex();
+        for (int i = 0; i <= FilterMapIndex.CACHE_MAX_SIZE; i++) {
+            Assert.assertArrayEquals(new String[] { "first" },
+                    getNames(index.getFilters(DispatcherType.REQUEST, "/a", "servlet" + i)));
+        }
+    }
+
+
+    @Test
+    public void testRequests() throws Exception {
+        StandardContext ctx = createContext();
+        addFilter(ctx, "all", "/*");
+        addFilter(ctx, "extension", "*.txt");
+        getTomcatInstance().start();
+
+        ByteChunk bc = new ByteChunk();
+        getUrl("http://localhost:" + getPort() + "/a.txt", bc, null);
+        Assert.assertEquals("all,extension,servlet", bc.toString());
+
+        bc.recycle();
+        getUrl("http://localhost:" + getPort() + "/a.html", bc, null);
+        Assert.assertEquals("all,servlet", bc.toString());
+
+        bc.recycle();
+        getUrl("http://localhost:" + getPort() + "/a.txt", bc, null);
+        Assert.assertEquals("all,extension,servlet", bc.toString());
+    }
+
+
+    private StandardContext createContext() {
+        StandardContext ctx = (StandardContext) getProgrammaticRootContext();
+        Tomcat.addServlet(ctx, "default", new EmptyServlet());
+        ctx.addServletMappingDecoded("/", "default");
+        return ctx;
+    }
+
+
+    private static void addFilter(StandardContext ctx, String name, String urlPattern) {
+        addFilter(ctx, name, urlPattern, null, null);
+    }
+
+
+    private static void addFilter(StandardContext ctx, String name, String urlPattern, String servletName,
+            DispatcherType dispatcher) {
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName(name);
+        filterDef.setFilterClass(NameFilter.class.getName());
+        filterDef.setFilter(new NameFilter());
+        ctx.addFilterDef(filterDef);
+
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName(name);
+        if (urlPattern != null) {
+            filterMap.addURLPattern(urlPattern);
+        }
+        if (servletName != null) {
+            filterMap.addServletName(servletName);
+        }
+        if (dispatcher != null) {
+            filterMap.setDispatcher(dispatcher.name());
+        }
+        ctx.addFilterMap(filterMap);
+    }
+
+
+    private static void assertFilters(FilterMapIndex index, String requestPath, String... expected) {
+        Assert.assertArrayEquals(String.valueOf(requestPath), expected,
+                getNames(index.getFilters(DispatcherType.REQUEST, requestPath, "default")));
+    }
+
+
+    private static String[] getNames(ApplicationFilterConfig[] filterConfigs) {
+        String[] result = new String[filterConfigs.length];
+        for (int i = 0; i < filterConfigs.length; i++) {
+            result[i] = filterConfigs[i].getFilterName();
+        }
+        return result;
+    }
+
+
+    public static class NameFilter extends GenericFilter {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            response.setContentType("text/plain");
+            response.getWriter().print(getFilterName() + ",");
+            chain.doFilter(request, response);
+        }
+    }
+
+
+    public static class EmptyServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            resp.getWriter().print("servlet");
+        }
+    }
+}
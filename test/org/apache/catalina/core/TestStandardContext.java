@@ -20,8 +20,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import jakarta.servlet.FilterChain;
@@ -73,6 +75,7 @@ import org.apache.tomcat.util.buf.ByteChunk;
 import org.apache.tomcat.util.descriptor.web.FilterDef;
 import org.apache.tomcat.util.descriptor.web.FilterMap;
 import org.apache.tomcat.util.descriptor.web.LoginConfig;
+import org.apache.tomcat.util.descriptor.web.SecurityConstraint;
 
 
 public class TestStandardContext extends TomcatBaseTest {
@@ -981,6 +984,30 @@ public class TestStandardContext extends TomcatBaseTest {
                 CoreMatchers.hasItems("a", "b", "c"));
     }
 
+
+    @Test
+    public void testRemoveConstraintsAndSecurityRoles() {
+        Context context = new StandardContext();
+        SecurityConstraint constraint1 = new SecurityConstraint();
+        SecurityConstraint constraint2 = new SecurityConstraint();
+        context.addConstraint(constraint1);
+        context.addConstraint(constraint2);
+        context.addSecurityRole("role1");
+        context.addSecurityRole("role2");
+
+        final List<String> events = new ArrayList<>();
+        context.addContainerListener(event -> events.add(event.getType() + ":" + event.getData()));
+
+        context.removeConstraints();
+        context.removeSecurityRoles();
+
+        Assert.assertEquals(0, context.findConstraints().length);
+        Assert.assertEquals(0, context.findSecurityRoles().length);
+        // Listeners are informed of each removal
+        Assert.assertEquals(Arrays.asList("removeConstraint:" + constraint1, "removeConstraint:" + constraint2,
+                "removeSecurityRole:role1", "removeSecurityRole:role2"), events);
+    }
+
     @Test
     public void testSetPath() {
         testSetPath("", "");
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.core;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.startup.TesterServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+
+/*
+ * This is an absolute performance test. There is no benefit it running it as part of a standard test run so it is
+ * excluded due to the name starting Tester...
+ */
+public class TesterStandardContextStartPerformance extends TomcatBaseTest {
+
+    private static final int SERVLET_COUNT = 2000;
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void testStartLargeContext() throws Exception {
+        File appDir = new File(getTemporaryDirectory(), "large-context");
+        addDeleteOnTearDown(appDir);
+        Assert.assertTrue(new File(appDir, "WEB-INF").mkdirs());
+        Files.write(new File(appDir, "WEB-INF/web.xml").toPath(),
+                createWebXml(SERVLET_COUNT).getBytes(StandardCharsets.UTF_8));
+
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        tomcat.start();
+
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            ctx.reload();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ctx.reload();
+        }
+        long duration = System.nanoTime() - start;
+
+        System.out.println("Reloaded context with " + SERVLET_COUNT + " servlets " + ITERATIONS + " times in " +
+                (duration / 1_000_000) + "ms: " + (duration / 1_000_000 / ITERATIONS) + "ms per reload");
+        System.out.println("Startup timeline of last reload: " + String.join(", ", ctx.getStartupTimeline()));
+    }
+
+
+    private static String createWebXml(int servletCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<web-app xmlns=\"https://jakarta.ee/xml/ns/jakartaee\" version=\"6.0\" ");
+        sb.append("metadata-complete=\"true\">\n");
+        for (int i = 0; i < servletCount; i++) {
+            sb.append("  <servlet>\n");
+            sb.append("    <servlet-name>servlet").append(i).append("</servlet-name>\n");
+            sb.append("    <servlet-class>").append(TesterServlet.class.getName()).append("</servlet-class>\n");
+            sb.append("  </servlet>\n");
+            sb.append("  <servlet-mapping>\n");
+            sb.append("    <servlet-name>servlet").append(i).append("</servlet-name>\n");
+            sb.append("    <url-pattern>/servlet").append(i).append("</url-pattern>\n");
+            sb.append("  </servlet-mapping>\n");
+            sb.append("  <security-constraint>\n");
+            sb.append("    <web-resource-collection>\n");
+            sb.append("      <web-resource-name>resource").append(i).append("</web-resource-name>\n");
+            sb.append("      <url-pattern>/secure").append(i).append("/*</url-pattern>\n");
+            sb.append("    </web-resource-collection>\n");
+            sb.append("    <auth-constraint>\n");
+            sb.append("      <role-name>role").append(i).append("</role-name>\n");
+            sb.append("    </auth-constraint>\n");
+            sb.append("  </security-constraint>\n");
+            sb.append("  <security-role>\n");
+            sb.append("    <role-name>role").append(i).append("</role-name>\n");
+            sb.append("  </security-role>\n");
+            sb.append("  <env-entry>\n");
+            sb.append("    <env-entry-name>entry").append(i).append("</env-entry-name>\n");
+            sb.append("    <env-entry-type>java.lang.String</env-entry-type>\n");
+            sb.append("    <env-entry-value>value").append(i).append("</env-entry-value>\n");
+            sb.append("  </env-entry>\n");
+        }
+        sb.append("</web-app>\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.ha.tcp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.ha.ClusterListener;
+import org.apache.catalina.ha.ClusterMessage;
+import org.apache.catalina.ha.session.DeltaManager;
+import org.apache.catalina.ha.session.DeltaSession;
+import org.apache.catalina.ha.session.SessionMessage;
+import org.apache.tomcat.unittest.TesterContext;
+
+public class TestReplicationValveBatching {
+
+    private ScheduledThreadPoolExecutor executor;
+    private TesterCluster cluster;
+    private DeltaManager manager;
+    private TesterReplicationValve valve;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new ScheduledThreadPoolExecutor(1);
+        cluster = new TesterCluster();
+        manager = new DeltaManager();
+        manager.setName("test");
+        manager.setContext(new TesterContext());
+
+        valve = new TesterReplicationValve(executor);
+        valve.setContainer(new TesterContext());
+        valve.setCluster(cluster);
+        valve.setStatistics(true);
+        // Long enough for the batches to only be sent by the test
+        valve.setBatchInterval(60 * 60 * 1000);
+        valve.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBatchingDisabledByDefault() throws Exception {
+        // Nodes that do not support batches must not receive them
+        valve.stop();
+        valve = new TesterReplicationValve(executor);
+        valve.setContainer(new TesterContext());
+        valve.setCluster(cluster);
+        Assert.assertEquals(0, valve.getBatchInterval());
+        valve.start();
+
+        DeltaSession session = createSession("1", true);
+        session.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertTrue(cluster.messages.get(0) instanceof SessionMessage);
+    }
+
+    @Test
+    public void testCoalesceSameSession() throws Exception {
+        DeltaSession session = createSession("1", true);
+
+        session.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+        session.setAttribute("b", "2", false, true);
+        valve.send(manager, "1");
+
+        Assert.assertEquals(0, cluster.messages.size());
+
+        valve.sendPendingReplications();
+
+        // A single delta carries the changes of both requests
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertEquals(SessionMessage.EVT_SESSION_DELTA,
+                ((SessionMessage) cluster.messages.get(0)).getEventType());
+        Assert.assertFalse(session.isDirty());
+        Assert.assertEquals(1, valve.getNrOfCoalescedRequests());
+        Assert.assertEquals(1, valve.getNrOfBatchedSessions());
+        // A single message is not a batch
+        Assert.assertEquals(0, valve.getNrOfBatchSendRequests());
+    }
+
+    @Test
+    public void testBatchSeveralSessions() throws Exception {
+        DeltaSession session1 = createSession("1", true);
+        DeltaSession session2 = createSession("2", true);
+
+        session1.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+        session2.setAttribute("a", "2", false, true);
+        valve.send(manager, "2");
+
+        Assert.assertEquals(0, cluster.messages.size());
+
+        valve.sendPendingReplications();
+
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertTrue(cluster.messages.get(0) instanceof ClusterMessageBatch);
+        Assert.assertEquals(2, ((ClusterMessageBatch) cluster.messages.get(0)).getMessages().length);
+        Assert.assertEquals(1, valve.getNrOfBatchSendRequests());
+        Assert.assertEquals(2, valve.getNrOfBatchedSessions());
+    }
+
+    @Test
+    public void testFlushOnStop() throws Exception {
+        DeltaSession session = createSession("1", true);
+
+        session.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+        Assert.assertEquals(0, cluster.messages.size());
+
+        valve.stop();
+
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertFalse(session.isDirty());
+    }
+
+    @Test
+    public void testPrimaryChangeNotBatched() throws Exception {
+        // The session is not primary on this node, e.g. after a failover
+        DeltaSession session = createSession("1", false);
+
+        session.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+
+        // Sent at the end of the request
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertEquals(SessionMessage.EVT_SESSION_DELTA,
+                ((SessionMessage) cluster.messages.get(0)).getEventType());
+        Assert.assertTrue(session.isPrimarySession());
+        Assert.assertEquals(0, valve.getNrOfBatchedSessions());
+    }
+
+    @Test
+    public void testAccessNotBatched() throws Exception {
+        DeltaSession session = createSession("1", false);
+
+        // No changes so an access message is sent to change the primary node
+        valve.send(manager, "1");
+
+        Assert.assertEquals(1, cluster.messages.size());
+        Assert.assertEquals(SessionMessage.EVT_SESSION_ACCESSED,
+                ((SessionMessage) cluster.messages.get(0)).getEventType());
+        Assert.assertTrue(session.isPrimarySession());
+    }
+
+    @Test
+    public void testPendingChangesSentWithUnbatchedMessage() throws Exception {
+        DeltaSession session = createSession("1", true);
+
+        session.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+        Assert.assertEquals(0, cluster.messages.size());
+
+        // Another node took over the session and this node took it back
+        session.setPrimarySession(false);
+        session.setAttribute("b", "2", false, true);
+        valve.send(manager, "1");
+        Assert.assertEquals(1, cluster.messages.size());
+
+        // Nothing is left for the next batch
+        valve.sendPendingReplications();
+        Assert.assertEquals(1, cluster.messages.size());
+    }
+
+    @Test
+    public void testReceiveBatch() throws Exception {
+        DeltaSession session1 = createSession("1", true);
+        DeltaSession session2 = createSession("2", true);
+        session1.setAttribute("a", "1", false, true);
+        valve.send(manager, "1");
+        session2.setAttribute("a", "2", false, true);
+        valve.send(manager, "2");
+        valve.sendPendingReplications();
+
+        final List<ClusterMessage> received = new ArrayList<>();
+        SimpleTcpCluster receiver = new SimpleTcpCluster();
+        receiver.addClusterListener(new ClusterListener() {
+            @Override
+            public void messageReceived(ClusterMessage msg) {
+                received.add(msg);
+            }
+
+            @Override
+            public boolean accept(ClusterMessage msg) {
+                return true;
+            }
+        });
+        receiver.messageReceived(cluster.messages.get(0));
+
+        // The listeners see the messages carried by the batch
+        Assert.assertEquals(2, received.size());
+        Assert.assertTrue(received.get(0) instanceof SessionMessage);
+        Assert.assertTrue(received.get(1) instanceof SessionMessage);
+    }
+
+
+    private DeltaSession createSession(String id, boolean primary) {
+        DeltaSession session = new DeltaSession(manager);
+        session.setValid(true);
+        session.setId(id, false);
+        session.setPrimarySession(primary);
+        return session;
+    }
+
+
+    private static class TesterReplicationValve extends ReplicationValve {
+
+        private final ScheduledExecutorService executor;
+
+        TesterReplicationValve(ScheduledExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        protected ScheduledExecutorService getUtilityExecutor() {
+            return executor;
+        }
+    }
+
+
+    private static class TesterCluster extends SimpleTcpCluster {
+
+        private final List<ClusterMessage> messages = new ArrayList<>();
+
+        @Override
+        public void send(ClusterMessage msg) {
+            messages.add(msg);
+        }
+    }
+}
@@ -17,6 +17,9 @@
 package org.apache.catalina.manager;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -27,6 +30,7 @@ import org.apache.catalina.Wrapper;
 import org.apache.catalina.startup.SimpleHttpClient;
 import org.apache.catalina.startup.Tomcat;
 import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.tomcat.util.buf.ByteChunk;
 import org.apache.tomcat.util.json.JSONParser;
 
 public class TestStatusTransformer extends TomcatBaseTest {
@@ -78,4 +82,45 @@ public class TestStatusTransformer extends TomcatBaseTest {
         Assert.assertTrue(result.contains("name=localhost/"));
     }
 
+
+    @Test
+    public void testPrometheus() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File("test/webapp");
+        Context ctxt = tomcat.addContext("", appDir.getAbsolutePath());
+        ctxt.setPrivileged(true);
+        Tomcat.addServlet(ctxt, "default", "org.apache.catalina.servlets.DefaultServlet");
+        ctxt.addServletMappingDecoded("/", "default");
+        Tomcat.addServlet(ctxt, "status", "org.apache.catalina.manager.StatusManagerServlet");
+        ctxt.addServletMappingDecoded("/status/*", "status");
+        ctxt.addMimeMapping("html", "text/html");
+        tomcat.start();
+
+        ByteChunk out = new ByteChunk();
+        Assert.assertEquals(200, getUrl("http://localhost:" + getPort() + "/index.html", out, null));
+        Assert.assertEquals(404, getUrl("http://localhost:" + getPort() + "/missing.html", out, null));
+
+        out.recycle();
+        Map<String,List<String>> headers = new HashMap<>();
+        int rc = getUrl("http://localhost:" + getPort() + "/status?PROMETHEUS=true", out, headers);
+        Assert.assertEquals(200, rc);
+        Assert.assertTrue(getSingleHeader("Content-Type", headers).startsWith("text/plain;version=0.0.4"));
+
+        String metrics = out.toString();
+        Assert.assertTrue(metrics, metrics.contains("# TYPE tomcat_connector_request_duration_seconds histogram"));
+        Assert.assertTrue(metrics, metrics.contains("tomcat_servlet_request_duration_seconds_count{" +
+                "host=\"localhost\",context=\"/\",servlet=\"default\"} 2"));
+        Assert.assertTrue(metrics, metrics.contains("tomcat_context_request_duration_seconds_bucket{" +
+                "host=\"localhost\",context=\"/\",le=\"+Inf\"} 2"));
+        // The status request itself has not completed when the metrics are written
+        Assert.assertTrue(metrics, metrics.matches("(?s).*tomcat_connector_request_duration_seconds_count\\{" +
+                "connector=\"http-[^\"]+\",status=\"2xx\"\\} 1\n.*"));
+        Assert.assertTrue(metrics, metrics.matches("(?s).*tomcat_connector_request_duration_seconds_count\\{" +
+                "connector=\"http-[^\"]+\",status=\"4xx\"\\} 1\n.*"));
+        // Processing for each request was dispatched to a connector thread
+        Assert.assertTrue(metrics, metrics.matches("(?s).*tomcat_threadpool_queue_duration_seconds_count\\{" +
+                "name=\"http-[^\"]+\"\\} [1-9]\\d*\n.*"));
+    }
+
 }
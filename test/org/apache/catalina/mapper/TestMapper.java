@@ -546,4 +546,62 @@ public class TestMapper extends LoggingBaseTest {
 
         Assert.assertEquals("a4", mappingData.host.getName());
     }
+
+
+    @Test
+    public void testMapManyContexts() throws Exception {
+        final int contextCount = 1000;
+        Mapper mapper = new Mapper();
+        Host host = createHost("many");
+        mapper.addHost("localhost", new String[0], host);
+        mapper.setDefaultHostName("localhost");
+
+        Wrapper defaultWrapper = createWrapper("default");
+        Wrapper prefixWrapper = createWrapper("prefix");
+        Wrapper exactWrapper = createWrapper("exact");
+        for (int i = 0; i < contextCount; i++) {
+            mapper.addContextVersion("localhost", host, "/tenant" + i + "/app", "0", createContext("context" + i),
+                    new String[0], null,
+                    Arrays.asList(new WrapperMappingInfo("/", defaultWrapper, false, false),
+                            new WrapperMappingInfo("/api/*", prefixWrapper, false, false),
+                            new WrapperMappingInfo("/status", exactWrapper, false, false)));
+        }
+
+        MessageBytes hostMB = MessageBytes.newInstance();
+        hostMB.setString("localhost");
+        MappingData mappingData = new MappingData();
+        for (int i = 0; i < contextCount; i += 111) {
+            mappingData.recycle();
+            mapper.map(hostMB, uri("/tenant" + i + "/app/api/v1/items/" + i), null, mappingData);
+            Assert.assertEquals("context" + i, mappingData.context.getName());
+            Assert.assertEquals(2, mappingData.contextSlashCount);
+            Assert.assertSame(prefixWrapper, mappingData.wrapper);
+            Assert.assertEquals("/api", mappingData.wrapperPath.toString());
+            Assert.assertEquals("/v1/items/" + i, mappingData.pathInfo.toString());
+
+            mappingData.recycle();
+            mapper.map(hostMB, uri("/tenant" + i + "/app/status"), null, mappingData);
+            Assert.assertEquals("context" + i, mappingData.context.getName());
+            Assert.assertSame(exactWrapper, mappingData.wrapper);
+
+            mappingData.recycle();
+            mapper.map(hostMB, uri("/tenant" + i + "/app/other"), null, mappingData);
+            Assert.assertEquals("context" + i, mappingData.context.getName());
+            Assert.assertSame(defaultWrapper, mappingData.wrapper);
+        }
+
+        // A context path must end at a '/'
+        mappingData.recycle();
+        mapper.map(hostMB, uri("/tenant1/application"), null, mappingData);
+        Assert.assertNull(mappingData.context);
+    }
+
+
+    private static MessageBytes uri(String uri) {
+        MessageBytes uriMB = MessageBytes.newInstance();
+        uriMB.setString(uri);
+        uriMB.toChars();
+        uriMB.getCharChunk().setLimit(-1);
+        return uriMB;
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.catalina.mapper;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.tomcat.util.buf.CharChunk;
+
+public class TestPathTrie {
+
+    @Test
+    public void testGet() {
+        PathTrie<String> trie = PathTrie.empty();
+        trie = trie.put("/foo", "/foo");
+        trie = trie.put("/foo/bar", "/foo/bar");
+        trie = trie.put("/fob", "/fob");
+
+        Assert.assertEquals("/foo", trie.get(chunk("/foo")));
+        Assert.assertEquals("/foo/bar", trie.get(chunk("/foo/bar")));
+        Assert.assertEquals("/fob", trie.get(chunk("/fob")));
+        Assert.assertNull(trie.get(chunk("/fo")));
+        Assert.assertNull(trie.get(chunk("/foo/")));
+        Assert.assertNull(trie.get(chunk("")));
+        Assert.assertNull(trie.get(chunk("/Foo")));
+    }
+
+
+    @Test
+    public void testLongestPrefix() {
+        PathTrie<String> trie = PathTrie.empty();
+        Assert.assertNull(trie.getLongestPrefix(chunk("/foo")));
+
+        trie = trie.put("/foo", "/foo");
+        trie = trie.put("/foo/bar", "/foo/bar");
+
+        Assert.assertEquals("/foo", trie.getLongestPrefix(chunk("/foo")));
+        Assert.assertEquals("/foo", trie.getLongestPrefix(chunk("/foo/")));
+        Assert.assertEquals("/foo", trie.getLongestPrefix(chunk("/foo/ba")));
+        Assert.assertEquals("/foo", trie.getLongestPrefix(chunk("/foo/barx")));
+        Assert.assertEquals("/foo/bar", trie.getLongestPrefix(chunk("/foo/bar")));
+        Assert.assertEquals("/foo/bar", trie.getLongestPrefix(chunk("/foo/bar/x")));
+        Assert.assertNull(trie.getLongestPrefix(chunk("/foox")));
+        Assert.assertNull(trie.getLongestPrefix(chunk("/")));
+
+        trie = trie.put("", "");
+        Assert.assertEquals("", trie.getLongestPrefix(chunk("/foox")));
+        Assert.assertEquals("", trie.getLongestPrefix(chunk("")));
+        Assert.assertNull(trie.getLongestPrefix(chunk("foo")));
+    }
+
+
+    @Test
+    public void testRemove() {
+        PathTrie<String> empty = PathTrie.empty();
+        PathTrie<String> trie = empty.put("/foo", "/foo").put("/foo/bar", "/foo/bar").put("/fob", "/fob");
+
+        Assert.assertSame(trie, trie.remove("/fo"));
+        Assert.assertSame(trie, trie.remove("/foo/b"));
+        Assert.assertSame(trie, trie.remove("/foo/bar/x"));
+
+        PathTrie<String> trie2 = trie.remove("/foo");
+        Assert.assertNull(trie2.get(chunk("/foo")));
+        Assert.assertEquals("/foo/bar", trie2.get(chunk("/foo/bar")));
+        Assert.assertEquals("/fob", trie2.get(chunk("/fob")));
+        Assert.assertNull(trie2.getLongestPrefix(chunk("/foo/x")));
+
+        // The original is unchanged
+        Assert.assertEquals("/foo", trie.get(chunk("/foo")));
+
+        trie2 = trie2.remove("/foo/bar").remove("/fob");
+        Assert.assertNull(trie2.getLongestPrefix(chunk("/foo/bar")));
+        Assert.assertNull(trie2.get(chunk("/fob")));
+
+        trie2 = empty.put("", "").put("/a", "/a").remove("");
+        Assert.assertEquals("/a", trie2.get(chunk("/a")));
+        Assert.assertNull(trie2.getLongestPrefix(chunk("/b")));
+    }
+
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        String[] segments = { "a", "ab", "b", "ba", "abc" };
+        Set<String> paths = new HashSet<>();
+        PathTrie<String> trie = PathTrie.empty();
+
+        for (int i = 0; i < 2000; i++) {
+            String path = randomPath(random, segments);
+            if (random.nextInt(3) == 0) {
+                paths.remove(path);
+                trie = trie.remove(path);
+            } else {
+                paths.add(path);
+                trie = trie.put(path, path);
+            }
+
+            String test = randomPath(random, segments);
+            Assert.assertEquals(paths.contains(test) ? test : null, trie.get(chunk(test)));
+            Assert.assertEquals(test, longestPrefix(paths, test), trie.getLongestPrefix(chunk(test)));
+        }
+    }
+
+
+    private static String randomPath(Random random, String[] segments) {
+        StringBuilder sb = new StringBuilder();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            sb.append('/');
+            sb.append(segments[random.nextInt(segments.length)]);
+        }
+        if (random.nextInt(5) == 0) {
+            sb.append('/');
+        }
+        return sb.toString();
+    }
+
+
+    private static String longestPrefix(Set<String> paths, String path) {
+        String result = null;
+        for (String candidate : paths) {
+            if (path.startsWith(candidate) &&
+                    (path.length() == candidate.length() || path.charAt(candidate.length()) == '/')) {
+                if (result == null || candidate.length() > result.length()) {
+                    result = candidate;
+                }
+            }
+        }
+        return result;
+    }
+
+
+    private static CharChunk chunk(String s) {
+        CharChunk result = new CharChunk();
+        // Offset the start to check that the start of the chunk is respected
+        char[] buf = ("xx" + s + "yy").toCharArray();
+        result.setChars(buf, 2, s.length());
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.catalina.mapper;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Host;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.core.StandardHost;
+import org.apache.catalina.core.StandardWrapper;
+import org.apache.tomcat.util.buf.MessageBytes;
+
+/*
+ * This is an absolute performance test. There is no benefit it running it as part of a standard test run so it is
+ * excluded due to the name starting Tester...
+ */
+public class TesterMapperPerformance {
+
+    @Test
+    public void testPerformanceManyContexts() throws Exception {
+        final int contextCount = 10000;
+        Mapper mapper = new Mapper();
+        Host host = new StandardHost();
+        host.setName("localhost");
+        mapper.addHost("localhost", new String[0], host);
+        mapper.setDefaultHostName("localhost");
+
+        StandardWrapper defaultWrapper = new StandardWrapper();
+        StandardWrapper prefixWrapper = new StandardWrapper();
+        StandardWrapper exactWrapper = new StandardWrapper();
+        for (int i = 0; i < contextCount; i++) {
+            Context context = new StandardContext();
+            context.setName("context" + i);
+            mapper.addContextVersion("localhost", host, "/tenant" + i + "/app", "0", context, new String[0], null,
+                    Arrays.asList(new WrapperMappingInfo("/", defaultWrapper, false, false),
+                            new WrapperMappingInfo("/api/*", prefixWrapper, false, false),
+                            new WrapperMappingInfo("/status", exactWrapper, false, false)));
+        }
+
+        MessageBytes hostMB = MessageBytes.newInstance();
+        hostMB.setString("localhost");
+        MessageBytes[] uris = new MessageBytes[contextCount];
+        for (int i = 0; i < contextCount; i++) {
+            uris[i] = MessageBytes.newInstance();
+            uris[i].setString("/tenant" + i + "/app/api/v1/items/" + i);
+            uris[i].toChars();
+            uris[i].getCharChunk().setLimit(-1);
+        }
+
+        // Warm up
+        doTestPerformanceManyContexts(mapper, hostMB, uris);
+
+        long time = doTestPerformanceManyContexts(mapper, hostMB, uris);
+        System.out.println("Contexts [" + contextCount + "], Time [" + time + "]ms");
+    }
+
+
+    private long doTestPerformanceManyContexts(Mapper mapper, MessageBytes host, MessageBytes[] uris)
+            throws Exception {
+        MappingData mappingData = new MappingData();
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000000; i++) {
+            mappingData.recycle();
+            mapper.map(host, uris[i % uris.length], null, mappingData);
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import jakarta.servlet.ServletContainerInitializer;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.annotation.HandlesTypes;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.core.StandardContext;
+import org.apache.tomcat.util.bcel.classfile.ClassFormatException;
+import org.apache.tomcat.util.buf.ByteChunk;
+import org.apache.tomcat.util.descriptor.web.WebXml;
+
+public class TestAnnotationScanCache extends TomcatBaseTest {
+
+    private static final long OLD_TIME = 1_000_000_000_000L;
+
+    @Test
+    public void testCacheUsedOnRestart() throws Exception {
+        File appDir = createWebapp(false);
+        StandardContext ctx = start(appDir);
+        File cacheFile = getCacheFile(ctx);
+
+        assertConfigured();
+        Assert.assertTrue(cacheFile.isFile());
+
+        // If the JAR is found in the cache the cache file is not written again
+        Assert.assertTrue(cacheFile.setLastModified(OLD_TIME));
+        ctx.reload();
+
+        assertConfigured();
+        Assert.assertEquals(OLD_TIME, cacheFile.lastModified());
+    }
+
+
+    @Test
+    public void testChangedJar() throws Exception {
+        File appDir = createWebapp(false);
+        StandardContext ctx = start(appDir);
+        File cacheFile = getCacheFile(ctx);
+        Assert.assertTrue(cacheFile.setLastModified(OLD_TIME));
+
+        // Adding a class changes the length of the JAR
+        createJar(appDir, true);
+        ctx.reload();
+
+        assertConfigured();
+        Assert.assertTrue(ScanSCI.found.contains(ScanTargetImpl2.class.getName()));
+        Assert.assertNotEquals(OLD_TIME, cacheFile.lastModified());
+    }
+
+
+    @Test
+    public void testInvalidCacheFile() throws Exception {
+        File appDir = createWebapp(false);
+        StandardContext ctx = start(appDir);
+        File cacheFile = getCacheFile(ctx);
+
+        Files.write(cacheFile.toPath(), "invalid".getBytes(StandardCharsets.ISO_8859_1));
+        long invalidLength = cacheFile.length();
+        ctx.reload();
+
+        assertConfigured();
+        Assert.assertNotEquals(invalidLength, cacheFile.length());
+    }
+
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        File appDir = createWebapp(false);
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        tomcat.start();
+
+        assertConfigured();
+        Assert.assertFalse(getCacheFile(ctx).exists());
+    }
+
+
+    @Test
+    public void testProcessAnnotationsStreamOverridden() throws Exception {
+        File appDir = createWebapp(false);
+        Tomcat tomcat = getTomcatInstance();
+        CountingContextConfig config = new CountingContextConfig();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp(null, "", appDir.getAbsolutePath(), config);
+        ctx.setUseAnnotationScanCache(true);
+        tomcat.start();
+
+        assertConfigured();
+        Assert.assertFalse(getCacheFile(ctx).exists());
+        int count = config.count.get();
+        Assert.assertTrue(count > 0);
+
+        // The JAR must be scanned again via the overridden method
+        ctx.reload();
+
+        assertConfigured();
+        Assert.assertEquals(2 * count, config.count.get());
+    }
+
+
+    private StandardContext start(File appDir) throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        ctx.setUseAnnotationScanCache(true);
+        tomcat.start();
+        return ctx;
+    }
+
+
+    private void assertConfigured() throws IOException {
+        ByteChunk bc = new ByteChunk();
+        int rc = getUrl("http://localhost:" + getPort() + "/scanned", bc, null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+        Assert.assertEquals("OK", bc.toString());
+
+        Assert.assertNotNull(ScanSCI.found);
+        Assert.assertTrue(ScanSCI.found.contains(ScanTargetImpl.class.getName()));
+        Assert.assertFalse(ScanSCI.found.contains(ScannedServlet.class.getName()));
+    }
+
+
+    private static File getCacheFile(StandardContext ctx) {
+        File workDir = (File) ctx.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        return new File(workDir, AnnotationScanCache.FILE_NAME);
+    }
+
+
+    private File createWebapp(boolean extraClass) throws IOException {
+        File appDir = new File(getTemporaryDirectory(), "scan-cache");
+        addDeleteOnTearDown(appDir);
+        Assert.assertTrue(new File(appDir, "WEB-INF/lib").mkdirs());
+        createJar(appDir, extraClass);
+        return appDir;
+    }
+
+
+    private static void createJar(File appDir, boolean extraClass) throws IOException {
+        File jar = new File(appDir, "WEB-INF/lib/scan.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            addClass(out, ScannedServlet.class);
+            addClass(out, ScanTargetImpl.class);
+            if (extraClass) {
+                addClass(out, ScanTargetImpl2.class);
+            }
+            out.putNextEntry(new JarEntry("META-INF/services/" + ServletContainerInitializer.class.getName()));
+            out.write(ScanSCI.class.getName().getBytes(StandardCharsets.ISO_8859_1));
+            out.closeEntry();
+        }
+    }
+
+
+    private static void addClass(JarOutputStream out, Class<?> clazz) throws IOException {
+        String name = clazz.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(name));
+        try (InputStream is = clazz.getClassLoader().getResourceAsStream(name)) {
+            copy(is, out);
+        }
+        out.closeEntry();
+    }
+
+
+    private static void copy(InputStream is, OutputStream os) throws IOException {
+        byte[] buf = new byte[4096];
+        int read;
+        while ((read = is.read(buf)) > 0) {
+            os.write(buf, 0, read);
+        }
+    }
+
+
+    private static class CountingContextConfig extends ContextConfig {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        protected void processAnnotationsStream(InputStream is, WebXml fragment, boolean handlesTypesOnly,
+                Map<String,JavaClassCacheEntry> javaClassCache) throws ClassFormatException, IOException {
+            count.incrementAndGet();
+            super.processAnnotationsStream(is, fragment, handlesTypesOnly, javaClassCache);
+        }
+    }
+
+
+    public interface ScanTarget {
+    }
+
+
+    public static class ScanTargetImpl implements ScanTarget {
+    }
+
+
+    public static class ScanTargetImpl2 implements ScanTarget {
+    }
+
+
+    @WebServlet("/scanned")
+    public static class ScannedServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            resp.setContentType("text/plain");
+            resp.getWriter().print("OK");
+        }
+    }
+
+
+    @HandlesTypes(ScanTarget.class)
+    public static class ScanSCI implements ServletContainerInitializer {
+
+        static volatile Set<String> found;
+
+        @Override
+        public void onStartup(Set<Class<?>> c, ServletContext ctx) {
+            Set<String> names = new HashSet<>();
+            if (c != null) {
+                for (Class<?> clazz : c) {
+                    names.add(clazz.getName());
+                }
+            }
+            found = names;
+        }
+    }
+}
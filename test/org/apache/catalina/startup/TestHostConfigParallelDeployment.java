@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.startup;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Host;
+import org.apache.catalina.LifecycleState;
+import org.apache.catalina.core.StandardContext;
+
+/**
+ * Checks that deploying descriptors, WARs and directories concurrently
+ * retains the precedence of descriptors over WARs over directories.
+ */
+public class TestHostConfigParallelDeployment extends TomcatBaseTest {
+
+    private static final int APP_COUNT = 6;
+
+    @Test
+    public void testParallelDeployment() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        tomcat.getEngine().setBackgroundProcessorDelay(-1);
+        Host host = tomcat.getHost();
+        host.addLifecycleListener(new HostConfig());
+        host.setStartStopThreads(4);
+        addDeleteOnTearDown(new File(tomcat.basedir, "/conf"));
+
+        File appBase = host.getAppBaseFile();
+        Assert.assertTrue(appBase.isDirectory() || appBase.mkdirs());
+        for (int i = 0; i < APP_COUNT; i++) {
+            recursiveCopy(new File("test/deployment/dirNoContext").toPath(), new File(appBase, "dir" + i).toPath());
+            Files.copy(new File("test/deployment/noContext.war").toPath(),
+                    new File(appBase, "war" + i + ".war").toPath());
+        }
+
+        // A descriptor takes precedence over a directory with the same name
+        File configBase = host.getConfigBaseFile();
+        Assert.assertTrue(configBase.isDirectory() || configBase.mkdirs());
+        Files.copy(new File("test/deployment/context.xml").toPath(), new File(configBase, "dir0.xml").toPath());
+
+        tomcat.start();
+
+        Container[] children = host.findChildren();
+        Assert.assertEquals(APP_COUNT * 2, children.length);
+        for (Container child : children) {
+            Assert.assertEquals(child.getName(), LifecycleState.STARTED, child.getState());
+        }
+
+        StandardContext ctx = (StandardContext) host.findChild("/dir0");
+        Assert.assertEquals("XML_CONTEXT", ctx.getSessionCookieName());
+        ctx = (StandardContext) host.findChild("/dir1");
+        Assert.assertNull(ctx.getSessionCookieName());
+
+        String[] timeline = ctx.getStartupTimeline();
+        Assert.assertTrue(timeline.length > 0);
+        Assert.assertTrue(timeline[0], timeline[0].startsWith("resources="));
+        boolean configure = false;
+        for (String phase : timeline) {
+            if (phase.startsWith("configure=")) {
+                configure = true;
+            }
+        }
+        Assert.assertTrue(configure);
+    }
+}
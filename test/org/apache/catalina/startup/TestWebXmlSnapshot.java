@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import jakarta.servlet.ServletContainerInitializer;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.TestAnnotationScanCache.ScanSCI;
+import org.apache.catalina.startup.TestAnnotationScanCache.ScanTargetImpl;
+import org.apache.catalina.startup.TestAnnotationScanCache.ScannedServlet;
+import org.apache.tomcat.util.buf.ByteChunk;
+import org.apache.tomcat.util.descriptor.web.WebXml;
+import org.apache.tomcat.util.scan.StandardJarScanFilter;
+
+public class TestWebXmlSnapshot extends TomcatBaseTest {
+
+    private static final long OLD_TIME = 1_000_000_000_000L;
+
+    private static final String WEB_XML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<web-app xmlns=\"https://jakarta.ee/xml/ns/jakartaee\"\n" +
+            "         xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n" +
+            "         xsi:schemaLocation=\"https://jakarta.ee/xml/ns/jakartaee\n" +
+            "                      https://jakarta.ee/xml/ns/jakartaee/web-app_6_0.xsd\"\n" +
+            "         version=\"6.0\">\n" +
+            "  <context-param>\n" +
+            "    <param-name>snapshot</param-name>\n" +
+            "    <param-value>{0}</param-value>\n" +
+            "  </context-param>\n" +
+            "  <absolute-ordering>\n" +
+            "    <others/>\n" +
+            "  </absolute-ordering>\n" +
+            "</web-app>\n";
+
+    @Test
+    public void testSnapshotUsedOnRestart() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir);
+        File snapshotFile = getSnapshotFile(ctx);
+
+        assertConfigured(ctx, "first");
+        Assert.assertTrue(snapshotFile.isFile());
+        String snapshot = new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(snapshot, snapshot.contains(ScannedServlet.class.getName()));
+        Assert.assertTrue(snapshot, snapshot.contains("<others/>"));
+
+        // If the snapshot is used it is not written again
+        Assert.assertTrue(snapshotFile.setLastModified(OLD_TIME));
+        ctx.reload();
+
+        assertConfigured(ctx, "first");
+        Assert.assertEquals(OLD_TIME, snapshotFile.lastModified());
+        // Annotations other than those merged into the snapshot still apply
+        Assert.assertFalse(ctx.getIgnoreAnnotations());
+    }
+
+
+    @Test
+    public void testChangedWebXml() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir);
+        File snapshotFile = getSnapshotFile(ctx);
+        Assert.assertTrue(snapshotFile.setLastModified(OLD_TIME));
+
+        File webXml = new File(appDir, "WEB-INF/web.xml");
+        writeWebXml(appDir, "second");
+        Assert.assertTrue(webXml.setLastModified(webXml.lastModified() + 2000));
+        ctx.reload();
+
+        assertConfigured(ctx, "second");
+        Assert.assertNotEquals(OLD_TIME, snapshotFile.lastModified());
+    }
+
+
+    @Test
+    public void testChangedFragments() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir);
+        File snapshotFile = getSnapshotFile(ctx);
+        File workDir = snapshotFile.getParentFile();
+
+        // Simulate a change to a JAR provided by the container
+        String fingerprint = WebXmlSnapshot.createFingerprint(ctx);
+        WebXmlSnapshot snapshot = WebXmlSnapshot.load(workDir, fingerprint);
+        Assert.assertNotNull(snapshot);
+        WebXmlSnapshot.save(workDir, fingerprint, "changed", snapshot.getWebXml());
+        Assert.assertTrue(snapshotFile.setLastModified(OLD_TIME));
+        ctx.reload();
+
+        assertConfigured(ctx, "first");
+        Assert.assertNotEquals(OLD_TIME, snapshotFile.lastModified());
+        snapshot = WebXmlSnapshot.load(workDir, fingerprint);
+        Assert.assertNotNull(snapshot);
+        Assert.assertNotEquals("changed", snapshot.getFragmentsFingerprint());
+    }
+
+
+    @Test
+    public void testFragmentsFingerprint() throws Exception {
+        File jar = new File(getTemporaryDirectory(), "container.jar");
+        addDeleteOnTearDown(jar);
+        Files.write(jar.toPath(), new byte[10]);
+
+        WebXml fragment = new WebXml();
+        fragment.setName("container");
+        fragment.setURL(jar.toURI().toURL());
+        fragment.setWebappJar(false);
+        Map<String,WebXml> fragments = new HashMap<>();
+        fragments.put(fragment.getName(), fragment);
+
+        String fingerprint = WebXmlSnapshot.createFragmentsFingerprint(fragments);
+        Assert.assertEquals(fingerprint, WebXmlSnapshot.createFragmentsFingerprint(fragments));
+
+        Files.write(jar.toPath(), new byte[20]);
+        Assert.assertNotEquals(fingerprint, WebXmlSnapshot.createFragmentsFingerprint(fragments));
+    }
+
+
+    @Test
+    public void testChangedJarScanFilter() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir);
+        File snapshotFile = getSnapshotFile(ctx);
+        Assert.assertTrue(snapshotFile.setLastModified(OLD_TIME));
+
+        ((StandardJarScanFilter) ctx.getJarScanner().getJarScanFilter()).setPluggabilitySkip("other.jar");
+        ctx.reload();
+
+        assertConfigured(ctx, "first");
+        Assert.assertNotEquals(OLD_TIME, snapshotFile.lastModified());
+    }
+
+
+    @Test
+    public void testInvalidSnapshotFile() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir);
+        File snapshotFile = getSnapshotFile(ctx);
+
+        Files.write(snapshotFile.toPath(), "invalid".getBytes(StandardCharsets.ISO_8859_1));
+        long invalidLength = snapshotFile.length();
+        ctx.reload();
+
+        assertConfigured(ctx, "first");
+        Assert.assertNotEquals(invalidLength, snapshotFile.length());
+    }
+
+
+    @Test
+    public void testSnapshotDisabled() throws Exception {
+        File appDir = createWebapp();
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        tomcat.start();
+
+        assertConfigured(ctx, "first");
+        Assert.assertFalse(getSnapshotFile(ctx).exists());
+    }
+
+
+    private StandardContext start(File appDir) throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        ctx.setUseWebXmlSnapshot(true);
+        tomcat.start();
+        return ctx;
+    }
+
+
+    private void assertConfigured(StandardContext ctx, String paramValue) throws IOException {
+        ByteChunk bc = new ByteChunk();
+        int rc = getUrl("http://localhost:" + getPort() + "/scanned", bc, null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+        Assert.assertEquals("OK", bc.toString());
+
+        Assert.assertEquals(paramValue, ctx.getServletContext().getInitParameter("snapshot"));
+        Assert.assertNotNull(ScanSCI.found);
+        Assert.assertTrue(ScanSCI.found.contains(ScanTargetImpl.class.getName()));
+        // Defaults are applied after the snapshot
+        Assert.assertNotNull(ctx.findChild("default"));
+    }
+
+
+    private static File getSnapshotFile(StandardContext ctx) {
+        File workDir = (File) ctx.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        return new File(workDir, WebXmlSnapshot.FILE_NAME);
+    }
+
+
+    private File createWebapp() throws IOException {
+        File appDir = new File(getTemporaryDirectory(), "web-xml-snapshot");
+        addDeleteOnTearDown(appDir);
+        Assert.assertTrue(new File(appDir, "WEB-INF/lib").mkdirs());
+        writeWebXml(appDir, "first");
+
+        File jar = new File(appDir, "WEB-INF/lib/snapshot.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            addClass(out, ScannedServlet.class);
+            addClass(out, ScanTargetImpl.class);
+            out.putNextEntry(new JarEntry("META-INF/services/" + ServletContainerInitializer.class.getName()));
+            out.write(ScanSCI.class.getName().getBytes(StandardCharsets.ISO_8859_1));
+            out.closeEntry();
+        }
+        return appDir;
+    }
+
+
+    private static void writeWebXml(File appDir, String paramValue) throws IOException {
+        Files.write(new File(appDir, "WEB-INF/web.xml").toPath(),
+                WEB_XML.replace("{0}", paramValue).getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static void addClass(JarOutputStream out, Class<?> clazz) throws IOException {
+        String name = clazz.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(name));
+        try (InputStream is = clazz.getClassLoader().getResourceAsStream(name)) {
+            is.transferTo(out);
+        }
+        out.closeEntry();
+    }
+}
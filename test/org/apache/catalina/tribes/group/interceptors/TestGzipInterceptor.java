@@ -28,6 +28,8 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 
+import org.apache.catalina.tribes.io.DirectByteArrayOutputStream;
+
 @RunWith(Parameterized.class)
 public class TestGzipInterceptor {
 
@@ -55,4 +57,33 @@ public class TestGzipInterceptor {
         byte[] result = GzipInterceptor.decompress(compress);
         Assert.assertTrue(Arrays.equals(data, result));
     }
+
+    @Test
+    public void testCompressDecompressDeflate() throws Exception {
+        doTestCompressDecompress(GzipInterceptor.CODEC_DEFLATE, null);
+    }
+
+    @Test
+    public void testCompressDecompressDeflateDictionary() throws Exception {
+        byte[] dictionary = new byte[256];
+        Arrays.fill(dictionary, (byte)1);
+        doTestCompressDecompress(GzipInterceptor.CODEC_DEFLATE, dictionary);
+    }
+
+    @Test
+    public void testCompressDecompressGzipLevel() throws Exception {
+        doTestCompressDecompress(GzipInterceptor.CODEC_GZIP, null);
+    }
+
+    private void doTestCompressDecompress(String codec, byte[] dictionary) throws Exception {
+        GzipInterceptor interceptor = new GzipInterceptor();
+        interceptor.setCodec(codec);
+        interceptor.setCompressionLevel(1);
+        interceptor.setDictionary(dictionary);
+        byte[] data = new byte[bufferSize];
+        Arrays.fill(data, (byte)1);
+        DirectByteArrayOutputStream compress = interceptor.compress(data, 0, data.length);
+        DirectByteArrayOutputStream result = interceptor.decompress(compress.getArrayDirect(), 0, compress.size());
+        Assert.assertArrayEquals(data, result.getArray());
+    }
 }
@@ -22,6 +22,8 @@ import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import org.junit.Assert;
 import org.junit.Test;
 
+import org.apache.catalina.tribes.membership.MemberImpl;
+
 public class TestXByteBuffer {
 
     @Test
@@ -38,4 +40,30 @@ public class TestXByteBuffer {
         assertThat(obj, instanceOf(String.class));
         Assert.assertEquals(test, obj);
     }
+
+    @Test
+    public void testExtractPackages() throws Exception {
+        MemberImpl member = new MemberImpl("localhost", 4000, 0);
+        XByteBuffer buffer = new XByteBuffer(1024, true);
+        for (int i = 0; i < 3; i++) {
+            ChannelData data = new ChannelData(true);
+            data.setAddress(member);
+            byte[] msg = XByteBuffer.serialize("message-" + i);
+            data.setMessage(new XByteBuffer(msg, false));
+            byte[] pkg = XByteBuffer.createDataPackage(data);
+            buffer.append(pkg, 0, pkg.length);
+        }
+        // Add the start of an incomplete package that must remain in the buffer
+        byte[] partial = XByteBuffer.createDataPackage(new byte[10]);
+        buffer.append(partial, 0, 5);
+
+        ChannelData[] result = buffer.extractPackages();
+        Assert.assertEquals(3, result.length);
+        for (int i = 0; i < result.length; i++) {
+            Assert.assertEquals("message-" + i, XByteBuffer.deserialize(
+                    result[i].getMessage().getBytesDirect(), 0, result[i].getMessage().getLength()));
+        }
+        Assert.assertEquals(5, buffer.getLength());
+        Assert.assertEquals(0, buffer.extractPackages().length);
+    }
 }
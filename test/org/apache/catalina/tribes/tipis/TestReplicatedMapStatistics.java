@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.tribes.tipis;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.tribes.Channel;
+import org.apache.catalina.tribes.ManagedChannel;
+import org.apache.catalina.tribes.TesterUtil;
+import org.apache.catalina.tribes.group.GroupChannel;
+import org.apache.catalina.tribes.transport.ReceiverBase;
+
+public class TestReplicatedMapStatistics {
+
+    private static final String MAP_NAME = "TestReplicatedMapStatistics";
+
+    private ManagedChannel[] channels = new ManagedChannel[2];
+    private ReplicatedMap<String,Object> map1;
+    private ReplicatedMap<String,Object> map2;
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new GroupChannel();
+            ((ReceiverBase) channels[i].getChannelReceiver()).setHost("localhost");
+        }
+        TesterUtil.addRandomDomain(channels);
+        for (ManagedChannel channel : channels) {
+            channel.start(Channel.DEFAULT);
+        }
+        Thread.sleep(3000);
+        ClassLoader[] cls = new ClassLoader[] { getClass().getClassLoader() };
+        map1 = new ReplicatedMap<>(null, channels[0], 5000, MAP_NAME, cls);
+        map2 = new ReplicatedMap<>(null, channels[1], 5000, MAP_NAME, cls);
+        Thread.sleep(1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (map1 != null) {
+            map1.breakdown();
+        }
+        if (map2 != null) {
+            map2.breakdown();
+        }
+        for (ManagedChannel channel : channels) {
+            try {
+                channel.stop(Channel.DEFAULT);
+            } catch (Exception ignore) {
+                // Ignore
+            }
+        }
+    }
+
+    @Test
+    public void testFullReplication() throws Exception {
+        map1.put("key", "value");
+
+        Assert.assertEquals(1, map1.getReplicatedFullCount());
+        Assert.assertTrue(map1.getReplicatedFullBytes() > 0);
+        Assert.assertEquals(0, map1.getReplicatedDiffCount());
+        // Nothing has been sent from the second node
+        Assert.assertEquals(0, map2.getReplicatedFullCount());
+
+        map1.replicate("key", true);
+        Assert.assertEquals(2, map1.getReplicatedFullCount());
+
+        map1.resetStatistics();
+        Assert.assertEquals(0, map1.getReplicatedFullCount());
+        Assert.assertEquals(0, map1.getReplicatedFullBytes());
+    }
+
+    @Test
+    public void testDiffReplication() throws Exception {
+        TesterEntry entry = new TesterEntry();
+        map1.put("key", entry);
+        Assert.assertEquals(1, map1.getReplicatedFullCount());
+
+        entry.dirty = true;
+        map1.replicate("key", false);
+
+        Assert.assertEquals(1, map1.getReplicatedFullCount());
+        Assert.assertEquals(1, map1.getReplicatedDiffCount());
+        Assert.assertEquals(TesterEntry.DIFF.length, map1.getReplicatedDiffBytes());
+        Assert.assertTrue(map1.getReplicatedBytesSaved() > 0);
+    }
+
+    @Test
+    public void testNoReplicationWhenClean() throws Exception {
+        TesterEntry entry = new TesterEntry();
+        map1.put("key", entry);
+        map1.resetStatistics();
+
+        // Not dirty and not complete so nothing is sent
+        map1.replicate("key", false);
+
+        Assert.assertEquals(0, map1.getReplicatedFullCount());
+        Assert.assertEquals(0, map1.getReplicatedDiffCount());
+    }
+
+
+    private static class TesterEntry implements ReplicatedMapEntry, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final byte[] DIFF = "d".getBytes(StandardCharsets.ISO_8859_1);
+
+        // Make the complete value noticeably larger than the diff
+        @SuppressWarnings("unused")
+        private final byte[] payload = new byte[1024];
+
+        private transient boolean dirty = false;
+        private long version;
+        private long lastTimeReplicated;
+
+        @Override
+        public boolean isDirty() {
+            return dirty;
+        }
+
+        @Override
+        public boolean isDiffable() {
+            return true;
+        }
+
+        @Override
+        public byte[] getDiff() throws IOException {
+            return DIFF;
+        }
+
+        @Override
+        public void applyDiff(byte[] diff, int offset, int length) {
+            // NO-OP
+        }
+
+        @Override
+        public void resetDiff() {
+            dirty = false;
+        }
+
+        @Override
+        public void lock() {
+            // NO-OP
+        }
+
+        @Override
+        public void unlock() {
+            // NO-OP
+        }
+
+        @Override
+        public void setOwner(Object owner) {
+            // NO-OP
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public long getLastTimeReplicated() {
+            return lastTimeReplicated;
+        }
+
+        @Override
+        public void setLastTimeReplicated(long lastTimeReplicated) {
+            this.lastTimeReplicated = lastTimeReplicated;
+        }
+
+        @Override
+        public boolean isAccessReplicate() {
+            return false;
+        }
+
+        @Override
+        public void accessEntry() {
+            // NO-OP
+        }
+    }
+}
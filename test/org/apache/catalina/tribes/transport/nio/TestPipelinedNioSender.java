@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.tribes.transport.nio;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.tribes.Channel;
+import org.apache.catalina.tribes.ChannelListener;
+import org.apache.catalina.tribes.ManagedChannel;
+import org.apache.catalina.tribes.Member;
+import org.apache.catalina.tribes.TesterUtil;
+import org.apache.catalina.tribes.group.GroupChannel;
+import org.apache.catalina.tribes.test.channel.TestDataIntegrity.Data;
+import org.apache.catalina.tribes.transport.ReplicationTransmitter;
+
+public class TestPipelinedNioSender {
+
+    private static final int MSG_COUNT = 200;
+    private static final int THREAD_COUNT = 10;
+
+    private GroupChannel channel1;
+    private GroupChannel channel2;
+    private PipelinedNioSender sender;
+    private Listener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        channel1 = new GroupChannel();
+        sender = new PipelinedNioSender();
+        sender.setMaxOutstanding(8);
+        ((ReplicationTransmitter) channel1.getChannelSender()).setTransport(sender);
+        channel2 = new GroupChannel();
+        listener = new Listener();
+        channel2.addChannelListener(listener);
+        TesterUtil.addRandomDomain(new ManagedChannel[] {channel1, channel2});
+        channel1.start(Channel.DEFAULT);
+        channel2.start(Channel.DEFAULT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channel1.stop(Channel.DEFAULT);
+        channel2.stop(Channel.DEFAULT);
+    }
+
+    @Test
+    public void testSendAck() throws Exception {
+        doTestSend(Channel.SEND_OPTIONS_USE_ACK);
+    }
+
+    @Test
+    public void testSendSyncAck() throws Exception {
+        doTestSend(Channel.SEND_OPTIONS_SYNCHRONIZED_ACK | Channel.SEND_OPTIONS_USE_ACK);
+    }
+
+    @Test
+    public void testSendNoAck() throws Exception {
+        doTestSend(0);
+        // Messages without an ACK are only counted once they arrive
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < 10000 && listener.count.get() < MSG_COUNT * THREAD_COUNT) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(MSG_COUNT * THREAD_COUNT, listener.count.get());
+    }
+
+    private void doTestSend(final int options) throws Exception {
+        final Member[] destination = new Member[] {channel2.getLocalMember(false)};
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < MSG_COUNT; j++) {
+                            channel1.send(destination, Data.createRandomData(), options);
+                        }
+                    } catch (Exception x) {
+                        failure.compareAndSet(null, x);
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError("Send failed", failure.get());
+        }
+        Assert.assertEquals(0, listener.invalid.get());
+        // The messages of a single connection are processed one at a time so
+        // the ACKs are sent in the order the messages were written
+        Assert.assertEquals(1, listener.maxActive.get());
+        if ((options & Channel.SEND_OPTIONS_SYNCHRONIZED_ACK) != 0) {
+            // Every message has been processed before it was acknowledged
+            Assert.assertEquals(MSG_COUNT * THREAD_COUNT, listener.count.get());
+        }
+        Assert.assertEquals(1, sender.getConnectionCount());
+        Assert.assertTrue(sender.getMessageCount() >= MSG_COUNT * THREAD_COUNT);
+        Assert.assertTrue(sender.getWriteCount() <= sender.getMessageCount());
+    }
+
+
+    @Test
+    public void testRetryAfterWriteFailure() throws Exception {
+        int options = Channel.SEND_OPTIONS_SYNCHRONIZED_ACK | Channel.SEND_OPTIONS_USE_ACK;
+        Member[] destination = new Member[] {channel2.getLocalMember(false)};
+        channel1.send(destination, Data.createRandomData(), options);
+        Assert.assertEquals(1, sender.getConnectionCount());
+
+        // Break the connection so the next write fails
+        Object connection = getField(sender, "connections", Map.class).values().iterator().next();
+        getField(connection, "socketChannel", SocketChannel.class).close();
+
+        // The message is sent again on a new connection and no failure is
+        // reported to the caller
+        channel1.send(destination, Data.createRandomData(), options);
+        Assert.assertEquals(2, listener.count.get());
+        Assert.assertEquals(1, sender.getConnectionCount());
+        Assert.assertNotSame(connection, getField(sender, "connections", Map.class).values().iterator().next());
+    }
+
+
+    private static <T> T getField(Object target, String name, Class<T> type) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return type.cast(field.get(target));
+    }
+
+
+    private static class Listener implements ChannelListener {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger invalid = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        @Override
+        public boolean accept(Serializable s, Member m) {
+            return s instanceof Data;
+        }
+
+        @Override
+        public void messageReceived(Serializable s, Member m) {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                // Give any concurrent processing the chance to overlap
+                Thread.yield();
+                if (Data.verify((Data) s)) {
+                    count.incrementAndGet();
+                } else {
+                    invalid.incrementAndGet();
+                }
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
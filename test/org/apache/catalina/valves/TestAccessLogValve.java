@@ -115,6 +115,8 @@ public class TestAccessLogValve extends TomcatBaseTest {
         parameterSets.add(new Object[] {"pct-p", JSON_TYPE, "/", "%p", "\\{\"port\":\"\\d+\"\\}"});
         parameterSets.add(new Object[] {"pct-q", TEXT_TYPE, "/?data=123", "%q", "\\?data=123"});
         parameterSets.add(new Object[] {"pct-q", JSON_TYPE, "/?data=123", "%q", "\\{\"query\":\"\\?data=123\"\\}"});
+        parameterSets.add(new Object[] {"pct-Q", TEXT_TYPE, "/", "%Q", "\\d+"});
+        parameterSets.add(new Object[] {"pct-Q", JSON_TYPE, "/", "%Q", "\\{\"queueTime\":\"\\d+\"\\}"});
         parameterSets.add(new Object[] {"pct-r", TEXT_TYPE, "/", "%r", "GET / HTTP/1.1"});
         parameterSets.add(new Object[] {"pct-r", JSON_TYPE, "/", "%r", "\\{\"request\":\"GET / HTTP/1.1\"\\}"});
         parameterSets.add(new Object[] {"pct-s", TEXT_TYPE, "/", "%s", "200"});
@@ -141,6 +143,9 @@ public class TestAccessLogValve extends TomcatBaseTest {
         parameterSets.add(new Object[] {"pct-p-local", JSON_TYPE, "/", "%{local}p", "\\{\"port-local\":\"\\d+\"\\}"});
         parameterSets.add(new Object[] {"pct-p-remote", TEXT_TYPE, "/", "%{remote}p", "\\d+"});
         parameterSets.add(new Object[] {"pct-p-remote", JSON_TYPE, "/", "%{remote}p", "\\{\"port-remote\":\"\\d+\"\\}"});
+        parameterSets.add(new Object[] {"pct-r-queue_time", TEXT_TYPE, "/", "%{org.apache.catalina.queue_time}r", "\\d+"});
+        parameterSets.add(new Object[] {"pct-r-queue_time", JSON_TYPE, "/", "%{org.apache.catalina.queue_time}r",
+            "\\{\"requestAttributes\": \\{\"org.apache.catalina.queue_time\":\"\\d+\"\\}\\}"});
         parameterSets.add(new Object[] {"pct-t-sec", TEXT_TYPE, "/", "%{sec}t", "\\d{10}"});
         parameterSets.add(new Object[] {"pct-t-sec", JSON_TYPE, "/", "%{sec}t", "\\{\"time-sec\":\"\\d{10}\"\\}"});
         parameterSets.add(new Object[] {"pct-t-msec", TEXT_TYPE, "/", "%{msec}t", "\\d{13}"});
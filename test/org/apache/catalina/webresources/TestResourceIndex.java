@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.catalina.webresources;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.WebResource;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.WebResourceSet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.tomcat.util.buf.ByteChunk;
+
+public class TestResourceIndex extends TomcatBaseTest {
+
+    private TesterWebResourceRoot root;
+    private WebResourceSet main;
+    private WebResourceSet dir1Jar;
+    private WebResourceSet taglibsJar;
+    private WebResourceSet resourcesJar;
+
+    @Before
+    public void createResourceSets() {
+        root = new TesterWebResourceRoot();
+        root.setArchiveIndexStrategy(WebResourceRoot.ArchiveIndexStrategy.INDEXED.name());
+
+        main = new DirResourceSet(root, "/", new File("test/webresources/dir3").getAbsolutePath(), "/");
+        root.setMainResources(main);
+
+        dir1Jar = new JarResourceSet(root, "/WEB-INF/classes",
+                new File("test/webresources/dir1.jar").getAbsolutePath(), "/");
+        dir1Jar.setClassLoaderOnly(true);
+        root.addClassResources(dir1Jar);
+
+        taglibsJar = new JarResourceSet(root, "/WEB-INF/classes",
+                new File("webapps/examples/WEB-INF/lib/taglibs-standard-impl-1.2.5-migrated-0.0.1.jar")
+                        .getAbsolutePath(), "/");
+        taglibsJar.setClassLoaderOnly(true);
+        root.addClassResources(taglibsJar);
+
+        resourcesJar = new JarResourceSet(root, "/",
+                new File("test/webresources/non-static-resources.jar").getAbsolutePath(), "/META-INF/resources");
+        resourcesJar.setStaticOnly(true);
+        root.addJarResources(resourcesJar);
+    }
+
+
+    @Test
+    public void testResourceSets() {
+        ResourceIndex index = createIndex();
+
+        assertResourceSets(index, "/WEB-INF/classes/d1/d1-f1.txt", main, dir1Jar);
+        assertResourceSets(index, "/WEB-INF/classes/d1/", main, dir1Jar, taglibsJar, resourcesJar);
+        assertResourceSets(index, "/WEB-INF/classes/org/apache/taglibs/standard/Version.class", main, taglibsJar);
+        assertResourceSets(index, "/WEB-INF/classes/com/example/Missing.class", main);
+        // The mount point of a JAR
+        assertResourceSets(index, "/WEB-INF/classes", main, dir1Jar, taglibsJar, resourcesJar);
+        // The internal path of a resource JAR is not part of the web
+        // application path
+        assertResourceSets(index, "/WEB-INF/classes/org/apache/tomcat/unittest/foo.txt", main, resourcesJar);
+        assertResourceSets(index, "/META-INF/resources/WEB-INF/classes/org/foo.txt", main);
+    }
+
+
+    @Test
+    public void testUnindexedResourceSetsKeepOrder() {
+        WebResourceSet post = new DirResourceSet(root, "/", new File("test/webresources/dir2").getAbsolutePath(),
+                "/");
+        ResourceIndex index = new ResourceIndex(
+                Arrays.asList(Collections.singletonList(main), Arrays.asList(dir1Jar, taglibsJar),
+                        Collections.singletonList(post)), main);
+
+        assertResourceSets(index, "/WEB-INF/classes/d1/d1-f1.txt", main, dir1Jar, post);
+        assertResourceSets(index, "/WEB-INF/classes/com/example/Missing.class", main, post);
+    }
+
+
+    @Test
+    public void testLookups() {
+        WebResource resource = root.getClassLoaderResource("/d1/d1-f1.txt");
+        Assert.assertTrue(resource.exists());
+
+        resource = root.getClassLoaderResource("/org/apache/taglibs/standard/Version.class");
+        Assert.assertTrue(resource.exists());
+
+        resource = root.getClassLoaderResource("/org/apache/taglibs/standard/Missing.class");
+        Assert.assertFalse(resource.exists());
+
+        resource = root.getClassLoaderResource("/com/example/Missing.class");
+        Assert.assertFalse(resource.exists());
+
+        // Class loader only
+        resource = root.getResource("/WEB-INF/classes/d1/d1-f1.txt");
+        Assert.assertFalse(resource.exists());
+
+        // Static only
+        resource = root.getResource("/WEB-INF/classes/org/apache/tomcat/unittest/foo.txt");
+        Assert.assertTrue(resource.exists());
+        resource = root.getClassLoaderResource("/org/apache/tomcat/unittest/foo.txt");
+        Assert.assertFalse(resource.exists());
+
+        WebResource[] resources = root.getClassLoaderResources("/org/apache/taglibs/standard/Version.class");
+        Assert.assertEquals(1, resources.length);
+        Assert.assertTrue(resources[0].exists());
+    }
+
+
+    @Test
+    public void testNotFound() {
+        ResourceIndex index = createIndex();
+        long now = System.currentTimeMillis();
+
+        index.addNotFound("/WEB-INF/classes/Missing.class", now + 1000);
+        Assert.assertTrue(index.isNotFound("/WEB-INF/classes/Missing.class", now));
+        Assert.assertFalse(index.isNotFound("/WEB-INF/classes/Other.class", now));
+
+        // Expired
+        Assert.assertFalse(index.isNotFound("/WEB-INF/classes/Missing.class", now + 1000));
+        Assert.assertFalse(index.isNotFound("/WEB-INF/classes/Missing.class", now));
+
+        index.addNotFound("/WEB-INF/classes/Missing.class", now + 1000);
+        index.removeNotFound("/WEB-INF/classes/Missing.class");
+        Assert.assertFalse(index.isNotFound("/WEB-INF/classes/Missing.class", now));
+    }
+
+
+    @Test
+    public void testNotFoundBounded() {
+        ResourceIndex index = createIndex();
+        long expires = System.currentTimeMillis() + 60000;
+
+        for (int i = 0; i < ResourceIndex.NOT_FOUND_MAX_SIZE; i++) {
+            index.addNotFound("/WEB-INF/classes/Missing" + i + ".class", expires);
+        }
+        Assert.assertTrue(index.isNotFound("/WEB-INF/classes/Missing0.class", 0));
+
+        index.addNotFound("/WEB-INF/classes/Extra.class", expires);
+        Assert.assertTrue(index.isNotFound("/WEB-INF/classes/Extra.class", 0));
+        Assert.assertFalse(index.isNotFound("/WEB-INF/classes/Missing0.class", 0));
+    }
+
+
+    @Test
+    public void testWebapp() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        File appDir = new File("test/webapp-fragments");
+        Context ctx = tomcat.addWebapp(null, "/test", appDir.getAbsolutePath());
+        StandardRoot resources = new StandardRoot(ctx);
+        resources.setArchiveIndexStrategy(WebResourceRoot.ArchiveIndexStrategy.INDEXED.name());
+        ctx.setResources(resources);
+        tomcat.start();
+
+        // Static resources from resource JARs in WEB-INF/lib
+        ByteChunk bc = getUrl("http://localhost:" + getPort() + "/test/resourceB.jsp");
+        Assert.assertTrue(bc.toString().contains("<p>resourceB.jsp in resources.jar</p>"));
+        bc = getUrl("http://localhost:" + getPort() + "/test/folder/resourceD.jsp");
+        Assert.assertTrue(bc.toString().contains("<p>resourceD.jsp in resources.jar</p>"));
+        // The web application takes priority over resource JARs
+        bc = getUrl("http://localhost:" + getPort() + "/test/folder/resourceC.jsp");
+        Assert.assertTrue(bc.toString().contains("<p>resourceC.jsp in the web application</p>"));
+
+        ClassLoader cl = ctx.getLoader().getClassLoader();
+        Assert.assertNull(cl.getResource("org/apache/tomcat/Missing.class"));
+        // Served from the cache of failed lookups
+        Assert.assertNull(cl.getResource("org/apache/tomcat/Missing.class"));
+    }
+
+
+    private ResourceIndex createIndex() {
+        List<List<WebResourceSet>> allResources = Arrays.asList(Collections.singletonList(main),
+                Arrays.asList(dir1Jar, taglibsJar), Collections.singletonList(resourcesJar));
+        return new ResourceIndex(allResources, main);
+    }
+
+
+    private static void assertResourceSets(ResourceIndex index, String path, WebResourceSet... expected) {
+        Assert.assertArrayEquals(path, expected, index.getResourceSets(path));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.coyote;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.tomcat.util.buf.ByteChunk;
+
+public class TestGradientConcurrencyLimiter extends TomcatBaseTest {
+
+    @Test
+    public void testAcquireRelease() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter();
+        limiter.setInitialLimit(2);
+        limiter.setMinLimit(1);
+
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getRejectedCount());
+
+        limiter.release(-1);
+        Assert.assertEquals(1, limiter.getInFlight());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getLimit());
+    }
+
+
+    @Test
+    public void testInitialLimitWithinBounds() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter();
+        limiter.setInitialLimit(5000);
+        Assert.assertEquals(1000, limiter.getLimit());
+        limiter.setInitialLimit(1);
+        Assert.assertEquals(10, limiter.getLimit());
+
+        // The order the properties are set in does not matter
+        limiter = new GradientConcurrencyLimiter();
+        limiter.setInitialLimit(5000);
+        limiter.setMaxLimit(2000);
+        Assert.assertEquals(2000, limiter.getLimit());
+        limiter.setMaxLimit(10000);
+        Assert.assertEquals(5000, limiter.getLimit());
+
+        limiter = new GradientConcurrencyLimiter();
+        limiter.setMaxLimit(10000);
+        limiter.setInitialLimit(5000);
+        Assert.assertEquals(5000, limiter.getLimit());
+    }
+
+
+    @Test
+    public void testLimitFollowsProcessingTime() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter();
+        limiter.setInitialLimit(100);
+        limiter.setMinLimit(10);
+        limiter.setMaxLimit(1000);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+        }
+
+        // Steady processing times with the limit in use. The limit grows until
+        // less than half of it is used.
+        complete(limiter, 1000, 1_000_000);
+        int fastLimit = limiter.getLimit();
+        Assert.assertTrue(Integer.toString(fastLimit), fastLimit > 150);
+        Assert.assertTrue(Integer.toString(fastLimit), fastLimit < 250);
+
+        // Processing slows down. The limit falls sharply.
+        complete(limiter, 1000, 10_000_000);
+        int slowLimit = limiter.getLimit();
+        Assert.assertTrue(Integer.toString(slowLimit), slowLimit < fastLimit / 4);
+    }
+
+
+    private static void complete(ConcurrencyLimiter limiter, int count, long durationNanos) {
+        for (int i = 0; i < count; i++) {
+            limiter.release(durationNanos);
+            limiter.tryAcquire();
+        }
+    }
+
+
+    @Test
+    public void testRejectOverLimit() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        Context ctx = tomcat.addContext("", null);
+        BlockingServlet servlet = new BlockingServlet();
+        Tomcat.addServlet(ctx, "blocking", servlet);
+        ctx.addServletMappingDecoded("/", "blocking");
+
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter();
+        limiter.setInitialLimit(1);
+        limiter.setMinLimit(1);
+        limiter.setMaxLimit(1);
+        tomcat.getConnector().setConcurrencyLimiter(limiter);
+        tomcat.start();
+
+        AbstractProtocol<?> protocol = (AbstractProtocol<?>) tomcat.getConnector().getProtocolHandler();
+        Assert.assertEquals(1, protocol.getConcurrencyLimit());
+
+        int[] firstRc = new int[1];
+        Thread first = new Thread(() -> {
+            try {
+                firstRc[0] = getUrl("http://localhost:" + getPort() + "/", new ByteChunk(), null);
+            } catch (IOException ioe) {
+                firstRc[0] = -1;
+            }
+        });
+        first.start();
+        Assert.assertTrue(servlet.started.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, protocol.getConcurrencyInFlight());
+
+        // The limit is reached so the request is rejected without reaching the servlet
+        int rc = getUrl("http://localhost:" + getPort() + "/", new ByteChunk(), null);
+        Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rc);
+        Assert.assertEquals(1, protocol.getConcurrencyRejectedCount());
+
+        servlet.release.countDown();
+        first.join(10000);
+        Assert.assertEquals(HttpServletResponse.SC_OK, firstRc[0]);
+
+        // The permit is released when the request completes, which may be
+        // after the client has received the response
+        int count = 0;
+        while (protocol.getConcurrencyInFlight() > 0 && count < 100) {
+            Thread.sleep(100);
+            count++;
+        }
+        Assert.assertEquals(0, protocol.getConcurrencyInFlight());
+        rc = getUrl("http://localhost:" + getPort() + "/", new ByteChunk(), null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+    }
+
+
+    private static class BlockingServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resp.setContentType("text/plain");
+            resp.getWriter().print("OK");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.el.parser;
+
+import java.beans.Introspector;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.el.ELException;
+import jakarta.el.ELProcessor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/*
+ * Each test class runs in a separate JVM so the threshold can be set here.
+ */
+public class TestPropertyInlineCache {
+
+    private static final int THRESHOLD = 2;
+
+    static {
+        System.setProperty("org.apache.el.parser.INLINE_CACHE_THRESHOLD", Integer.toString(THRESHOLD));
+    }
+
+
+    @Test
+    public void testBeanProperty() {
+        ELProcessor processor = new ELProcessor();
+        TesterBeanB bean = new TesterBeanB();
+        processor.defineBean("bean", bean);
+
+        for (int i = 0; i < THRESHOLD * 5; i++) {
+            bean.setText("text" + i);
+            Assert.assertEquals("text" + i, processor.eval("bean.text"));
+            Assert.assertEquals("text" + i, processor.eval("bean['text']"));
+        }
+    }
+
+
+    @Test
+    public void testNestedProperty() {
+        ELProcessor processor = new ELProcessor();
+        Holder holder = new Holder();
+        processor.defineBean("holder", holder);
+
+        for (int i = 0; i < THRESHOLD * 5; i++) {
+            holder.getBean().setText("text" + i);
+            Assert.assertEquals("text" + i, processor.eval("holder.bean.text"));
+            Assert.assertEquals(Long.valueOf(6), processor.eval("holder.bean.text.length() + 1"));
+        }
+    }
+
+
+    @Test
+    public void testTypeChanges() {
+        ELProcessor processor = new ELProcessor();
+        TesterBeanB beanB = new TesterBeanB();
+        beanB.setText("B");
+        Other other = new Other();
+        Map<String,String> map = new HashMap<>();
+        map.put("text", "map");
+
+        Object[] bases = new Object[] { beanB, other, map };
+        String[] expected = new String[] { "B", "other", "map" };
+        for (int i = 0; i < THRESHOLD * 10; i++) {
+            int index = (i / 3) % bases.length;
+            processor.defineBean("bean", bases[index]);
+            Assert.assertEquals(expected[index], processor.eval("bean.text"));
+        }
+    }
+
+
+    @Test
+    public void testResolverChange() {
+        TesterBeanB bean = new TesterBeanB();
+        bean.setText("bean");
+
+        for (int i = 0; i < THRESHOLD * 5; i++) {
+            // A new ELProcessor means a new ELResolver
+            ELProcessor processor = new ELProcessor();
+            processor.defineBean("bean", bean);
+            Assert.assertEquals("bean", processor.eval("bean.text"));
+        }
+    }
+
+
+    @Test
+    public void testGetterException() {
+        ELProcessor processor = new ELProcessor();
+        processor.defineBean("bean", new Other());
+
+        for (int i = 0; i < THRESHOLD * 5; i++) {
+            try {
+                processor.eval("bean.failure");
+                Assert.fail();
+            } catch (ELException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+
+    @Test
+    public void testClassLoaderNotRetained() throws Exception {
+        // Load the bean class with a class loader that can be released
+        URL location = TesterBeanB.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[] { location }, null);
+        Class<?> beanClass = loader.loadClass(TesterBeanB.class.getName());
+        Assert.assertNotSame(TesterBeanB.class, beanClass);
+
+        ELProcessor processor = new ELProcessor();
+        Object bean = beanClass.getConstructor().newInstance();
+        beanClass.getMethod("setText", String.class).invoke(bean, "text");
+        processor.defineBean("leakBean", bean);
+        for (int i = 0; i < THRESHOLD * 5; i++) {
+            Assert.assertEquals("text", processor.eval("leakBean.text"));
+        }
+
+        WeakReference<ClassLoader> loaderRef = new WeakReference<>(loader);
+        WeakReference<Object> resolverRef =
+                new WeakReference<>(processor.getELManager().getELContext().getELResolver());
+        loader.close();
+        loader = null;
+        beanClass = null;
+        bean = null;
+        processor = null;
+        // As the web application class loader does on stop
+        Introspector.flushCaches();
+
+        // The parsed expression, including its inline caches, remains in the
+        // expression cache
+        int count = 0;
+        while (count < 50 && (loaderRef.get() != null || resolverRef.get() != null)) {
+            System.gc();
+            Thread.sleep(100);
+            count++;
+        }
+        Assert.assertNull(resolverRef.get());
+        Assert.assertNull(loaderRef.get());
+    }
+
+
+    @Test
+    public void testClassesUseSeparateCaches() throws Exception {
+        // Equivalent to the same expression being used by two web applications
+        URL location = TesterBeanB.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { location }, null)) {
+            Class<?> beanClass = loader.loadClass(TesterBeanB.class.getName());
+            Object other = beanClass.getConstructor().newInstance();
+            beanClass.getMethod("setText", String.class).invoke(other, "other");
+            TesterBeanB bean = new TesterBeanB();
+            bean.setText("bean");
+
+            ELProcessor processor = new ELProcessor();
+            for (int i = 0; i < THRESHOLD * 10; i++) {
+                processor.defineBean("sharedBean", bean);
+                Assert.assertEquals("bean", processor.eval("sharedBean.text"));
+                processor.defineBean("sharedBean", other);
+                Assert.assertEquals("other", processor.eval("sharedBean.text"));
+            }
+        }
+    }
+
+
+    public static class Holder {
+        private final TesterBeanB bean = new TesterBeanB();
+
+        public TesterBeanB getBean() {
+            return bean;
+        }
+    }
+
+
+    public static class Other {
+        public String getText() {
+            return "other";
+        }
+
+        public String getFailure() {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.el.parser;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELManager;
+import jakarta.el.ELProcessor;
+import jakarta.el.ELResolver;
+import jakarta.el.ExpressionFactory;
+import jakarta.el.ValueExpression;
+
+import org.junit.Test;
+
+/*
+ * This is a relative performance test. There is no benefit it running it as
+ * part of a standard test run so it is excluded due to the name starting
+ * Tester...
+ *
+ * The cached evaluation of the expression is compared with the resolver calls
+ * the interpreter makes for the same expression. Each test class runs in a
+ * separate JVM so the threshold can be set here.
+ */
+public class TesterPropertyInlineCachePerformance {
+
+    static {
+        System.setProperty("org.apache.el.parser.INLINE_CACHE_THRESHOLD", "2");
+    }
+
+
+    @Test
+    public void testPerformance() {
+        final int warmupRuns = 5;
+        final int runs = 20;
+        final int iterations = 100000;
+
+        ELProcessor processor = new ELProcessor();
+        TestPropertyInlineCache.Holder holder = new TestPropertyInlineCache.Holder();
+        holder.getBean().setText("text");
+        processor.defineBean("holder", holder);
+        ELContext context = processor.getELManager().getELContext();
+        ExpressionFactory factory = ELManager.getExpressionFactory();
+        ValueExpression ve = factory.createValueExpression(context, "${holder.bean.text}", String.class);
+        ELResolver resolver = context.getELResolver();
+
+        long cachedTotalTime = 0;
+        long resolverTotalTime = 0;
+
+        for (int j = 0; j < runs; j++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                ve.getValue(context);
+            }
+            long end = System.nanoTime();
+            if (j >= warmupRuns) {
+                cachedTotalTime += (end - start);
+            }
+        }
+
+        for (int j = 0; j < runs; j++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                context.setPropertyResolved(false);
+                Object base = resolver.getValue(context, null, "holder");
+                context.setPropertyResolved(false);
+                base = resolver.getValue(context, base, "bean");
+                context.setPropertyResolved(false);
+                resolver.getValue(context, base, "text");
+            }
+            long end = System.nanoTime();
+            if (j >= warmupRuns) {
+                resolverTotalTime += (end - start);
+            }
+        }
+
+        System.out.println((runs - warmupRuns) * iterations + " iterations using inline caches took " +
+                cachedTotalTime + "ns");
+        System.out.println((runs - warmupRuns) * iterations + " iterations using the ELResolver took " +
+                resolverTotalTime + "ns");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.compiler;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.core.StandardWrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.jasper.servlet.JasperInitializer;
+import org.apache.tomcat.PeriodicEventListener;
+
+public class TestJspRuntimeContext extends TomcatBaseTest {
+
+    @Test
+    public void testCheckCompile() throws Exception {
+        doTestCheckCompile(false);
+    }
+
+
+    @Test
+    public void testCheckCompileWatchSourceFiles() throws Exception {
+        doTestCheckCompile(true);
+    }
+
+
+    private void doTestCheckCompile(boolean watch) throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "checkcompile");
+        Assert.assertTrue(appDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+        File include = new File(appDir, "include.jspf");
+        Files.write(new File(appDir, "a.jsp").toPath(),
+                "<%@ include file=\"include.jspf\" %>".getBytes(StandardCharsets.UTF_8));
+        Files.write(include.toPath(), "one".getBytes(StandardCharsets.UTF_8));
+
+        Context context = tomcat.addContext("/checkcompile", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+        Wrapper jsp = (Wrapper) context.findChild("jsp");
+        jsp.addInitParameter("development", "false");
+        jsp.addInitParameter("checkInterval", "1");
+        jsp.addInitParameter("watchSourceFiles", Boolean.toString(watch));
+
+        tomcat.start();
+
+        String url = "http://localhost:" + getPort() + "/checkcompile/a.jsp";
+        Assert.assertEquals("one", getUrl(url).toString());
+
+        PeriodicEventListener jspServlet =
+                (PeriodicEventListener) ((StandardWrapper) jsp).getServlet();
+        // Allow the page to be indexed
+        Thread.sleep(1100);
+        jspServlet.periodicEvent();
+
+        Files.write(include.toPath(), "two".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(include.setLastModified(include.lastModified() + 10000));
+
+        String body = null;
+        int count = 0;
+        while (count < 10 && !"two".equals(body)) {
+            Thread.sleep(1100);
+            jspServlet.periodicEvent();
+            body = getUrl(url).toString();
+            count++;
+        }
+        Assert.assertEquals("two", body);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.compiler;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import jakarta.servlet.ServletContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.jasper.servlet.JasperInitializer;
+import org.apache.tomcat.util.buf.ByteChunk;
+
+public class TestTextOptimizer extends TomcatBaseTest {
+
+    @Test
+    public void testConcatenateAcrossCommentAndDeclaration() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "textoptimizer");
+        Assert.assertTrue(appDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+        Files.write(new File(appDir, "a.jsp").toPath(),
+                ("Hello <%-- comment --%>World<%! int unused; %>, again<%-- comment --%>!")
+                .getBytes(StandardCharsets.UTF_8));
+
+        Context context = tomcat.addContext("/textoptimizer", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+
+        tomcat.start();
+
+        ByteChunk body = getUrl("http://localhost:" + getPort() + "/textoptimizer/a.jsp");
+        Assert.assertEquals("Hello World, again!", body.toString());
+
+        File workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        String source = new String(Files.readAllBytes(
+                new File(workDir, "org/apache/jsp/a_jsp.java").toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(source, source.contains("out.write(\"Hello World, again!\");"));
+    }
+}
@@ -16,12 +16,23 @@
  */
 package org.apache.jasper.runtime;
 
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
 import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.jasper.servlet.JasperInitializer;
 import org.apache.tomcat.util.buf.ByteChunk;
 
 public class TestJspWriterImpl extends TomcatBaseTest {
@@ -54,4 +65,61 @@ public class TestJspWriterImpl extends TomcatBaseTest {
         Assert.assertEquals(res.toString(),
                 HttpServletResponse.SC_INTERNAL_SERVER_ERROR, rc);
     }
+
+    @Test
+    public void testPreEncodedTemplateText() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "preencode");
+        Assert.assertTrue(appDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+
+        char[] large = new char[10000];
+        Arrays.fill(large, 'x');
+        String largeText = new String(large);
+
+        String directive = "<%@ page contentType=\"text/plain;charset=UTF-8\" %>";
+        writeFile(appDir, "buffered.jsp", directive + "Gr\u00fc\u00dfe <%= 1 + 1 %> \u20ac[" +
+                largeText + "] <%= 3 %> end");
+        writeFile(appDir, "unbuffered.jsp", directive + "<%@ page buffer=\"none\" %>" +
+                "Gr\u00fc\u00dfe <%= 1 + 1 %> \u20ac end");
+        writeFile(appDir, "cleared.jsp", directive + "discarded text<% out.clearBuffer(); %>kept text");
+        writeFile(appDir, "mismatch.jsp", directive + "<% response.setCharacterEncoding(\"ISO-8859-1\"); %>" +
+                "Gr\u00fc\u00dfe end");
+
+        Context context = tomcat.addContext("/preencode", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+        Wrapper jsp = (Wrapper) context.findChild("jsp");
+        jsp.addInitParameter("preEncodeTemplateText", "true");
+
+        tomcat.start();
+
+        Assert.assertEquals("Gr\u00fc\u00dfe 2 \u20ac[" + largeText + "] 3 end",
+                getBody("/preencode/buffered.jsp", StandardCharsets.UTF_8));
+        Assert.assertEquals("Gr\u00fc\u00dfe 2 \u20ac end",
+                getBody("/preencode/unbuffered.jsp", StandardCharsets.UTF_8));
+        Assert.assertEquals("kept text",
+                getBody("/preencode/cleared.jsp", StandardCharsets.UTF_8));
+        Assert.assertEquals("Gr\u00fc\u00dfe end",
+                getBody("/preencode/mismatch.jsp", StandardCharsets.ISO_8859_1));
+
+        File workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        String source = new String(Files.readAllBytes(
+                new File(workDir, "org/apache/jsp/buffered_jsp.java").toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(source, source.contains("org.apache.jasper.runtime.EncodedText"));
+    }
+
+
+    private static void writeFile(File dir, String name, String content) throws Exception {
+        Files.write(new File(dir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private String getBody(String path, Charset charset) throws Exception {
+        ByteChunk res = new ByteChunk();
+        int rc = getUrl("http://localhost:" + getPort() + path, res, null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+        return new String(res.getBytes(), res.getStart(), res.getLength(), charset);
+    }
 }
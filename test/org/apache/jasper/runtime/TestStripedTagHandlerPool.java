@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.runtime;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.jsp.tagext.Tag;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.tomcat.unittest.tags.Bug53545;
+
+public class TestStripedTagHandlerPool extends TomcatBaseTest {
+
+    private StripedTagHandlerPool pool;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        Tomcat tomcat = getTomcatInstanceTestWebapp(false, true);
+
+        Wrapper w = (Wrapper) tomcat.getHost().findChildren()[0].findChild("jsp");
+        pool = new StripedTagHandlerPool();
+        pool.init(w.getServlet().getServletConfig());
+    }
+
+
+    @Test
+    public void testReuse() throws Exception {
+        Tag t1 = pool.get(Bug53545.class);
+        Tag t2 = pool.get(Bug53545.class);
+        Assert.assertNotSame(t1, t2);
+        Assert.assertEquals(2, pool.getCreatedCount());
+        Assert.assertEquals(0, pool.getIdleCount());
+
+        pool.reuse(t1);
+        pool.reuse(t2);
+        Assert.assertEquals(2, pool.getIdleCount());
+
+        Tag t3 = pool.get(Bug53545.class);
+        Tag t4 = pool.get(Bug53545.class);
+        Assert.assertNotSame(t3, t4);
+        Assert.assertTrue(t3 == t1 || t3 == t2);
+        Assert.assertTrue(t4 == t1 || t4 == t2);
+        Assert.assertEquals(2, pool.getReusedCount());
+        Assert.assertEquals(2, pool.getCreatedCount());
+        Assert.assertEquals(0, pool.getIdleCount());
+    }
+
+
+    @Test
+    public void testCapacity() throws Exception {
+        int capacity = pool.getCapacity();
+        Tag[] tags = new Tag[capacity + 2];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = pool.get(Bug53545.class);
+        }
+        for (Tag tag : tags) {
+            pool.reuse(tag);
+        }
+        Assert.assertEquals(capacity, pool.getIdleCount());
+        Assert.assertEquals(2, pool.getDiscardedCount());
+
+        pool.release();
+        Assert.assertEquals(0, pool.getIdleCount());
+    }
+
+
+    @Test
+    public void testConcurrency() throws Exception {
+        final Set<Tag> inUse = ConcurrentHashMap.newKeySet();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicReference<Exception> exception = new AtomicReference<>();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 100000; j++) {
+                        Tag t = pool.get(Bug53545.class);
+                        if (!inUse.add(t)) {
+                            // Handed out to two threads at the same time
+                            failures.incrementAndGet();
+                        }
+                        inUse.remove(t);
+                        pool.reuse(t);
+                    }
+                } catch (Exception e) {
+                    exception.compareAndSet(null, e);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (exception.get() != null) {
+            throw new AssertionError("Pool access failed", exception.get());
+        }
+        Assert.assertEquals(0, failures.get());
+        Assert.assertEquals(threads.length * 100000L, pool.getCreatedCount() + pool.getReusedCount());
+        Assert.assertTrue(pool.getIdleCount() <= pool.getCapacity());
+    }
+}
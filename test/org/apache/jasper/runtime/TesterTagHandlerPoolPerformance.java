@@ -38,11 +38,21 @@ public class TesterTagHandlerPoolPerformance extends TomcatBaseTest {
 
     @Test
     public void testConcurrency() throws Exception {
+        doTestConcurrency(new TagHandlerPool());
+    }
+
+
+    @Test
+    public void testConcurrencyStriped() throws Exception {
+        doTestConcurrency(new StripedTagHandlerPool());
+    }
+
+
+    private void doTestConcurrency(TagHandlerPool tagHandlerPool) throws Exception {
         // Create a working TagHandlerPool
         Tomcat tomcat = getTomcatInstanceTestWebapp(false, true);
 
         Wrapper w = (Wrapper) tomcat.getHost().findChildren()[0].findChild("jsp");
-        TagHandlerPool tagHandlerPool = new TagHandlerPool();
         tagHandlerPool.init(w.getServlet().getServletConfig());
 
         for (int i = 1; i < 9; i++) {
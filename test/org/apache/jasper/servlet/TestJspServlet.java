@@ -18,7 +18,10 @@ package org.apache.jasper.servlet;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +31,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
 import org.apache.catalina.startup.Tomcat;
 import org.apache.catalina.startup.TomcatBaseTest;
 import org.apache.tomcat.util.buf.ByteChunk;
@@ -96,6 +100,120 @@ public class TestJspServlet  extends TomcatBaseTest {
     }
 
 
+    @Test
+    public void testPrecompileOnStartup() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "precompile");
+        File subDir = new File(appDir, "sub");
+        Assert.assertTrue(subDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+        Files.write(new File(appDir, "a.jsp").toPath(), "<p>a</p>".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(subDir, "b.jsp").toPath(), "<p>${1 + 1}</p>".getBytes(StandardCharsets.UTF_8));
+
+        Context context = tomcat.addContext("/precompile", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+        Wrapper jsp = (Wrapper) context.findChild("jsp");
+        jsp.addInitParameter("precompileOnStartup", "true");
+        jsp.addInitParameter("precompileThreadCount", "2");
+
+        tomcat.start();
+
+        File workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        Assert.assertTrue(new File(workDir, "org/apache/jsp/a_jsp.class").isFile());
+        Assert.assertTrue(new File(workDir, "org/apache/jsp/sub/b_jsp.class").isFile());
+
+        ByteChunk body = getUrl("http://localhost:" + getPort() + "/precompile/sub/b.jsp");
+        Assert.assertEquals("<p>2</p>", body.toString());
+    }
+
+
+    @Test
+    public void testCompileInMemory() throws Exception {
+        doTestCompileInMemory(false);
+    }
+
+
+    @Test
+    public void testCompileInMemoryPersist() throws Exception {
+        doTestCompileInMemory(true);
+    }
+
+
+    private void doTestCompileInMemory(boolean persist) throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "inmemory");
+        File tagDir = new File(appDir, "WEB-INF/tags");
+        Assert.assertTrue(tagDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+        Files.write(new File(tagDir, "wrap.tag").toPath(),
+                "[<jsp:doBody/>]".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(appDir, "a.jsp").toPath(),
+                ("<%@ taglib prefix=\"t\" tagdir=\"/WEB-INF/tags\" %>" +
+                "<t:wrap>${1 + 1}</t:wrap>").getBytes(StandardCharsets.UTF_8));
+
+        Context context = tomcat.addContext("/inmemory", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+        Wrapper jsp = (Wrapper) context.findChild("jsp");
+        jsp.addInitParameter("compileInMemory", "true");
+        jsp.addInitParameter("compileInMemoryPersist", Boolean.toString(persist));
+
+        tomcat.start();
+
+        ByteChunk body = getUrl("http://localhost:" + getPort() + "/inmemory/a.jsp");
+        Assert.assertEquals("[2]", body.toString());
+
+        File workDir = (File) context.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        File pageClass = new File(workDir, "org/apache/jsp/a_jsp.class");
+        File pageSource = new File(workDir, "org/apache/jsp/a_jsp.java");
+        File tagClass = new File(workDir, "org/apache/jsp/tag/web/wrap_tag.class");
+        if (persist) {
+            int count = 0;
+            while (count < 50 && !(pageClass.isFile() && tagClass.isFile() && pageSource.isFile())) {
+                Thread.sleep(100);
+                count++;
+            }
+            Assert.assertTrue(pageClass.isFile());
+            Assert.assertTrue(tagClass.isFile());
+            // keepgenerated defaults to true
+            Assert.assertTrue(pageSource.isFile());
+        } else {
+            Assert.assertFalse(pageClass.exists());
+            Assert.assertFalse(tagClass.exists());
+            Assert.assertFalse(pageSource.exists());
+        }
+    }
+
+
+    @Test
+    public void testCompileInMemoryError() throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+
+        File appDir = new File(getTemporaryDirectory(), "inmemoryerror");
+        Assert.assertTrue(appDir.mkdirs());
+        addDeleteOnTearDown(appDir);
+        Files.write(new File(appDir, "error.jsp").toPath(),
+                "<% int x = undefinedVariable; // in-memory-marker %>".getBytes(StandardCharsets.UTF_8));
+
+        Context context = tomcat.addContext("/inmemoryerror", appDir.getAbsolutePath());
+        context.addServletContainerInitializer(new JasperInitializer(), null);
+        Tomcat.initWebappDefaults(context);
+        Wrapper jsp = (Wrapper) context.findChild("jsp");
+        jsp.addInitParameter("compileInMemory", "true");
+
+        tomcat.start();
+
+        ByteChunk body = new ByteChunk();
+        int rc = getUrl("http://localhost:" + getPort() + "/inmemoryerror/error.jsp", body, null);
+        Assert.assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, rc);
+        // The JSP extract is created from the source held in memory
+        Assert.assertTrue(body.toString(), body.toString().contains("in-memory-marker"));
+    }
+
+
     private static class Bug56568aServlet extends HttpServlet {
 
         private static final long serialVersionUID = 1L;
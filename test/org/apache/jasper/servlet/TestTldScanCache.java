@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jasper.servlet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.core.TesterTldListener;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.startup.TomcatBaseTest;
+import org.apache.jasper.Constants;
+import org.apache.tomcat.util.buf.ByteChunk;
+import org.apache.tomcat.util.descriptor.web.ApplicationParameter;
+
+public class TestTldScanCache extends TomcatBaseTest {
+
+    private static final long OLD_TIME = 1_000_000_000_000L;
+
+    private static final String JSP =
+            "<%@ taglib prefix=\"tags21\" uri=\"http://tomcat.apache.org/tags21\" %>" +
+            "<tags21:Echo echo=\"${'hello world'}\"/>";
+
+    @Test
+    public void testCacheUsedOnRestart() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir, true);
+        File cacheFile = getCacheFile(ctx);
+
+        assertJsp();
+        Assert.assertTrue(cacheFile.isFile());
+
+        // If all the JARs are unchanged the cache is not written again
+        Assert.assertTrue(cacheFile.setLastModified(OLD_TIME));
+        int listenerCount = countListenerCalls();
+        ctx.reload();
+
+        Assert.assertEquals(OLD_TIME, cacheFile.lastModified());
+        // Listeners are registered without parsing the TLD
+        Assert.assertEquals(listenerCount + 1, countListenerCalls());
+        // The TLD is parsed when first used
+        assertJsp();
+    }
+
+
+    @Test
+    public void testChangedJar() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir, true);
+        File cacheFile = getCacheFile(ctx);
+        Assert.assertTrue(cacheFile.setLastModified(OLD_TIME));
+
+        // Remove the TLD that declares a listener
+        File jar = new File(appDir, "WEB-INF/lib/tags.jar");
+        long jarLastModified = jar.lastModified();
+        writeJar(jar, false);
+        Assert.assertTrue(jar.setLastModified(jarLastModified + 2000));
+        int listenerCount = countListenerCalls();
+        ctx.reload();
+
+        Assert.assertNotEquals(OLD_TIME, cacheFile.lastModified());
+        Assert.assertEquals(listenerCount, countListenerCalls());
+        assertJsp();
+    }
+
+
+    @Test
+    public void testInvalidCacheFile() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir, true);
+        File cacheFile = getCacheFile(ctx);
+
+        Files.write(cacheFile.toPath(), "invalid".getBytes(StandardCharsets.ISO_8859_1));
+        long invalidLength = cacheFile.length();
+        int listenerCount = countListenerCalls();
+        ctx.reload();
+
+        Assert.assertNotEquals(invalidLength, cacheFile.length());
+        Assert.assertEquals(listenerCount + 1, countListenerCalls());
+        assertJsp();
+    }
+
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        File appDir = createWebapp();
+        StandardContext ctx = start(appDir, false);
+
+        assertJsp();
+        Assert.assertFalse(getCacheFile(ctx).exists());
+    }
+
+
+    private StandardContext start(File appDir, boolean useCache) throws Exception {
+        Tomcat tomcat = getTomcatInstance();
+        StandardContext ctx = (StandardContext) tomcat.addWebapp("", appDir.getAbsolutePath());
+        if (useCache) {
+            // Parameters added directly to the Context are removed on stop
+            ApplicationParameter parameter = new ApplicationParameter();
+            parameter.setName(Constants.TLD_SCAN_CACHE_INIT_PARAM);
+            parameter.setValue("true");
+            ctx.addApplicationParameter(parameter);
+        }
+        tomcat.start();
+        return ctx;
+    }
+
+
+    private void assertJsp() throws IOException {
+        ByteChunk bc = new ByteChunk();
+        int rc = getUrl("http://localhost:" + getPort() + "/echo.jsp", bc, null);
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+        Assert.assertTrue(bc.toString(), bc.toString().contains("<p>hello world</p>"));
+    }
+
+
+    private static int countListenerCalls() {
+        String log = TesterTldListener.getLog();
+        int count = 0;
+        int index = log.indexOf("PASS-01");
+        while (index > -1) {
+            count++;
+            index = log.indexOf("PASS-01", index + 1);
+        }
+        return count;
+    }
+
+
+    private static File getCacheFile(StandardContext ctx) {
+        File workDir = (File) ctx.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        return new File(workDir, TldScanCache.FILE_NAME);
+    }
+
+
+    private File createWebapp() throws IOException {
+        File appDir = new File(getTemporaryDirectory(), "tld-scan-cache");
+        addDeleteOnTearDown(appDir);
+        Assert.assertTrue(new File(appDir, "WEB-INF/lib").mkdirs());
+        Files.write(new File(appDir, "echo.jsp").toPath(), JSP.getBytes(StandardCharsets.UTF_8));
+        writeJar(new File(appDir, "WEB-INF/lib/tags.jar"), true);
+        return appDir;
+    }
+
+
+    private static void writeJar(File jar, boolean includeListener) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            addTld(out, "tags21.tld");
+            if (includeListener) {
+                addTld(out, "listener.tld");
+            }
+        }
+    }
+
+
+    private static void addTld(JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry("META-INF/" + name));
+        Files.copy(new File("test/webapp-3.0/WEB-INF/" + name).toPath(), out);
+        out.closeEntry();
+    }
+}
@@ -56,4 +56,21 @@ public class TestOut extends AbstractTestTag {
         Assert.assertTrue(body.contains("OK - 4"));
         Assert.assertFalse(body.contains("FAIL"));
     }
+
+
+    @Test
+    public void testEscapeXml() throws Exception {
+        ByteChunk res = new ByteChunk();
+
+        int rc = getUrl("http://localhost:" + getPort() +
+                "/test/jsp/tagplugins/out-01.jsp", res, null);
+
+        Assert.assertEquals(HttpServletResponse.SC_OK, rc);
+
+        String body = res.toString();
+        Assert.assertTrue(body, body.contains("[a&lt;b&gt;&amp;&#034;c&#039;d]"));
+        Assert.assertTrue(body, body.contains("[a<b>&\"c'd]"));
+        Assert.assertTrue(body, body.contains("[&lt;r&gt;&amp;]"));
+        Assert.assertTrue(body, body.contains("[plain]"));
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testGetBucket() {
+        Assert.assertEquals(0, LatencyHistogram.getBucket(0));
+        Assert.assertEquals(0, LatencyHistogram.getBucket(1));
+        Assert.assertEquals(1, LatencyHistogram.getBucket(2));
+        Assert.assertEquals(2, LatencyHistogram.getBucket(3));
+        Assert.assertEquals(2, LatencyHistogram.getBucket(4));
+        Assert.assertEquals(3, LatencyHistogram.getBucket(5));
+        Assert.assertEquals(10, LatencyHistogram.getBucket(1024));
+        Assert.assertEquals(11, LatencyHistogram.getBucket(1025));
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 2,
+                LatencyHistogram.getBucket(LatencyHistogram.getUpperBound(LatencyHistogram.BUCKET_COUNT - 2)));
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+    }
+
+
+    @Test
+    public void testUpperBound() {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT - 1; i++) {
+            long upperBound = LatencyHistogram.getUpperBound(i);
+            Assert.assertEquals(i, LatencyHistogram.getBucket(upperBound));
+            Assert.assertEquals(i + 1, LatencyHistogram.getBucket(upperBound + 1));
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBound(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+
+    @Test
+    public void testRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // Rounded up to whole microseconds
+        histogram.record(1);
+        histogram.record(1_000);
+        histogram.record(1_001);
+        histogram.record(3_000_000);
+        histogram.record(-5);
+
+        long[] snapshot = histogram.getSnapshot();
+        Assert.assertEquals(LatencyHistogram.SNAPSHOT_LENGTH, snapshot.length);
+        Assert.assertEquals(3, snapshot[0]);
+        Assert.assertEquals(1, snapshot[1]);
+        Assert.assertEquals(1, snapshot[LatencyHistogram.getBucket(3_000)]);
+        Assert.assertEquals(5, LatencyHistogram.getCount(snapshot));
+        Assert.assertEquals(1 + 1 + 2 + 3_000, LatencyHistogram.getSum(snapshot));
+
+        histogram.reset();
+        Assert.assertEquals(0, LatencyHistogram.getCount(histogram.getSnapshot()));
+        Assert.assertEquals(0, LatencyHistogram.getSum(histogram.getSnapshot()));
+    }
+
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, LatencyHistogram.getPercentile(histogram.getSnapshot(), 50));
+
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(10_000_000);
+        }
+        long[] snapshot = histogram.getSnapshot();
+        Assert.assertEquals(128, LatencyHistogram.getPercentile(snapshot, 50));
+        Assert.assertEquals(128, LatencyHistogram.getPercentile(snapshot, 90));
+        Assert.assertEquals(16384, LatencyHistogram.getPercentile(snapshot, 91));
+        Assert.assertEquals(16384, LatencyHistogram.getPercentile(snapshot, 100));
+    }
+
+
+    @Test
+    public void testAdd() {
+        LatencyHistogram histogram1 = new LatencyHistogram();
+        LatencyHistogram histogram2 = new LatencyHistogram();
+        histogram1.record(1_000);
+        histogram2.record(1_000);
+        histogram2.record(1_000_000);
+
+        long[] total = new long[LatencyHistogram.SNAPSHOT_LENGTH];
+        LatencyHistogram.add(total, histogram1.getSnapshot());
+        LatencyHistogram.add(total, histogram2.getSnapshot());
+
+        Assert.assertEquals(2, total[0]);
+        Assert.assertEquals(1, total[LatencyHistogram.getBucket(1_000)]);
+        Assert.assertEquals(3, LatencyHistogram.getCount(total));
+        Assert.assertEquals(1_002, LatencyHistogram.getSum(total));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+/*
+ * This is an absolute performance test. There is no benefit it running it as part of a standard test run so it is
+ * excluded due to the name starting Tester...
+ *
+ * Compares the cost of recording a duration in a histogram with the cost of the LongAdder that was already used to
+ * record the total processing time.
+ */
+public class TesterLatencyHistogramPerformance {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ITERATIONS = 10_000_000;
+
+    @Test
+    public void testRecord() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder adder = new LongAdder();
+
+        for (int i = 0; i < 3; i++) {
+            long histogramTime = run(() -> {
+                for (int j = 0; j < ITERATIONS; j++) {
+                    histogram.record(j & 0xFFFFF);
+                }
+            });
+            long adderTime = run(() -> {
+                for (int j = 0; j < ITERATIONS; j++) {
+                    adder.add(j & 0xFFFFF);
+                }
+            });
+            System.out.println(THREAD_COUNT + " threads, " + ITERATIONS + " values per thread: histogram " +
+                    String.format("%.1f", (double) histogramTime / ITERATIONS) + "ns per value, LongAdder " +
+                    String.format("%.1f", (double) adderTime / ITERATIONS) + "ns per value");
+        }
+    }
+
+
+    private static long run(Runnable task) throws InterruptedException {
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            threads[i] = new Thread(task);
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -21,9 +21,13 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -32,6 +36,9 @@ import org.apache.tomcat.util.descriptor.DigesterFactory;
 import org.apache.tomcat.util.descriptor.XmlErrorHandler;
 import org.apache.tomcat.util.descriptor.XmlIdentifiers;
 import org.apache.tomcat.util.digester.Digester;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
@@ -500,6 +507,69 @@ public class TestWebXml {
     }
 
 
+    @Test
+    public void testToXmlRoundTrip() throws Exception {
+        File file = new File("test/org/apache/tomcat/util/descriptor/web/web-all-elements.xml");
+        WebXml original = parse(new InputSource(file.toURI().toString()));
+
+        String xml = original.toXml();
+        WebXml result = parse(new InputSource(new StringReader(xml)));
+
+        // Every element of the original must be written
+        Set<String> expected = getElementPaths(new InputSource(file.toURI().toString()));
+        Set<String> actual = getElementPaths(new InputSource(new StringReader(xml)));
+        expected.removeAll(actual);
+        Assert.assertEquals(Collections.emptySet(), expected);
+
+        // and have the same value once parsed
+        Assert.assertEquals(xml, result.toXml());
+
+        Assert.assertEquals("Strict", result.getSessionConfig().getCookieAttribute("SameSite"));
+        Assert.assertEquals(Boolean.TRUE,
+                result.getJspPropertyGroups().iterator().next().getErrorOnELNotFound());
+        ContextService serviceRef = result.getServiceRefs().get("serviceRef");
+        Assert.assertEquals("http://example.org/service", serviceRef.getServiceqnameNamespaceURI());
+        Assert.assertEquals("Service", serviceRef.getServiceqnameLocalpart());
+        ContextHandler handler = serviceRef.getHandler("handler");
+        Assert.assertEquals("handlerValue", handler.getProperty("handlerParam"));
+        Assert.assertEquals("http://example.org/service", handler.getNamespaceuri("Header"));
+        Assert.assertEquals("soapRole", handler.getSoapRole(0));
+        Assert.assertEquals("portName", handler.getPortName(0));
+    }
+
+    private WebXml parse(InputSource is) throws IOException, SAXException {
+        Digester digester = DigesterFactory.newDigester(true, true, new WebRuleSet(), true);
+        XmlErrorHandler handler = new XmlErrorHandler();
+        digester.setErrorHandler(handler);
+        WebXml webXml = new WebXml();
+        digester.push(webXml);
+        digester.parse(is);
+        Assert.assertEquals(0, handler.getErrors().size());
+        Assert.assertEquals(0, handler.getWarnings().size());
+        return webXml;
+    }
+
+    private Set<String> getElementPaths(InputSource is) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(is);
+        Set<String> paths = new TreeSet<>();
+        addElementPaths(document.getDocumentElement(), "", paths);
+        return paths;
+    }
+
+    private void addElementPaths(Element element, String parentPath, Set<String> paths) {
+        String path = parentPath + "/" + element.getLocalName();
+        paths.add(path);
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element) {
+                addElementPaths((Element) children.item(i), path, paths);
+            }
+        }
+    }
+
+
     @Test
     public void testEncoding() {
         WebXml webXml = new WebXml();
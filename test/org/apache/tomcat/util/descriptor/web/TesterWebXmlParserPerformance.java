@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util.descriptor.web;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.xml.sax.InputSource;
+
+/*
+ * This is an absolute performance test. There is no benefit it running it as part of a standard test run so it is
+ * excluded due to the name starting Tester...
+ */
+public class TesterWebXmlParserPerformance {
+
+    private static final int SERVLET_COUNT = 2000;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void testParseLargeWebXml() throws Exception {
+        String xml = createWebXml(SERVLET_COUNT);
+        WebXmlParser parser = new WebXmlParser(false, false, true);
+
+        // Warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            parse(parser, xml);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parse(parser, xml);
+        }
+        long duration = System.nanoTime() - start;
+
+        double seconds = duration / 1_000_000_000.0;
+        System.out.println("Parsed web.xml of " + xml.length() + " chars with " + SERVLET_COUNT + " servlets " +
+                ITERATIONS + " times in " + (duration / 1_000_000) + "ms: " +
+                String.format("%.1f", ITERATIONS / seconds) + " parses/s, " +
+                String.format("%.1f", xml.length() * (double) ITERATIONS / seconds / (1024 * 1024)) + " MB/s");
+    }
+
+
+    private static void parse(WebXmlParser parser, String xml) {
+        WebXml webXml = new WebXml();
+        Assert.assertTrue(parser.parseWebXml(new InputSource(new StringReader(xml)), webXml, false));
+        Assert.assertEquals(SERVLET_COUNT, webXml.getServlets().size());
+    }
+
+
+    private static String createWebXml(int servletCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<web-app xmlns=\"https://jakarta.ee/xml/ns/jakartaee\" version=\"6.0\">\n");
+        for (int i = 0; i < servletCount; i++) {
+            sb.append("  <context-param>\n");
+            sb.append("    <param-name>param").append(i).append("</param-name>\n");
+            sb.append("    <param-value>value").append(i).append("</param-value>\n");
+            sb.append("  </context-param>\n");
+            sb.append("  <filter>\n");
+            sb.append("    <filter-name>filter").append(i).append("</filter-name>\n");
+            sb.append("    <filter-class>org.example.Filter").append(i).append("</filter-class>\n");
+            sb.append("    <async-supported>true</async-supported>\n");
+            sb.append("    <init-param>\n");
+            sb.append("      <param-name>name</param-name>\n");
+            sb.append("      <param-value>value</param-value>\n");
+            sb.append("    </init-param>\n");
+            sb.append("  </filter>\n");
+            sb.append("  <filter-mapping>\n");
+            sb.append("    <filter-name>filter").append(i).append("</filter-name>\n");
+            sb.append("    <url-pattern>/filter").append(i).append("/*</url-pattern>\n");
+            sb.append("    <dispatcher>REQUEST</dispatcher>\n");
+            sb.append("  </filter-mapping>\n");
+            sb.append("  <servlet>\n");
+            sb.append("    <servlet-name>servlet").append(i).append("</servlet-name>\n");
+            sb.append("    <servlet-class>org.example.Servlet").append(i).append("</servlet-class>\n");
+            sb.append("    <init-param>\n");
+            sb.append("      <param-name>name</param-name>\n");
+            sb.append("      <param-value>value</param-value>\n");
+            sb.append("    </init-param>\n");
+            sb.append("    <load-on-startup>1</load-on-startup>\n");
+            sb.append("    <async-supported>true</async-supported>\n");
+            sb.append("  </servlet>\n");
+            sb.append("  <servlet-mapping>\n");
+            sb.append("    <servlet-name>servlet").append(i).append("</servlet-name>\n");
+            sb.append("    <url-pattern>/servlet").append(i).append("</url-pattern>\n");
+            sb.append("  </servlet-mapping>\n");
+            sb.append("  <security-constraint>\n");
+            sb.append("    <web-resource-collection>\n");
+            sb.append("      <web-resource-name>resource").append(i).append("</web-resource-name>\n");
+            sb.append("      <url-pattern>/secure").append(i).append("/*</url-pattern>\n");
+            sb.append("      <http-method>GET</http-method>\n");
+            sb.append("    </web-resource-collection>\n");
+            sb.append("    <auth-constraint>\n");
+            sb.append("      <role-name>role").append(i).append("</role-name>\n");
+            sb.append("    </auth-constraint>\n");
+            sb.append("  </security-constraint>\n");
+            sb.append("  <env-entry>\n");
+            sb.append("    <env-entry-name>entry").append(i).append("</env-entry-name>\n");
+            sb.append("    <env-entry-type>java.lang.String</env-entry-type>\n");
+            sb.append("    <env-entry-value>value").append(i).append("</env-entry-value>\n");
+            sb.append("  </env-entry>\n");
+        }
+        sb.append("</web-app>\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util.scan;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.catalina.startup.ExpandWar;
+
+public class TestJarScanCache {
+
+    private File dir;
+    private File jar;
+    private URL jarUrl;
+
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("jarScanCache").toFile();
+        jar = new File(dir, "test.jar");
+        Files.write(jar.toPath(), "jar".getBytes(StandardCharsets.ISO_8859_1));
+        jarUrl = new URL("jar:" + jar.toURI() + "!/");
+    }
+
+
+    @After
+    public void tearDown() {
+        ExpandWar.delete(dir);
+    }
+
+
+    @Test
+    public void testGetFile() throws Exception {
+        Assert.assertEquals(jar, JarScanCache.getFile(jarUrl));
+        Assert.assertEquals(jar, JarScanCache.getFile(jar.toURI().toURL()));
+        Assert.assertNull(JarScanCache.getFile(dir.toURI().toURL()));
+        Assert.assertNull(JarScanCache.getFile(new URL("jar:" + jar.toURI() + "!/nested.jar")));
+        Assert.assertNull(JarScanCache.getFile(new URL("http://localhost/test.jar")));
+    }
+
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        TesterJarScanCache cache = TesterJarScanCache.load(dir);
+        Assert.assertNull(cache.get(jarUrl));
+        cache.put(jarUrl, "value");
+        cache.save();
+
+        cache = TesterJarScanCache.load(dir);
+        Assert.assertEquals("value", cache.get(jarUrl));
+    }
+
+
+    @Test
+    public void testChangedJar() throws Exception {
+        TesterJarScanCache cache = TesterJarScanCache.load(dir);
+        cache.put(jarUrl, "value");
+        cache.save();
+
+        Files.write(jar.toPath(), "changed".getBytes(StandardCharsets.ISO_8859_1));
+
+        cache = TesterJarScanCache.load(dir);
+        Assert.assertNull(cache.get(jarUrl));
+    }
+
+
+    @Test
+    public void testUnusedJarDiscarded() throws Exception {
+        TesterJarScanCache cache = TesterJarScanCache.load(dir);
+        cache.put(jarUrl, "value");
+        cache.save();
+
+        // Nothing used so the JAR is removed from the cache file
+        TesterJarScanCache.load(dir).save();
+
+        cache = TesterJarScanCache.load(dir);
+        Assert.assertNull(cache.get(jarUrl));
+    }
+
+
+    @Test
+    public void testWrongType() throws Exception {
+        TesterJarScanCache cache = TesterJarScanCache.load(dir);
+        cache.put(jarUrl, "value");
+        cache.save();
+
+        OtherJarScanCache other = new OtherJarScanCache(new File(dir, TesterJarScanCache.FILE_NAME));
+        other.load();
+        Assert.assertNull(other.get(jarUrl));
+    }
+
+
+    @Test
+    public void testCorrupt() throws Exception {
+        Files.write(new File(dir, TesterJarScanCache.FILE_NAME).toPath(), new byte[] { 1, 2, 3 });
+        TesterJarScanCache cache = TesterJarScanCache.load(dir);
+        Assert.assertNull(cache.get(jarUrl));
+    }
+
+
+    private static class TesterJarScanCache extends JarScanCache<String> {
+
+        private static final String FILE_NAME = "test-scan.cache";
+
+        private TesterJarScanCache(File file) {
+            super(file, 0x54455354, 1);
+        }
+
+        private static TesterJarScanCache load(File dir) {
+            TesterJarScanCache cache = new TesterJarScanCache(new File(dir, FILE_NAME));
+            cache.load();
+            return cache;
+        }
+
+        @Override
+        protected String readValue(DataInputStream in) throws IOException {
+            return in.readUTF();
+        }
+
+        @Override
+        protected void writeValue(DataOutputStream out, String value) throws IOException {
+            out.writeUTF(value);
+        }
+    }
+
+
+    private static class OtherJarScanCache extends JarScanCache<Integer> {
+
+        private OtherJarScanCache(File file) {
+            super(file, 0x4f544852, 1);
+        }
+
+        @Override
+        protected Integer readValue(DataInputStream in) throws IOException {
+            return Integer.valueOf(in.readInt());
+        }
+
+        @Override
+        protected void writeValue(DataOutputStream out, Integer value) throws IOException {
+            out.writeInt(value.intValue());
+        }
+    }
+}
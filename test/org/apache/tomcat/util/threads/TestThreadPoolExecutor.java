@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestThreadPoolExecutor {
+
+    @Test
+    public void testTaskCounts() throws Exception {
+        TaskQueue queue = new TaskQueue(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, queue,
+                new TaskThreadFactory("test-exec-", true, Thread.NORM_PRIORITY));
+        queue.setParent(executor);
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            executor.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+            Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, executor.getSaturatedTaskCount());
+
+            // The only thread is busy so this task has to wait in the queue
+            executor.execute(done::countDown);
+            Assert.assertEquals(1, executor.getSaturatedTaskCount());
+
+            // The queue is full so this task is rejected
+            try {
+                executor.execute(done::countDown);
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+                // Expected
+            }
+            Assert.assertEquals(2, executor.getSaturatedTaskCount());
+            Assert.assertEquals(1, executor.getRejectedTaskCount());
+            Assert.assertEquals(0, executor.getForcedTaskCount());
+
+            release.countDown();
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, executor.getSubmittedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}